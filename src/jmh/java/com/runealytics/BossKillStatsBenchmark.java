@@ -0,0 +1,77 @@
+package com.runealytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Panel-side aggregation in {@link BossKillStats}: reading the per-item
+ * totals the loot panel renders, and folding a new kill into them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BossKillStatsBenchmark
+{
+    @Param({"1000", "10000", "100000"})
+    public int kills;
+
+    private List<BossKillStats> bosses;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        LootStorageData data = SyntheticLoot.history(kills, 42L);
+        bosses = new ArrayList<>();
+        for (LootStorageData.BossKillData bd : data.getBossKills().values())
+        {
+            BossKillStats stats = new BossKillStats(bd.getNpcName(), bd.getNpcId());
+            for (LootStorageData.KillRecord kill : bd.getKills())
+            {
+                stats.addKill(kill);
+            }
+            bosses.add(stats);
+        }
+        random = new SplittableRandom(7L);
+    }
+
+    /** What a full panel refresh reads: every boss's unsorted totals. */
+    @Benchmark
+    public int getAggregatedDropsAllBosses()
+    {
+        int items = 0;
+        for (BossKillStats stats : bosses)
+        {
+            items += stats.getAggregatedDrops().size();
+        }
+        return items;
+    }
+
+    /** One boss container's display-ordered totals after a new kill. */
+    @Benchmark
+    public List<BossKillStats.AggregatedDrop> addKillThenSortedDrops()
+    {
+        BossKillStats stats = bosses.get(random.nextInt(bosses.size()));
+        LootStorageData.KillRecord kill = new LootStorageData.KillRecord();
+        kill.setDrops(SyntheticLoot.drops(random));
+        stats.addKill(kill);
+        return stats.getAggregatedDropsSorted();
+    }
+}
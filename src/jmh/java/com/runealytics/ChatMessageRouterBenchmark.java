@@ -0,0 +1,148 @@
+package com.runealytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-message cost of deciding which chat handlers a game message goes to,
+ * over a corpus shaped like a raid / minigame chat log: mostly combat and
+ * skilling spam, with the occasional kill count, drop or death message.
+ *
+ * <p>{@code substringChain} replays the checks the handlers used to make on
+ * every line (lower-casing, the death guard's tag strip, then each
+ * {@code contains}); {@code keywordRouter} is the single automaton pass that
+ * replaced them.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatMessageRouterBenchmark
+{
+    private static final int MESSAGES = 4_096;
+
+    /** Routine spam: the bulk of GAMEMESSAGE / SPAM traffic in a busy area. */
+    private static final String[] SPAM = {
+            "You eat the shark.",
+            "It heals some health.",
+            "You drink some of your super combat potion.",
+            "You have 3 doses of potion left.",
+            "<col=ef1020>Your prayer is running low.</col>",
+            "You catch a swordfish.",
+            "You manage to mine some runite.",
+            "Your Dragon pickaxe glows brightly.",
+            "You light the brazier.",
+            "The brazier is broken and shrapnel damages you.",
+            "You fix the brazier.",
+            "You have run out of prayer points, you can recharge at an altar.",
+            "Your Blowpipe has 12,345 darts and 8,000 scales.",
+            "<col=006600>Your Thrall returns to the grave.</col>",
+            "You feel the effects of the Antifire potion wearing off.",
+            "The Great Olm's left claw clenches to protect itself temporarily.",
+            "Your party failed to complete the challenge.",
+            "You are too busy to do that right now.",
+    };
+
+    /** Lines some handler cares about. */
+    private static final String[] RELEVANT = {
+            "Your <col=ff0000>Vorkath</col> kill count is: <col=ff0000>1,234</col>.",
+            "Your completed Chambers of Xeric count is: 57.",
+            "Congratulations - your raid is complete!",
+            "Oh dear, you are dead!",
+            "You have helped to subdue the spirit of Tempoross!",
+            "You have earned a supply crate from the Wintertodt.",
+            "Your ring of wealth has automatically picked up the coins.",
+            "You have a funny feeling like you're being followed.",
+    };
+
+    private final List<String> corpus = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        SplittableRandom random = new SplittableRandom(42L);
+        for (int i = 0; i < MESSAGES; i++)
+        {
+            // ~1 line in 40 is relevant, about what a raid log shows.
+            corpus.add(random.nextInt(40) == 0
+                    ? RELEVANT[random.nextInt(RELEVANT.length)]
+                    : SPAM[random.nextInt(SPAM.length)]);
+        }
+    }
+
+    private String nextMessage()
+    {
+        return corpus.get(next++ & (MESSAGES - 1));
+    }
+
+    @Benchmark
+    public long keywordRouter()
+    {
+        long keywords = ChatMessageRouter.scan(nextMessage());
+        if (keywords == 0L) return 0L;
+        String chest = ChatMessageRouter.chestSource(keywords);
+        return keywords ^ (chest != null ? chest.length() : 0);
+    }
+
+    @Benchmark
+    public long substringChain()
+    {
+        String msg = nextMessage();
+        long hits = 0L;
+
+        String guard = msg.toLowerCase().replaceAll("<[^>]+>", "").trim();
+        if (guard.contains("oh dear, you are dead!") || guard.contains("you have died.")) hits |= 1L;
+        else if (guard.contains("your gravestone has been reclaimed")
+                || guard.contains("your gravestone has collapsed")) hits |= 2L;
+
+        String lower = msg.toLowerCase();
+        if (lower.contains("subdued the spirit") || lower.contains("you have helped to subdue")) return hits | 4L;
+        if (lower.contains("supply crate") && lower.contains("wintertodt")) return hits | 8L;
+        if (lower.contains("whisperer") && lower.contains("kill count")) return hits | 16L;
+        if (lower.contains("funny feeling like you're being followed")
+                || lower.contains("sneaking into your backpack")) return hits | 32L;
+        if (lower.contains("ring of wealth")
+                && (lower.contains("automatically picked up") || lower.contains("automatically alched")))
+            return hits | 64L;
+        if (lower.contains("count is")) hits |= 128L;
+
+        String chest = legacyChestSource(lower);
+        return hits ^ (chest != null ? chest.length() : 0);
+    }
+
+    private static String legacyChestSource(String lower)
+    {
+        if (lower.contains("wintertodt")) return "Wintertodt";
+        if (lower.contains("subdued the spirit") || lower.contains("you have helped to subdue")) return "Tempoross";
+        if (lower.contains("zalcano") && (lower.contains("loot") || lower.contains("defeated"))) return "Zalcano";
+        if (lower.contains("congratulations - your raid is complete")
+                || lower.contains("congratulations! your raid is complete")) return "Chambers of Xeric";
+        if (lower.contains("theatre of blood") && lower.contains("complete")) return "Theatre of Blood";
+        if (lower.contains("tombs of amascut") && lower.contains("complete")) return "Tombs of Amascut";
+        if (lower.contains("gauntlet") && lower.contains("complete"))
+            return lower.contains("corrupted") ? "Corrupted Gauntlet" : "The Gauntlet";
+        if (lower.contains("phosani") && lower.contains("defeated")) return "Phosani's Nightmare";
+        if (lower.contains("nightmare") && lower.contains("defeated")) return "The Nightmare";
+        if (lower.contains("royal titans") || lower.contains("eldric the ice king")
+                || lower.contains("branda the fire queen")) return "Royal Titans";
+        if (lower.contains("colosseum") || lower.contains("fortis")) return "Fortis Colosseum";
+        if (lower.contains("treasure trail")) return "Clue Scroll";
+        return null;
+    }
+}
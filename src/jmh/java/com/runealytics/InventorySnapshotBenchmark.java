@@ -0,0 +1,141 @@
+package com.runealytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One {@code ItemContainerChanged} worth of inventory diffing on a full
+ * 28-slot inventory: {@link InventorySnapshot} against the boxed
+ * {@code HashMap} diff it replaced. Run with {@code -Pjmh.prof=gc} to see
+ * bytes allocated per diff ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventorySnapshotBenchmark
+{
+    private static final int SLOTS = 28;
+
+    private final InventorySnapshot.Capture capture = new InventorySnapshot.Capture();
+
+    private int[] beforeIds;
+    private int[] beforeQty;
+    /** Same items as before, coins stack grown and one new drop in the last slot. */
+    private int[] afterIds;
+    private int[] afterQty;
+
+    private InventorySnapshot before;
+    private InventorySnapshot after;
+    private InventorySnapshot unequipped;
+
+    private List<ItemStack> beforeList;
+    private List<ItemStack> afterList;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        SplittableRandom random = new SplittableRandom(42L);
+        beforeIds = new int[SLOTS];
+        beforeQty = new int[SLOTS];
+        for (int i = 0; i < SLOTS - 1; i++)
+        {
+            // Mostly unstackable supplies repeated across slots, plus coins.
+            beforeIds[i] = i == 0 ? 995 : 385 + random.nextInt(6);
+            beforeQty[i] = i == 0 ? 10_000 : 1;
+        }
+        beforeIds[SLOTS - 1] = -1;
+
+        afterIds = beforeIds.clone();
+        afterQty = beforeQty.clone();
+        afterQty[0] += 2_500;
+        afterIds[SLOTS - 1] = 4_151;
+        afterQty[SLOTS - 1] = 1;
+
+        before     = capture.of(beforeIds, beforeQty, null);
+        after      = capture.of(afterIds, afterQty, null);
+        unequipped = capture.of(new int[]{4_151}, new int[]{1}, null);
+
+        beforeList = toList(beforeIds, beforeQty);
+        afterList  = toList(afterIds, afterQty);
+    }
+
+    private static List<ItemStack> toList(int[] ids, int[] qty)
+    {
+        List<ItemStack> out = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++)
+        {
+            if (ids[i] > 0 && qty[i] > 0) out.add(new ItemStack(ids[i], qty[i]));
+        }
+        return out;
+    }
+
+    /** Re-reading a container that has not changed since the last read. */
+    @Benchmark
+    public InventorySnapshot captureUnchanged()
+    {
+        return capture.of(beforeIds, beforeQty, before);
+    }
+
+    @Benchmark
+    public InventorySnapshot captureChanged()
+    {
+        return capture.of(afterIds, afterQty, before);
+    }
+
+    /** The common event: nothing gained for this diff path. */
+    @Benchmark
+    public InventorySnapshot gainedNothing()
+    {
+        return InventorySnapshot.gained(after, before);
+    }
+
+    @Benchmark
+    public InventorySnapshot gainedDrop()
+    {
+        return InventorySnapshot.gained(before, after);
+    }
+
+    /** Gain with the unequipped whip stripped back out. */
+    @Benchmark
+    public InventorySnapshot gainedMinusUnequipped()
+    {
+        return InventorySnapshot.gained(before, after).minus(unequipped);
+    }
+
+    /** Baseline: the previous boxed-map diff over {@link ItemStack} lists. */
+    @Benchmark
+    public List<ItemStack> mapDiffBaseline()
+    {
+        Map<Integer, Integer> beforeMap = new HashMap<>();
+        for (ItemStack i : beforeList) beforeMap.merge(i.getId(), i.getQuantity(), Integer::sum);
+
+        Map<Integer, Integer> afterMap = new HashMap<>();
+        for (ItemStack i : afterList) afterMap.merge(i.getId(), i.getQuantity(), Integer::sum);
+
+        List<ItemStack> gained = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> e : afterMap.entrySet())
+        {
+            int delta = e.getValue() - beforeMap.getOrDefault(e.getKey(), 0);
+            if (delta > 0) gained.add(new ItemStack(e.getKey(), delta));
+        }
+        return gained;
+    }
+}
@@ -0,0 +1,172 @@
+package com.runealytics;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link LootStorageManager} over synthetic histories: the per-kill write
+ * path the client thread pays for, plus the whole-file save, load and server
+ * merge that scale with history size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LootStorageBenchmark
+{
+    @Param({"1000", "10000", "100000"})
+    public int kills;
+
+    @Param({"false", "true"})
+    public boolean binary;
+
+    private File dir;
+    private LootStorageManager manager;
+    private SplittableRandom random;
+    private int killNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        dir = SyntheticLoot.storageDirWith(SyntheticLoot.history(kills, 42L));
+        manager = newManager();
+        manager.loadData();
+        // Convert the seeded JSON file when benchmarking the binary format.
+        manager.flushNow();
+        random = new SplittableRandom(7L);
+        killNumber = kills;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        manager.shutdown();
+        SyntheticLoot.delete(dir);
+    }
+
+    private LootStorageManager newManager()
+    {
+        LootStorageManager m = new LootStorageManager(SyntheticLoot.state(), new Gson(), dir);
+        m.setBinaryFormatEnabled(binary);
+        return m;
+    }
+
+    /** Client-thread cost of one kill: in-memory apply plus journal enqueue. */
+    @Benchmark
+    public void addKill()
+    {
+        String boss = SyntheticLoot.bossName(random.nextInt(SyntheticLoot.BOSSES));
+        manager.addKill(boss, 1_000, 100, ++killNumber, 330, 0, SyntheticLoot.drops(random));
+    }
+
+    /** Full snapshot: capture under the lock, stream to disk, rename. */
+    @Benchmark
+    public void saveData()
+    {
+        manager.saveData();
+    }
+
+    /** Login-time load of the snapshot written in setup. */
+    @Benchmark
+    public LootStorageData loadData()
+    {
+        return newManager().loadData();
+    }
+
+    /** Server merge where every boss is one kill behind the server. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void mergeServerData(MergeState merge)
+    {
+        merge.manager.mergeServerData(merge.serverData);
+    }
+
+    /**
+     * Each invocation merges into a fresh copy of the seeded snapshot, since
+     * a merge both mutates the history and saves it.
+     */
+    @State(Scope.Thread)
+    public static class MergeState
+    {
+        File dir;
+        byte[] seeded;
+        String fileName;
+        boolean binary;
+        LootStorageManager manager;
+        Map<String, LootStorageData.BossKillData> serverData;
+
+        @Setup(Level.Trial)
+        public void setUpTrial(LootStorageBenchmark outer) throws Exception
+        {
+            binary = outer.binary;
+            fileName = "runealytics-loot-" + SyntheticLoot.USERNAME.toLowerCase() + (binary ? ".bin" : ".json");
+            seeded = Files.readAllBytes(new File(outer.dir, fileName).toPath());
+            dir = Files.createTempDirectory("runealytics-jmh-merge").toFile();
+        }
+
+        @Setup(Level.Invocation)
+        public void setUp() throws Exception
+        {
+            Files.write(new File(dir, fileName).toPath(), seeded);
+            manager = new LootStorageManager(SyntheticLoot.state(), new Gson(), dir);
+            manager.setBinaryFormatEnabled(binary);
+            manager.loadData();
+
+            SplittableRandom random = new SplittableRandom(11L);
+            serverData = new HashMap<>();
+            for (Map.Entry<String, LootStorageData.BossKillData> e
+                    : manager.getCurrentData().getBossKills().entrySet())
+            {
+                LootStorageData.BossKillData local = e.getValue();
+                LootStorageData.BossKillData server = new LootStorageData.BossKillData();
+                server.setNpcName(local.getNpcName());
+                server.setNpcId(local.getNpcId());
+                server.setKillCount(local.getKillCount() + 1);
+
+                for (LootStorageData.KillRecord kill : local.getKills())
+                {
+                    server.getKills().add(kill.withDrops(kill.getDrops()));
+                }
+
+                LootStorageData.KillRecord extra = new LootStorageData.KillRecord();
+                extra.setTimestamp(System.currentTimeMillis());
+                extra.setKillNumber(local.getKillCount() + 1);
+                extra.setDrops(SyntheticLoot.drops(random));
+                server.getKills().add(extra);
+                serverData.put(e.getKey(), server);
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown()
+        {
+            manager.shutdown();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws Exception
+        {
+            SyntheticLoot.delete(dir);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.runealytics;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.util.SplittableRandom;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.Client;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.config.ConfigManager;
+import net.runelite.client.game.ItemManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * {@link LootTrackerManager#recordKill} end to end — KC correlation, stats
+ * update and, via {@link LootTrackerManager#commitTickBatch}, the storage
+ * write — as the client thread runs it on every loot event. {@code aoeTick}
+ * is one tick of {@value #AOE_KILLS} kills committed together, reported per
+ * kill. With {@code writerThread} the calling thread only captures and
+ * queues each kill; once the writer falls a ring behind, submitting waits
+ * for it, so the steady state still reports the writer's throughput. The
+ * RuneLite client is mocked (no local player, so no location) and storage is
+ * a real {@link LootStorageManager} over a synthetic history.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LootTrackerManagerBenchmark
+{
+    private static final int AOE_KILLS = 8;
+
+    @Param({"1000", "10000", "100000"})
+    public int kills;
+
+    @Param({"false", "true"})
+    public boolean writerThread;
+
+    private File dir;
+    private LootStorageManager storage;
+    private LootTrackerManager manager;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        dir = SyntheticLoot.storageDirWith(SyntheticLoot.history(kills, 42L));
+        RuneAlyticsState state = SyntheticLoot.state();
+        storage = new LootStorageManager(state, new Gson(), dir);
+        storage.loadData();
+
+        manager = new LootTrackerManager(
+                mock(Client.class),
+                mock(ClientThread.class),
+                mock(ItemManager.class),
+                mock(ItemValueCache.class),
+                mock(RunealyticsConfig.class),
+                state,
+                storage,
+                mock(LootTrackerApiClient.class),
+                mock(ConfigManager.class),
+                mock(ScheduledExecutorService.class),
+                new Gson(),
+                new PluginMetrics());
+        manager.setWriterThreadEnabled(writerThread);
+        random = new SplittableRandom(7L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        manager.setWriterThreadEnabled(false);
+        storage.shutdown();
+        SyntheticLoot.delete(dir);
+    }
+
+    @Benchmark
+    public void recordKill()
+    {
+        recordRandomKill();
+        manager.commitTickBatch();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AOE_KILLS)
+    public void aoeTick()
+    {
+        for (int i = 0; i < AOE_KILLS; i++) recordRandomKill();
+        manager.commitTickBatch();
+    }
+
+    private void recordRandomKill()
+    {
+        int boss = random.nextInt(SyntheticLoot.BOSSES);
+        manager.recordKill(SyntheticLoot.bossName(boss), 1_000 + boss, 100, 330, SyntheticLoot.drops(random), -1);
+    }
+}
@@ -0,0 +1,162 @@
+package com.runealytics;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link RewardBatchDeduplicator} on the chest/widget loot path: the
+ * fingerprint alone, and a check against a full window of remembered
+ * batches. The {@code sha256*} benchmarks run the previous implementation
+ * (SHA-256 hex over a {@code TreeMap} multiset, kept in an insertion-ordered
+ * {@code LinkedHashMap}) on the same batches for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RewardBatchDeduplicatorBenchmark
+{
+    private static final int BATCHES = 1_024;
+
+    private final List<List<ItemStack>> batches = new ArrayList<>();
+    private RewardBatchDeduplicator deduplicator;
+    private Sha256Deduplicator sha256;
+    private int next;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        SplittableRandom random = new SplittableRandom(42L);
+        for (int i = 0; i < BATCHES; i++)
+        {
+            batches.add(SyntheticLoot.itemStacks(random));
+        }
+
+        deduplicator = new RewardBatchDeduplicator();
+        sha256 = new Sha256Deduplicator();
+        now = 1_700_000_000_000L;
+        for (List<ItemStack> batch : batches)
+        {
+            deduplicator.isDuplicate("Barrows", batch, now);
+            sha256.isDuplicate("Barrows", batch, now);
+            now++;
+        }
+    }
+
+    @Benchmark
+    public long fingerprint()
+    {
+        return RewardBatchDeduplicator.fingerprint("Barrows", batches.get(next++ & (BATCHES - 1)));
+    }
+
+    /** Mix of repeats and new batches while the window stays full. */
+    @Benchmark
+    public boolean isDuplicate()
+    {
+        return deduplicator.isDuplicate("Barrows", batches.get(next++ & (BATCHES - 1)), now += 50);
+    }
+
+    @Benchmark
+    public String sha256Fingerprint()
+    {
+        return Sha256Deduplicator.fingerprint("Barrows", batches.get(next++ & (BATCHES - 1)));
+    }
+
+    @Benchmark
+    public boolean sha256IsDuplicate()
+    {
+        return sha256.isDuplicate("Barrows", batches.get(next++ & (BATCHES - 1)), now += 50);
+    }
+
+    /** The deduplicator as it was before 64-bit fingerprints, for the baseline. */
+    static final class Sha256Deduplicator
+    {
+        private static final int MAX_ENTRIES = 256;
+
+        private final LinkedHashMap<String, Long> recent = new LinkedHashMap<>();
+
+        boolean isDuplicate(String source, List<ItemStack> items, long nowMs)
+        {
+            if (items == null || items.isEmpty()) return false;
+
+            Iterator<Map.Entry<String, Long>> it = recent.entrySet().iterator();
+            while (it.hasNext())
+            {
+                Map.Entry<String, Long> e = it.next();
+                if (nowMs - e.getValue() >= RewardBatchDeduplicator.DEFAULT_WINDOW_MS || recent.size() > MAX_ENTRIES)
+                {
+                    it.remove();
+                }
+                else
+                {
+                    break;
+                }
+            }
+
+            String fp = fingerprint(source, items);
+            Long acceptedAt = recent.get(fp);
+            if (acceptedAt != null && nowMs - acceptedAt < RewardBatchDeduplicator.DEFAULT_WINDOW_MS)
+            {
+                return true;
+            }
+            recent.put(fp, nowMs);
+            return false;
+        }
+
+        static String fingerprint(String source, List<ItemStack> items)
+        {
+            Map<Integer, Long> merged = new TreeMap<>();
+            for (ItemStack item : items)
+            {
+                merged.merge(item.getId(), (long) item.getQuantity(), Long::sum);
+            }
+
+            StringBuilder sb = new StringBuilder();
+            sb.append(source.toLowerCase()).append('|');
+            for (Map.Entry<Integer, Long> e : merged.entrySet())
+            {
+                sb.append(e.getKey()).append(':').append(e.getValue()).append(';');
+            }
+
+            try
+            {
+                byte[] digest = MessageDigest.getInstance("SHA-256")
+                        .digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+                StringBuilder hex = new StringBuilder(digest.length * 2);
+                for (byte b : digest)
+                {
+                    hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+                       .append(Character.forDigit(b & 0xF, 16));
+                }
+                return hex.toString();
+            }
+            catch (NoSuchAlgorithmException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.runealytics;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic loot histories for the JMH benchmarks. Every history is
+ * generated from a fixed seed, so two runs on the same machine measure the
+ * same data, and nothing here touches the RuneLite client.
+ */
+final class SyntheticLoot
+{
+    static final int BOSSES = 50;
+    static final String USERNAME = "Benchmark";
+
+    /** Item pool: common supplies plus a few high-value uniques. */
+    private static final int[] ITEM_IDS = {
+        995, 526, 532, 536, 1_513, 1_515, 2_434, 3_024, 5_295, 5_300,
+        11_212, 12_934, 12_936, 12_922, 13_200, 4_151, 11_286, 21_907, 22_981, 6_571,
+    };
+
+    private SyntheticLoot()
+    {
+    }
+
+    static String bossName(int index)
+    {
+        return "Boss " + index;
+    }
+
+    /** A kill's worth of drops: 2–5 items drawn from the pool. */
+    static List<LootStorageData.DropRecord> drops(SplittableRandom random)
+    {
+        int count = 2 + random.nextInt(4);
+        List<LootStorageData.DropRecord> drops = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            int itemId = ITEM_IDS[random.nextInt(ITEM_IDS.length)];
+            int quantity = itemId == 995 ? 1 + random.nextInt(50_000) : 1 + random.nextInt(30);
+            int gePrice = itemId == 995 ? 1 : 50 + random.nextInt(100_000);
+
+            LootStorageData.DropRecord drop = new LootStorageData.DropRecord();
+            drop.setItemId(itemId);
+            drop.setItemName("Item " + itemId);
+            drop.setQuantity(quantity);
+            drop.setGePrice(gePrice);
+            drop.setHighAlch(gePrice / 2);
+            drop.setTotalValue((long) gePrice * quantity);
+            drops.add(drop);
+        }
+        return drops;
+    }
+
+    /** Item stacks for the reward-batch paths, same pool as {@link #drops}. */
+    static List<ItemStack> itemStacks(SplittableRandom random)
+    {
+        List<ItemStack> items = new ArrayList<>();
+        for (LootStorageData.DropRecord drop : drops(random))
+        {
+            items.add(new ItemStack(drop.getItemId(), drop.getQuantity()));
+        }
+        return items;
+    }
+
+    /**
+     * {@code totalKills} kills spread round-robin over {@value #BOSSES}
+     * bosses, one minute apart, with the aggregates the storage manager
+     * would have built. The oldest three quarters are marked synced.
+     */
+    static LootStorageData history(int totalKills, long seed)
+    {
+        SplittableRandom random = new SplittableRandom(seed);
+        LootStorageData data = new LootStorageData();
+        data.setUsername(USERNAME);
+
+        long timestamp = 1_700_000_000_000L;
+        for (int k = 0; k < totalKills; k++)
+        {
+            String name = bossName(k % BOSSES);
+            LootStorageData.BossKillData boss = data.getBossKills().computeIfAbsent(name, n -> {
+                LootStorageData.BossKillData b = new LootStorageData.BossKillData();
+                b.setNpcName(n);
+                b.setNpcId(1_000 + data.getBossKills().size());
+                return b;
+            });
+
+            LootStorageData.KillRecord kill = new LootStorageData.KillRecord();
+            kill.setTimestamp(timestamp += 60_000L);
+            kill.setKillNumber(boss.getKillCount() + 1);
+            kill.setWorld(301 + random.nextInt(200));
+            kill.setCombatLevel(100 + random.nextInt(26));
+            kill.setDrops(drops(random));
+            kill.setSyncedToServer(k < totalKills * 3 / 4);
+            boss.getKills().add(kill);
+            boss.setKillCount(kill.getKillNumber());
+
+            for (LootStorageData.DropRecord drop : kill.getDrops())
+            {
+                LootStorageData.AggregatedDrop agg = boss.getAggregatedDrops().computeIfAbsent(drop.getItemId(), id -> {
+                    LootStorageData.AggregatedDrop a = new LootStorageData.AggregatedDrop();
+                    a.setItemId(id);
+                    a.setItemName(drop.getItemName());
+                    a.setGePrice(drop.getGePrice());
+                    a.setHighAlch(drop.getHighAlch());
+                    return a;
+                });
+                agg.setTotalQuantity(agg.getTotalQuantity() + drop.getQuantity());
+                agg.setDropCount(agg.getDropCount() + 1);
+                agg.setTotalValue(agg.getTotalValue() + drop.getTotalValue());
+                boss.setTotalLootValue(boss.getTotalLootValue() + drop.getTotalValue());
+            }
+        }
+        return data;
+    }
+
+    static RuneAlyticsState state()
+    {
+        RuneAlyticsState state = new RuneAlyticsState();
+        state.setVerifiedUsername(USERNAME);
+        return state;
+    }
+
+    /** Fresh storage directory holding {@code data} as the account's JSON snapshot. */
+    static File storageDirWith(LootStorageData data) throws IOException
+    {
+        File dir = Files.createTempDirectory("runealytics-jmh").toFile();
+        File file = new File(dir, "runealytics-loot-" + USERNAME.toLowerCase() + ".json");
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))
+        {
+            new Gson().toJson(data, writer);
+        }
+        return dir;
+    }
+
+    static void delete(File dir) throws IOException
+    {
+        if (dir == null || !dir.exists()) return;
+        try (Stream<Path> paths = Files.walk(dir.toPath()))
+        {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+            {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
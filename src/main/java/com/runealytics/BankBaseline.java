@@ -0,0 +1,372 @@
+package com.runealytics;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.annotations.SerializedName;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Last bank snapshot the server acknowledged for the current account, and
+ * the item-level delta of a new snapshot against it.
+ *
+ * <p>{@link BankDataManager} used to post the whole wealth snapshot (every
+ * bank, inventory and equipment item) on each debounced bank sync. With a
+ * baseline it posts only what changed:</p>
+ *
+ * <pre>
+ * { ...scalar fields..., "mode": "delta", "base_hash": "…", "hash": "…",
+ *   "changes": { "items": { "set": [{id, qty, ge_per, total}, …], "remove": [id, …] }, … } }
+ * </pre>
+ *
+ * <p>Entries are absolute per item id (sections are aggregated by id), so a
+ * delta is idempotent. Sections with no changes are left out of
+ * {@code changes}. {@code base_hash} names the snapshot the delta applies to;
+ * a server that holds a different one answers HTTP 409 and gets a full
+ * snapshot ({@code "mode": "full"}) instead.</p>
+ *
+ * <p>The baseline only advances on an HTTP 2xx, so every delta is relative to
+ * a snapshot the server has confirmed, and a newer delta fully supersedes an
+ * older one still waiting in the {@link SyncOutbox}. It is kept in
+ * {@code runealytics-bank-<user>.json} so the first sync after a restart is a
+ * delta too.</p>
+ *
+ * <p>Thread-safe; used from the bank-sync executor.</p>
+ */
+@Slf4j
+final class BankBaseline
+{
+    /** Snapshot arrays that are diffed, in payload order. */
+    static final String[] SECTIONS = {"items", "inventory", "equipment"};
+
+    /** A delta touching more entries than this share of the snapshot's items is sent as a full snapshot. */
+    static final double FULL_FALLBACK_RATIO = 0.5;
+
+    private static final String FILE_PREFIX = "runealytics-bank-";
+    private static final String FILE_SUFFIX = ".json";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME  = 0x100000001b3L;
+
+    /** One snapshot array aggregated by item id, ids ascending. */
+    static final class Section
+    {
+        @SerializedName("ids")
+        private final int[] ids;
+
+        @SerializedName("qty")
+        private final int[] qty;
+
+        @SerializedName("ge_per")
+        private final int[] gePer;
+
+        private Section(int[] ids, int[] qty, int[] gePer)
+        {
+            this.ids   = ids;
+            this.qty   = qty;
+            this.gePer = gePer;
+        }
+
+        static Section of(JsonElement element)
+        {
+            TreeMap<Integer, long[]> byId = new TreeMap<>();
+            if (element != null && element.isJsonArray())
+            {
+                for (JsonElement e : element.getAsJsonArray())
+                {
+                    if (!e.isJsonObject()) continue;
+                    JsonObject item = e.getAsJsonObject();
+                    if (!item.has("id") || !item.has("qty")) continue;
+                    long[] agg = byId.computeIfAbsent(item.get("id").getAsInt(), k -> new long[2]);
+                    agg[0] += item.get("qty").getAsLong();
+                    if (item.has("ge_per")) agg[1] = item.get("ge_per").getAsInt();
+                }
+            }
+
+            int[] ids   = new int[byId.size()];
+            int[] qty   = new int[byId.size()];
+            int[] gePer = new int[byId.size()];
+            int i = 0;
+            for (Map.Entry<Integer, long[]> e : byId.entrySet())
+            {
+                ids[i]   = e.getKey();
+                qty[i]   = (int) Math.min(e.getValue()[0], Integer.MAX_VALUE);
+                gePer[i] = (int) e.getValue()[1];
+                i++;
+            }
+            return new Section(ids, qty, gePer);
+        }
+
+        int size()
+        {
+            return ids.length;
+        }
+    }
+
+    /** Item-level view of one wealth snapshot plus its content hash. */
+    static final class State
+    {
+        @SerializedName("hash")
+        private final String hash;
+
+        @SerializedName("sections")
+        private final Map<String, Section> sections;
+
+        private State(String hash, Map<String, Section> sections)
+        {
+            this.hash     = hash;
+            this.sections = sections;
+        }
+
+        static State of(JsonObject snapshot)
+        {
+            Map<String, Section> sections = new LinkedHashMap<>();
+            long h = FNV_OFFSET;
+            for (String name : SECTIONS)
+            {
+                Section s = Section.of(snapshot.get(name));
+                sections.put(name, s);
+
+                h = step(h, s.size());
+                for (int i = 0; i < s.size(); i++)
+                {
+                    h = step(step(step(h, s.ids[i]), s.qty[i]), s.gePer[i]);
+                }
+            }
+            return new State(Long.toHexString(h), sections);
+        }
+
+        String getHash()
+        {
+            return hash;
+        }
+
+        Section section(String name)
+        {
+            Section s = sections != null ? sections.get(name) : null;
+            return s != null ? s : new Section(new int[0], new int[0], new int[0]);
+        }
+
+        int itemCount()
+        {
+            int n = 0;
+            for (String name : SECTIONS) n += section(name).size();
+            return n;
+        }
+    }
+
+    private final Gson gson;
+    private final File storageDir;
+
+    /** Normalised account whose baseline is loaded, or {@code null}. */
+    private String account;
+    private State baseline;
+
+    BankBaseline(Gson gson, File storageDir)
+    {
+        this.gson       = gson;
+        this.storageDir = storageDir;
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  BASELINE
+    // ═════════════════════════════════════════════════════════════════════════
+
+    /** The acknowledged baseline for {@code username}, or {@code null} if there is none. */
+    synchronized State get(String username)
+    {
+        open(username);
+        return baseline;
+    }
+
+    /** Makes {@code state} the baseline for {@code username} after the server acknowledged it. */
+    synchronized void accept(String username, State state)
+    {
+        open(username);
+        baseline = state;
+        write(getFile(account), state);
+    }
+
+    /** Forgets the baseline for {@code username}, so its next sync is a full snapshot. */
+    synchronized void clear(String username)
+    {
+        open(username);
+        baseline = null;
+        write(getFile(account), null);
+    }
+
+    private void open(String username)
+    {
+        String key = username.toLowerCase();
+        if (key.equals(account)) return;
+        account  = key;
+        baseline = load(getFile(key));
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  PAYLOADS
+    // ═════════════════════════════════════════════════════════════════════════
+
+    /** {@code snapshot} marked as a full upload of {@code current}. */
+    static JsonObject full(JsonObject snapshot, State current)
+    {
+        JsonObject out = new JsonObject();
+        for (Map.Entry<String, JsonElement> e : snapshot.entrySet()) out.add(e.getKey(), e.getValue());
+        out.addProperty("mode", "full");
+        out.addProperty("hash", current.hash);
+        return out;
+    }
+
+    /**
+     * The delta payload taking {@code base} to {@code current}, or {@code null}
+     * when so much changed that the full snapshot is the better upload.
+     */
+    static JsonObject delta(JsonObject snapshot, State base, State current)
+    {
+        JsonObject changes = new JsonObject();
+        int changed = 0;
+        for (String name : SECTIONS)
+        {
+            JsonObject diff = diff(base.section(name), current.section(name));
+            if (diff == null) continue;
+            changes.add(name, diff);
+            changed += diff.getAsJsonArray("set").size() + diff.getAsJsonArray("remove").size();
+        }
+        if (changed > FULL_FALLBACK_RATIO * current.itemCount()) return null;
+
+        JsonObject out = new JsonObject();
+        for (Map.Entry<String, JsonElement> e : snapshot.entrySet())
+        {
+            if (!isSection(e.getKey())) out.add(e.getKey(), e.getValue());
+        }
+        out.addProperty("mode",      "delta");
+        out.addProperty("base_hash", base.hash);
+        out.addProperty("hash",      current.hash);
+        out.add("changes",           changes);
+        return out;
+    }
+
+    /** Merge-walks two id-sorted sections; {@code null} when they are identical. */
+    private static JsonObject diff(Section before, Section after)
+    {
+        JsonArray set    = new JsonArray();
+        JsonArray remove = new JsonArray();
+        int i = 0;
+        int j = 0;
+        while (i < before.size() || j < after.size())
+        {
+            int cmp = i == before.size() ? 1
+                    : j == after.size() ? -1
+                    : Integer.compare(before.ids[i], after.ids[j]);
+            if (cmp < 0)
+            {
+                remove.add(before.ids[i++]);
+            }
+            else if (cmp > 0)
+            {
+                set.add(entry(after, j++));
+            }
+            else
+            {
+                if (before.qty[i] != after.qty[j] || before.gePer[i] != after.gePer[j]) set.add(entry(after, j));
+                i++;
+                j++;
+            }
+        }
+        if (set.size() == 0 && remove.size() == 0) return null;
+
+        JsonObject diff = new JsonObject();
+        diff.add("set",    set);
+        diff.add("remove", remove);
+        return diff;
+    }
+
+    private static JsonObject entry(Section s, int i)
+    {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("id",     s.ids[i]);
+        entry.addProperty("qty",    s.qty[i]);
+        entry.addProperty("ge_per", s.gePer[i]);
+        entry.addProperty("total",  (long) s.gePer[i] * s.qty[i]);
+        return entry;
+    }
+
+    private static boolean isSection(String key)
+    {
+        for (String name : SECTIONS)
+        {
+            if (name.equals(key)) return true;
+        }
+        return false;
+    }
+
+    private static long step(long h, int value)
+    {
+        return (h ^ value) * FNV_PRIME;
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  PERSISTENCE
+    // ═════════════════════════════════════════════════════════════════════════
+
+    private State load(File file)
+    {
+        if (!file.exists()) return null;
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))
+        {
+            State loaded = gson.fromJson(reader, State.class);
+            return loaded != null && loaded.hash != null ? loaded : null;
+        }
+        catch (Exception e)
+        {
+            log.debug("Failed to read bank baseline {}", file.getName(), e);
+            return null;
+        }
+    }
+
+    private void write(File file, State state)
+    {
+        try
+        {
+            if (state == null)
+            {
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+
+            File parentDir = file.getParentFile();
+            if (parentDir != null && !parentDir.exists())
+            {
+                parentDir.mkdirs();
+            }
+
+            File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8))
+            {
+                gson.toJson(state, writer);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e)
+        {
+            log.debug("Failed to write bank baseline {}", file.getName(), e);
+        }
+    }
+
+    File getFile(String username)
+    {
+        return new File(storageDir, FILE_PREFIX + username.toLowerCase().replaceAll("[^a-z0-9_-]", "_") + FILE_SUFFIX);
+    }
+}
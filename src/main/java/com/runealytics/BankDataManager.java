@@ -1,9 +1,11 @@
 package com.runealytics;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import net.runelite.api.ItemContainer;
-import net.runelite.client.game.ItemManager;
+import net.runelite.client.RuneLite;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,21 +18,38 @@ public class BankDataManager
 {
     private static final Logger log = LoggerFactory.getLogger(BankDataManager.class);
 
+    /** Server reply to a delta whose {@code base_hash} it doesn't hold. */
+    private static final int HTTP_CONFLICT = 409;
+
     private final RunealyticsApiClient apiClient;
-    private final ItemManager itemManager;
+    private final ItemValueCache itemValues;
+    private final BankBaseline baseline;
+
+    /** Last snapshot handed to {@link #syncBankData}, for re-sending in full after a late 409. */
+    private String lastUsername;
+    private JsonObject lastSnapshot;
+    private BankBaseline.State lastState;
 
     @Inject
-    public BankDataManager(RunealyticsApiClient apiClient, ItemManager itemManager)
+    public BankDataManager(RunealyticsApiClient apiClient, ItemValueCache itemValues, Gson gson)
+    {
+        this(apiClient, itemValues, new BankBaseline(gson, RuneLite.RUNELITE_DIR));
+    }
+
+    /** Test seam: baseline store with its own storage directory. */
+    BankDataManager(RunealyticsApiClient apiClient, ItemValueCache itemValues, BankBaseline baseline)
     {
-        this.apiClient   = apiClient;
-        this.itemManager = itemManager;
+        this.apiClient  = apiClient;
+        this.itemValues = itemValues;
+        this.baseline   = baseline;
+        apiClient.setBankSyncRejectionListener(this::onDeferredRejection);
     }
 
     /**
      * Builds the complete wealth snapshot JSON object on the <strong>client
-     * thread</strong>.  This method calls {@link ItemManager#getItemComposition}
-     * internally, which requires the client thread — it must NOT be called from
-     * a background executor.
+     * thread</strong>.  Items are valued through {@link ItemValueCache#get},
+     * which calls ItemManager on a miss and so requires the client thread — it
+     * must NOT be called from a background executor.
      *
      * <p>Call this synchronously, then hand the returned {@link JsonObject} to
      * {@link #syncBankData(String, String, JsonObject)} running on an executor
@@ -55,19 +74,20 @@ public class BankDataManager
         data.addProperty("timestamp", Instant.now().getEpochSecond());
         data.addProperty("world",     world);
 
-        // fromContainerWithValues / containerTotalValue both call
-        // ItemManager.getItemComposition which requires the client thread.
-        JsonArray bankItems      = RuneAlyticsItemJson.fromContainerWithValues(bankContainer,      itemManager);
-        JsonArray inventoryItems = RuneAlyticsItemJson.fromContainerWithValues(inventoryContainer, itemManager);
-        JsonArray equipmentItems = RuneAlyticsItemJson.fromContainerWithValues(equipmentContainer, itemManager);
+        // Both passes value through the shared cache: an id is resolved via
+        // ItemManager (client thread only) once, then read back from the
+        // cache by the totals pass and by later syncs.
+        JsonArray bankItems      = RuneAlyticsItemJson.fromContainerWithValues(bankContainer,      itemValues);
+        JsonArray inventoryItems = RuneAlyticsItemJson.fromContainerWithValues(inventoryContainer, itemValues);
+        JsonArray equipmentItems = RuneAlyticsItemJson.fromContainerWithValues(equipmentContainer, itemValues);
 
         data.add("items",     bankItems);
         data.add("inventory", inventoryItems);
         data.add("equipment", equipmentItems);
 
-        long bankValue  = RuneAlyticsItemJson.containerTotalValue(bankContainer,      itemManager);
-        long invValue   = RuneAlyticsItemJson.containerTotalValue(inventoryContainer, itemManager);
-        long equipValue = RuneAlyticsItemJson.containerTotalValue(equipmentContainer, itemManager);
+        long bankValue  = RuneAlyticsItemJson.containerTotalValue(bankContainer,      itemValues);
+        long invValue   = RuneAlyticsItemJson.containerTotalValue(inventoryContainer, itemValues);
+        long equipValue = RuneAlyticsItemJson.containerTotalValue(equipmentContainer, itemValues);
         long total      = bankValue + invValue + equipValue;
 
         data.addProperty("bank_value",      bankValue);
@@ -88,6 +108,15 @@ public class BankDataManager
      * Sends a pre-built wealth snapshot to the API.  Safe to call from a
      * background thread — all client API reads were already done by
      * {@link #buildBankSnapshot}.
+     *
+     * <p>Once the server has acknowledged a snapshot for this account, only
+     * the item-level changes against it are uploaded (see
+     * {@link BankBaseline}). A full snapshot goes out when there is no
+     * baseline, when most items changed, or when the server rejects the
+     * delta's base with HTTP 409. A request that can't be delivered is kept by
+     * the {@link SyncOutbox} until it goes through or a newer one replaces
+     * it; a delta the server rejects with 409 only once it is finally
+     * delivered is handled by {@link #onDeferredRejection}.</p>
      */
     public void syncBankData(String token, String username, JsonObject snapshot)
     {
@@ -111,14 +140,31 @@ public class BankDataManager
 
         try
         {
-            boolean success = apiClient.syncBankData(token, snapshot);
-            if (success)
+            BankBaseline.State current = BankBaseline.State.of(snapshot);
+            BankBaseline.State base    = baseline.get(username);
+            remember(username, snapshot, current);
+
+            JsonObject payload = base != null ? BankBaseline.delta(snapshot, base, current) : null;
+            boolean    isDelta = payload != null;
+            if (!isDelta) payload = BankBaseline.full(snapshot, current);
+
+            int status = apiClient.syncBankSnapshot(payload);
+            if (isDelta && status == HTTP_CONFLICT)
             {
-                log.debug("Wealth snapshot synced successfully for {}", username);
+                log.debug("Server has a different bank baseline for {}; sending a full snapshot", username);
+                baseline.clear(username);
+                isDelta = false;
+                status  = apiClient.syncBankSnapshot(BankBaseline.full(snapshot, current));
+            }
+
+            if (SyncOutbox.isSuccess(status))
+            {
+                baseline.accept(username, current);
+                log.debug("Wealth snapshot synced successfully for {} ({})", username, isDelta ? "delta" : "full");
             }
             else
             {
-                log.debug("Failed to sync wealth snapshot for {}", username);
+                log.debug("Wealth snapshot for {} not synced yet — left in the outbox", username);
             }
         }
         catch (Exception e)
@@ -127,4 +173,48 @@ public class BankDataManager
         }
     }
 
+    private synchronized void remember(String username, JsonObject snapshot, BankBaseline.State state)
+    {
+        lastUsername = username;
+        lastSnapshot = snapshot;
+        lastState    = state;
+    }
+
+    /**
+     * Outbox thread: a queued bank delta was rejected when it was finally
+     * sent. On HTTP 409 the server holds a different baseline, so ours is
+     * dropped and the last snapshot is queued in full; without one, the next
+     * bank sync goes out in full anyway.
+     */
+    void onDeferredRejection(String account, SyncOutbox.Entry entry, int status)
+    {
+        if (status != HTTP_CONFLICT || !isDelta(entry.getBody())) return;
+
+        log.debug("Queued bank delta for {} hit a different server baseline; queuing a full snapshot", account);
+        baseline.clear(account);
+
+        JsonObject snapshot;
+        BankBaseline.State state;
+        synchronized (this)
+        {
+            if (lastUsername == null || !lastUsername.equalsIgnoreCase(account)) return;
+            snapshot = lastSnapshot;
+            state    = lastState;
+        }
+        apiClient.submitBankSnapshot(BankBaseline.full(snapshot, state));
+    }
+
+    private static boolean isDelta(String body)
+    {
+        try
+        {
+            JsonObject payload = new JsonParser().parse(body).getAsJsonObject();
+            return payload.has("mode") && "delta".equals(payload.get("mode").getAsString());
+        }
+        catch (Exception e)
+        {
+            return false;
+        }
+    }
+
 }
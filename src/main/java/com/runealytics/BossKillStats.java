@@ -1,12 +1,14 @@
 package com.runealytics;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.function.UnaryOperator;
 
 @Slf4j
 @Getter
@@ -23,6 +25,21 @@ public class BossKillStats
 
     private List<AggregatedDrop> preloadedDrops = new ArrayList<>();
 
+    /**
+     * Per-item totals over {@link #killHistory}, maintained incrementally by
+     * {@link #addKill} / {@link #recordAppendedDrops} and reset on
+     * {@link #prestige()}, so reading aggregates costs O(distinct items)
+     * instead of re-walking every drop of every kill.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final IntObjectMap<AggregatedDrop> aggregates = new IntObjectMap<>();
+
+    /** {@link #aggregates} in display order; {@code null} when a mutation invalidated it. */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private List<AggregatedDrop> sortedAggregates;
+
     public BossKillStats(String npcName, int npcId)
     {
         this.npcName      = npcName;
@@ -34,7 +51,7 @@ public class BossKillStats
         this.killHistory  = new ArrayList<>();
     }
 
-    public void prestige()
+    public synchronized void prestige()
     {
         this.prestige++;
         this.killCount      = 0;
@@ -42,16 +59,24 @@ public class BossKillStats
         this.highestDrop    = 0;
         this.killHistory.clear();
         this.preloadedDrops.clear();
+        this.aggregates.clear();
+        this.sortedAggregates = null;
         log.debug("Boss {} prestiged to level {}", npcName, prestige);
     }
 
-    public long getLastKillTimestamp()
+    /** Read-only view of the resident kill history; edits go through {@link #addKill} / {@link #replaceLastKill}. */
+    public synchronized List<LootStorageData.KillRecord> getKillHistory()
+    {
+        return Collections.unmodifiableList(killHistory);
+    }
+
+    public synchronized long getLastKillTimestamp()
     {
         if (killHistory == null || killHistory.isEmpty()) return 0L;
         return killHistory.get(killHistory.size() - 1).getTimestamp();
     }
 
-    public void addKill(LootStorageData.KillRecord kill)
+    public synchronized void addKill(LootStorageData.KillRecord kill)
     {
         if (kill == null) return;
 
@@ -62,59 +87,176 @@ public class BossKillStats
         for (LootStorageData.DropRecord drop : kill.getDrops())
         {
             killValue += drop.getTotalValue();
-            if (drop.getTotalValue() > highestDrop)
-                highestDrop = drop.getTotalValue();
+            raiseHighestDrop(drop);
+            aggregate(drop);
         }
         this.totalLootValue += killValue;
     }
 
-    public void setPreloadedDrops(List<AggregatedDrop> drops)
+    /**
+     * Swaps the most recent kill record for {@code edit}'s result — a copy
+     * carrying appended drops or a late game KC — in one step, so a reader
+     * never sees the history mid-edit. The running totals are left alone.
+     *
+     * @return the new last record, or {@code null} if there are no kills
+     */
+    public synchronized LootStorageData.KillRecord replaceLastKill(
+            UnaryOperator<LootStorageData.KillRecord> edit)
     {
-        this.preloadedDrops = drops != null ? new ArrayList<>(drops) : new ArrayList<>();
+        if (killHistory.isEmpty()) return null;
+
+        int last = killHistory.size() - 1;
+        LootStorageData.KillRecord replacement = edit.apply(killHistory.get(last));
+        killHistory.set(last, replacement);
+        return replacement;
+    }
+
+    /**
+     * Folds drops the caller has just attached to the last kill record (Ring
+     * of Wealth coins, late ground items, pets) into the running totals.
+     */
+    public synchronized void recordAppendedDrops(List<LootStorageData.DropRecord> drops)
+    {
+        if (drops == null) return;
+
+        for (LootStorageData.DropRecord drop : drops)
+        {
+            this.totalLootValue += drop.getTotalValue();
+            raiseHighestDrop(drop);
+            aggregate(drop);
+        }
     }
 
-    public List<AggregatedDrop> getAggregatedDrops()
+    /** Replaces the history wholesale and rebuilds the aggregates to match. */
+    public synchronized void setKillHistory(List<LootStorageData.KillRecord> killHistory)
     {
-        Map<Integer, AggregatedDrop> aggregatedMap = new HashMap<>();
+        this.killHistory = killHistory != null ? new ArrayList<>(killHistory) : new ArrayList<>();
+        this.aggregates.clear();
+        this.sortedAggregates = null;
+        for (LootStorageData.KillRecord kill : this.killHistory)
+        {
+            for (LootStorageData.DropRecord drop : kill.getDrops())
+            {
+                aggregate(drop);
+            }
+        }
+    }
 
-        for (LootStorageData.KillRecord kill : killHistory)
+    /**
+     * Seeds the stats from a stored per-boss summary when only the most recent
+     * kills are resident (lazy-history storage). {@code totals} already cover
+     * the archived kills, so they become the running aggregates instead of
+     * whatever the recent window alone would add up to; later kills fold in
+     * on top as usual.
+     */
+    public synchronized void restoreSummary(List<LootStorageData.KillRecord> recentKills,
+                                            List<AggregatedDrop> totals,
+                                            int killCount, long totalLootValue, long highestDrop)
+    {
+        this.killHistory    = recentKills != null ? new ArrayList<>(recentKills) : new ArrayList<>();
+        this.killCount      = killCount;
+        this.totalLootValue = totalLootValue;
+        this.highestDrop    = highestDrop;
+        this.aggregates.clear();
+        this.sortedAggregates = null;
+
+        for (LootStorageData.KillRecord kill : this.killHistory)
         {
             for (LootStorageData.DropRecord drop : kill.getDrops())
             {
-                AggregatedDrop agg = aggregatedMap.computeIfAbsent(
-                        drop.getItemId(),
-                        id -> new AggregatedDrop(
-                                drop.getItemId(), drop.getItemName(),
-                                0, 0, 0,
-                                drop.getGePrice(), drop.getHighAlch()));
-
-                agg.totalQuantity += drop.getQuantity();
-                agg.totalValue    += drop.getTotalValue();
-                agg.dropCount++;
-                if (drop.isPet()) agg.setPet(true);
+                raiseHighestDrop(drop);
             }
         }
 
-        List<AggregatedDrop> result = new ArrayList<>(aggregatedMap.values());
+        if (totals == null) return;
+        for (AggregatedDrop total : copyOf(totals))
+        {
+            aggregates.computeIfAbsent(total.getItemId(), id -> total);
+        }
+    }
 
-        if (result.isEmpty() && preloadedDrops != null && !preloadedDrops.isEmpty())
+    /** Pets are tracked by their own flag; their GE value never counts as the best drop. */
+    private void raiseHighestDrop(LootStorageData.DropRecord drop)
+    {
+        if (!drop.isPet() && drop.getTotalValue() > highestDrop)
+        {
+            highestDrop = drop.getTotalValue();
+        }
+    }
+
+    private void aggregate(LootStorageData.DropRecord drop)
+    {
+        AggregatedDrop agg = aggregates.computeIfAbsent(
+                drop.getItemId(),
+                id -> new AggregatedDrop(
+                        drop.getItemId(), drop.getItemName(),
+                        0, 0, 0,
+                        drop.getGePrice(), drop.getHighAlch()));
+
+        agg.totalQuantity += drop.getQuantity();
+        agg.totalValue    += drop.getTotalValue();
+        agg.dropCount++;
+        if (drop.isPet()) agg.setPet(true);
+        sortedAggregates = null;
+    }
+
+    public synchronized void setPreloadedDrops(List<AggregatedDrop> drops)
+    {
+        this.preloadedDrops = drops != null ? new ArrayList<>(drops) : new ArrayList<>();
+    }
+
+    public synchronized List<AggregatedDrop> getAggregatedDrops()
+    {
+        if (aggregates.isEmpty() && preloadedDrops != null && !preloadedDrops.isEmpty())
         {
             log.debug("{}: using {} preloaded drops", npcName, preloadedDrops.size());
             return new ArrayList<>(preloadedDrops);
         }
 
-        return result;
+        return copyOf(aggregates.values());
     }
 
-    public List<AggregatedDrop> getAggregatedDropsSorted()
+    public synchronized List<AggregatedDrop> getAggregatedDropsSorted()
     {
-        List<AggregatedDrop> drops = getAggregatedDrops();
-        drops.sort((a, b) -> {
-            // Pets always sort to slot #1 regardless of GE value
-            if (a.isPet() != b.isPet()) return a.isPet() ? -1 : 1;
-            return Long.compare(b.getTotalValue(), a.getTotalValue());
-        });
-        return drops;
+        if (aggregates.isEmpty())
+        {
+            List<AggregatedDrop> drops = getAggregatedDrops();
+            drops.sort(DISPLAY_ORDER);
+            return drops;
+        }
+
+        if (sortedAggregates == null)
+        {
+            sortedAggregates = new ArrayList<>(aggregates.values());
+            sortedAggregates.sort(DISPLAY_ORDER);
+        }
+        return copyOf(sortedAggregates);
+    }
+
+    // Pets always sort to slot #1 regardless of GE value
+    private static final Comparator<AggregatedDrop> DISPLAY_ORDER = (a, b) -> {
+        if (a.isPet() != b.isPet()) return a.isPet() ? -1 : 1;
+        return Long.compare(b.getTotalValue(), a.getTotalValue());
+    };
+
+    /**
+     * Detached copies so callers can't mutate the running totals (the panel
+     * sets display-only flags such as {@code untradeable}).
+     */
+    private static List<AggregatedDrop> copyOf(List<AggregatedDrop> source)
+    {
+        List<AggregatedDrop> result = new ArrayList<>(source.size());
+        for (AggregatedDrop agg : source)
+        {
+            AggregatedDrop copy = new AggregatedDrop(
+                    agg.itemId, agg.itemName,
+                    agg.totalQuantity, agg.totalValue, agg.dropCount,
+                    agg.gePrice, agg.highAlchValue);
+            copy.setPet(agg.pet);
+            copy.setUntradeable(agg.untradeable);
+            result.add(copy);
+        }
+        return result;
     }
 
     @Getter
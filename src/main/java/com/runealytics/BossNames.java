@@ -1,5 +1,7 @@
 package com.runealytics;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -14,6 +16,13 @@ import java.util.regex.Pattern;
  * <p>{@code LootTrackerManager.normalizeBossName} delegates to
  * {@link #normalize(String)} — behaviour is identical for all existing
  * callers.</p>
+ *
+ * <p>Every kill, KC message and load-time key migration normalises a name, and
+ * the same few dozen names come round again and again. Results are therefore
+ * memoised per raw name (canonical name and boss classification together) in
+ * a bounded concurrent map, so the steady state is one hash lookup. A miss is
+ * one {@link KeywordAutomaton} pass per question instead of a chain of
+ * {@code contains} calls; the ordered rule tables below are the mapping.</p>
  */
 public final class BossNames
 {
@@ -35,6 +44,174 @@ public final class BossNames
         return raw == null ? null : COLOR_TAG_PATTERN.matcher(raw).replaceAll("");
     }
 
+    // ── Canonical-name rules ──────────────────────────────────────────────────
+    //
+    // Ordered: when several keywords occur, the rule listed first wins, so
+    // specific names stay ahead of the generic ones they contain
+    // ("corrupted gauntlet" before "gauntlet", "phosani" before "nightmare").
+
+    private static final String[][] NAME_RULES = {
+            { "doom of mokhaiotl",   "Doom of Mokhaiotl" },
+
+            { "corrupted gauntlet",  "Corrupted Gauntlet" },
+            { "gauntlet",            "The Gauntlet" },
+            { "chambers",            "Chambers of Xeric" },
+            { "cox",                 "Chambers of Xeric" },
+            { "theatre",             "Theatre of Blood" },
+            { "tob",                 "Theatre of Blood" },
+            { "tombs",               "Tombs of Amascut" },
+            { "toa",                 "Tombs of Amascut" },
+
+            { "zilyana",             "Commander Zilyana" },
+            { "graardor",            "General Graardor" },
+            { "kree",                "Kree'arra" },
+            { "kril",                "K'ril Tsutsaroth" },
+
+            { "artio",               "Artio" },
+            { "callisto",            "Callisto" },
+            { "calvar",              "Calvar'ion" },
+            { "vet'ion",             "Vet'ion" },
+            { "vetion",              "Vet'ion" },
+            { "spindel",             "Spindel" },
+            { "venenatis",           "Venenatis" },
+            { "corporeal",           "Corporeal Beast" },
+            { "chaos fanatic",       "Chaos Fanatic" },
+            { "scorpia",             "Scorpia" },
+            { "crazy archaeologist", "Crazy Archaeologist" },
+
+            { "duke",                "Duke Sucellus" },
+            { "sucellus",            "Duke Sucellus" },
+            { "leviathan",           "The Leviathan" },
+            { "vardorvis",           "Vardorvis" },
+            { "whisperer",           "The Whisperer" },
+
+            { "royal titans",        "Royal Titans" },
+            { "eldric",              "Royal Titans" },
+            { "branda",              "Royal Titans" },
+            { "hueycoatl",           "The Hueycoatl" },
+            { "moons of peril",      "Moons of Peril" },
+            { "blue moon",           "Moons of Peril" },
+            { "blood moon",          "Moons of Peril" },
+            { "eclipse moon",        "Moons of Peril" },
+            { "lunar chest",         "Moons of Peril" },
+            { "muspah",              "Phantom Muspah" },
+            { "yama",                "Yama" },
+            { "araxxor",             "Araxxor" },
+            { "scurrius",            "Scurrius" },
+            { "amoxliatl",           "Amoxliatl" },
+            { "tormented demon",     "Tormented Demon" },
+            { "colosseum",           "Fortis Colosseum" },
+            { "fortis",              "Fortis Colosseum" },
+
+            { "zulrah",              "Zulrah" },
+            { "vorkath",             "Vorkath" },
+            { "hydra",               "Alchemical Hydra" },
+            { "cerberus",            "Cerberus" },
+            { "abyssal sire",        "Abyssal Sire" },
+            { "kraken",              "Kraken" },
+            { "smoke devil",         "Smoke Devil" },
+            { "thermonuclear",       "Smoke Devil" },
+            { "phosani",             "Phosani's Nightmare" },
+            { "nightmare",           "The Nightmare" },
+            { "grotesque",           "Grotesque Guardians" },
+            { "kalphite queen",      "Kalphite Queen" },
+            { "kbd",                 "King Black Dragon" },
+            { "king black dragon",   "King Black Dragon" },
+            { "dagannoth prime",     "Dagannoth Prime" },
+            { "dagannoth rex",       "Dagannoth Rex" },
+            { "dagannoth supreme",   "Dagannoth Supreme" },
+            { "skotizo",             "Skotizo" },
+            { "hespori",             "Hespori" },
+
+            { "barrows",             "Barrows" },
+            { "tempoross",           "Tempoross" },
+            { "wintertodt",          "Wintertodt" },
+            { "zalcano",             "Zalcano" },
+    };
+
+    /** Whole-name rules; none of these names contains a {@link #NAME_RULES} keyword. */
+    private static final String[][] EXACT_RULES = {
+            { "nex",   "Nex" },
+            { "lunar", "Moons of Peril" },
+    };
+
+    /** Clue tiers, tried in order when no other rule matched and the name mentions a clue. */
+    private static final String[][] CLUE_RULES = {
+            { "beginner", "Beginner Clue" },
+            { "easy",     "Easy Clue" },
+            { "medium",   "Medium Clue" },
+            { "hard",     "Hard Clue" },
+            { "elite",    "Elite Clue" },
+            { "master",   "Master Clue" },
+    };
+
+    // ── Boss classification ───────────────────────────────────────────────────
+
+    /** A name containing any of these is a boss (or boss-like loot source). */
+    private static final String[] BOSS_KEYWORDS = {
+            "mokhaiotl", "duke", "leviathan", "vardorvis", "whisperer",
+            "zulrah", "vorkath", "cerberus", "nightmare", "gauntlet", "barrows",
+            "yama", "tempoross", "wintertodt", "zalcano", "eldric", "branda",
+            "hueycoatl", "araxxor", "scurrius", "amoxliatl", "colosseum",
+            "skotizo", "hespori", "abyssal", "thermonuclear", "grotesque",
+            "kalphite", "dagannoth", "corporeal", "tormented demon",
+            // Bosses previously only covered by the trackAllNpcs fallback —
+            // name-matched so they stay tracked as bosses even when
+            // trackAllNpcs is off (their NPC ids are not whitelisted).
+            "muspah", "sarachnis", "obor", "bryophyta", "giant mole",
+            "king black dragon", "chaos elemental",
+    };
+
+    private static final KeywordAutomaton NAME_AUTOMATON = new KeywordAutomaton(false, column(NAME_RULES, 0));
+    private static final KeywordAutomaton BOSS_AUTOMATON = new KeywordAutomaton(false, BOSS_KEYWORDS);
+
+    // ── Memo ──────────────────────────────────────────────────────────────────
+
+    /**
+     * Distinct raw names remembered before the memo is emptied and starts
+     * over. Far above the names one session meets; it only bounds memory if
+     * something feeds in unbounded variety (e.g. pickpocket targets).
+     */
+    static final int CACHE_CAPACITY = 2_048;
+
+    /** Canonical name and boss flag of one raw name. */
+    private static final class Resolved
+    {
+        final String  canonical;
+        final boolean boss;
+
+        Resolved(String canonical, boolean boss)
+        {
+            this.canonical = canonical;
+            this.boss      = boss;
+        }
+    }
+
+    private static final Map<String, Resolved> CACHE = new ConcurrentHashMap<>();
+
+    private static String[] column(String[][] rules, int index)
+    {
+        String[] out = new String[rules.length];
+        for (int i = 0; i < rules.length; i++) out[i] = rules[i][index];
+        return out;
+    }
+
+    private static Resolved resolve(String raw)
+    {
+        Resolved resolved = CACHE.get(raw);
+        if (resolved != null) return resolved;
+
+        resolved = new Resolved(canonicalize(raw), classify(raw));
+        if (CACHE.size() >= CACHE_CAPACITY) CACHE.clear();
+        CACHE.put(raw, resolved);
+        return resolved;
+    }
+
+    static int cacheSize()
+    {
+        return CACHE.size();
+    }
+
     /**
      * Maps variant NPC / source names to a single canonical display name.
      *
@@ -47,7 +224,21 @@ public final class BossNames
     public static String normalize(String raw)
     {
         if (raw == null || raw.isEmpty()) return "Unknown";
+        return resolve(raw).canonical;
+    }
 
+    /**
+     * Whether {@code name} (a raw NPC name) belongs to a boss or boss-like
+     * loot source, judged by name alone.
+     */
+    public static boolean isBossName(String name)
+    {
+        if (name == null || name.isEmpty()) return false;
+        return resolve(name).boss;
+    }
+
+    private static String canonicalize(String raw)
+    {
         raw = stripColorTags(raw).trim();
         if (raw.isEmpty()) return "Unknown";
 
@@ -56,88 +247,27 @@ public final class BossNames
 
         String l = raw.toLowerCase();
 
-        if (l.contains("doom of mokhaiotl"))              return "Doom of Mokhaiotl";
-
-        if (l.contains("corrupted gauntlet"))             return "Corrupted Gauntlet";
-        if (l.contains("gauntlet"))                       return "The Gauntlet";
-        if (l.contains("chambers") || l.contains("cox"))  return "Chambers of Xeric";
-        if (l.contains("theatre") || l.contains("tob"))   return "Theatre of Blood";
-        if (l.contains("tombs") || l.contains("toa"))     return "Tombs of Amascut";
-
-        if (l.contains("zilyana"))                        return "Commander Zilyana";
-        if (l.contains("graardor"))                       return "General Graardor";
-        if (l.contains("kree"))                           return "Kree'arra";
-        if (l.contains("kril"))                           return "K'ril Tsutsaroth";
-        if (l.equals("nex"))                              return "Nex";
-
-        if (l.contains("artio"))                          return "Artio";
-        if (l.contains("callisto"))                       return "Callisto";
-        if (l.contains("calvar"))                         return "Calvar'ion";
-        if (l.contains("vet'ion") || l.contains("vetion")) return "Vet'ion";
-        if (l.contains("spindel"))                        return "Spindel";
-        if (l.contains("venenatis"))                      return "Venenatis";
-        if (l.contains("corporeal"))                      return "Corporeal Beast";
-        if (l.contains("chaos fanatic"))                  return "Chaos Fanatic";
-        if (l.contains("scorpia"))                        return "Scorpia";
-        if (l.contains("crazy archaeologist"))            return "Crazy Archaeologist";
-
-        if (l.contains("duke") || l.contains("sucellus")) return "Duke Sucellus";
-        if (l.contains("leviathan"))                      return "The Leviathan";
-        if (l.contains("vardorvis"))                      return "Vardorvis";
-        if (l.contains("whisperer"))                      return "The Whisperer";
-
-        if (l.contains("royal titans") || l.contains("eldric") || l.contains("branda"))
-            return "Royal Titans";
-        if (l.contains("hueycoatl"))                      return "The Hueycoatl";
-        if (l.contains("moons of peril") || l.contains("blue moon")
-                || l.contains("blood moon") || l.contains("eclipse moon")
-                || l.contains("lunar chest") || l.equals("lunar"))
-            return "Moons of Peril";
-        if (l.contains("muspah"))                         return "Phantom Muspah";
-        if (l.contains("yama"))                           return "Yama";
-        if (l.contains("araxxor"))                        return "Araxxor";
-        if (l.contains("scurrius"))                       return "Scurrius";
-        if (l.contains("amoxliatl"))                      return "Amoxliatl";
-        if (l.contains("tormented demon"))                return "Tormented Demon";
-        if (l.contains("colosseum") || l.contains("fortis"))
-            return "Fortis Colosseum";
-
-        if (l.contains("zulrah"))                         return "Zulrah";
-        if (l.contains("vorkath"))                        return "Vorkath";
-        if (l.contains("hydra"))                          return "Alchemical Hydra";
-        if (l.contains("cerberus"))                       return "Cerberus";
-        if (l.contains("abyssal sire"))                   return "Abyssal Sire";
-        if (l.contains("kraken"))                         return "Kraken";
-        if (l.contains("smoke devil") || l.contains("thermonuclear")) return "Smoke Devil";
-        if (l.contains("phosani"))                        return "Phosani's Nightmare";
-        if (l.contains("nightmare"))                      return "The Nightmare";
-        if (l.contains("grotesque"))                      return "Grotesque Guardians";
-        if (l.contains("kalphite queen"))                 return "Kalphite Queen";
-        if (l.contains("kbd") || l.contains("king black dragon")) return "King Black Dragon";
-        if (l.contains("dagannoth prime"))                return "Dagannoth Prime";
-        if (l.contains("dagannoth rex"))                  return "Dagannoth Rex";
-        if (l.contains("dagannoth supreme"))              return "Dagannoth Supreme";
-        if (l.contains("skotizo"))                        return "Skotizo";
-        if (l.contains("hespori"))                        return "Hespori";
-
-        if (l.contains("barrows"))                        return "Barrows";
-        if (l.contains("tempoross"))                      return "Tempoross";
-        if (l.contains("wintertodt"))                     return "Wintertodt";
-        if (l.contains("zalcano"))                        return "Zalcano";
-
-        if (l.contains("beginner clue") || (l.contains("beginner") && l.contains("clue")))
-            return "Beginner Clue";
-        if (l.contains("easy clue") || (l.contains("easy") && l.contains("clue")))
-            return "Easy Clue";
-        if (l.contains("medium clue") || (l.contains("medium") && l.contains("clue")))
-            return "Medium Clue";
-        if (l.contains("hard clue") || (l.contains("hard") && l.contains("clue")))
-            return "Hard Clue";
-        if (l.contains("elite clue") || (l.contains("elite") && l.contains("clue")))
-            return "Elite Clue";
-        if (l.contains("master clue") || (l.contains("master") && l.contains("clue")))
-            return "Master Clue";
-
-        return raw.trim();
+        int rule = NAME_AUTOMATON.first(l);
+        if (rule >= 0) return NAME_RULES[rule][1];
+
+        for (String[] exact : EXACT_RULES)
+        {
+            if (l.equals(exact[0])) return exact[1];
+        }
+
+        if (l.contains("clue"))
+        {
+            for (String[] clue : CLUE_RULES)
+            {
+                if (l.contains(clue[0])) return clue[1];
+            }
+        }
+
+        return raw;
+    }
+
+    private static boolean classify(String name)
+    {
+        return BOSS_AUTOMATON.first(name.toLowerCase()) >= 0;
     }
 }
@@ -0,0 +1,218 @@
+package com.runealytics;
+
+/**
+ * Decides which chat handlers a game message is relevant to.
+ *
+ * <p>Every {@code GAMEMESSAGE}/{@code SPAM} line used to walk a chain of
+ * {@code toLowerCase()} / {@code contains()} checks in the plugin, the death
+ * guard and the chest-source detector before almost always falling through.
+ * In raids and minigames that is hundreds of lines a minute on the client
+ * thread. Now one {@link KeywordAutomaton} pass over the message finds every
+ * keyword any handler cares about, and the predicates below decide from that
+ * bit set alone which handlers run. A message with no keyword at all (the
+ * usual case) costs a single scan and nothing else.</p>
+ *
+ * <p>Keywords are matched case-insensitively with chat markup skipped (see
+ * {@link KeywordAutomaton}). Each predicate mirrors the substring condition
+ * it replaced; the handlers it admits still do their own parsing.</p>
+ */
+final class ChatMessageRouter
+{
+    private ChatMessageRouter() {}
+
+    /** Every substring some chat handler keys on. Bit = ordinal. */
+    enum Keyword
+    {
+        // Death recovery guard
+        DEATH_OVERHEAD("oh dear, you are dead!"),
+        DEATH_IRONMAN("you have died."),
+        GRAVESTONE_RECLAIM("your gravestone has been reclaimed"),
+        GRAVESTONE_COLLAPSED("your gravestone has collapsed"),
+
+        // Crate minigames
+        SUBDUED_SPIRIT("subdued the spirit"),
+        HELPED_SUBDUE("you have helped to subdue"),
+        SUPPLY_CRATE("supply crate"),
+        WINTERTODT("wintertodt"),
+
+        // Kill counts, pets, Ring of Wealth
+        WHISPERER("whisperer"),
+        KILL_COUNT("kill count"),
+        COUNT_IS("count is"),
+        PET_FOLLOWED("funny feeling like you're being followed"),
+        PET_BACKPACK("sneaking into your backpack"),
+        RING_OF_WEALTH("ring of wealth"),
+        AUTO_PICKED_UP("automatically picked up"),
+        AUTO_ALCHED("automatically alched"),
+
+        // Chest-source fallback
+        ZALCANO("zalcano"),
+        LOOT("loot"),
+        DEFEATED("defeated"),
+        COMPLETE("complete"),
+        COX_COMPLETE_DASH("congratulations - your raid is complete"),
+        COX_COMPLETE_BANG("congratulations! your raid is complete"),
+        THEATRE_OF_BLOOD("theatre of blood"),
+        TOMBS_OF_AMASCUT("tombs of amascut"),
+        GAUNTLET("gauntlet"),
+        CORRUPTED("corrupted"),
+        PHOSANI("phosani"),
+        NIGHTMARE("nightmare"),
+        ROYAL_TITANS("royal titans"),
+        ELDRIC("eldric the ice king"),
+        BRANDA("branda the fire queen"),
+        COLOSSEUM("colosseum"),
+        FORTIS("fortis"),
+        TREASURE_TRAIL("treasure trail"),
+        BEGINNER("beginner"),
+        EASY("easy"),
+        MEDIUM("medium"),
+        HARD("hard"),
+        ELITE("elite"),
+        MASTER("master");
+
+        final String text;
+        final long   bit;
+
+        Keyword(String text)
+        {
+            this.text = text;
+            this.bit  = 1L << ordinal();
+        }
+    }
+
+    private static final KeywordAutomaton AUTOMATON = compile();
+
+    private static final long DEATH_GUARD = mask(Keyword.DEATH_OVERHEAD, Keyword.DEATH_IRONMAN,
+            Keyword.GRAVESTONE_RECLAIM, Keyword.GRAVESTONE_COLLAPSED);
+    private static final long TEMPOROSS   = mask(Keyword.SUBDUED_SPIRIT, Keyword.HELPED_SUBDUE);
+    private static final long PET         = mask(Keyword.PET_FOLLOWED, Keyword.PET_BACKPACK);
+    private static final long AUTO_LOOTED = mask(Keyword.AUTO_PICKED_UP, Keyword.AUTO_ALCHED);
+
+    private static KeywordAutomaton compile()
+    {
+        Keyword[] keywords = Keyword.values();
+        String[] texts = new String[keywords.length];
+        for (int i = 0; i < keywords.length; i++) texts[i] = keywords[i].text;
+        return new KeywordAutomaton(texts);
+    }
+
+    private static long mask(Keyword... keywords)
+    {
+        long m = 0L;
+        for (Keyword k : keywords) m |= k.bit;
+        return m;
+    }
+
+    /** Keyword bit set of a raw chat message (markup and all). */
+    static long scan(String message)
+    {
+        return AUTOMATON.match(message);
+    }
+
+    static boolean has(long keywords, Keyword keyword)
+    {
+        return (keywords & keyword.bit) != 0;
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  ROUTES
+    // ═════════════════════════════════════════════════════════════════════════
+
+    /** Death or gravestone message for {@link DeathRecoveryGuard#onChatMessage}. */
+    static boolean deathGuard(long keywords)
+    {
+        return (keywords & DEATH_GUARD) != 0;
+    }
+
+    static boolean tempoross(long keywords)
+    {
+        return (keywords & TEMPOROSS) != 0;
+    }
+
+    static boolean wintertodtCrate(long keywords)
+    {
+        return has(keywords, Keyword.SUPPLY_CRATE) && has(keywords, Keyword.WINTERTODT);
+    }
+
+    static boolean whispererKillCount(long keywords)
+    {
+        return has(keywords, Keyword.WHISPERER) && has(keywords, Keyword.KILL_COUNT);
+    }
+
+    static boolean petDrop(long keywords)
+    {
+        return (keywords & PET) != 0;
+    }
+
+    /** Pet message for a pet that went to the bank rather than the inventory. */
+    static boolean petWentToBank(long keywords)
+    {
+        return has(keywords, Keyword.PET_BACKPACK);
+    }
+
+    static boolean ringOfWealthPickup(long keywords)
+    {
+        return has(keywords, Keyword.RING_OF_WEALTH) && (keywords & AUTO_LOOTED) != 0;
+    }
+
+    /** Any "... count is: N" form, for {@link KillCountResolver}. */
+    static boolean killCount(long keywords)
+    {
+        return has(keywords, Keyword.COUNT_IS);
+    }
+
+    /**
+     * Reward source a completion message names, used when no widget told us
+     * which chest is being looted; {@code null} when it names none.
+     */
+    static String chestSource(long keywords)
+    {
+        if (has(keywords, Keyword.WINTERTODT))
+            return "Wintertodt";
+
+        if (tempoross(keywords))
+            return "Tempoross";
+
+        if (has(keywords, Keyword.ZALCANO)
+                && (has(keywords, Keyword.LOOT) || has(keywords, Keyword.DEFEATED)))
+            return "Zalcano";
+
+        if (has(keywords, Keyword.COX_COMPLETE_DASH) || has(keywords, Keyword.COX_COMPLETE_BANG))
+            return "Chambers of Xeric";
+
+        if (has(keywords, Keyword.THEATRE_OF_BLOOD) && has(keywords, Keyword.COMPLETE))
+            return "Theatre of Blood";
+
+        if (has(keywords, Keyword.TOMBS_OF_AMASCUT) && has(keywords, Keyword.COMPLETE))
+            return "Tombs of Amascut";
+
+        if (has(keywords, Keyword.GAUNTLET) && has(keywords, Keyword.COMPLETE))
+            return has(keywords, Keyword.CORRUPTED) ? "Corrupted Gauntlet" : "The Gauntlet";
+
+        if (has(keywords, Keyword.PHOSANI) && has(keywords, Keyword.DEFEATED))
+            return "Phosani's Nightmare";
+        if (has(keywords, Keyword.NIGHTMARE) && has(keywords, Keyword.DEFEATED))
+            return "The Nightmare";
+
+        if (has(keywords, Keyword.ROYAL_TITANS) || has(keywords, Keyword.ELDRIC)
+                || has(keywords, Keyword.BRANDA))
+            return "Royal Titans";
+
+        if (has(keywords, Keyword.COLOSSEUM) || has(keywords, Keyword.FORTIS))
+            return "Fortis Colosseum";
+
+        if (has(keywords, Keyword.TREASURE_TRAIL))
+        {
+            if (has(keywords, Keyword.BEGINNER)) return "Beginner Clue";
+            if (has(keywords, Keyword.EASY))     return "Easy Clue";
+            if (has(keywords, Keyword.MEDIUM))   return "Medium Clue";
+            if (has(keywords, Keyword.HARD))     return "Hard Clue";
+            if (has(keywords, Keyword.ELITE))    return "Elite Clue";
+            if (has(keywords, Keyword.MASTER))   return "Master Clue";
+            return "Clue Scroll";
+        }
+
+        return null;
+    }
+}
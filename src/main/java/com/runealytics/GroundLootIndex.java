@@ -0,0 +1,150 @@
+package com.runealytics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Open ground-loot attribution windows, bucketed by tile so a spawned item
+ * is matched against the kills around it rather than every open kill.
+ *
+ * <p>The world is cut into {@code 8×8} tile buckets per plane. Because the
+ * attribution radius is smaller than a bucket, the nearest kill to any tile
+ * is always in that tile's bucket or one of its eight neighbours, so a lookup
+ * touches at most nine short lists however many kills an AOE burst opened.
+ * Windows are also queued in kill order and expire off the head of that
+ * queue, replacing a full {@code removeIf} sweep per spawn.</p>
+ *
+ * <p>Matching is the same as the linear scan it replaces: the closest kill
+ * (Chebyshev distance, same plane) within {@code maxDistance}, and the
+ * earliest kill on a tie. Empty buckets are kept until every window has
+ * expired and are then dropped together, since {@link IntObjectMap} has no
+ * per-key removal.</p>
+ *
+ * <p>Not thread-safe; the plugin only touches it from the client thread.</p>
+ *
+ * @param <S> per-kill session payload
+ */
+final class GroundLootIndex<S>
+{
+    /** log2 of the bucket edge in tiles. */
+    static final int BUCKET_SHIFT = 3;
+
+    private static final int COORD_BITS = 13;
+    private static final int COORD_MASK = (1 << COORD_BITS) - 1;
+
+    private final long windowMs;
+    private final int maxDistance;
+
+    private final IntObjectMap<List<Entry<S>>> buckets = new IntObjectMap<>();
+    /** Every open window, oldest kill first. */
+    private final ArrayDeque<Entry<S>> byTime = new ArrayDeque<>();
+    private long nextSeq;
+
+    GroundLootIndex(long windowMs, int maxDistance)
+    {
+        if (maxDistance < 0 || maxDistance >= 1 << BUCKET_SHIFT)
+        {
+            throw new IllegalArgumentException("maxDistance must be between 0 and " + ((1 << BUCKET_SHIFT) - 1));
+        }
+        this.windowMs    = windowMs;
+        this.maxDistance = maxDistance;
+    }
+
+    private static final class Entry<S>
+    {
+        final S    session;
+        final int  x;
+        final int  y;
+        final long timeMs;
+        final long seq;
+        final List<Entry<S>> bucket;
+
+        Entry(S session, int x, int y, long timeMs, long seq, List<Entry<S>> bucket)
+        {
+            this.session = session;
+            this.x       = x;
+            this.y       = y;
+            this.timeMs  = timeMs;
+            this.seq     = seq;
+            this.bucket  = bucket;
+        }
+    }
+
+    /** Opens a window for a kill at {@code (x, y, plane)} at {@code timeMs}. */
+    void add(S session, int x, int y, int plane, long timeMs)
+    {
+        List<Entry<S>> bucket = buckets.computeIfAbsent(
+                key(x >> BUCKET_SHIFT, y >> BUCKET_SHIFT, plane), k -> new ArrayList<>(4));
+        Entry<S> entry = new Entry<>(session, x, y, timeMs, nextSeq++, bucket);
+        bucket.add(entry);
+        byTime.addLast(entry);
+    }
+
+    /**
+     * Closes windows older than the attribution window, then returns the
+     * session whose kill is closest to {@code (x, y, plane)}, or {@code null}.
+     */
+    S nearest(int x, int y, int plane, long nowMs)
+    {
+        expire(nowMs);
+        if (byTime.isEmpty()) return null;
+
+        int bx = x >> BUCKET_SHIFT;
+        int by = y >> BUCKET_SHIFT;
+        Entry<S> best = null;
+        int bestDist = Integer.MAX_VALUE;
+        for (int dx = -1; dx <= 1; dx++)
+        {
+            for (int dy = -1; dy <= 1; dy++)
+            {
+                List<Entry<S>> bucket = buckets.get(key(bx + dx, by + dy, plane));
+                if (bucket == null) continue;
+                for (int i = 0; i < bucket.size(); i++)
+                {
+                    Entry<S> e = bucket.get(i);
+                    int dist = Math.max(Math.abs(e.x - x), Math.abs(e.y - y));
+                    if (dist > maxDistance) continue;
+                    if (dist < bestDist || (dist == bestDist && e.seq < best.seq))
+                    {
+                        best = e;
+                        bestDist = dist;
+                    }
+                }
+            }
+        }
+        return best != null ? best.session : null;
+    }
+
+    /** Drops every window whose kill is more than the attribution window before {@code nowMs}. */
+    void expire(long nowMs)
+    {
+        while (!byTime.isEmpty() && nowMs - byTime.peekFirst().timeMs > windowMs)
+        {
+            Entry<S> e = byTime.pollFirst();
+            e.bucket.remove(e);
+        }
+        if (byTime.isEmpty() && !buckets.isEmpty()) buckets.clear();
+    }
+
+    int size()
+    {
+        return byTime.size();
+    }
+
+    boolean isEmpty()
+    {
+        return byTime.isEmpty();
+    }
+
+    void clear()
+    {
+        byTime.clear();
+        buckets.clear();
+    }
+
+    private static int key(int bx, int by, int plane)
+    {
+        return (plane << (COORD_BITS * 2)) | ((bx & COORD_MASK) << COORD_BITS) | (by & COORD_MASK);
+    }
+}
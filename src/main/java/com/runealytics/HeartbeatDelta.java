@@ -0,0 +1,183 @@
+package com.runealytics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Delta encoder for the large, slow-changing sections of the live-map
+ * heartbeat: friends, ignores, equipment and inventory.
+ *
+ * <p>Every heartbeat carries a {@code hashes} object with a 64-bit content
+ * hash of each section. A section's full value is only included when its hash
+ * differs from the one the server last acknowledged. An idle player at a bank
+ * therefore sends the small scalar fields plus four hashes instead of the full
+ * arrays. The server keeps the last value it received per section and checks
+ * the hashes of the omitted ones against it.</p>
+ *
+ * <p>Three things force a full keyframe, where every section is sent:</p>
+ * <ul>
+ *   <li>the first heartbeat for an account, and the first after {@link #reset};</li>
+ *   <li>every {@link #KEYFRAME_EVERY}th heartbeat, bounding how long a server
+ *       that silently lost state can stay out of date;</li>
+ *   <li>a resync request from the server ({@code "resync": true} or HTTP 409),
+ *       sent when an omitted section's hash doesn't match what it holds.</li>
+ * </ul>
+ *
+ * <p>Acknowledged hashes only advance on a successful response, so a lost or
+ * failed heartbeat simply resends the same sections next time. Acks that arrive
+ * out of order are ignored.</p>
+ *
+ * <p>Thread-safe: frames are encoded on the executor and acknowledged on
+ * OkHttp's callback thread.</p>
+ */
+final class HeartbeatDelta
+{
+    /** One keyframe per this many heartbeats (~5 minutes at the 20s period). */
+    static final int KEYFRAME_EVERY = 15;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME  = 0x100000001b3L;
+
+    /** What one encoded heartbeat claimed, pending the server's response. */
+    static final class Frame
+    {
+        final String  account;
+        final long    seq;
+        final boolean keyframe;
+        final Map<String, Long> hashes;
+
+        private Frame(String account, long seq, boolean keyframe, Map<String, Long> hashes)
+        {
+            this.account  = account;
+            this.seq      = seq;
+            this.keyframe = keyframe;
+            this.hashes   = hashes;
+        }
+    }
+
+    private final Map<String, Long> acked = new HashMap<>();
+    private String account;
+    private long   nextSeq;
+    private long   ackedSeq = -1;
+    private int    sinceKeyframe;
+    private boolean keyframeDue = true;
+
+    /**
+     * Adds {@code keyframe}, {@code hashes} and every changed section of
+     * {@code sections} to {@code payload}, and returns the frame to pass to
+     * {@link #ack} once the server has answered.
+     */
+    synchronized Frame encode(String account, Map<String, JsonElement> sections, JsonObject payload)
+    {
+        if (!account.equals(this.account))
+        {
+            reset();
+            this.account = account;
+        }
+        if (++sinceKeyframe >= KEYFRAME_EVERY) keyframeDue = true;
+
+        boolean keyframe = keyframeDue;
+        if (keyframe)
+        {
+            keyframeDue   = false;
+            sinceKeyframe = 0;
+        }
+
+        Map<String, Long> hashes = new LinkedHashMap<>();
+        JsonObject hashJson = new JsonObject();
+        for (Map.Entry<String, JsonElement> e : sections.entrySet())
+        {
+            long hash = hash(e.getValue());
+            hashes.put(e.getKey(), hash);
+            hashJson.addProperty(e.getKey(), Long.toHexString(hash));
+
+            Long previous = acked.get(e.getKey());
+            if (keyframe || previous == null || previous != hash)
+            {
+                payload.add(e.getKey(), e.getValue());
+            }
+        }
+        payload.addProperty("keyframe", keyframe);
+        payload.add("hashes", hashJson);
+        return new Frame(account, nextSeq++, keyframe, hashes);
+    }
+
+    /**
+     * Records the server's answer to {@code frame}. On success its hashes
+     * become the baseline for the next delta; a resync request forces the
+     * next heartbeat to be a keyframe.
+     */
+    synchronized void ack(Frame frame, boolean resyncRequested)
+    {
+        if (!frame.account.equals(account)) return;
+        if (resyncRequested)
+        {
+            acked.clear();
+            keyframeDue = true;
+            return;
+        }
+        if (frame.seq <= ackedSeq) return;
+        ackedSeq = frame.seq;
+        acked.putAll(frame.hashes);
+    }
+
+    /** Forgets every acknowledged hash so the next heartbeat is a keyframe. */
+    synchronized void reset()
+    {
+        acked.clear();
+        account       = null;
+        ackedSeq      = nextSeq - 1;
+        sinceKeyframe = 0;
+        keyframeDue   = true;
+    }
+
+    /**
+     * 64-bit FNV-1a over the structure of {@code element}. Only compared with
+     * earlier hashes from this client, so it need not match any server-side
+     * hash; it walks the tree instead of serializing it.
+     */
+    static long hash(JsonElement element)
+    {
+        return mix(FNV_OFFSET, element);
+    }
+
+    private static long mix(long h, JsonElement element)
+    {
+        if (element == null || element.isJsonNull()) return step(h, 'n');
+        if (element.isJsonPrimitive())
+        {
+            h = step(h, element.getAsJsonPrimitive().isString() ? 's' : 'p');
+            return mix(h, element.getAsString());
+        }
+        if (element.isJsonArray())
+        {
+            JsonArray arr = element.getAsJsonArray();
+            h = step(step(h, '['), arr.size());
+            for (JsonElement child : arr) h = mix(h, child);
+            return step(h, ']');
+        }
+        h = step(h, '{');
+        for (Map.Entry<String, JsonElement> e : element.getAsJsonObject().entrySet())
+        {
+            h = mix(h, e.getKey());
+            h = mix(h, e.getValue());
+        }
+        return step(h, '}');
+    }
+
+    private static long mix(long h, String s)
+    {
+        h = step(h, s.length());
+        for (int i = 0; i < s.length(); i++) h = step(h, s.charAt(i));
+        return h;
+    }
+
+    private static long step(long h, int value)
+    {
+        return (h ^ value) * FNV_PRIME;
+    }
+}
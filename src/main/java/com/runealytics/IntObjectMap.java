@@ -0,0 +1,123 @@
+package com.runealytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Minimal open-addressing {@code int → V} map for hot per-item bookkeeping
+ * (item ids are the key almost everywhere in this plugin).
+ *
+ * <p>Avoids the {@code Integer} boxing and per-entry node allocation of a
+ * {@code HashMap<Integer, V>}: keys live in a primitive {@code int[]} probed
+ * linearly, and values are kept in insertion order in a plain list so
+ * iteration is a straight array walk. There is no per-key removal — callers
+ * only ever grow the map or {@link #clear()} it, which is all the aggregate
+ * use cases need.</p>
+ *
+ * <p>Not thread-safe; owners synchronize externally.</p>
+ */
+final class IntObjectMap<V>
+{
+    private static final int MIN_CAPACITY = 16;
+
+    /** Probe table: item keys. Only meaningful where {@link #slots} is non-zero. */
+    private int[] keys;
+    /** Probe table: {@code index into values + 1}; 0 marks an empty slot. */
+    private int[] slots;
+    private final List<V> values = new ArrayList<>();
+
+    IntObjectMap()
+    {
+        keys  = new int[MIN_CAPACITY];
+        slots = new int[MIN_CAPACITY];
+    }
+
+    V get(int key)
+    {
+        int mask = slots.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask)
+        {
+            int slot = slots[i];
+            if (slot == 0) return null;
+            if (keys[i] == key) return values.get(slot - 1);
+        }
+    }
+
+    /** Returns the value for {@code key}, creating it with {@code factory} when absent. */
+    V computeIfAbsent(int key, IntFunction<V> factory)
+    {
+        int mask = slots.length - 1;
+        int i = mix(key) & mask;
+        for (; slots[i] != 0; i = (i + 1) & mask)
+        {
+            if (keys[i] == key) return values.get(slots[i] - 1);
+        }
+
+        V value = factory.apply(key);
+        values.add(value);
+        keys[i]  = key;
+        slots[i] = values.size();
+
+        // Keep the load factor at or below 1/2 so probe chains stay short.
+        if (values.size() * 2 > slots.length) rehash(slots.length * 2);
+        return value;
+    }
+
+    int size()
+    {
+        return values.size();
+    }
+
+    boolean isEmpty()
+    {
+        return values.isEmpty();
+    }
+
+    /** Read-only view of the values in insertion order. */
+    List<V> values()
+    {
+        return Collections.unmodifiableList(values);
+    }
+
+    void clear()
+    {
+        values.clear();
+        if (slots.length > MIN_CAPACITY)
+        {
+            keys  = new int[MIN_CAPACITY];
+            slots = new int[MIN_CAPACITY];
+        }
+        else
+        {
+            Arrays.fill(slots, 0);
+        }
+    }
+
+    private void rehash(int capacity)
+    {
+        int[] oldKeys  = keys;
+        int[] oldSlots = slots;
+        keys  = new int[capacity];
+        slots = new int[capacity];
+        int mask = capacity - 1;
+
+        for (int j = 0; j < oldSlots.length; j++)
+        {
+            if (oldSlots[j] == 0) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            keys[i]  = oldKeys[j];
+            slots[i] = oldSlots[j];
+        }
+    }
+
+    /** Spreads sequential item ids across the table (Murmur3 finaliser). */
+    private static int mix(int key)
+    {
+        int h = key * 0x85EBCA6B;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,267 @@
+package com.runealytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.runelite.api.Item;
+
+/**
+ * Immutable, id-merged view of an item container for the inventory-diff loot
+ * paths (equip swaps, skilling, pickpocket, impling jars, crates, Ring of
+ * Wealth, pets).
+ *
+ * <p>Contents are two primitive arrays sorted by item id, one entry per id
+ * with the summed quantity, so every diff is a single sorted merge with no
+ * boxing or hashing. Diffs that change nothing return an existing instance
+ * ({@link #EMPTY} or the receiver) instead of allocating, which is the common
+ * case on the hot {@code ItemContainerChanged} path. {@link ItemStack} lists
+ * are only built, via {@link #toItemStacks()}, when a non-empty result is
+ * handed to the loot manager.</p>
+ *
+ * <p>Snapshots are read from the client through a {@link Capture}, which owns
+ * the reusable scratch buffer. Snapshots themselves are safe to share across
+ * threads.</p>
+ */
+final class InventorySnapshot
+{
+    static final InventorySnapshot EMPTY = new InventorySnapshot(new int[0], new int[0]);
+
+    /** Item ids, strictly ascending. */
+    private final int[] ids;
+    /** Quantity per id, always positive. */
+    private final int[] quantities;
+
+    private InventorySnapshot(int[] ids, int[] quantities)
+    {
+        this.ids        = ids;
+        this.quantities = quantities;
+    }
+
+    int size()
+    {
+        return ids.length;
+    }
+
+    boolean isEmpty()
+    {
+        return ids.length == 0;
+    }
+
+    int idAt(int i)
+    {
+        return ids[i];
+    }
+
+    int quantityAt(int i)
+    {
+        return quantities[i];
+    }
+
+    /** Quantity held of {@code itemId}, or 0. */
+    int quantityOf(int itemId)
+    {
+        int i = Arrays.binarySearch(ids, itemId);
+        return i >= 0 ? quantities[i] : 0;
+    }
+
+    /**
+     * Items that are new or increased in {@code after} relative to
+     * {@code before}, by the amount gained.
+     */
+    static InventorySnapshot gained(InventorySnapshot before, InventorySnapshot after)
+    {
+        return after.minus(before);
+    }
+
+    /**
+     * This snapshot less {@code other}, id by id; ids that end up at zero or
+     * below are left out. Returns {@code this} when nothing overlaps.
+     *
+     * <p>Also used to strip equip/unequip noise out of a gain: an unequipped
+     * item lands in the inventory exactly like a drop would, so the caller
+     * subtracts whatever just left the equipment container.</p>
+     */
+    InventorySnapshot minus(InventorySnapshot other)
+    {
+        if (other == this) return EMPTY;
+        if (isEmpty() || other.isEmpty()) return this;
+
+        // Pass 1 sizes the result so it can be allocated exactly, or skipped.
+        int[] oIds = other.ids;
+        int kept = 0;
+        boolean changed = false;
+        for (int i = 0, j = 0; i < ids.length; i++)
+        {
+            while (j < oIds.length && oIds[j] < ids[i]) j++;
+            int left = remaining(i, other, j);
+            if (left > 0) kept++;
+            if (left != quantities[i]) changed = true;
+        }
+        if (!changed) return this;
+        if (kept == 0) return EMPTY;
+
+        int[] outIds = new int[kept];
+        int[] outQty = new int[kept];
+        int k = 0;
+        for (int i = 0, j = 0; i < ids.length; i++)
+        {
+            while (j < oIds.length && oIds[j] < ids[i]) j++;
+            int left = remaining(i, other, j);
+            if (left > 0)
+            {
+                outIds[k] = ids[i];
+                outQty[k] = left;
+                k++;
+            }
+        }
+        return new InventorySnapshot(outIds, outQty);
+    }
+
+    /** Quantity at {@code i} less {@code other}'s quantity at {@code j} when the ids match. */
+    private int remaining(int i, InventorySnapshot other, int j)
+    {
+        if (j < other.ids.length && other.ids[j] == ids[i])
+        {
+            return quantities[i] - other.quantities[j];
+        }
+        return quantities[i];
+    }
+
+    /** Fresh, mutable {@link ItemStack} list in ascending id order. */
+    List<ItemStack> toItemStacks()
+    {
+        if (isEmpty()) return new ArrayList<>();
+
+        List<ItemStack> out = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++)
+        {
+            out.add(new ItemStack(ids[i], quantities[i]));
+        }
+        return out;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (!(o instanceof InventorySnapshot)) return false;
+        InventorySnapshot other = (InventorySnapshot) o;
+        return Arrays.equals(ids, other.ids) && Arrays.equals(quantities, other.quantities);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * Arrays.hashCode(ids) + Arrays.hashCode(quantities);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "InventorySnapshot" + toItemStacks();
+    }
+
+    /**
+     * Builds snapshots from raw container slots or stack lists, reusing one
+     * scratch buffer across calls. Each slot is packed as
+     * {@code id << 32 | quantity} so a single primitive sort groups
+     * duplicate ids together.
+     *
+     * <p>When the result has the same contents as {@code previous}, that
+     * instance is returned instead of a copy, so an unchanged container
+     * costs no allocation and later diffs against it short-circuit on
+     * identity.</p>
+     *
+     * <p>Not thread-safe: the plugin keeps one per thread that reads
+     * containers (the client thread).</p>
+     */
+    static final class Capture
+    {
+        private long[] packed = new long[32];
+        private int count;
+
+        /** Snapshot of container slots; empty and {@code null} slots are skipped. */
+        InventorySnapshot of(Item[] items, InventorySnapshot previous)
+        {
+            count = 0;
+            if (items != null)
+            {
+                for (Item item : items)
+                {
+                    if (item != null) add(item.getId(), item.getQuantity());
+                }
+            }
+            return build(previous);
+        }
+
+        /** Snapshot of parallel slot arrays, as {@link #of(Item[], InventorySnapshot)}. */
+        InventorySnapshot of(int[] slotIds, int[] slotQuantities, InventorySnapshot previous)
+        {
+            count = 0;
+            for (int i = 0; i < slotIds.length; i++)
+            {
+                add(slotIds[i], slotQuantities[i]);
+            }
+            return build(previous);
+        }
+
+        /** Merges a stack list with repeated ids into one entry per id. */
+        InventorySnapshot of(List<ItemStack> stacks)
+        {
+            count = 0;
+            for (ItemStack s : stacks)
+            {
+                add(s.getId(), s.getQuantity());
+            }
+            return build(null);
+        }
+
+        private void add(int id, int quantity)
+        {
+            if (id <= 0 || quantity <= 0) return;
+            if (count == packed.length) packed = Arrays.copyOf(packed, count * 2);
+            packed[count++] = ((long) id << 32) | quantity;
+        }
+
+        private InventorySnapshot build(InventorySnapshot previous)
+        {
+            if (count == 0) return EMPTY;
+            Arrays.sort(packed, 0, count);
+
+            // Pass 1: count distinct ids and compare against the previous snapshot.
+            int distinct = 0;
+            boolean same = previous != null;
+            for (int i = 0; i < count; )
+            {
+                int id = (int) (packed[i] >>> 32);
+                long sum = 0;
+                for (; i < count && (int) (packed[i] >>> 32) == id; i++)
+                {
+                    sum += (int) packed[i];
+                }
+                int qty = (int) Math.min(sum, Integer.MAX_VALUE);
+                if (same && (distinct >= previous.ids.length
+                        || previous.ids[distinct] != id || previous.quantities[distinct] != qty))
+                {
+                    same = false;
+                }
+                distinct++;
+            }
+            if (same && distinct == previous.ids.length) return previous;
+
+            int[] outIds = new int[distinct];
+            int[] outQty = new int[distinct];
+            int k = -1;
+            for (int i = 0; i < count; i++)
+            {
+                int id = (int) (packed[i] >>> 32);
+                if (k < 0 || outIds[k] != id)
+                {
+                    outIds[++k] = id;
+                }
+                outQty[k] = (int) Math.min((long) outQty[k] + (int) packed[i], Integer.MAX_VALUE);
+            }
+            return new InventorySnapshot(outIds, outQty);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.runealytics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.ItemComposition;
+import net.runelite.client.game.ItemManager;
+
+/**
+ * Per-item-id memo of everything the plugin reads from {@link ItemManager}
+ * to value an item: resolved GE price (via {@link ItemValueResolver}),
+ * high-alch, name and tradeable flag.
+ *
+ * <p>Bank snapshots, loot recording, value backfill and the skilling economy
+ * all value the same few hundred ids over and over. Each of those lookups
+ * costs a canonicalize, a price read and one or two composition reads on the
+ * client thread. With the cache, the first {@link #get} resolves the id and
+ * every later call is a single map read.</p>
+ *
+ * <p><b>Invalidation.</b> RuneLite reloads GE prices in the background
+ * without posting an event. Three checks catch that:</p>
+ * <ul>
+ *   <li>Every {@link #PROBE_INTERVAL_MS}, {@link #get} re-reads the raw price
+ *       of a few cached tradeable ids. If any has moved, the whole cache is
+ *       dropped.</li>
+ *   <li>Each entry also expires after {@link #MAX_AGE_MS}, matching
+ *       ItemManager's reload cadence, as a backstop when the probed prices
+ *       happen not to change.</li>
+ *   <li>A tradeable item whose raw GE price read as 0 — usually because
+ *       the price table has not loaded yet, which the probe can't see since
+ *       it only watches prices it has seen — is only kept for
+ *       {@link #UNPRICED_MAX_AGE_MS}, so its high-alch fallback value does
+ *       not stick for half an hour.</li>
+ * </ul>
+ *
+ * <p><b>Threading.</b> {@link #get} may call into ItemManager and MUST run on
+ * the client thread. {@link ItemValue}s are immutable, and {@link #peek} never
+ * touches ItemManager, so any thread (EDT, sync executors) can read whatever
+ * the client thread has already resolved.</p>
+ */
+@Slf4j
+@Singleton
+public class ItemValueCache
+{
+    /** ItemManager refreshes its price table on this schedule. */
+    static final long MAX_AGE_MS = TimeUnit.MINUTES.toMillis(30);
+    /** Lifetime of a tradeable item cached while its GE price is missing. */
+    static final long UNPRICED_MAX_AGE_MS = TimeUnit.SECONDS.toMillis(10);
+    static final long PROBE_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+    static final int PROBE_ITEMS = 8;
+
+    /** Immutable valuation of one item id. */
+    @Getter
+    public static final class ItemValue
+    {
+        private final int itemId;
+        private final String name;
+        /** Per-item GE value as resolved by {@link ItemValueResolver#perItemGeValue}. */
+        private final int gePrice;
+        /** High-alch of the item or its canonical form, whichever is higher. */
+        private final int highAlch;
+        private final boolean tradeable;
+        private final long loadedAtMs;
+        @Getter(AccessLevel.NONE)
+        private final long maxAgeMs;
+
+        ItemValue(int itemId, String name, int gePrice, int highAlch, boolean tradeable,
+                  long loadedAtMs, long maxAgeMs)
+        {
+            this.itemId     = itemId;
+            this.name       = name;
+            this.gePrice    = gePrice;
+            this.highAlch   = highAlch;
+            this.tradeable  = tradeable;
+            this.loadedAtMs = loadedAtMs;
+            this.maxAgeMs   = maxAgeMs;
+        }
+    }
+
+    private final ItemManager itemManager;
+    private final LongSupplier clock;
+
+    private final Map<Integer, ItemValue> values = new ConcurrentHashMap<>();
+
+    /** Client thread only: canonical ids whose raw price is re-checked, and the price seen. */
+    private final int[] probeIds    = new int[PROBE_ITEMS];
+    private final int[] probePrices = new int[PROBE_ITEMS];
+    private int  probeCount;
+    private long lastProbeMs;
+
+    @Inject
+    public ItemValueCache(ItemManager itemManager)
+    {
+        this(itemManager, System::currentTimeMillis);
+    }
+
+    /** Test seam: injectable clock. */
+    ItemValueCache(ItemManager itemManager, LongSupplier clock)
+    {
+        this.itemManager = itemManager;
+        this.clock       = clock;
+        this.lastProbeMs = clock.getAsLong();
+    }
+
+    /**
+     * Valuation of {@code itemId}, resolving and caching it on a miss.
+     * MUST be called on the client thread.
+     */
+    public ItemValue get(int itemId)
+    {
+        long now = clock.getAsLong();
+        if (now - lastProbeMs >= PROBE_INTERVAL_MS)
+        {
+            lastProbeMs = now;
+            probe();
+        }
+
+        ItemValue cached = values.get(itemId);
+        if (cached != null && isFresh(cached, now)) return cached;
+
+        ItemValue resolved = resolve(itemId, now);
+        values.put(itemId, resolved);
+        return resolved;
+    }
+
+    /** Shorthand for {@code get(itemId).getGePrice()}. MUST be called on the client thread. */
+    public int gePrice(int itemId)
+    {
+        return get(itemId).gePrice;
+    }
+
+    /**
+     * Cached valuation of {@code itemId}, or {@code null} if the client thread
+     * has not resolved it since the last invalidation. Safe on any thread.
+     */
+    public ItemValue peek(int itemId)
+    {
+        ItemValue cached = values.get(itemId);
+        if (cached == null || !isFresh(cached, clock.getAsLong())) return null;
+        return cached;
+    }
+
+    /** Drops every cached valuation. */
+    public void invalidate()
+    {
+        values.clear();
+        probeCount = 0;
+    }
+
+    int size()
+    {
+        return values.size();
+    }
+
+    private static boolean isFresh(ItemValue value, long now)
+    {
+        return now - value.loadedAtMs < value.maxAgeMs;
+    }
+
+    private ItemValue resolve(int itemId, long now)
+    {
+        if (itemManager == null || itemId <= 0)
+        {
+            return new ItemValue(itemId, "Item " + itemId, 0, 0, false, now, MAX_AGE_MS);
+        }
+
+        int gePrice = ItemValueResolver.perItemGeValue(itemManager, itemId);
+        int canonical = itemManager.canonicalize(itemId);
+
+        String name = "Item " + itemId;
+        int highAlch = 0;
+        boolean tradeable = false;
+        ItemComposition comp = itemManager.getItemComposition(itemId);
+        if (comp != null)
+        {
+            if (comp.getName() != null) name = comp.getName();
+            highAlch  = comp.getHaPrice();
+            tradeable = comp.isTradeable();
+        }
+        if (canonical != itemId)
+        {
+            ItemComposition canonicalComp = itemManager.getItemComposition(canonical);
+            if (canonicalComp != null) highAlch = Math.max(highAlch, canonicalComp.getHaPrice());
+        }
+
+        long maxAge = MAX_AGE_MS;
+        if (tradeable)
+        {
+            int raw = itemManager.getItemPrice(canonical);
+            if (raw <= 0)
+            {
+                maxAge = UNPRICED_MAX_AGE_MS;
+            }
+            else if (probeCount < PROBE_ITEMS)
+            {
+                probeIds[probeCount]    = canonical;
+                probePrices[probeCount] = raw;
+                probeCount++;
+            }
+        }
+        return new ItemValue(itemId, name, gePrice, highAlch, tradeable, now, maxAge);
+    }
+
+    /** Drops the cache if any probed raw price differs from what was cached. */
+    private void probe()
+    {
+        for (int i = 0; i < probeCount; i++)
+        {
+            if (itemManager.getItemPrice(probeIds[i]) != probePrices[i])
+            {
+                log.debug("[ItemValueCache] Price data refreshed; dropping {} cached values", values.size());
+                invalidate();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.runealytics;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Aho–Corasick automaton that finds which of a fixed set of keywords occur in
+ * a piece of text, in one left-to-right pass.
+ *
+ * <p>Matching is ASCII case-insensitive. Built for game chat, it by default
+ * also skips RuneScape markup ({@code <col=ff0000>}, {@code <br>}, ...)
+ * exactly as if it had been removed with {@code replaceAll("<[^>]+>", "")}:
+ * a keyword split by a tag still matches, and no keyword can match inside a
+ * tag.</p>
+ *
+ * <p>Two questions can be asked of a text: {@link #match} returns a bit set
+ * (bit {@code i} set when {@code keywords[i]} occurs, for automata of at most
+ * {@value #MAX_KEYWORDS} keywords), and {@link #first} returns the lowest
+ * index that occurs, which suits an ordered rule list where the first rule
+ * to fire wins. The goto/failure function is compiled into a dense
+ * transition table over the keywords' own characters (every other character
+ * is one shared class), so scanning costs one table lookup per character
+ * whatever the number of keywords, and allocates nothing.</p>
+ *
+ * <p>Immutable once built; safe to share across threads.</p>
+ */
+final class KeywordAutomaton
+{
+    /** Most keywords {@link #match} can report. */
+    static final int MAX_KEYWORDS = Long.SIZE;
+
+    private static final int NONE = Integer.MAX_VALUE;
+
+    private final boolean skipMarkup;
+
+    /** Column per distinct keyword character; column 0 is "any other character". */
+    private final int[] charClass = new int[128];
+    private final int columns;
+
+    /** {@code next[state * columns + column]}: total transition function. */
+    private final int[] next;
+    /**
+     * Keyword bits recognised on entering each state, failure chain included;
+     * {@code null} when there are more keywords than bits.
+     */
+    private final long[] output;
+    /** Lowest keyword index recognised on entering each state, or {@link #NONE}. */
+    private final int[] firstOutput;
+
+    /** Automaton for chat text: markup is skipped. */
+    KeywordAutomaton(String... keywords)
+    {
+        this(true, keywords);
+    }
+
+    KeywordAutomaton(boolean skipMarkup, String[] keywords)
+    {
+        if (keywords.length == 0)
+        {
+            throw new IllegalArgumentException("at least one keyword required");
+        }
+        this.skipMarkup = skipMarkup;
+
+        int classes = 0;
+        int totalLength = 0;
+        String[] folded = new String[keywords.length];
+        for (int k = 0; k < keywords.length; k++)
+        {
+            String keyword = keywords[k];
+            if (keyword == null || keyword.isEmpty())
+            {
+                throw new IllegalArgumentException("empty keyword at " + k);
+            }
+            folded[k] = keyword.toLowerCase(Locale.ROOT);
+            for (int i = 0; i < folded[k].length(); i++)
+            {
+                char c = folded[k].charAt(i);
+                if (c >= 128 || c == '<' || c == '>')
+                {
+                    throw new IllegalArgumentException("unsupported character in keyword '" + keyword + "'");
+                }
+                if (charClass[c] == 0)
+                {
+                    charClass[c] = ++classes;
+                    charClass[Character.toUpperCase(c)] = classes;
+                }
+            }
+            totalLength += folded[k].length();
+        }
+        columns = classes + 1;
+
+        // ── Trie ──────────────────────────────────────────────────────────────
+        int[] go = new int[(totalLength + 1) * columns];
+        Arrays.fill(go, -1);
+        boolean bits = keywords.length <= MAX_KEYWORDS;
+        long[] out = new long[totalLength + 1];
+        int[] first = new int[totalLength + 1];
+        Arrays.fill(first, NONE);
+        int states = 1;
+        for (int k = 0; k < folded.length; k++)
+        {
+            int state = 0;
+            for (int i = 0; i < folded[k].length(); i++)
+            {
+                int slot = state * columns + charClass[folded[k].charAt(i)];
+                if (go[slot] < 0) go[slot] = states++;
+                state = go[slot];
+            }
+            if (bits) out[state] |= 1L << k;
+            first[state] = Math.min(first[state], k);
+        }
+
+        // ── Failure links, folded into the transition table breadth-first ────
+        int[] fail  = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < columns; c++)
+        {
+            int v = go[c];
+            if (v < 0)
+            {
+                go[c] = 0;
+            }
+            else
+            {
+                fail[v] = 0;
+                queue[tail++] = v;
+            }
+        }
+        while (head < tail)
+        {
+            int u = queue[head++];
+            out[u] |= out[fail[u]];
+            first[u] = Math.min(first[u], first[fail[u]]);
+            for (int c = 0; c < columns; c++)
+            {
+                int slot = u * columns + c;
+                int v = go[slot];
+                if (v < 0)
+                {
+                    go[slot] = go[fail[u] * columns + c];
+                }
+                else
+                {
+                    fail[v] = go[fail[u] * columns + c];
+                    queue[tail++] = v;
+                }
+            }
+        }
+
+        next        = Arrays.copyOf(go, states * columns);
+        output      = bits ? Arrays.copyOf(out, states) : null;
+        firstOutput = Arrays.copyOf(first, states);
+    }
+
+    /** Bit set of the keywords occurring in {@code text}; 0 for null or empty text. */
+    long match(String text)
+    {
+        if (output == null)
+        {
+            throw new IllegalStateException("more than " + MAX_KEYWORDS + " keywords; use first()");
+        }
+        if (text == null) return 0L;
+
+        long found = 0L;
+        int state = 0;
+        boolean tags = skipMarkup;
+        int n = text.length();
+        for (int i = 0; i < n; i++)
+        {
+            char c = text.charAt(i);
+            if (c == '<' && tags)
+            {
+                int close = text.indexOf('>', i + 1);
+                if (close > i + 1)
+                {
+                    i = close;
+                    continue;
+                }
+                if (close < 0) tags = false; // no tag can close past here
+            }
+            state = next[state * columns + columnOf(c)];
+            found |= output[state];
+        }
+        return found;
+    }
+
+    /** Lowest index of a keyword occurring in {@code text}, or -1 when none does. */
+    int first(String text)
+    {
+        if (text == null) return -1;
+
+        int found = NONE;
+        int state = 0;
+        boolean tags = skipMarkup;
+        int n = text.length();
+        for (int i = 0; i < n; i++)
+        {
+            char c = text.charAt(i);
+            if (c == '<' && tags)
+            {
+                int close = text.indexOf('>', i + 1);
+                if (close > i + 1)
+                {
+                    i = close;
+                    continue;
+                }
+                if (close < 0) tags = false;
+            }
+            state = next[state * columns + columnOf(c)];
+            found = Math.min(found, firstOutput[state]);
+            if (found == 0) break;
+        }
+        return found == NONE ? -1 : found;
+    }
+
+    private int columnOf(char c)
+    {
+        if (c < 128) return charClass[c];
+        char lower = Character.toLowerCase(c);
+        return lower < 128 ? charClass[lower] : 0;
+    }
+}
@@ -1,6 +1,7 @@
 package com.runealytics;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
@@ -84,6 +85,17 @@ public class KillCountResolver
             Pattern.compile("your (.+?) count is:?\\s*([\\d,]+)", Pattern.CASE_INSENSITIVE),
     };
 
+    /**
+     * Literal (lower-case) text each of {@link #KC_PATTERNS} cannot match
+     * without, so a pattern is only tried on messages that contain it.
+     */
+    private static final String[] KC_REQUIRED = {
+            "your completed ",
+            "your subdued ",
+            "count is",
+            "count is",
+    };
+
     /** One authoritative-KC sighting parsed from chat. */
     public static final class KcObservation
     {
@@ -141,11 +153,17 @@ public class KillCountResolver
     {
         if (rawMessage == null || rawMessage.isEmpty()) return null;
 
-        String stripped = TAG_PATTERN.matcher(rawMessage).replaceAll("").trim();
+        String stripped = rawMessage.indexOf('<') < 0
+                ? rawMessage.trim()
+                : TAG_PATTERN.matcher(rawMessage).replaceAll("").trim();
+        String lower = stripped.toLowerCase(Locale.ROOT);
+        if (!lower.contains("count is")) return null;
 
-        for (Pattern p : KC_PATTERNS)
+        for (int i = 0; i < KC_PATTERNS.length; i++)
         {
-            Matcher m = p.matcher(stripped);
+            if (!lower.contains(KC_REQUIRED[i])) continue;
+
+            Matcher m = KC_PATTERNS[i].matcher(stripped);
             if (!m.find()) continue;
 
             String rawName = m.group(1).trim();
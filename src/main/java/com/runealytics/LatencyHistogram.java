@@ -0,0 +1,122 @@
+package com.runealytics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, log-linear latency histogram in the style of HdrHistogram.
+ *
+ * <p>Values are nanoseconds. Each power of two is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so any recorded value is known to
+ * within 1/{@value #SUB_BUCKETS} (6.25%) from 1ns up to {@link #MAX_TRACKABLE}
+ * (about 18 minutes; larger values land in the last bucket). Recording is an
+ * index computation and one atomic increment, with no allocation, so it is
+ * cheap enough for every event on the client thread.</p>
+ *
+ * <p>Thread-safe. Readers see each bucket atomically but not the histogram as
+ * a whole; a percentile taken while values are being recorded is off by at
+ * most those values.</p>
+ */
+final class LatencyHistogram
+{
+    private static final int SUB_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /** Largest value tracked at full precision: 2^40 - 1 ns. */
+    static final long MAX_TRACKABLE = (1L << 40) - 1;
+
+    private static final int BUCKETS = index(MAX_TRACKABLE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max   = new AtomicLong();
+
+    void record(long nanos)
+    {
+        long v = Math.max(0L, nanos);
+        counts.incrementAndGet(index(Math.min(v, MAX_TRACKABLE)));
+        count.incrementAndGet();
+        total.addAndGet(v);
+        if (v > max.get()) max.accumulateAndGet(v, Math::max);
+    }
+
+    long count()
+    {
+        return count.get();
+    }
+
+    long totalNanos()
+    {
+        return total.get();
+    }
+
+    long maxNanos()
+    {
+        return max.get();
+    }
+
+    long meanNanos()
+    {
+        long n = count.get();
+        return n == 0 ? 0L : total.get() / n;
+    }
+
+    /**
+     * The smallest bucket bound that at least {@code pct} of the recorded
+     * values are at or below, capped at the largest recorded value; 0 when
+     * empty.
+     */
+    long percentileNanos(double pct)
+    {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) return 0L;
+
+        long rank = Math.max(1L, (long) Math.ceil(Math.min(1.0, Math.max(0.0, pct)) * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    void reset()
+    {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0L);
+        count.set(0L);
+        total.set(0L);
+        max.set(0L);
+    }
+
+    /** Bucket of {@code v}: values below {@link #SUB_BUCKETS} get their own, then 16 per power of two. */
+    static int index(long v)
+    {
+        if (v < SUB_BUCKETS) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exp - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /** Smallest value that falls in bucket {@code index}. */
+    static long lowerBound(int index)
+    {
+        if (index < SUB_BUCKETS) return index;
+        int exp = index / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exp - SUB_BITS);
+    }
+
+    /** Largest value that falls in bucket {@code index}. */
+    static long upperBound(int index)
+    {
+        return lowerBound(index + 1) - 1;
+    }
+}
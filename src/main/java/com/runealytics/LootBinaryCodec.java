@@ -0,0 +1,563 @@
+package com.runealytics;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact binary encoding of {@link LootStorageData}, the optional
+ * alternative to the pretty-printed JSON loot file.
+ *
+ * <h2>Layout</h2>
+ * <pre>
+ *   "RALT" magic · varint version
+ *   string table: varint count, then (varint byteLength · UTF-8 bytes) per entry
+ *   body: the data tree, fields in a fixed order
+ * </pre>
+ *
+ * <p>Every integer is a LEB128 varint, zig-zag encoded where it may be
+ * negative (item id {@code -1} marks an unknown pet). Kill timestamps are
+ * stored as the delta from the previous kill of the same boss. Strings —
+ * boss, item, game-mode and account-type names, which repeat on nearly every
+ * kill — are written once in the table and referenced by
+ * {@code index + 1}, with {@code 0} meaning {@code null}.</p>
+ *
+ * <p>The version header lets a future layout change keep reading old files:
+ * {@link #read} rejects unknown versions with an {@link IOException} and the
+ * caller falls back to whatever JSON file is present.</p>
+ */
+public final class LootBinaryCodec
+{
+    static final byte[] MAGIC = { 'R', 'A', 'L', 'T' };
+    static final int VERSION = 1;
+
+    private static final int KILL_SYNCED       = 1;
+    private static final int KILL_HAS_LOCATION = 1 << 1;
+
+    private static final int DROP_HIDDEN = 1;
+    private static final int DROP_PET    = 1 << 1;
+
+    private static final int LOCATION_INSTANCED = 1;
+
+    private LootBinaryCodec()
+    {
+    }
+
+    // ── Encoding ───────────────────────────────────────────────────────────────
+
+    /** Writes {@code data} to {@code out}. The stream is not closed. */
+    public static void write(LootStorageData data, OutputStream out) throws IOException
+    {
+        Writer writer = new Writer(out, collectStrings(data));
+        writer.bytes(MAGIC);
+        writer.varint(VERSION);
+        writer.stringTable();
+        writer.data(data);
+        writer.flush();
+    }
+
+    /** First pass: every distinct string in the tree, in first-seen order. */
+    private static Map<String, Integer> collectStrings(LootStorageData data)
+    {
+        Map<String, Integer> table = new LinkedHashMap<>();
+        intern(table, data.getUsername());
+        for (Map.Entry<String, LootStorageData.BossKillData> e : data.getBossKills().entrySet())
+        {
+            LootStorageData.BossKillData boss = e.getValue();
+            intern(table, e.getKey());
+            intern(table, boss.getNpcName());
+            intern(table, boss.getArchiveKey());
+            for (LootStorageData.KillRecord kill : orEmpty(boss.getKills()))
+            {
+                intern(table, kill.getGameMode());
+                intern(table, kill.getAccountType());
+                if (kill.getLocation() != null)
+                {
+                    intern(table, kill.getLocation().getMapRegion());
+                    intern(table, kill.getLocation().getAreaName());
+                }
+                for (LootStorageData.DropRecord drop : orEmpty(kill.getDrops()))
+                {
+                    intern(table, drop.getItemName());
+                }
+            }
+            if (boss.getAggregatedDrops() != null)
+            {
+                for (LootStorageData.AggregatedDrop agg : boss.getAggregatedDrops().values())
+                {
+                    intern(table, agg.getItemName());
+                }
+            }
+        }
+        if (data.getHiddenDropsByBoss() != null)
+        {
+            for (String key : data.getHiddenDropsByBoss().keySet()) intern(table, key);
+        }
+        if (data.getHiddenBosses() != null)
+        {
+            for (String name : data.getHiddenBosses()) intern(table, name);
+        }
+        if (data.getLastGameKcByBoss() != null)
+        {
+            for (String key : data.getLastGameKcByBoss().keySet()) intern(table, key);
+        }
+        return table;
+    }
+
+    private static void intern(Map<String, Integer> table, String value)
+    {
+        if (value != null && !table.containsKey(value))
+        {
+            table.put(value, table.size());
+        }
+    }
+
+    private static <T> List<T> orEmpty(List<T> list)
+    {
+        return list != null ? list : new ArrayList<>();
+    }
+
+    private static final class Writer
+    {
+        private final OutputStream out;
+        private final Map<String, Integer> strings;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+
+        Writer(OutputStream out, Map<String, Integer> strings)
+        {
+            this.out = out;
+            this.strings = strings;
+        }
+
+        void stringTable() throws IOException
+        {
+            varint(strings.size());
+            for (String value : strings.keySet())
+            {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                varint(utf8.length);
+                bytes(utf8);
+            }
+        }
+
+        void data(LootStorageData data) throws IOException
+        {
+            string(data.getUsername());
+            varlong(data.getLastSyncTimestamp());
+            varlong(data.getJournalSeq());
+
+            varint(data.getBossKills().size());
+            for (Map.Entry<String, LootStorageData.BossKillData> e : data.getBossKills().entrySet())
+            {
+                string(e.getKey());
+                boss(e.getValue());
+            }
+
+            Map<String, Set<Integer>> hiddenDrops = data.getHiddenDropsByBoss();
+            varint(hiddenDrops != null ? hiddenDrops.size() : 0);
+            if (hiddenDrops != null)
+            {
+                for (Map.Entry<String, Set<Integer>> e : hiddenDrops.entrySet())
+                {
+                    string(e.getKey());
+                    Set<Integer> ids = e.getValue() != null ? e.getValue() : new HashSet<>();
+                    varint(ids.size());
+                    for (int id : ids) zigzag(id);
+                }
+            }
+
+            Set<String> hiddenBosses = data.getHiddenBosses();
+            varint(hiddenBosses != null ? hiddenBosses.size() : 0);
+            if (hiddenBosses != null)
+            {
+                for (String name : hiddenBosses) string(name);
+            }
+
+            Map<String, Integer> lastGameKc = data.getLastGameKcByBoss();
+            varint(lastGameKc != null ? lastGameKc.size() : 0);
+            if (lastGameKc != null)
+            {
+                for (Map.Entry<String, Integer> e : lastGameKc.entrySet())
+                {
+                    string(e.getKey());
+                    zigzag(e.getValue() != null ? e.getValue() : 0);
+                }
+            }
+        }
+
+        private void boss(LootStorageData.BossKillData boss) throws IOException
+        {
+            string(boss.getNpcName());
+            zigzag(boss.getNpcId());
+            zigzag(boss.getKillCount());
+            zigzag(boss.getPrestige());
+            zigzag(boss.getTotalLootValue());
+            string(boss.getArchiveKey());
+            varint(boss.getArchivedKills());
+            varlong(boss.getArchiveBytes());
+            zigzag(boss.getArchivedHighestDrop());
+
+            List<LootStorageData.KillRecord> kills = orEmpty(boss.getKills());
+            varint(kills.size());
+            long previousTimestamp = 0;
+            for (LootStorageData.KillRecord kill : kills)
+            {
+                zigzag(kill.getTimestamp() - previousTimestamp);
+                previousTimestamp = kill.getTimestamp();
+                kill(kill);
+            }
+
+            Map<Integer, LootStorageData.AggregatedDrop> aggregates = boss.getAggregatedDrops();
+            varint(aggregates != null ? aggregates.size() : 0);
+            if (aggregates != null)
+            {
+                for (Map.Entry<Integer, LootStorageData.AggregatedDrop> e : aggregates.entrySet())
+                {
+                    LootStorageData.AggregatedDrop agg = e.getValue();
+                    zigzag(e.getKey());
+                    zigzag(agg.getItemId());
+                    string(agg.getItemName());
+                    zigzag(agg.getTotalQuantity());
+                    zigzag(agg.getDropCount());
+                    zigzag(agg.getTotalValue());
+                    zigzag(agg.getGePrice());
+                    zigzag(agg.getHighAlch());
+                    varint(agg.isPet() ? DROP_PET : 0);
+                }
+            }
+        }
+
+        private void kill(LootStorageData.KillRecord kill) throws IOException
+        {
+            zigzag(kill.getKillNumber());
+            zigzag(kill.getWorld());
+            zigzag(kill.getCombatLevel());
+            varint((kill.isSyncedToServer() ? KILL_SYNCED : 0)
+                    | (kill.getLocation() != null ? KILL_HAS_LOCATION : 0));
+            string(kill.getGameMode());
+            string(kill.getAccountType());
+
+            PlayerLocationSnapshot location = kill.getLocation();
+            if (location != null)
+            {
+                zigzag(location.getPlane());
+                zigzag(location.getWorldX());
+                zigzag(location.getWorldY());
+                zigzag(location.getRegionId());
+                zigzag(location.getRegionX());
+                zigzag(location.getRegionY());
+                zigzag(location.getChunkX());
+                zigzag(location.getChunkY());
+                string(location.getMapRegion());
+                string(location.getAreaName());
+                varint(location.isInstanced() ? LOCATION_INSTANCED : 0);
+                zigzag(location.getWorld());
+                zigzag(location.getTimestamp() - kill.getTimestamp());
+            }
+
+            List<LootStorageData.DropRecord> drops = orEmpty(kill.getDrops());
+            varint(drops.size());
+            for (LootStorageData.DropRecord drop : drops)
+            {
+                zigzag(drop.getItemId());
+                string(drop.getItemName());
+                zigzag(drop.getQuantity());
+                zigzag(drop.getGePrice());
+                zigzag(drop.getHighAlch());
+                zigzag(drop.getTotalValue());
+                varint((drop.isHidden() ? DROP_HIDDEN : 0) | (drop.isPet() ? DROP_PET : 0));
+            }
+        }
+
+        void string(String value) throws IOException
+        {
+            varint(value == null ? 0 : strings.get(value) + 1);
+        }
+
+        void zigzag(long value) throws IOException
+        {
+            varlong((value << 1) ^ (value >> 63));
+        }
+
+        void varint(int value) throws IOException
+        {
+            varlong(value & 0xFFFFFFFFL);
+        }
+
+        void varlong(long value) throws IOException
+        {
+            if (position + 10 > buffer.length) flush();
+            while ((value & ~0x7FL) != 0)
+            {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void bytes(byte[] data) throws IOException
+        {
+            if (position + data.length > buffer.length)
+            {
+                flush();
+                if (data.length > buffer.length)
+                {
+                    out.write(data);
+                    return;
+                }
+            }
+            System.arraycopy(data, 0, buffer, position, data.length);
+            position += data.length;
+        }
+
+        void flush() throws IOException
+        {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    // ── Decoding ───────────────────────────────────────────────────────────────
+
+    /**
+     * Reads a tree written by {@link #write}.
+     *
+     * @throws IOException when the stream is truncated, lacks the magic
+     *                     header, or carries an unsupported version
+     */
+    public static LootStorageData read(InputStream in) throws IOException
+    {
+        Reader reader = new Reader(in);
+        for (byte b : MAGIC)
+        {
+            if (reader.readByte() != b) throw new IOException("Not a RuneAlytics binary loot file");
+        }
+        int version = reader.varint();
+        if (version != VERSION) throw new IOException("Unsupported binary loot file version " + version);
+
+        reader.stringTable();
+        return reader.data();
+    }
+
+    private static final class Reader
+    {
+        private final InputStream in;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+        private int limit;
+        private String[] strings = new String[0];
+
+        Reader(InputStream in)
+        {
+            this.in = in;
+        }
+
+        void stringTable() throws IOException
+        {
+            strings = new String[varint()];
+            for (int i = 0; i < strings.length; i++)
+            {
+                byte[] utf8 = new byte[varint()];
+                for (int j = 0; j < utf8.length; j++) utf8[j] = readByte();
+                strings[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+        }
+
+        LootStorageData data() throws IOException
+        {
+            LootStorageData data = new LootStorageData();
+            data.setUsername(string());
+            data.setLastSyncTimestamp(varlong());
+            data.setJournalSeq(varlong());
+
+            int bossCount = varint();
+            Map<String, LootStorageData.BossKillData> bosses = new HashMap<>(bossCount * 2);
+            for (int i = 0; i < bossCount; i++)
+            {
+                String key = string();
+                bosses.put(key, boss());
+            }
+            data.setBossKills(bosses);
+
+            int hiddenDropCount = varint();
+            Map<String, Set<Integer>> hiddenDrops = new HashMap<>();
+            for (int i = 0; i < hiddenDropCount; i++)
+            {
+                String key = string();
+                int idCount = varint();
+                Set<Integer> ids = new HashSet<>();
+                for (int j = 0; j < idCount; j++) ids.add((int) zigzag());
+                hiddenDrops.put(key, ids);
+            }
+            data.setHiddenDropsByBoss(hiddenDrops);
+
+            int hiddenBossCount = varint();
+            Set<String> hiddenBosses = new HashSet<>();
+            for (int i = 0; i < hiddenBossCount; i++) hiddenBosses.add(string());
+            data.setHiddenBosses(hiddenBosses);
+
+            int kcCount = varint();
+            Map<String, Integer> lastGameKc = new HashMap<>();
+            for (int i = 0; i < kcCount; i++)
+            {
+                String key = string();
+                lastGameKc.put(key, (int) zigzag());
+            }
+            data.setLastGameKcByBoss(lastGameKc);
+            return data;
+        }
+
+        private LootStorageData.BossKillData boss() throws IOException
+        {
+            LootStorageData.BossKillData boss = new LootStorageData.BossKillData();
+            boss.setNpcName(string());
+            boss.setNpcId((int) zigzag());
+            boss.setKillCount((int) zigzag());
+            boss.setPrestige((int) zigzag());
+            boss.setTotalLootValue(zigzag());
+            boss.setArchiveKey(string());
+            boss.setArchivedKills(varint());
+            boss.setArchiveBytes(varlong());
+            boss.setArchivedHighestDrop(zigzag());
+
+            int killCount = varint();
+            List<LootStorageData.KillRecord> kills = new ArrayList<>(killCount);
+            long timestamp = 0;
+            for (int i = 0; i < killCount; i++)
+            {
+                timestamp += zigzag();
+                kills.add(kill(timestamp));
+            }
+            boss.setKills(kills);
+
+            int aggregateCount = varint();
+            Map<Integer, LootStorageData.AggregatedDrop> aggregates = new HashMap<>(aggregateCount * 2);
+            for (int i = 0; i < aggregateCount; i++)
+            {
+                int key = (int) zigzag();
+                LootStorageData.AggregatedDrop agg = new LootStorageData.AggregatedDrop();
+                agg.setItemId((int) zigzag());
+                agg.setItemName(string());
+                agg.setTotalQuantity((int) zigzag());
+                agg.setDropCount((int) zigzag());
+                agg.setTotalValue(zigzag());
+                agg.setGePrice((int) zigzag());
+                agg.setHighAlch((int) zigzag());
+                agg.setPet((varint() & DROP_PET) != 0);
+                aggregates.put(key, agg);
+            }
+            boss.setAggregatedDrops(aggregates);
+            return boss;
+        }
+
+        private LootStorageData.KillRecord kill(long timestamp) throws IOException
+        {
+            LootStorageData.KillRecord kill = new LootStorageData.KillRecord();
+            kill.setTimestamp(timestamp);
+            kill.setKillNumber((int) zigzag());
+            kill.setWorld((int) zigzag());
+            kill.setCombatLevel((int) zigzag());
+            int flags = varint();
+            kill.setSyncedToServer((flags & KILL_SYNCED) != 0);
+            kill.setGameMode(string());
+            kill.setAccountType(string());
+
+            if ((flags & KILL_HAS_LOCATION) != 0)
+            {
+                int plane    = (int) zigzag();
+                int worldX   = (int) zigzag();
+                int worldY   = (int) zigzag();
+                int regionId = (int) zigzag();
+                int regionX  = (int) zigzag();
+                int regionY  = (int) zigzag();
+                int chunkX   = (int) zigzag();
+                int chunkY   = (int) zigzag();
+                String mapRegion = string();
+                String areaName  = string();
+                boolean instanced = (varint() & LOCATION_INSTANCED) != 0;
+                int world = (int) zigzag();
+                long locationTimestamp = timestamp + zigzag();
+                kill.setLocation(new PlayerLocationSnapshot(
+                        plane, worldX, worldY, regionId, regionX, regionY, chunkX, chunkY,
+                        mapRegion, areaName, instanced, world, locationTimestamp));
+            }
+
+            int dropCount = varint();
+            List<LootStorageData.DropRecord> drops = new ArrayList<>(dropCount);
+            for (int i = 0; i < dropCount; i++)
+            {
+                LootStorageData.DropRecord drop = new LootStorageData.DropRecord();
+                drop.setItemId((int) zigzag());
+                drop.setItemName(string());
+                drop.setQuantity((int) zigzag());
+                drop.setGePrice((int) zigzag());
+                drop.setHighAlch((int) zigzag());
+                drop.setTotalValue(zigzag());
+                int dropFlags = varint();
+                drop.setHidden((dropFlags & DROP_HIDDEN) != 0);
+                drop.setPet((dropFlags & DROP_PET) != 0);
+                drops.add(drop);
+            }
+            kill.setDrops(drops);
+            return kill;
+        }
+
+        String string() throws IOException
+        {
+            int ref = varint();
+            if (ref == 0) return null;
+            if (ref > strings.length) throw new IOException("String reference " + ref + " out of range");
+            return strings[ref - 1];
+        }
+
+        long zigzag() throws IOException
+        {
+            long raw = varlong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        int varint() throws IOException
+        {
+            long value = varlong();
+            if (value > 0xFFFFFFFFL) throw new IOException("Varint overflow");
+            return (int) value;
+        }
+
+        long varlong() throws IOException
+        {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7)
+            {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        byte readByte() throws IOException
+        {
+            if (position == limit)
+            {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0)
+                {
+                    limit = 0;
+                    throw new EOFException("Truncated binary loot file");
+                }
+            }
+            return buffer[position++];
+        }
+    }
+}
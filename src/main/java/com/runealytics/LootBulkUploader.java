@@ -0,0 +1,244 @@
+package com.runealytics;
+
+import com.google.gson.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Pipelined upload of a backlog of unsynced kills to {@code /loot/bulk-sync}.
+ *
+ * <h2>Why</h2>
+ * <p>After an offline session or a first-time import there can be thousands
+ * of kills queued. Sending fixed 50-kill batches strictly one after another
+ * made the upload latency-bound: every batch waited a full round trip before
+ * the next one was even built.</p>
+ *
+ * <h2>How</h2>
+ * <ul>
+ *   <li><b>Adaptive batches</b> — kills are packed until the batch's kill
+ *       JSON reaches {@value #TARGET_BATCH_BYTES} bytes (capped at
+ *       {@value #MAX_BATCH_KILLS} kills), so a batch of drop-heavy raid kills
+ *       and a batch of one-drop slayer kills cost about the same to send.</li>
+ *   <li><b>Bounded pipelining</b> — up to {@value #MAX_IN_FLIGHT} batches are
+ *       in flight at once on OkHttp's dispatcher.</li>
+ *   <li><b>Ordered acknowledgement</b> — results are consumed in submission
+ *       order, so {@code onAck} sees batches in the same order as the
+ *       backlog even when later requests finish first.</li>
+ *   <li><b>Retry</b> — network failures, HTTP 429 and 5xx are retried up to
+ *       {@value #MAX_ATTEMPTS} attempts with doubling delay. Any other
+ *       failure, or running out of attempts, stops new batches from being
+ *       sent; batches already in flight are still acknowledged, and whatever
+ *       was not is picked up by the next sync.</li>
+ * </ul>
+ *
+ * <p>Kills without drops are never uploaded (see
+ * {@link LootTrackerApiClient#hasDrops}); they ride along in the batch they
+ * fall in and are acknowledged, and so flagged synced, only when that batch
+ * is.</p>
+ *
+ * <p>One instance per upload; not thread-safe. {@link #upload} blocks the
+ * calling (background) thread until every batch has settled.</p>
+ */
+@Slf4j
+public class LootBulkUploader
+{
+    /** Batches allowed in flight at once; below OkHttp's default per-host limit of 5. */
+    static final int MAX_IN_FLIGHT = 3;
+
+    /** Kill JSON per batch before it is closed. */
+    static final int TARGET_BATCH_BYTES = 64 * 1024;
+
+    /** Hard cap on kills per batch regardless of size. */
+    static final int MAX_BATCH_KILLS = 200;
+
+    static final int MAX_ATTEMPTS = 3;
+
+    static final long RETRY_BASE_DELAY_MS = 1_000L;
+
+    private final LootTrackerApiClient apiClient;
+    private final String username;
+    private final Map<String, LootStorageData.BossKillData> bossLookup;
+    private final Consumer<Map<String, List<LootStorageData.KillRecord>>> onAck;
+    private final long retryBaseDelayMs;
+
+    private Iterator<Map.Entry<String, List<LootStorageData.KillRecord>>> bosses;
+    private String currentBoss;
+    private Iterator<LootStorageData.KillRecord> currentKills = Collections.emptyIterator();
+    private LootStorageData.KillRecord carried;
+
+    /**
+     * @param bossLookup per-boss data, used to resolve npcId / prestige
+     * @param onAck      receives each acknowledged batch, in backlog order;
+     *                   typically {@link LootStorageManager#markKillsSynced(Map)}
+     */
+    public LootBulkUploader(LootTrackerApiClient apiClient, String username,
+                            Map<String, LootStorageData.BossKillData> bossLookup,
+                            Consumer<Map<String, List<LootStorageData.KillRecord>>> onAck)
+    {
+        this(apiClient, username, bossLookup, onAck, RETRY_BASE_DELAY_MS);
+    }
+
+    /** Test seam: shorter retry delays. */
+    LootBulkUploader(LootTrackerApiClient apiClient, String username,
+                     Map<String, LootStorageData.BossKillData> bossLookup,
+                     Consumer<Map<String, List<LootStorageData.KillRecord>>> onAck,
+                     long retryBaseDelayMs)
+    {
+        this.apiClient = apiClient;
+        this.username = username;
+        this.bossLookup = bossLookup != null ? bossLookup : Collections.emptyMap();
+        this.onAck = onAck;
+        this.retryBaseDelayMs = retryBaseDelayMs;
+    }
+
+    /** One batch and its current attempt. */
+    private static final class Batch
+    {
+        final Map<String, List<LootStorageData.KillRecord>> byBoss = new LinkedHashMap<>();
+        final List<JsonObject> payloads = new ArrayList<>();
+        int bytes;
+        int attempts;
+        CompletableFuture<Integer> result;
+    }
+
+    /**
+     * Uploads every kill in {@code unsynced}, blocking until all batches have
+     * been acknowledged or given up on.
+     *
+     * @return number of kills acknowledged
+     */
+    public int upload(Map<String, List<LootStorageData.KillRecord>> unsynced)
+    {
+        bosses = unsynced.entrySet().iterator();
+
+        Deque<Batch> window = new ArrayDeque<>();
+        boolean sending = true;
+        int acked = 0;
+        int batches = 0;
+
+        while (true)
+        {
+            while (sending && window.size() < MAX_IN_FLIGHT)
+            {
+                Batch batch = nextBatch();
+                if (batch == null) break;
+                window.addLast(send(batch, 0L));
+                batches++;
+            }
+            if (window.isEmpty()) break;
+
+            Batch head = window.peekFirst();
+            int code = head.result.join();
+
+            if (code >= 200 && code < 300)
+            {
+                window.removeFirst();
+                onAck.accept(head.byBoss);
+                acked += head.byBoss.values().stream().mapToInt(List::size).sum();
+            }
+            else if (isRetryable(code) && head.attempts < MAX_ATTEMPTS)
+            {
+                long delay = retryBaseDelayMs << (head.attempts - 1);
+                log.debug("[bulk-sync] batch failed (HTTP {}), retry {} in {} ms", code, head.attempts, delay);
+                send(head, delay);
+            }
+            else
+            {
+                window.removeFirst();
+                sending = false;
+                log.debug("[bulk-sync] batch failed (HTTP {}) after {} attempt(s) — remaining kills wait for the next sync",
+                        code, head.attempts);
+            }
+        }
+
+        log.debug("[bulk-sync] {} kill(s) acknowledged in {} batch(es)", acked, batches);
+        return acked;
+    }
+
+    private static boolean isRetryable(int code)
+    {
+        return code == LootTrackerApiClient.NETWORK_FAILURE || code == 429 || code >= 500;
+    }
+
+    private Batch send(Batch batch, long delayMs)
+    {
+        batch.attempts++;
+        if (batch.payloads.isEmpty())
+        {
+            // Zero-loot kills only: nothing to upload, acknowledge locally.
+            batch.result = CompletableFuture.completedFuture(200);
+        }
+        else if (delayMs <= 0)
+        {
+            batch.result = apiClient.postBulkKillsAsync(username, batch.payloads);
+        }
+        else
+        {
+            batch.result = CompletableFuture
+                    .runAsync(() -> { }, CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS))
+                    .thenCompose(v -> apiClient.postBulkKillsAsync(username, batch.payloads));
+        }
+        return batch;
+    }
+
+    /** Packs the next batch from the backlog, or returns {@code null} when it is exhausted. */
+    private Batch nextBatch()
+    {
+        Batch batch = null;
+        while (true)
+        {
+            LootStorageData.KillRecord kill = nextKill();
+            if (kill == null) return batch;
+
+            if (batch == null) batch = new Batch();
+
+            if (LootTrackerApiClient.hasDrops(kill))
+            {
+                LootStorageData.BossKillData boss = bossLookup.get(currentBoss);
+                JsonObject payload = LootKillJsonBuilder.buildKill(kill, currentBoss,
+                        boss != null ? boss.getNpcId() : 0,
+                        boss != null ? boss.getPrestige() : 0);
+                int bytes = payload.toString().length();
+
+                if (!batch.payloads.isEmpty()
+                        && (batch.bytes + bytes > TARGET_BATCH_BYTES || batch.payloads.size() >= MAX_BATCH_KILLS))
+                {
+                    carried = kill;
+                    return batch;
+                }
+                batch.payloads.add(payload);
+                batch.bytes += bytes;
+            }
+            batch.byBoss.computeIfAbsent(currentBoss, k -> new ArrayList<>()).add(kill);
+        }
+    }
+
+    private LootStorageData.KillRecord nextKill()
+    {
+        if (carried != null)
+        {
+            LootStorageData.KillRecord kill = carried;
+            carried = null;
+            return kill;
+        }
+        while (!currentKills.hasNext())
+        {
+            if (!bosses.hasNext()) return null;
+            Map.Entry<String, List<LootStorageData.KillRecord>> next = bosses.next();
+            currentBoss = next.getKey();
+            currentKills = next.getValue().iterator();
+        }
+        return currentKills.next();
+    }
+}
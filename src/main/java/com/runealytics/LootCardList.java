@@ -0,0 +1,602 @@
+package com.runealytics;
+
+import net.runelite.client.ui.ColorScheme;
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.ChangeListener;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Virtualized boss-card list for the loot tab.
+ *
+ * <p>The tab used to build a Swing card for every source and a slot panel for
+ * every aggregated item, so an account with 150+ sources and clue caskets
+ * holding hundreds of unique items held thousands of components. This list
+ * lays cards out arithmetically instead: every card's height follows from its
+ * slot count and expanded state, so card tops are a prefix sum and the cards
+ * under the viewport are found by binary search. Only those cards, and only
+ * the grid rows of theirs that are on screen, get components. Card and slot
+ * components come from pools and are rebound as the viewport scrolls.</p>
+ *
+ * <p>Sits directly in a {@link JScrollPane}'s viewport and tracks its width.
+ * EDT only.</p>
+ */
+final class LootCardList extends JPanel implements Scrollable
+{
+    static final int ITEMS_PER_ROW = 5;
+    static final int ITEM_SIZE     = 36;
+    static final int ITEM_GAP      = 2;
+    static final int PAD           = 6;
+    static final int HEADER_HEIGHT = 28;
+    static final int CARD_GAP      = 5;
+
+    /** Insets around the item grid inside a card. */
+    static final int GRID_TOP    = 4;
+    static final int GRID_SIDE   = 4;
+    static final int GRID_BOTTOM = 5;
+    /** Height of the "No drops recorded yet" line that replaces an empty grid. */
+    static final int EMPTY_GRID_HEIGHT = 24;
+
+    /** Pixels above and below the viewport that are materialized as well, so a short scroll never shows a gap. */
+    static final int OVERSCAN = 3 * (ITEM_SIZE + ITEM_GAP);
+
+    private static final Color CARD_BG = new Color(28, 28, 28);
+    private static final Font  NAME_FONT  = new Font("Calibri", Font.BOLD, 12);
+    private static final Font  PLAIN_FONT = new Font("Calibri", Font.PLAIN, 11);
+
+    /** One source's card as displayed. Immutable, so it can be built off the EDT. */
+    static final class Card
+    {
+        final String     npcName;
+        final String     nameText;
+        final Color      nameColor;
+        final String     valueText;
+        final Color      headerBackground;
+        final Color      borderColor;
+        final int        borderWidth;
+        final List<Slot> slots;
+
+        Card(String npcName, String nameText, Color nameColor, String valueText,
+             Color headerBackground, Color borderColor, int borderWidth, List<Slot> slots)
+        {
+            this.npcName          = npcName;
+            this.nameText         = nameText;
+            this.nameColor        = nameColor;
+            this.valueText        = valueText;
+            this.headerBackground = headerBackground;
+            this.borderColor      = borderColor;
+            this.borderWidth      = borderWidth;
+            this.slots            = Collections.unmodifiableList(slots);
+        }
+    }
+
+    /** One item slot in a card's grid. */
+    static final class Slot
+    {
+        final int     itemId;
+        final int     quantity;
+        final String  itemName;
+        final String  tooltip;
+        final boolean pet;
+        final boolean hidden;
+        /** Shown as a placeholder star instead of an item sprite. */
+        final boolean unknownPet;
+
+        Slot(int itemId, int quantity, String itemName, String tooltip,
+             boolean pet, boolean hidden, boolean unknownPet)
+        {
+            this.itemId     = itemId;
+            this.quantity   = quantity;
+            this.itemName   = itemName;
+            this.tooltip    = tooltip;
+            this.pet        = pet;
+            this.hidden     = hidden;
+            this.unknownPet = unknownPet;
+        }
+    }
+
+    /** What the owning panel supplies: sprites and context menus. */
+    interface Actions
+    {
+        /**
+         * Loads {@code slot}'s item sprite, handing it to {@code onLoaded} on
+         * the EDT — possibly more than once, as a placeholder is replaced by
+         * the loaded image.
+         */
+        void loadIcon(Slot slot, Consumer<Icon> onLoaded);
+
+        JPopupMenu headerMenu(Card card);
+
+        JPopupMenu slotMenu(Card card, Slot slot);
+    }
+
+    private final Actions actions;
+    /** Shared with the panel so collapse state survives rebuilds; missing means expanded. */
+    private final Map<String, Boolean> expandedState;
+
+    private List<Card> cards = Collections.emptyList();
+    private final Map<String, Integer> indexByName = new HashMap<>();
+    /** {@code tops[i]} is card {@code i}'s y; {@code tops[size]} is where the next card would go. */
+    private int[] tops = {PAD};
+
+    /** Materialized cards by model index. */
+    private final Map<Integer, CardView> bound = new HashMap<>();
+    private final ArrayDeque<CardView> cardPool = new ArrayDeque<>();
+    private final ArrayDeque<SlotView> slotPool = new ArrayDeque<>();
+
+    private final ChangeListener viewportListener = e -> updateVisible();
+
+    LootCardList(Actions actions, Map<String, Boolean> expandedState)
+    {
+        this.actions       = actions;
+        this.expandedState = expandedState;
+        setLayout(null);
+        setBackground(ColorScheme.DARK_GRAY_COLOR);
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  MODEL
+    // ═════════════════════════════════════════════════════════════════════════
+
+    /** Replaces every card. Cards on screen are rebound in place. */
+    void setCards(List<Card> newCards)
+    {
+        cards = new ArrayList<>(newCards);
+        indexByName.clear();
+        for (int i = 0; i < cards.size(); i++) indexByName.put(cards.get(i).npcName, i);
+        relayout();
+    }
+
+    /**
+     * Replaces the card with {@code card}'s source name.
+     *
+     * @return {@code false} if no such card is shown
+     */
+    boolean updateCard(Card card)
+    {
+        Integer index = indexByName.get(card.npcName);
+        if (index == null) return false;
+        Card before = cards.get(index);
+        cards.set(index, card);
+        if (before.borderWidth != card.borderWidth
+                || gridHeight(before.slots.size()) != gridHeight(card.slots.size()))
+        {
+            relayout();
+        }
+        else
+        {
+            updateVisible();
+        }
+        return true;
+    }
+
+    boolean contains(String npcName)
+    {
+        return indexByName.containsKey(npcName);
+    }
+
+    int cardCount()
+    {
+        return cards.size();
+    }
+
+    private boolean isExpanded(String npcName)
+    {
+        return expandedState.getOrDefault(npcName, true);
+    }
+
+    private void toggleExpanded(String npcName)
+    {
+        expandedState.put(npcName, !isExpanded(npcName));
+        relayout();
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  GEOMETRY
+    // ═════════════════════════════════════════════════════════════════════════
+
+    static int gridHeight(int slotCount)
+    {
+        if (slotCount == 0) return GRID_TOP + EMPTY_GRID_HEIGHT + GRID_BOTTOM;
+        int rows = (slotCount + ITEMS_PER_ROW - 1) / ITEMS_PER_ROW;
+        return GRID_TOP + rows * ITEM_SIZE + (rows - 1) * ITEM_GAP + GRID_BOTTOM;
+    }
+
+    static int cardHeight(int slotCount, boolean expanded, int borderWidth)
+    {
+        return 2 * borderWidth + HEADER_HEIGHT + (expanded ? gridHeight(slotCount) : 0);
+    }
+
+    /** Index of the card covering {@code y}: the last card whose top is at or above it (0 if none). */
+    static int cardAt(int[] tops, int count, int y)
+    {
+        int lo = 0;
+        int hi = count - 1;
+        while (lo < hi)
+        {
+            int mid = (lo + hi + 1) >>> 1;
+            if (tops[mid] <= y) lo = mid;
+            else                hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /** Grid row covering {@code y}, measured from the top of the grid area, clamped to {@code [0, rows)}. */
+    static int rowAt(int y, int rows)
+    {
+        int row = (y - GRID_TOP) / (ITEM_SIZE + ITEM_GAP);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    private void relayout()
+    {
+        int n = cards.size();
+        int[] t = new int[n + 1];
+        t[0] = PAD;
+        for (int i = 0; i < n; i++)
+        {
+            Card c = cards.get(i);
+            t[i + 1] = t[i] + cardHeight(c.slots.size(), isExpanded(c.npcName), c.borderWidth) + CARD_GAP;
+        }
+        tops = t;
+        revalidate();
+        updateVisible();
+    }
+
+    @Override
+    public Dimension getPreferredSize()
+    {
+        return new Dimension(getWidth(), tops[cards.size()] + PAD);
+    }
+
+    @Override
+    public void doLayout()
+    {
+        updateVisible();
+    }
+
+    /** Materializes the cards and rows under the viewport and recycles the rest. */
+    private void updateVisible()
+    {
+        Rectangle visible = getVisibleRect();
+        int n = cards.size();
+        boolean any = n > 0 && visible.height > 0;
+        int y0 = visible.y - OVERSCAN;
+        int y1 = visible.y + visible.height + OVERSCAN;
+        int from = any ? cardAt(tops, n, y0) : 0;
+        int to   = any ? cardAt(tops, n, y1) : -1;
+
+        Iterator<Map.Entry<Integer, CardView>> it = bound.entrySet().iterator();
+        while (it.hasNext())
+        {
+            Map.Entry<Integer, CardView> e = it.next();
+            if (e.getKey() < from || e.getKey() > to)
+            {
+                release(e.getValue());
+                it.remove();
+            }
+        }
+
+        int width = getWidth() - 2 * PAD;
+        for (int i = from; i <= to; i++)
+        {
+            CardView view = bound.get(i);
+            if (view == null)
+            {
+                view = cardPool.isEmpty() ? new CardView() : cardPool.pop();
+                add(view);
+                bound.put(i, view);
+            }
+            Card card = cards.get(i);
+            view.bind(card);
+            view.setBounds(PAD, tops[i], width, tops[i + 1] - tops[i] - CARD_GAP);
+            view.showRows(y0 - tops[i], y1 - tops[i], isExpanded(card.npcName));
+            view.validate();
+        }
+        repaint();
+    }
+
+    private void release(CardView view)
+    {
+        view.releaseSlots();
+        view.card = null;
+        remove(view);
+        cardPool.push(view);
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  VIEWPORT
+    // ═════════════════════════════════════════════════════════════════════════
+
+    @Override
+    public void addNotify()
+    {
+        super.addNotify();
+        if (getParent() instanceof JViewport) ((JViewport) getParent()).addChangeListener(viewportListener);
+    }
+
+    @Override
+    public void removeNotify()
+    {
+        if (getParent() instanceof JViewport) ((JViewport) getParent()).removeChangeListener(viewportListener);
+        super.removeNotify();
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize()
+    {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction)
+    {
+        return 16;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction)
+    {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight()
+    {
+        return false;
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  RECYCLED COMPONENTS
+    // ═════════════════════════════════════════════════════════════════════════
+
+    /** Frame, header and the on-screen slots of one card. */
+    private final class CardView extends JPanel
+    {
+        private final JPanel header     = new JPanel(new BorderLayout());
+        private final JLabel nameLabel  = new JLabel();
+        private final JLabel valueLabel = new JLabel();
+        private final JLabel emptyLabel = new JLabel("No drops recorded yet");
+        /** Materialized slots by index into {@code card.slots}. */
+        private final Map<Integer, SlotView> slots = new HashMap<>();
+
+        private Card card;
+
+        CardView()
+        {
+            super(null);
+            setBackground(CARD_BG);
+
+            header.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+            nameLabel.setFont(NAME_FONT);
+            nameLabel.setBorder(new EmptyBorder(0, 8, 0, 4));
+            valueLabel.setForeground(new Color(200, 180, 80));
+            valueLabel.setFont(PLAIN_FONT);
+            valueLabel.setBorder(new EmptyBorder(0, 4, 0, 8));
+            header.add(nameLabel,  BorderLayout.WEST);
+            header.add(valueLabel, BorderLayout.EAST);
+            add(header);
+
+            emptyLabel.setForeground(new Color(80, 80, 80));
+            emptyLabel.setFont(PLAIN_FONT);
+            emptyLabel.setVisible(false);
+            add(emptyLabel);
+
+            header.addMouseListener(new MouseAdapter()
+            {
+                @Override
+                public void mouseClicked(MouseEvent e)
+                {
+                    if (card != null && SwingUtilities.isLeftMouseButton(e)) toggleExpanded(card.npcName);
+                }
+
+                @Override public void mousePressed (MouseEvent e) { maybeShowMenu(e); }
+                @Override public void mouseReleased(MouseEvent e) { maybeShowMenu(e); }
+
+                private void maybeShowMenu(MouseEvent e)
+                {
+                    if (card != null && e.isPopupTrigger())
+                        actions.headerMenu(card).show(e.getComponent(), e.getX(), e.getY());
+                }
+            });
+        }
+
+        void bind(Card next)
+        {
+            if (next == card) return;
+            card = next;
+            setBorder(BorderFactory.createLineBorder(next.borderColor, next.borderWidth));
+            header.setBackground(next.headerBackground);
+            nameLabel.setText(next.nameText);
+            nameLabel.setForeground(next.nameColor);
+            valueLabel.setText(next.valueText);
+
+            // Slots still on screen are rebound to the new card's items.
+            Iterator<Map.Entry<Integer, SlotView>> it = slots.entrySet().iterator();
+            while (it.hasNext())
+            {
+                Map.Entry<Integer, SlotView> e = it.next();
+                if (e.getKey() < next.slots.size())
+                {
+                    e.getValue().bind(next, next.slots.get(e.getKey()));
+                }
+                else
+                {
+                    releaseSlot(e.getValue());
+                    it.remove();
+                }
+            }
+        }
+
+        /** Lays out the header and the slots in grid rows overlapping {@code [y0, y1]} (card coordinates). */
+        void showRows(int y0, int y1, boolean expanded)
+        {
+            int bw = card.borderWidth;
+            int innerWidth = getWidth() - 2 * bw;
+            header.setBounds(bw, bw, innerWidth, HEADER_HEIGHT);
+
+            int gridY = bw + HEADER_HEIGHT;
+            int count = card.slots.size();
+            emptyLabel.setVisible(expanded && count == 0);
+            if (!expanded || count == 0)
+            {
+                releaseSlots();
+                emptyLabel.setBounds(bw + GRID_SIDE + 5, gridY + GRID_TOP, innerWidth - 2 * GRID_SIDE, EMPTY_GRID_HEIGHT);
+                return;
+            }
+
+            int rows  = (count + ITEMS_PER_ROW - 1) / ITEMS_PER_ROW;
+            int first = rowAt(y0 - gridY, rows) * ITEMS_PER_ROW;
+            int last  = Math.min(count, (rowAt(y1 - gridY, rows) + 1) * ITEMS_PER_ROW) - 1;
+
+            Iterator<Map.Entry<Integer, SlotView>> it = slots.entrySet().iterator();
+            while (it.hasNext())
+            {
+                Map.Entry<Integer, SlotView> e = it.next();
+                if (e.getKey() < first || e.getKey() > last)
+                {
+                    releaseSlot(e.getValue());
+                    it.remove();
+                }
+            }
+
+            int colWidth = (innerWidth - 2 * GRID_SIDE - (ITEMS_PER_ROW - 1) * ITEM_GAP) / ITEMS_PER_ROW;
+            for (int i = first; i <= last; i++)
+            {
+                SlotView view = slots.get(i);
+                if (view == null)
+                {
+                    view = slotPool.isEmpty() ? new SlotView() : slotPool.pop();
+                    view.bind(card, card.slots.get(i));
+                    add(view);
+                    slots.put(i, view);
+                }
+                int row = i / ITEMS_PER_ROW;
+                int col = i % ITEMS_PER_ROW;
+                view.setBounds(bw + GRID_SIDE + col * (colWidth + ITEM_GAP),
+                        gridY + GRID_TOP + row * (ITEM_SIZE + ITEM_GAP),
+                        colWidth, ITEM_SIZE);
+            }
+        }
+
+        void releaseSlots()
+        {
+            for (SlotView view : slots.values()) releaseSlot(view);
+            slots.clear();
+        }
+
+        private void releaseSlot(SlotView view)
+        {
+            remove(view);
+            slotPool.push(view);
+        }
+    }
+
+    /** One item slot: icon plus the pet badge. */
+    private final class SlotView extends JPanel
+    {
+        private final JLabel badge = new JLabel("★");
+        private final JLabel icon  = new JLabel();
+
+        private Card card;
+        private Slot slot;
+
+        SlotView()
+        {
+            super(null);
+            setOpaque(true);
+
+            badge.setFont(badge.getFont().deriveFont(Font.BOLD, 9f));
+            badge.setForeground(new Color(220, 180, 40));
+            icon.setHorizontalAlignment(SwingConstants.CENTER);
+            icon.setVerticalAlignment(SwingConstants.CENTER);
+
+            // Lower index paints on top: the badge floats over the icon.
+            add(badge);
+            add(icon);
+
+            MouseAdapter menu = new MouseAdapter()
+            {
+                @Override public void mousePressed (MouseEvent e) { maybeShowMenu(e); }
+                @Override public void mouseReleased(MouseEvent e) { maybeShowMenu(e); }
+
+                private void maybeShowMenu(MouseEvent e)
+                {
+                    if (slot != null && e.isPopupTrigger())
+                        actions.slotMenu(card, slot).show(e.getComponent(), e.getX(), e.getY());
+                }
+            };
+            addMouseListener(menu);
+            icon.addMouseListener(menu);
+        }
+
+        void bind(Card owner, Slot next)
+        {
+            Slot previous = slot;
+            card = owner;
+            slot = next;
+
+            setBackground(next.pet ? new Color(50, 40, 10) : next.hidden ? new Color(50, 28, 28) : new Color(35, 35, 35));
+            Color borderColor = next.pet ? new Color(200, 160, 40)
+                    : next.hidden ? new Color(80, 40, 40) : new Color(58, 58, 58);
+            setBorder(BorderFactory.createLineBorder(borderColor, next.pet ? 2 : 1));
+            setToolTipText(next.tooltip);
+            icon.setToolTipText(next.tooltip);
+            badge.setVisible(next.pet);
+
+            // Same sprite as before: keep it rather than flashing a reload.
+            if (previous != null && previous.itemId == next.itemId
+                    && previous.quantity == next.quantity && previous.unknownPet == next.unknownPet)
+            {
+                return;
+            }
+
+            icon.setIcon(null);
+            if (next.unknownPet)
+            {
+                // No sprite available — show a placeholder star icon
+                icon.setText("★");
+                icon.setFont(icon.getFont().deriveFont(Font.BOLD, 20f));
+                icon.setForeground(new Color(220, 180, 40));
+            }
+            else
+            {
+                icon.setText(null);
+                actions.loadIcon(next, sprite -> {
+                    // Views are pooled: drop a sprite that arrives after this
+                    // one was rebound to a different item.
+                    if (showsSprite(next)) icon.setIcon(sprite);
+                });
+            }
+        }
+
+        private boolean showsSprite(Slot requested)
+        {
+            return slot != null && !slot.unknownPet
+                    && slot.itemId == requested.itemId && slot.quantity == requested.quantity;
+        }
+
+        @Override
+        public void doLayout()
+        {
+            icon.setBounds(0, 0, getWidth(), getHeight());
+            badge.setBounds(getWidth() - 12, getHeight() - 12, 12, 12);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.runealytics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, lock-free queue feeding one dedicated writer thread.
+ *
+ * <p>With the loot writer thread on, the client thread only captures what it
+ * must read from the game and {@link #submit}s the rest of the loot write
+ * path as a task; the writer applies tasks one at a time in submission
+ * order. Because every task that touches kill state goes through the same
+ * queue, anything order-sensitive (a chat KC observation and the kill that
+ * claims it) sees exactly the order the client thread saw.</p>
+ *
+ * <p>The queue is a fixed ring of {@link #capacity} slots with a sequence
+ * number per slot (Vyukov's bounded MPMC design, used here with a single
+ * consumer): a producer claims a slot with one CAS on the tail and publishes
+ * it with one volatile write, so submitting allocates nothing and never
+ * blocks while there is room. When the writer falls a full ring behind the
+ * producer waits for it (counted in {@code ingest.full} and timed in
+ * {@code ingest.stall}) rather than drop a kill. The writer records how long
+ * each task waited ({@code ingest.lag}) and took ({@code ingest.apply}).</p>
+ *
+ * <p>Thread-safe for any number of producers.</p>
+ */
+@Slf4j
+final class LootIngestQueue
+{
+    static final int DEFAULT_CAPACITY = 1_024;
+
+    /** How long {@link #awaitApplied()} waits for a stuck writer before giving up. */
+    static final long AWAIT_TIMEOUT_MS = 5_000L;
+
+    private final int        capacity;
+    private final int        mask;
+    private final Runnable[] tasks;
+    /** Submit time per slot, for {@code ingest.lag}. */
+    private final long[]     submittedAt;
+    /**
+     * Per slot: {@code position} when free for that position's producer,
+     * {@code position + 1} once its task is published.
+     */
+    private final AtomicLongArray sequence;
+
+    private final AtomicLong tail = new AtomicLong();
+    /** Next position to apply. Written by the consumer only. */
+    private long head;
+    /** Tasks applied so far; published by the consumer after each one. */
+    private volatile long applied;
+
+    private final PluginMetrics metrics;
+    private final Thread writer;
+
+    private volatile boolean running = true;
+    private volatile boolean writerParked;
+
+    LootIngestQueue(int capacity, PluginMetrics metrics)
+    {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1)
+        {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.capacity    = capacity;
+        this.mask        = capacity - 1;
+        this.tasks       = new Runnable[capacity];
+        this.submittedAt = new long[capacity];
+        this.sequence    = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) sequence.set(i, i);
+        this.metrics     = metrics;
+
+        writer = new Thread(this::runWriter, "RuneAlytics-LootWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  PRODUCERS
+    // ═════════════════════════════════════════════════════════════════════════
+
+    /** Queues {@code task} for the writer; waits only while the ring is full. */
+    void submit(Runnable task)
+    {
+        if (offer(task)) return;
+
+        metrics.count("ingest.full");
+        metrics.time("ingest.stall", () ->
+        {
+            while (!offer(task))
+            {
+                if (!writer.isAlive())
+                {
+                    // Never strand a kill behind a dead writer.
+                    log.warn("Loot writer thread is gone; applying on {}", Thread.currentThread().getName());
+                    task.run();
+                    break;
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(10_000L);
+            }
+        });
+    }
+
+    private boolean offer(Runnable task)
+    {
+        long pos = tail.get();
+        while (true)
+        {
+            int slot = (int) pos & mask;
+            long diff = sequence.get(slot) - pos;
+            if (diff == 0)
+            {
+                if (tail.compareAndSet(pos, pos + 1)) break;
+                pos = tail.get();
+            }
+            else if (diff < 0)
+            {
+                return false; // the writer still owns this slot from a lap ago
+            }
+            else
+            {
+                pos = tail.get(); // another producer claimed it first
+            }
+        }
+
+        int slot = (int) pos & mask;
+        tasks[slot]       = task;
+        submittedAt[slot] = System.nanoTime();
+        sequence.set(slot, pos + 1); // publishes both writes above
+
+        if (writerParked) LockSupport.unpark(writer);
+        return true;
+    }
+
+    /**
+     * Blocks until every task submitted before this call has been applied,
+     * so the caller can read state those tasks write. Returns at once on the
+     * writer thread itself, and after {@value #AWAIT_TIMEOUT_MS} ms if the
+     * writer is stuck.
+     */
+    void awaitApplied()
+    {
+        if (isWriterThread()) return;
+
+        long target = tail.get();
+        if (applied >= target) return;
+
+        metrics.time("ingest.await", () ->
+        {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(AWAIT_TIMEOUT_MS);
+            while (applied < target)
+            {
+                if (!writer.isAlive() || System.nanoTime() > deadline)
+                {
+                    log.warn("Loot writer did not catch up ({} of {} applied)", applied, target);
+                    break;
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(10_000L);
+            }
+        });
+    }
+
+    boolean isWriterThread()
+    {
+        return Thread.currentThread() == writer;
+    }
+
+    /** Tasks submitted but not yet applied. */
+    int size()
+    {
+        return (int) Math.max(0L, tail.get() - applied);
+    }
+
+    /**
+     * Applies everything already queued, then stops the writer. Tasks that
+     * arrive after this returns are the caller's to run.
+     */
+    void stop()
+    {
+        running = false;
+        LockSupport.unpark(writer);
+        if (!isWriterThread())
+        {
+            try
+            {
+                writer.join(AWAIT_TIMEOUT_MS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (writer.isAlive())
+        {
+            log.warn("Loot writer did not stop; {} task(s) still queued", size());
+            return;
+        }
+
+        // A producer may have published after the writer's last look.
+        while (applyNext()) { }
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  WRITER
+    // ═════════════════════════════════════════════════════════════════════════
+
+    private void runWriter()
+    {
+        while (true)
+        {
+            if (applyNext()) continue;
+            if (!running) return;
+
+            writerParked = true;
+            if (!hasNext() && running) LockSupport.park(this);
+            writerParked = false;
+        }
+    }
+
+    private boolean hasNext()
+    {
+        return sequence.get((int) head & mask) == head + 1;
+    }
+
+    /** Applies the task at {@link #head}; {@code false} when none is published yet. */
+    private boolean applyNext()
+    {
+        if (!hasNext()) return false;
+
+        int slot = (int) head & mask;
+        Runnable task = tasks[slot];
+        metrics.record("ingest.lag", submittedAt[slot]);
+        tasks[slot] = null;
+        sequence.set(slot, head + capacity); // free for the producer one lap on
+        head++;
+
+        try
+        {
+            metrics.time("ingest.apply", task);
+        }
+        catch (Exception e)
+        {
+            // One bad event must not stop every later kill from being applied.
+            log.warn("Loot writer task failed", e);
+        }
+        finally
+        {
+            applied = head;
+        }
+        return true;
+    }
+}
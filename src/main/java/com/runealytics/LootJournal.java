@@ -0,0 +1,296 @@
+package com.runealytics;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only write-ahead journal for {@link LootStorageManager}.
+ *
+ * <h2>Why</h2>
+ * <p>A snapshot save serialises the whole {@link LootStorageData} tree, so its
+ * cost grows with lifetime kill history. The journal records each kill-path
+ * mutation ({@code addKill}, {@code appendDropsToLastKill},
+ * {@code markKillsSynced}, {@code recordLastGameKc}, {@code relabelLastKill})
+ * as one compact JSON line instead, so per-kill persistence costs O(kill
+ * size). The snapshot file is only rewritten on compaction.</p>
+ *
+ * <h2>Sequence numbers</h2>
+ * <p>Every entry carries a monotonically increasing {@link Entry#getSeq() seq}
+ * and the snapshot records the last seq it already contains
+ * ({@link LootStorageData#getJournalSeq()}). Replay skips entries at or below
+ * that mark, so a crash between "snapshot written" and "journal truncated"
+ * never double-applies a kill, and a truncate never discards entries appended
+ * after the snapshot was captured.</p>
+ *
+ * <p>All methods are synchronized: appends run on the save executor while
+ * compaction/flush can run from whichever thread called
+ * {@link LootStorageManager#saveData()}.</p>
+ */
+@Slf4j
+public class LootJournal
+{
+    static final String OP_KILL     = "kill";
+    static final String OP_APPEND   = "append";
+    static final String OP_SYNCED   = "synced";
+    static final String OP_SYNCED_BATCH = "synced_batch";
+    static final String OP_GAME_KC  = "game_kc";
+    static final String OP_RELABEL  = "relabel";
+
+    private final Gson gson;
+
+    public LootJournal(Gson gson)
+    {
+        this.gson = gson;
+    }
+
+    /** One journaled mutation. Only the fields relevant to {@link #op} are set. */
+    @Data
+    public static class Entry
+    {
+        @SerializedName("seq")
+        private long seq;
+
+        @SerializedName("op")
+        private String op;
+
+        @SerializedName("boss")
+        private String npcName;
+
+        @SerializedName("npc_id")
+        private int npcId;
+
+        @SerializedName("prestige")
+        private int prestige;
+
+        @SerializedName("kill")
+        private LootStorageData.KillRecord kill;
+
+        @SerializedName("drops")
+        private List<LootStorageData.DropRecord> drops;
+
+        @SerializedName("from")
+        private long fromTimestamp;
+
+        @SerializedName("to")
+        private long toTimestamp;
+
+        /** Game KC ({@link #OP_GAME_KC}) or new kill number ({@link #OP_RELABEL}). */
+        @SerializedName("value")
+        private int value;
+
+        /** Per-boss timestamp ranges acknowledged by one upload ({@link #OP_SYNCED_BATCH}). */
+        @SerializedName("acks")
+        private List<SyncAck> acks;
+    }
+
+    /** One boss's share of an {@link #OP_SYNCED_BATCH} entry. */
+    @Data
+    public static class SyncAck
+    {
+        @SerializedName("boss")
+        private String npcName;
+
+        @SerializedName("from")
+        private long fromTimestamp;
+
+        @SerializedName("to")
+        private long toTimestamp;
+    }
+
+    /** Serialises {@code entry} to a single journal line (no trailing newline). */
+    public String encode(Entry entry)
+    {
+        return gson.toJson(entry);
+    }
+
+    /**
+     * Appends one pre-encoded line (or several, newline-separated, as one
+     * write) to {@code file}, creating it if needed. Cost is proportional to
+     * the text, never to the stored history.
+     */
+    public synchronized void append(File file, String line) throws IOException
+    {
+        File parentDir = file.getParentFile();
+        if (parentDir != null && !parentDir.exists())
+        {
+            parentDir.mkdirs();
+        }
+
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))
+        {
+            writer.write(line);
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Reads every entry with {@code seq > afterSeq}, in file order. A torn or
+     * unparseable line (crash mid-append) ends the replay: everything before
+     * it is intact, nothing after it can be trusted.
+     */
+    public synchronized List<Entry> readAfter(File file, long afterSeq)
+    {
+        List<Entry> entries = new ArrayList<>();
+        if (!file.exists()) return entries;
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.isEmpty()) continue;
+
+                Entry entry;
+                try
+                {
+                    entry = gson.fromJson(line, Entry.class);
+                }
+                catch (Exception e)
+                {
+                    log.debug("Loot journal {} has a torn entry — replay stops here", file.getName());
+                    break;
+                }
+                if (entry == null || entry.getOp() == null) break;
+                if (entry.getSeq() > afterSeq) entries.add(entry);
+            }
+        }
+        catch (IOException e)
+        {
+            log.debug("Failed to read loot journal {}", file.getName(), e);
+        }
+        return entries;
+    }
+
+    /**
+     * Cuts a torn tail (crash mid-append) off {@code file} so later appends
+     * land after the last complete entry instead of behind a line replay
+     * stops at. Everything from the first unparseable line on is dropped, the
+     * same cut {@link #readAfter} makes; a complete last entry that only lost
+     * its newline gets one back. Returns the number of bytes removed.
+     */
+    public synchronized long repairTail(File file)
+    {
+        if (!file.exists()) return 0;
+
+        try
+        {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            int keep = 0;
+            boolean missingNewline = false;
+            int start = 0;
+            while (start < bytes.length)
+            {
+                int end = start;
+                while (end < bytes.length && bytes[end] != '\n') end++;
+
+                if (end > start && !isEntry(new String(bytes, start, end - start, StandardCharsets.UTF_8)))
+                {
+                    break;
+                }
+                keep = end < bytes.length ? end + 1 : end;
+                missingNewline = end == bytes.length && end > start;
+                start = end + 1;
+            }
+
+            if (keep == bytes.length && !missingNewline) return 0;
+
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+            {
+                raf.setLength(keep);
+                if (missingNewline)
+                {
+                    raf.seek(keep);
+                    raf.write('\n');
+                }
+            }
+            long dropped = bytes.length - keep;
+            if (dropped > 0)
+            {
+                log.debug("Cut {} torn bytes off loot journal {}", dropped, file.getName());
+            }
+            return dropped;
+        }
+        catch (IOException e)
+        {
+            log.debug("Failed to repair loot journal {}", file.getName(), e);
+            return 0;
+        }
+    }
+
+    private boolean isEntry(String line)
+    {
+        try
+        {
+            Entry entry = gson.fromJson(line, Entry.class);
+            return entry != null && entry.getOp() != null;
+        }
+        catch (Exception e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Drops every entry with {@code seq <= throughSeq} — they are now part of
+     * the snapshot. Entries appended after the snapshot was captured survive
+     * (rewritten via temp file + rename); when none remain the file is deleted.
+     */
+    public synchronized void truncateThrough(File file, long throughSeq)
+    {
+        if (!file.exists()) return;
+
+        try
+        {
+            List<Entry> survivors = readAfter(file, throughSeq);
+            if (survivors.isEmpty())
+            {
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+
+            File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8))
+            {
+                for (Entry entry : survivors)
+                {
+                    writer.write(encode(entry));
+                    writer.write('\n');
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e)
+        {
+            // Harmless: replay skips anything at or below the snapshot's seq.
+            log.debug("Failed to truncate loot journal {}", file.getName(), e);
+        }
+    }
+
+    /** Removes the journal outright (clear-all). */
+    public synchronized void delete(File file)
+    {
+        try
+        {
+            Files.deleteIfExists(file.toPath());
+        }
+        catch (IOException e)
+        {
+            log.debug("Failed to delete loot journal {}", file.getName(), e);
+        }
+    }
+}
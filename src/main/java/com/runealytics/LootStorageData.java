@@ -40,6 +40,14 @@ public class LootStorageData
     @SerializedName("last_game_kc_by_boss")
     private Map<String, Integer> lastGameKcByBoss = new HashMap<>();
 
+    /**
+     * Highest {@link LootJournal} sequence number already folded into this
+     * snapshot. Journal entries at or below it are skipped on replay. 0 for
+     * files written before the journal existed.
+     */
+    @SerializedName("journal_seq")
+    private long journalSeq;
+
     @Data
     public static class BossKillData
     {
@@ -63,6 +71,60 @@ public class LootStorageData
 
         @SerializedName("aggregated_drops")
         private Map<Integer, AggregatedDrop> aggregatedDrops = new HashMap<>();
+
+        /**
+         * Name of this boss's kill archive (one JSON kill per line) under the
+         * account's history directory, or {@code null} when every kill is
+         * still in {@link #kills}. Set once older synced kills have been
+         * paged out of the snapshot by {@link LootStorageManager}.
+         */
+        @SerializedName("archive_key")
+        private String archiveKey;
+
+        /** Kills held in the archive rather than {@link #kills} — always the oldest ones. */
+        @SerializedName("archived_kills")
+        private int archivedKills;
+
+        /**
+         * Committed length of the archive file. Bytes past this mark were
+         * written by an archive pass whose snapshot never made it to disk and
+         * are ignored (and overwritten by the next pass).
+         */
+        @SerializedName("archive_bytes")
+        private long archiveBytes;
+
+        /** Largest single drop value among the archived kills. */
+        @SerializedName("archived_highest_drop")
+        private long archivedHighestDrop;
+
+        /**
+         * Copy for a reader that works on this source after the storage lock
+         * is released (a display rebuild). The kill list is new but shares its
+         * records; the per-item totals, which every kill edits in place, are
+         * copied.
+         */
+        public BossKillData copy()
+        {
+            BossKillData copy = new BossKillData();
+            copy.npcName             = npcName;
+            copy.npcId               = npcId;
+            copy.killCount           = killCount;
+            copy.prestige            = prestige;
+            copy.totalLootValue      = totalLootValue;
+            copy.kills               = kills != null ? new ArrayList<>(kills) : new ArrayList<>();
+            copy.archiveKey          = archiveKey;
+            copy.archivedKills       = archivedKills;
+            copy.archiveBytes        = archiveBytes;
+            copy.archivedHighestDrop = archivedHighestDrop;
+            if (aggregatedDrops != null)
+            {
+                for (Map.Entry<Integer, AggregatedDrop> e : aggregatedDrops.entrySet())
+                {
+                    copy.aggregatedDrops.put(e.getKey(), e.getValue().copy());
+                }
+            }
+            return copy;
+        }
     }
 
     @Data
@@ -110,6 +172,40 @@ public class LootStorageData
          */
         @SerializedName("location")
         private PlayerLocationSnapshot location;
+
+        /**
+         * Shallow copy of this record carrying {@code drops} instead. Stored
+         * records are replaced rather than edited when drops are appended, so
+         * a snapshot captured for a background save keeps the old version.
+         */
+        public KillRecord withDrops(List<DropRecord> drops)
+        {
+            KillRecord copy = new KillRecord();
+            copy.timestamp      = timestamp;
+            copy.killNumber     = killNumber;
+            copy.world          = world;
+            copy.combatLevel    = combatLevel;
+            copy.drops          = drops;
+            copy.syncedToServer = syncedToServer;
+            copy.gameMode       = gameMode;
+            copy.accountType    = accountType;
+            copy.location       = location;
+            return copy;
+        }
+
+        /**
+         * Deep copy, drops included, for a reader that works on the record
+         * after the storage lock is released (snapshot and archive writes).
+         */
+        public KillRecord copy()
+        {
+            List<DropRecord> dropsCopy = new ArrayList<>(drops != null ? drops.size() : 0);
+            if (drops != null)
+            {
+                for (DropRecord drop : drops) dropsCopy.add(drop.copy());
+            }
+            return withDrops(dropsCopy);
+        }
     }
 
     @Data
@@ -140,6 +236,20 @@ public class LootStorageData
 
         @SerializedName("is_pet")
         private boolean pet;
+
+        public DropRecord copy()
+        {
+            DropRecord copy = new DropRecord();
+            copy.itemId     = itemId;
+            copy.itemName   = itemName;
+            copy.quantity   = quantity;
+            copy.gePrice    = gePrice;
+            copy.highAlch   = highAlch;
+            copy.totalValue = totalValue;
+            copy.hidden     = hidden;
+            copy.pet        = pet;
+            return copy;
+        }
     }
 
     @Data
@@ -168,5 +278,19 @@ public class LootStorageData
 
         @SerializedName("is_pet")
         private boolean pet;
+
+        public AggregatedDrop copy()
+        {
+            AggregatedDrop copy = new AggregatedDrop();
+            copy.itemId        = itemId;
+            copy.itemName      = itemName;
+            copy.totalQuantity = totalQuantity;
+            copy.dropCount     = dropCount;
+            copy.totalValue    = totalValue;
+            copy.gePrice       = gePrice;
+            copy.highAlch      = highAlch;
+            copy.pet           = pet;
+            return copy;
+        }
     }
 }
@@ -1,14 +1,22 @@
 package com.runealytics;
 
+import com.google.common.io.ByteStreams;
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.RuneLite;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.function.Function;
 
 @Slf4j
 @Singleton
@@ -16,10 +24,94 @@ public class LootStorageManager
 {
     private static final String STORAGE_FILE_PREFIX = "runealytics-loot-";
     private static final String STORAGE_FILE_SUFFIX = ".json";
+    private static final String BINARY_FILE_SUFFIX  = ".bin";
+    private static final String JOURNAL_FILE_SUFFIX = ".journal";
+    private static final String HISTORY_DIR_SUFFIX  = "-history";
+    private static final String ARCHIVE_FILE_SUFFIX = ".jsonl";
+
+    /**
+     * Journal entries written since the last snapshot before a background
+     * compaction (full snapshot + journal truncate) is scheduled. Bounds both
+     * the journal's size on disk and the replay cost at the next login.
+     */
+    static final int JOURNAL_COMPACT_THRESHOLD = 1_000;
+
+    /** Most recent kills per boss that always stay in the snapshot in lazy-history mode. */
+    static final int RECENT_KILLS_KEPT = 100;
+
+    /**
+     * Minimum number of archivable kills before a boss is paged out, so each
+     * archive pass appends a worthwhile chunk instead of one kill per save.
+     */
+    static final int ARCHIVE_BATCH = 100;
+
     private final Gson gson;
+    private final Gson compactGson;
     private final RuneAlyticsState state;
+    private final File storageDir;
+    private final LootJournal journal;
     private LootStorageData currentData;
 
+    /**
+     * When {@code true}, kill-path mutations append a {@link LootJournal} entry
+     * instead of scheduling a whole-file snapshot. Toggled from
+     * {@link RunealyticsConfig#lootJournal()}; a journal left behind while
+     * disabled is still replayed and compacted on the next load/save.
+     */
+    private volatile boolean journalEnabled = true;
+
+    /** Journal entries appended since the last snapshot was captured. */
+    private int journalEntriesSinceSnapshot = 0;
+
+    /**
+     * When {@code true}, {@link #saveData()} moves each boss's oldest synced
+     * kills out of the snapshot into a per-boss archive file, so login only
+     * deserialises the per-boss summaries plus the last
+     * {@value #RECENT_KILLS_KEPT} kills. The archived kills are read back on
+     * demand via {@link #getFullKillHistory}.
+     * Toggled from {@link RunealyticsConfig#lootLazyHistory()}; turning it off
+     * pages everything back in.
+     */
+    private volatile boolean lazyHistoryEnabled = false;
+
+    /**
+     * When {@code true}, snapshots are written with {@link LootBinaryCodec}
+     * to {@code runealytics-loot-<user>.bin} instead of the JSON file.
+     * Toggled from {@link RunealyticsConfig#lootBinaryStorage()}. Loading
+     * reads whichever of the two files is newer, so switching either way
+     * migrates on the next save, which also removes the other file.
+     */
+    private volatile boolean binaryFormatEnabled = false;
+
+    /**
+     * Archive files made obsolete by {@link #hydrateHistory} /
+     * {@link #discardHistory}. The on-disk snapshot may still reference them,
+     * so they are only deleted once a snapshot without them has been written.
+     */
+    private final List<File> pendingArchiveDeletes = new ArrayList<>();
+
+    /**
+     * Held for a whole {@link #saveData()} so saves, and the archive appends
+     * they make without the monitor, run one at a time. Always taken before
+     * the monitor, never while holding it.
+     */
+    private final Object saveLock = new Object();
+
+    /**
+     * Unsynced kills per boss, oldest first: the upload queue behind
+     * {@link #getAllUnsyncedKills()} and {@link #markKillsSynced}, so a live
+     * sync after each kill costs O(unsynced backlog) instead of a walk over
+     * every stored kill. Kept current by {@link #applyKill},
+     * {@link #applyAppendDrops} and {@link #applyMarkSynced}; rebuilt from
+     * scratch whenever {@link #currentData} is replaced or
+     * {@link #invalidateUnsyncedIndex()} is called. Bosses with nothing
+     * pending have no entry.
+     */
+    private Map<String, ArrayDeque<LootStorageData.KillRecord>> unsyncedIndex = new HashMap<>();
+
+    /** The data {@link #unsyncedIndex} was built from; any other value means it is stale. */
+    private LootStorageData unsyncedIndexData;
+
     private java.util.concurrent.ScheduledExecutorService saveExecutor = newSaveExecutor();
     private java.util.concurrent.ScheduledFuture<?> pendingSave = null;
 
@@ -34,15 +126,50 @@ public class LootStorageManager
 
     @Inject
     public LootStorageManager(RuneAlyticsState state, Gson gson)
+    {
+        this(state, gson, RuneLite.RUNELITE_DIR);
+    }
+
+    /** Test seam: store files under {@code storageDir} instead of the RuneLite dir. */
+    LootStorageManager(RuneAlyticsState state, Gson gson, File storageDir)
     {
         this.state = state;
+        this.storageDir = storageDir;
         this.gson = gson.newBuilder()
                 .setPrettyPrinting()
                 .create();
+        // Journal and archive lines must stay single-line, so use the compact instance.
+        this.compactGson = gson;
+        this.journal = new LootJournal(gson);
+    }
+
+    public void setJournalEnabled(boolean enabled)
+    {
+        this.journalEnabled = enabled;
+    }
+
+    public synchronized void setBinaryFormatEnabled(boolean enabled)
+    {
+        boolean changed = this.binaryFormatEnabled != enabled;
+        this.binaryFormatEnabled = enabled;
+        if (changed && currentData != null)
+        {
+            scheduleSave();
+        }
+    }
+
+    public synchronized void setLazyHistoryEnabled(boolean enabled)
+    {
+        this.lazyHistoryEnabled = enabled;
+        if (!enabled && currentData != null && hydrateAllHistory())
+        {
+            scheduleSave();
+        }
     }
 
     /**
-     * Load loot data for current username
+     * Load loot data for current username: the last snapshot, then any
+     * {@link LootJournal} entries written after it.
      */
     public synchronized LootStorageData loadData()
     {
@@ -54,59 +181,221 @@ public class LootStorageManager
             return currentData;
         }
 
-        File file = getStorageFile(username);
-        if (!file.exists())
+        currentData = readSnapshot(username);
+        replayJournal(username);
+
+        // Archives left behind by an earlier lazy-history session.
+        if (!lazyHistoryEnabled && hydrateAllHistory())
+        {
+            scheduleSave();
+        }
+
+        log.debug("Loaded loot data for {} - {} bosses, {} total kills",
+                username,
+                currentData.getBossKills().size(),
+                currentData.getBossKills().values().stream()
+                        .mapToInt(LootStorageData.BossKillData::getKillCount)
+                        .sum());
+        return currentData;
+    }
+
+    /**
+     * Reads the newer of the JSON and binary snapshot files (both exist only
+     * if a crash hit between a format switch's write and its cleanup). When
+     * the file read isn't in the configured format a save is scheduled, which
+     * migrates it.
+     */
+    private LootStorageData readSnapshot(String username)
+    {
+        File json   = getStorageFile(username);
+        File binary = getBinaryFile(username);
+
+        boolean useBinary;
+        if (json.exists() && binary.exists())
+        {
+            useBinary = binary.lastModified() == json.lastModified()
+                    ? binaryFormatEnabled
+                    : binary.lastModified() > json.lastModified();
+        }
+        else if (json.exists() || binary.exists())
+        {
+            useBinary = binary.exists();
+        }
+        else
         {
             log.debug("No existing loot data file for {}", username);
-            currentData = new LootStorageData();
-            currentData.setUsername(username);
-            return currentData;
+            return emptyData(username);
+        }
+
+        LootStorageData data = useBinary ? readBinary(binary, username) : readJson(json, username);
+        if (data == null && (useBinary ? json : binary).exists())
+        {
+            // Unreadable — fall back to the other format's file.
+            useBinary = !useBinary;
+            data = useBinary ? readBinary(binary, username) : readJson(json, username);
         }
+        if (data == null) return emptyData(username);
 
+        if (useBinary != binaryFormatEnabled)
+        {
+            log.debug("Migrating loot data for {} to {}", username, binaryFormatEnabled ? "binary" : "JSON");
+            scheduleSave();
+        }
+        return data;
+    }
+
+    private LootStorageData readJson(File file, String username)
+    {
         try (Reader reader = Files.newBufferedReader(file.toPath()))
         {
-            currentData = gson.fromJson(reader, LootStorageData.class);
-            if (currentData == null)
-            {
-                currentData = new LootStorageData();
-                currentData.setUsername(username);
-            }
-            log.debug("Loaded loot data for {} - {} bosses, {} total kills",
-                    username,
-                    currentData.getBossKills().size(),
-                    currentData.getBossKills().values().stream()
-                            .mapToInt(LootStorageData.BossKillData::getKillCount)
-                            .sum());
-            return currentData;
+            return gson.fromJson(reader, LootStorageData.class);
         }
         catch (Exception e)
         {
             log.debug("Failed to load loot data for {}", username, e);
-            currentData = new LootStorageData();
-            currentData.setUsername(username);
-            return currentData;
+            return null;
+        }
+    }
+
+    private LootStorageData readBinary(File file, String username)
+    {
+        try (InputStream in = Files.newInputStream(file.toPath()))
+        {
+            return LootBinaryCodec.read(in);
+        }
+        catch (Exception e)
+        {
+            log.debug("Failed to load binary loot data for {}", username, e);
+            return null;
+        }
+    }
+
+    private static LootStorageData emptyData(String username)
+    {
+        LootStorageData data = new LootStorageData();
+        data.setUsername(username);
+        return data;
+    }
+
+    /**
+     * Re-applies journal entries newer than the snapshot's
+     * {@link LootStorageData#getJournalSeq()} through the same mutation code
+     * the live paths use, then schedules a compaction so the next login starts
+     * from a fresh snapshot. A torn tail is cut off first so this session's
+     * appends stay readable.
+     */
+    private void replayJournal(String username)
+    {
+        File file = getJournalFile(username);
+        journal.repairTail(file);
+        List<LootJournal.Entry> entries = journal.readAfter(file, currentData.getJournalSeq());
+        if (entries.isEmpty()) return;
+
+        for (LootJournal.Entry entry : entries)
+        {
+            try
+            {
+                applyJournalEntry(entry);
+            }
+            catch (Exception e)
+            {
+                log.debug("Skipping unreplayable loot journal entry #{} ({})", entry.getSeq(), entry.getOp(), e);
+            }
+            currentData.setJournalSeq(entry.getSeq());
         }
+
+        journalEntriesSinceSnapshot += entries.size();
+        log.debug("Replayed {} loot journal entries for {}", entries.size(), username);
+        scheduleSave();
     }
 
+    private void applyJournalEntry(LootJournal.Entry entry)
+    {
+        switch (entry.getOp())
+        {
+            case LootJournal.OP_KILL:
+                applyKill(entry.getNpcName(), entry.getNpcId(), entry.getPrestige(), entry.getKill());
+                break;
+            case LootJournal.OP_APPEND:
+                applyAppendDrops(entry.getNpcName(), entry.getDrops());
+                break;
+            case LootJournal.OP_SYNCED:
+                applyMarkSynced(entry.getNpcName(), entry.getFromTimestamp(), entry.getToTimestamp());
+                break;
+            case LootJournal.OP_SYNCED_BATCH:
+                for (LootJournal.SyncAck ack : entry.getAcks())
+                {
+                    applyMarkSynced(ack.getNpcName(), ack.getFromTimestamp(), ack.getToTimestamp());
+                }
+                break;
+            case LootJournal.OP_GAME_KC:
+                applyLastGameKc(entry.getNpcName(), entry.getValue());
+                break;
+            case LootJournal.OP_RELABEL:
+                applyRelabel(entry.getNpcName(), entry.getValue());
+                break;
+            default:
+                log.debug("Unknown loot journal op '{}' — skipped", entry.getOp());
+        }
+    }
 
     /**
      * Saves current loot data to disk.
      *
-     * <p>Only the in-memory JSON serialisation happens under the lock — that's
-     * CPU-only and stays fast even for a large history. The disk write (temp
-     * file + atomic rename) runs afterwards with no lock held, so a kill event
-     * on the client thread ({@link #addKill}) is never blocked waiting on disk
-     * I/O from a background save. Holding a monitor across a blocking file
-     * write is exactly what caused the client to stall during AOE kill bursts
-     * (several {@link #addKill} calls landing back-to-back on the client
-     * thread while a save was mid-write). The write is still atomic (temp
-     * file + rename) so a crash mid-write leaves the previous file intact.</p>
+     * <p>Only {@link #captureSnapshot()} happens under the lock: a copy of
+     * the maps, kill lists and kill records. Serialisation then streams that
+     * snapshot through a {@link JsonWriter} straight into the temp file with
+     * no lock held, so a kill event on the client thread ({@link #addKill})
+     * is never blocked behind a large-history save, and no multi-MB JSON
+     * string is ever built. Holding a monitor across serialisation or a
+     * blocking file write is exactly what caused the client to stall during
+     * AOE kill bursts (several {@link #addKill} calls landing back-to-back on
+     * the client thread while a save was mid-write). The write is still
+     * atomic (temp file + rename) so a crash mid-write leaves the previous
+     * file intact.</p>
+     *
+     * <p>This is also the journal compaction step: once the snapshot is on
+     * disk, every {@link LootJournal} entry it already contains is dropped.</p>
+     *
+     * <p>In lazy-history mode an archive pass runs first, the same way: the
+     * kills to page out are picked and copied under the lock, appended to
+     * their archive files without it, and only then moved out of the resident
+     * history, so the snapshot right after is the smaller one. Saves run one
+     * at a time ({@link #saveLock}) so two archive passes never write the
+     * same file.</p>
      */
     public void saveData()
+    {
+        synchronized (saveLock)
+        {
+            saveDataLocked();
+        }
+    }
+
+    private void saveDataLocked()
     {
         String username;
-        String json;
+        LootStorageData snapshot;
+        boolean binary;
         int bossCount;
+        long snapshotSeq;
+        List<File> archiveDeletes;
+
+        List<ArchiveBatch> archiveBatches = Collections.emptyList();
+        LootStorageData archivedData = null;
+        synchronized (this)
+        {
+            username = state.getVerifiedUsername();
+            if (currentData != null && lazyHistoryEnabled && username != null && !username.isEmpty())
+            {
+                archivedData   = currentData;
+                archiveBatches = planArchive(username);
+            }
+        }
+        for (ArchiveBatch batch : archiveBatches)
+        {
+            writeArchive(batch);
+        }
 
         synchronized (this)
         {
@@ -123,11 +412,21 @@ public class LootStorageManager
                 return;
             }
 
-            json      = gson.toJson(currentData);
-            bossCount = currentData.getBossKills().size();
+            // A cache drop or account switch meanwhile leaves the batches for nobody.
+            if (currentData == archivedData) commitArchive(archiveBatches);
+
+            snapshot    = captureSnapshot();
+            binary      = binaryFormatEnabled;
+            bossCount   = snapshot.getBossKills().size();
+            snapshotSeq = currentData.getJournalSeq();
+            journalEntriesSinceSnapshot = 0;
+
+            archiveDeletes = new ArrayList<>(pendingArchiveDeletes);
+            pendingArchiveDeletes.clear();
         }
 
-        File file = getStorageFile(username);
+        File file  = binary ? getBinaryFile(username) : getStorageFile(username);
+        File stale = binary ? getStorageFile(username) : getBinaryFile(username);
 
         try
         {
@@ -141,10 +440,7 @@ public class LootStorageManager
             // Write to a temp file, then atomically swap it into place so a
             // crash mid-write leaves the previous good file intact.
             File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
-            try (Writer writer = Files.newBufferedWriter(tmp.toPath()))
-            {
-                writer.write(json);
-            }
+            writeSnapshot(tmp, snapshot, binary);
 
             try
             {
@@ -161,10 +457,129 @@ public class LootStorageManager
             }
 
             log.debug("Saved loot data for {} - {} bosses", username, bossCount);
+
+            // The other format's file (if any) predates this snapshot.
+            Files.deleteIfExists(stale.toPath());
+
+            journal.truncateThrough(getJournalFile(username), snapshotSeq);
+
+            for (File archive : archiveDeletes)
+            {
+                Files.deleteIfExists(archive.toPath());
+            }
         }
         catch (Exception e)
         {
             log.debug("Failed to save loot data for {}", username, e);
+            synchronized (this)
+            {
+                pendingArchiveDeletes.addAll(archiveDeletes);
+            }
+        }
+    }
+
+    /**
+     * Capture of {@code currentData} for an off-lock save.
+     *
+     * <p>Maps, kill lists, aggregates and the {@link LootStorageData.KillRecord}
+     * objects themselves are copied: records are still edited in place under
+     * the lock (synced flag, relabel, value backfill), so the writer must never
+     * serialise a live one. In lazy-history mode only the recent window is
+     * resident, which bounds the copy. Caller must hold the monitor.</p>
+     */
+    LootStorageData captureSnapshot()
+    {
+        LootStorageData copy = new LootStorageData();
+        copy.setUsername(currentData.getUsername());
+        copy.setLastSyncTimestamp(currentData.getLastSyncTimestamp());
+        copy.setJournalSeq(currentData.getJournalSeq());
+
+        if (currentData.getHiddenBosses() != null)
+        {
+            copy.setHiddenBosses(new HashSet<>(currentData.getHiddenBosses()));
+        }
+        if (currentData.getLastGameKcByBoss() != null)
+        {
+            copy.setLastGameKcByBoss(new HashMap<>(currentData.getLastGameKcByBoss()));
+        }
+        if (currentData.getHiddenDropsByBoss() != null)
+        {
+            Map<String, Set<Integer>> hidden = new HashMap<>();
+            for (Map.Entry<String, Set<Integer>> e : currentData.getHiddenDropsByBoss().entrySet())
+            {
+                hidden.put(e.getKey(), e.getValue() != null ? new HashSet<>(e.getValue()) : null);
+            }
+            copy.setHiddenDropsByBoss(hidden);
+        }
+
+        Map<String, LootStorageData.BossKillData> bosses = new HashMap<>();
+        for (Map.Entry<String, LootStorageData.BossKillData> e : currentData.getBossKills().entrySet())
+        {
+            LootStorageData.BossKillData src = e.getValue();
+            LootStorageData.BossKillData dst = new LootStorageData.BossKillData();
+            dst.setNpcName(src.getNpcName());
+            dst.setNpcId(src.getNpcId());
+            dst.setKillCount(src.getKillCount());
+            dst.setPrestige(src.getPrestige());
+            dst.setTotalLootValue(src.getTotalLootValue());
+            dst.setArchiveKey(src.getArchiveKey());
+            dst.setArchivedKills(src.getArchivedKills());
+            dst.setArchiveBytes(src.getArchiveBytes());
+            dst.setArchivedHighestDrop(src.getArchivedHighestDrop());
+            List<LootStorageData.KillRecord> srcKills = kills(src);
+            List<LootStorageData.KillRecord> dstKills = new ArrayList<>(srcKills.size());
+            for (LootStorageData.KillRecord kill : srcKills) dstKills.add(kill.copy());
+            dst.setKills(dstKills);
+
+            Map<Integer, LootStorageData.AggregatedDrop> aggregates = new HashMap<>();
+            if (src.getAggregatedDrops() != null)
+            {
+                for (Map.Entry<Integer, LootStorageData.AggregatedDrop> a : src.getAggregatedDrops().entrySet())
+                {
+                    LootStorageData.AggregatedDrop agg = new LootStorageData.AggregatedDrop();
+                    agg.setItemId(a.getValue().getItemId());
+                    agg.setItemName(a.getValue().getItemName());
+                    agg.setTotalQuantity(a.getValue().getTotalQuantity());
+                    agg.setDropCount(a.getValue().getDropCount());
+                    agg.setTotalValue(a.getValue().getTotalValue());
+                    agg.setGePrice(a.getValue().getGePrice());
+                    agg.setHighAlch(a.getValue().getHighAlch());
+                    agg.setPet(a.getValue().isPet());
+                    aggregates.put(a.getKey(), agg);
+                }
+            }
+            dst.setAggregatedDrops(aggregates);
+            bosses.put(e.getKey(), dst);
+        }
+        copy.setBossKills(bosses);
+        return copy;
+    }
+
+    /**
+     * Streams {@code snapshot} into {@code file} through a buffered
+     * {@link FileChannel} — as JSON, or with {@link LootBinaryCodec} when
+     * {@code binary} — then forces it to disk so the journal entries it
+     * covers can be truncated safely.
+     */
+    void writeSnapshot(File file, LootStorageData snapshot, boolean binary) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            if (binary)
+            {
+                // The codec buffers internally.
+                LootBinaryCodec.write(snapshot, Channels.newOutputStream(channel));
+            }
+            else
+            {
+                Writer writer = new BufferedWriter(
+                        Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1), 64 * 1024);
+                JsonWriter jsonWriter = gson.newJsonWriter(writer);
+                gson.toJson(snapshot, LootStorageData.class, jsonWriter);
+                jsonWriter.flush();
+            }
+            channel.force(false);
         }
     }
 
@@ -207,6 +622,112 @@ public class LootStorageManager
             currentData = loadData();
         }
 
+        persist(killEntry(npcName, npcId, combatLevel, killNumber, world, prestige, drops, location));
+    }
+
+    /** One kill for {@link #addKills}: the arguments of {@link #addKill} plus its game KC, if any. */
+    public static final class KillWrite
+    {
+        public final String npcName;
+        public final int npcId;
+        public final int combatLevel;
+        public final int killNumber;
+        public final int world;
+        public final int prestige;
+        public final List<LootStorageData.DropRecord> drops;
+        public final PlayerLocationSnapshot location;
+        /** Authoritative game KC for {@link #recordLastGameKc}, or 0 when none. */
+        public final int gameKc;
+
+        public KillWrite(String npcName, int npcId, int combatLevel, int killNumber, int world,
+                         int prestige, List<LootStorageData.DropRecord> drops,
+                         PlayerLocationSnapshot location, int gameKc)
+        {
+            this.npcName     = npcName;
+            this.npcId       = npcId;
+            this.combatLevel = combatLevel;
+            this.killNumber  = killNumber;
+            this.world       = world;
+            this.prestige    = prestige;
+            this.drops       = drops;
+            this.location    = location;
+            this.gameKc      = gameKc;
+        }
+
+        /** This write relabeled with an authoritative game KC that arrived after it was queued. */
+        public KillWrite withGameKc(int gameKc)
+        {
+            return new KillWrite(npcName, npcId, combatLevel, gameKc, world, prestige, drops, location, gameKc);
+        }
+    }
+
+    /**
+     * Adds several kills, in order, as {@link #addKill} followed by
+     * {@link #recordLastGameKc} would for each, but under one lock
+     * acquisition and with all their journal lines queued as one append.
+     */
+    public synchronized void addKills(List<KillWrite> kills)
+    {
+        if (kills.isEmpty()) return;
+        if (currentData == null)
+        {
+            currentData = loadData();
+        }
+
+        List<LootJournal.Entry> entries = new ArrayList<>(kills.size() * 2);
+        for (KillWrite k : kills)
+        {
+            entries.add(killEntry(k.npcName, k.npcId, k.combatLevel, k.killNumber, k.world,
+                    k.prestige, k.drops, k.location));
+            if (k.gameKc > 0 && applyLastGameKc(k.npcName, k.gameKc))
+            {
+                LootJournal.Entry kc = new LootJournal.Entry();
+                kc.setOp(LootJournal.OP_GAME_KC);
+                kc.setNpcName(k.npcName);
+                kc.setValue(k.gameKc);
+                entries.add(kc);
+            }
+        }
+        persistAll(entries);
+    }
+
+    /** Applies one new kill to {@link #currentData} and returns its journal entry. */
+    private LootJournal.Entry killEntry(String npcName, int npcId, int combatLevel, int killNumber, int world,
+                                        int prestige, List<LootStorageData.DropRecord> drops,
+                                        PlayerLocationSnapshot location)
+    {
+        // Create kill record
+        LootStorageData.KillRecord killRecord = new LootStorageData.KillRecord();
+        killRecord.setTimestamp(System.currentTimeMillis());
+        killRecord.setKillNumber(killNumber);
+        killRecord.setWorld(world);
+        killRecord.setCombatLevel(combatLevel);
+        killRecord.setDrops(new java.util.ArrayList<>(drops));
+        killRecord.setSyncedToServer(false);
+        killRecord.setLocation(location);
+
+        long killValue = applyKill(npcName, npcId, prestige, killRecord);
+
+        LootJournal.Entry entry = new LootJournal.Entry();
+        entry.setOp(LootJournal.OP_KILL);
+        entry.setNpcName(npcName);
+        entry.setNpcId(npcId);
+        entry.setPrestige(prestige);
+        entry.setKill(killRecord);
+
+        log.debug("Added kill #{} for {} - {} drops, {} gp",
+                killNumber, npcName, drops.size(), killValue);
+        return entry;
+    }
+
+    /**
+     * Adds {@code killRecord} to {@code npcName}'s history and folds its drops
+     * into the aggregates. Shared by the live path and journal replay.
+     *
+     * @return the kill's total value
+     */
+    private long applyKill(String npcName, int npcId, int prestige, LootStorageData.KillRecord killRecord)
+    {
         // Get or create boss data
         LootStorageData.BossKillData bossData = currentData.getBossKills()
                 .computeIfAbsent(npcName, k -> {
@@ -219,25 +740,19 @@ public class LootStorageManager
                     return newBoss;
                 });
 
-        // Create kill record
-        LootStorageData.KillRecord killRecord = new LootStorageData.KillRecord();
-        killRecord.setTimestamp(System.currentTimeMillis());
-        killRecord.setKillNumber(killNumber);
-        killRecord.setWorld(world);
-        killRecord.setCombatLevel(combatLevel);
-        killRecord.setDrops(new java.util.ArrayList<>(drops));
-        killRecord.setSyncedToServer(false);
-        killRecord.setLocation(location);
-
         // Add kill to list
         bossData.getKills().add(killRecord);
+        if (unsyncedIndexData == currentData && !killRecord.isSyncedToServer())
+        {
+            unsyncedIndex.computeIfAbsent(npcName, k -> new ArrayDeque<>()).addLast(killRecord);
+        }
 
         // Update aggregated stats
-        bossData.setKillCount(killNumber);
+        bossData.setKillCount(killRecord.getKillNumber());
         bossData.setPrestige(prestige);
 
         long killValue = 0;
-        for (LootStorageData.DropRecord drop : drops)
+        for (LootStorageData.DropRecord drop : killRecord.getDrops())
         {
             killValue += drop.getTotalValue();
 
@@ -266,11 +781,7 @@ public class LootStorageManager
         }
 
         bossData.setTotalLootValue(bossData.getTotalLootValue() + killValue);
-
-        scheduleSave();
-
-        log.debug("Added kill #{} for {} - {} drops, {} gp",
-                killNumber, npcName, drops.size(), killValue);
+        return killValue;
     }
 
     /**
@@ -285,15 +796,40 @@ public class LootStorageManager
     public synchronized void appendDropsToLastKill(String npcName, List<LootStorageData.DropRecord> drops)
     {
         if (currentData == null || drops == null || drops.isEmpty()) return;
+        if (!applyAppendDrops(npcName, drops)) return;
 
-        LootStorageData.BossKillData bossData = currentData.getBossKills().get(npcName);
-        if (bossData == null || bossData.getKills().isEmpty()) return;
+        LootJournal.Entry entry = new LootJournal.Entry();
+        entry.setOp(LootJournal.OP_APPEND);
+        entry.setNpcName(npcName);
+        entry.setDrops(new ArrayList<>(drops));
+        persist(entry);
+        log.debug("Appended {} RoW drop(s) to last '{}' kill", drops.size(), npcName);
+    }
 
-        LootStorageData.KillRecord lastKill =
-                bossData.getKills().get(bossData.getKills().size() - 1);
+    private boolean applyAppendDrops(String npcName, List<LootStorageData.DropRecord> drops)
+    {
+        if (drops == null || drops.isEmpty()) return false;
 
-        lastKill.getDrops().addAll(drops);
-        lastKill.setSyncedToServer(false);
+        LootStorageData.BossKillData bossData = currentData.getBossKills().get(npcName);
+        if (bossData == null || bossData.getKills().isEmpty()) return false;
+
+        int last = bossData.getKills().size() - 1;
+        LootStorageData.KillRecord lastKill = bossData.getKills().get(last);
+
+        // Replace the record rather than appending in place: a snapshot
+        // captured for an in-flight save may still hold the old one.
+        List<LootStorageData.DropRecord> merged = new ArrayList<>(lastKill.getDrops());
+        merged.addAll(drops);
+        LootStorageData.KillRecord updated = lastKill.withDrops(merged);
+        updated.setSyncedToServer(false);
+        bossData.getKills().set(last, updated);
+        if (unsyncedIndexData == currentData)
+        {
+            ArrayDeque<LootStorageData.KillRecord> queue =
+                    unsyncedIndex.computeIfAbsent(npcName, k -> new ArrayDeque<>());
+            if (queue.peekLast() == lastKill) queue.pollLast();
+            queue.addLast(updated);
+        }
 
         // Update aggregated stats for the new drops
         for (LootStorageData.DropRecord drop : drops)
@@ -319,9 +855,7 @@ public class LootStorageManager
             if (agg.getGePrice() <= 0 && drop.getGePrice() > 0)   agg.setGePrice(drop.getGePrice());
             if (agg.getHighAlch() <= 0 && drop.getHighAlch() > 0) agg.setHighAlch(drop.getHighAlch());
         }
-
-        scheduleSave();
-        log.debug("Appended {} RoW drop(s) to last '{}' kill", drops.size(), npcName);
+        return true;
     }
 
     /**
@@ -334,7 +868,17 @@ public class LootStorageManager
         if (npcName == null || gameKC <= 0) return;
         if (currentData == null) currentData = loadData();
         if (currentData == null) return;
+        if (!applyLastGameKc(npcName, gameKC)) return;
 
+        LootJournal.Entry entry = new LootJournal.Entry();
+        entry.setOp(LootJournal.OP_GAME_KC);
+        entry.setNpcName(npcName);
+        entry.setValue(gameKC);
+        persist(entry);
+    }
+
+    private boolean applyLastGameKc(String npcName, int gameKC)
+    {
         if (currentData.getLastGameKcByBoss() == null)
         {
             // Files written by pre-2.0.6 versions deserialize without the map.
@@ -342,10 +886,10 @@ public class LootStorageManager
         }
 
         Integer existing = currentData.getLastGameKcByBoss().get(npcName);
-        if (existing != null && existing >= gameKC) return;
+        if (existing != null && existing >= gameKC) return false;
 
         currentData.getLastGameKcByBoss().put(npcName, gameKC);
-        scheduleSave();
+        return true;
     }
 
     /**
@@ -362,7 +906,19 @@ public class LootStorageManager
     public synchronized boolean relabelLastKill(String npcName, int killNumber)
     {
         if (currentData == null || npcName == null || killNumber <= 0) return false;
+        if (!applyRelabel(npcName, killNumber)) return false;
 
+        LootJournal.Entry entry = new LootJournal.Entry();
+        entry.setOp(LootJournal.OP_RELABEL);
+        entry.setNpcName(npcName);
+        entry.setValue(killNumber);
+        persist(entry);
+        log.debug("Relabeled last '{}' kill to game KC {}", npcName, killNumber);
+        return true;
+    }
+
+    private boolean applyRelabel(String npcName, int killNumber)
+    {
         LootStorageData.BossKillData bossData = currentData.getBossKills().get(npcName);
         if (bossData == null || bossData.getKills().isEmpty()) return false;
 
@@ -387,37 +943,127 @@ public class LootStorageManager
         {
             currentData.getLastGameKcByBoss().put(npcName, killNumber);
         }
-
-        scheduleSave();
-        log.debug("Relabeled last '{}' kill to game KC {}", npcName, killNumber);
         return true;
     }
 
     /**
-     * Mark kills as synced to server
+     * Mark kills as synced to server
+     */
+    public void markKillsSynced(String npcName, long fromTimestamp, long toTimestamp)
+    {
+        synchronized (this)
+        {
+            if (currentData == null) return;
+
+            int syncedCount = applyMarkSynced(npcName, fromTimestamp, toTimestamp);
+            if (syncedCount == 0) return;
+
+            log.debug("Marked {} kills as synced for {}", syncedCount, npcName);
+            if (journalEnabled)
+            {
+                LootJournal.Entry entry = new LootJournal.Entry();
+                entry.setOp(LootJournal.OP_SYNCED);
+                entry.setNpcName(npcName);
+                entry.setFromTimestamp(fromTimestamp);
+                entry.setToTimestamp(toTimestamp);
+                persist(entry);
+                return;
+            }
+        }
+        saveData();
+    }
+
+    /**
+     * Marks one acknowledged upload batch as synced. Each boss's kills are
+     * acknowledged by their timestamp range, as {@link #markKillsSynced(String, long, long)}
+     * does, but the whole batch is persisted as a single journal entry — or
+     * one snapshot when journaling is off, written after the lock is released
+     * — instead of one write per boss.
+     *
+     * @param acked kills the server accepted, keyed by boss
+     */
+    public void markKillsSynced(Map<String, List<LootStorageData.KillRecord>> acked)
+    {
+        boolean snapshot;
+        synchronized (this)
+        {
+            if (currentData == null || acked == null || acked.isEmpty()) return;
+
+            List<LootJournal.SyncAck> acks = new ArrayList<>();
+            int syncedCount = 0;
+            for (Map.Entry<String, List<LootStorageData.KillRecord>> e : acked.entrySet())
+            {
+                if (e.getValue().isEmpty()) continue;
+
+                long from = Long.MAX_VALUE;
+                long to = Long.MIN_VALUE;
+                for (LootStorageData.KillRecord kill : e.getValue())
+                {
+                    from = Math.min(from, kill.getTimestamp());
+                    to = Math.max(to, kill.getTimestamp());
+                }
+
+                int count = applyMarkSynced(e.getKey(), from, to);
+                if (count == 0) continue;
+
+                LootJournal.SyncAck ack = new LootJournal.SyncAck();
+                ack.setNpcName(e.getKey());
+                ack.setFromTimestamp(from);
+                ack.setToTimestamp(to);
+                acks.add(ack);
+                syncedCount += count;
+            }
+            if (acks.isEmpty()) return;
+
+            snapshot = !journalEnabled;
+            if (!snapshot)
+            {
+                LootJournal.Entry entry = new LootJournal.Entry();
+                entry.setOp(LootJournal.OP_SYNCED_BATCH);
+                entry.setAcks(acks);
+                persist(entry);
+            }
+            log.debug("Marked {} kills as synced across {} bosses", syncedCount, acks.size());
+        }
+
+        if (snapshot)
+        {
+            saveData();
+        }
+    }
+
+    /**
+     * Flags the pending kills of {@code npcName} whose timestamps fall in
+     * {@code [fromTimestamp, toTimestamp]} as synced and drops them from the
+     * unsynced index. Only the index is walked, never the full history.
+     * Kills already flagged synced elsewhere (the API client does so for
+     * zero-loot kills it skips) are counted when in range, so the flag still
+     * gets persisted.
+     *
+     * @return number of kills in range that were pending
      */
-    public synchronized void markKillsSynced(String npcName, long fromTimestamp, long toTimestamp)
+    private int applyMarkSynced(String npcName, long fromTimestamp, long toTimestamp)
     {
-        if (currentData == null) return;
-
-        LootStorageData.BossKillData bossData = currentData.getBossKills().get(npcName);
-        if (bossData == null) return;
+        ArrayDeque<LootStorageData.KillRecord> queue = unsyncedIndex().get(npcName);
+        if (queue == null) return 0;
 
         int syncedCount = 0;
-        for (LootStorageData.KillRecord kill : bossData.getKills())
+        for (Iterator<LootStorageData.KillRecord> it = queue.iterator(); it.hasNext(); )
         {
+            LootStorageData.KillRecord kill = it.next();
             if (kill.getTimestamp() >= fromTimestamp && kill.getTimestamp() <= toTimestamp)
             {
                 kill.setSyncedToServer(true);
+                it.remove();
                 syncedCount++;
             }
+            else if (kill.isSyncedToServer())
+            {
+                it.remove();
+            }
         }
-
-        if (syncedCount > 0)
-        {
-            saveData();
-            log.debug("Marked {} kills as synced for {}", syncedCount, npcName);
-        }
+        if (queue.isEmpty()) unsyncedIndex.remove(npcName);
+        return syncedCount;
     }
 
     /**
@@ -427,11 +1073,11 @@ public class LootStorageManager
     {
         if (currentData == null) return Collections.emptyList();
 
-        LootStorageData.BossKillData bossData = currentData.getBossKills().get(npcName);
-        if (bossData == null) return Collections.emptyList();
+        ArrayDeque<LootStorageData.KillRecord> queue = unsyncedIndex().get(npcName);
+        if (queue == null) return Collections.emptyList();
 
-        List<LootStorageData.KillRecord> unsynced = new ArrayList<>();
-        for (LootStorageData.KillRecord kill : bossData.getKills())
+        List<LootStorageData.KillRecord> unsynced = new ArrayList<>(queue.size());
+        for (LootStorageData.KillRecord kill : queue)
         {
             if (!kill.isSyncedToServer())
             {
@@ -451,24 +1097,65 @@ public class LootStorageManager
 
         Map<String, List<LootStorageData.KillRecord>> result = new HashMap<>();
 
-        for (Map.Entry<String, LootStorageData.BossKillData> entry : currentData.getBossKills().entrySet())
+        for (String npcName : unsyncedIndex().keySet())
         {
-            List<LootStorageData.KillRecord> unsynced = getUnsyncedKills(entry.getKey());
+            List<LootStorageData.KillRecord> unsynced = getUnsyncedKills(npcName);
             if (!unsynced.isEmpty())
             {
-                result.put(entry.getKey(), unsynced);
+                result.put(npcName, unsynced);
             }
         }
 
         return result;
     }
 
+    /**
+     * Marks the unsynced-kill index stale so it is rebuilt on next use. Call
+     * after restructuring kill lists obtained through {@link #getCurrentData()}
+     * (moving, merging or clearing a boss's kills); flag changes made by the
+     * methods of this class need no call.
+     */
+    public synchronized void invalidateUnsyncedIndex()
+    {
+        unsyncedIndexData = null;
+    }
+
+    /** {@link #unsyncedIndex}, rebuilt with one pass over the history if stale. */
+    private Map<String, ArrayDeque<LootStorageData.KillRecord>> unsyncedIndex()
+    {
+        if (unsyncedIndexData != currentData)
+        {
+            unsyncedIndex = new HashMap<>();
+            for (Map.Entry<String, LootStorageData.BossKillData> entry : currentData.getBossKills().entrySet())
+            {
+                for (LootStorageData.KillRecord kill : kills(entry.getValue()))
+                {
+                    if (!kill.isSyncedToServer())
+                    {
+                        unsyncedIndex.computeIfAbsent(entry.getKey(), k -> new ArrayDeque<>()).addLast(kill);
+                    }
+                }
+            }
+            unsyncedIndexData = currentData;
+        }
+        return unsyncedIndex;
+    }
+
     /**
      * Merges server data into the in-memory copy. Server kills for a boss are
      * only added when the server has more kills than the client. Call only
      * during manual sync operations.
      */
-    public synchronized void mergeServerData(Map<String, LootStorageData.BossKillData> serverData)
+    public void mergeServerData(Map<String, LootStorageData.BossKillData> serverData)
+    {
+        if (applyServerData(serverData))
+        {
+            saveData();
+        }
+    }
+
+    /** The merge itself; {@code true} when anything changed and needs saving. */
+    private synchronized boolean applyServerData(Map<String, LootStorageData.BossKillData> serverData)
     {
         log.debug("mergeServerData() called during manual sync");
 
@@ -482,7 +1169,7 @@ public class LootStorageManager
         if (currentData == null)
         {
             log.debug("Failed to load client data - aborting merge");
-            return;
+            return false;
         }
 
         int killsAdded = 0;
@@ -550,7 +1237,11 @@ public class LootStorageManager
             Set<Long> existingTimestamps = new HashSet<>();
             Set<Integer> existingKillNumbers = new HashSet<>();
 
-            for (LootStorageData.KillRecord kill : localBoss.getKills())
+            List<LootStorageData.KillRecord> localHistory = fullHistory(localBoss);
+            int archivedCount = localHistory.size() - kills(localBoss).size();
+            long newestArchived = archivedCount > 0 ? localHistory.get(archivedCount - 1).getTimestamp() : 0L;
+            long oldestAdded = Long.MAX_VALUE;
+            for (LootStorageData.KillRecord kill : localHistory)
             {
                 existingTimestamps.add(kill.getTimestamp());
                 existingKillNumbers.add(kill.getKillNumber());
@@ -583,7 +1274,8 @@ public class LootStorageManager
 
                 // This is a NEW kill - add it
                 serverKill.setSyncedToServer(true);
-                localBoss.getKills().add(serverKill);
+                localHistory.add(serverKill);
+                oldestAdded = Math.min(oldestAdded, serverKill.getTimestamp());
                 killsAdded++;
                 bossKillsAdded++;
 
@@ -616,6 +1308,23 @@ public class LootStorageManager
                 }
             }
 
+            // Keep the history in timestamp order. A server kill older than
+            // the newest archived one can't go after the archive, so the
+            // archive is paged back in and the next save re-archives it.
+            if (bossKillsAdded > 0)
+            {
+                localHistory.sort(Comparator.comparingLong(LootStorageData.KillRecord::getTimestamp));
+                if (archivedCount > 0 && oldestAdded < newestArchived)
+                {
+                    discardHistory(localBoss);
+                    localBoss.setKills(localHistory);
+                }
+                else
+                {
+                    localBoss.setKills(new ArrayList<>(localHistory.subList(archivedCount, localHistory.size())));
+                }
+            }
+
             // Update kill count and prestige from server when kills were merged
             // for this boss, OR when the server simply reports a higher
             // aggregate kill count than we have locally (max-wins, same rule
@@ -630,9 +1339,9 @@ public class LootStorageManager
                 localBoss.setKillCount(serverBoss.getKillCount()); // Server has more, use that
                 localBoss.setPrestige(Math.max(localBoss.getPrestige(), serverBoss.getPrestige()));
 
-                // Recalculate total value from ALL kills in memory
+                // Recalculate total value from ALL kills, archived ones included
                 long recalculatedValue = 0;
-                for (LootStorageData.KillRecord kill : localBoss.getKills())
+                for (LootStorageData.KillRecord kill : localHistory)
                 {
                     for (LootStorageData.DropRecord drop : kill.getDrops())
                     {
@@ -652,15 +1361,14 @@ public class LootStorageManager
         if (killsAdded > 0 || dropsAdded > 0 || killCountOnlyUpdated)
         {
             currentData.setLastSyncTimestamp(System.currentTimeMillis());
-            saveData();
             log.debug("Merge complete: Added {} kills, {} drops from server ({} bosses skipped - client data equal/newer)",
                     killsAdded, dropsAdded, bossesSkipped);
+            return true;
         }
-        else
-        {
-            log.debug("Merge complete: No new data from server ({} bosses skipped - client data equal/newer)",
-                    bossesSkipped);
-        }
+
+        log.debug("Merge complete: No new data from server ({} bosses skipped - client data equal/newer)",
+                bossesSkipped);
+        return false;
     }
 
     /**
@@ -675,20 +1383,36 @@ public class LootStorageManager
         return currentData;
     }
 
+    /**
+     * Runs {@code work} on the current data (possibly {@code null}) while
+     * holding the storage lock, so a bulk edit or a copy taken for work done
+     * off the lock can't interleave with {@link #addKills} or the archive
+     * trim in {@link #saveData}.
+     */
+    public synchronized <T> T withCurrentData(Function<LootStorageData, T> work)
+    {
+        return work.apply(getCurrentData());
+    }
+
     /**
      * Persists the current account's data to disk immediately (cancelling any
      * pending debounced save). Call on logout, while
      * {@link RuneAlyticsState#getVerifiedUsername()} still refers to the account
      * whose data is in memory, so nothing is lost before {@link #dropCache()}.
      */
-    public synchronized void flushNow()
+    public void flushNow()
+    {
+        cancelPendingSave();
+        saveData();
+    }
+
+    private synchronized void cancelPendingSave()
     {
         if (pendingSave != null && !pendingSave.isDone())
         {
             pendingSave.cancel(false);
             pendingSave = null;
         }
-        saveData();
     }
 
     /**
@@ -707,39 +1431,468 @@ public class LootStorageManager
     /**
      * Flushes any pending save and stops the background save executor.
      */
-    public synchronized void shutdown()
+    public void shutdown()
     {
-        if (pendingSave != null && !pendingSave.isDone())
+        cancelPendingSave();
+        saveData();
+        synchronized (this)
         {
-            pendingSave.cancel(false);
-            pendingSave = null;
+            saveExecutor.shutdown();
         }
-        saveData();
-        saveExecutor.shutdown();
     }
 
     /**
      * Clear all data for current user
      */
-    public synchronized void clearData()
+    public void clearData()
     {
         String username = state.getVerifiedUsername();
         if (username == null || username.isEmpty()) return;
 
-        currentData = new LootStorageData();
-        currentData.setUsername(username);
+        synchronized (this)
+        {
+            // Carry the journal seq forward so any append still queued for the old
+            // data lands at or below the new snapshot's mark and is never replayed.
+            long seq = currentData != null ? currentData.getJournalSeq() : 0L;
+            if (currentData != null)
+            {
+                for (LootStorageData.BossKillData bossData : currentData.getBossKills().values())
+                {
+                    discardHistory(bossData);
+                }
+            }
+            currentData = new LootStorageData();
+            currentData.setUsername(username);
+            currentData.setJournalSeq(seq);
+            journal.delete(getJournalFile(username));
+        }
         saveData();
 
         log.debug("Cleared all loot data for {}", username);
     }
 
+    // ── Lazy kill history ───────────────────────────────────────────────────
+
+    /**
+     * Every kill recorded for {@code npcName}, archived ones included, oldest
+     * first. Reads the whole archive in one pass — meant for rare
+     * whole-history passes (imports, dedup), not the per-kill path. Archived
+     * kills are fresh copies; resident ones are the live records.
+     *
+     * <p>The archive is read without the monitor, so kills keep being
+     * recorded meanwhile. It is append-only up to its committed length, so
+     * the part read matches the resident kills copied with that length.</p>
+     */
+    public List<LootStorageData.KillRecord> getFullKillHistory(String npcName)
+    {
+        while (true)
+        {
+            LootStorageData.BossKillData bossData;
+            String archiveKey;
+            File archive;
+            long archiveBytes;
+            List<LootStorageData.KillRecord> resident;
+            synchronized (this)
+            {
+                if (currentData == null) return new ArrayList<>();
+                bossData = currentData.getBossKills().get(npcName);
+                if (bossData == null) return new ArrayList<>();
+
+                archiveKey   = bossData.getArchiveKey();
+                archive      = archiveFile(bossData);
+                archiveBytes = bossData.getArchiveBytes();
+                resident     = new ArrayList<>(kills(bossData));
+            }
+
+            List<LootStorageData.KillRecord> result = new ArrayList<>();
+            if (archive != null && !readArchive(archive, archiveBytes, result))
+            {
+                synchronized (this)
+                {
+                    // Hydrated or discarded meanwhile, and its file deleted: start over.
+                    if (currentData != null && currentData.getBossKills().get(npcName) == bossData
+                            && Objects.equals(archiveKey, bossData.getArchiveKey()))
+                    {
+                        result.clear();
+                    }
+                    else
+                    {
+                        continue;
+                    }
+                }
+            }
+            result.addAll(resident);
+            return result;
+        }
+    }
+
+    /**
+     * Pages {@code bossData}'s archived kills back into
+     * {@link LootStorageData.BossKillData#getKills()} ahead of the recent
+     * ones. For callers that are about to rewrite the whole history (boss key
+     * migration). The old archive file is deleted after the next snapshot.
+     *
+     * @return {@code true} if anything was paged in
+     */
+    public synchronized boolean hydrateHistory(LootStorageData.BossKillData bossData)
+    {
+        if (bossData == null || bossData.getArchiveKey() == null) return false;
+
+        List<LootStorageData.KillRecord> archived = readArchive(bossData);
+        if (archived.size() < bossData.getArchivedKills())
+        {
+            log.debug("Archive for {} is short: expected {} kills, read {}",
+                    bossData.getNpcName(), bossData.getArchivedKills(), archived.size());
+        }
+
+        archived.addAll(kills(bossData));
+        bossData.setKills(archived);
+        discardHistory(bossData);
+        return true;
+    }
+
+    /**
+     * Forgets {@code bossData}'s archived kills without reading them (prestige,
+     * clear-all). The old archive file is deleted after the next snapshot.
+     */
+    public synchronized void discardHistory(LootStorageData.BossKillData bossData)
+    {
+        if (bossData == null || bossData.getArchiveKey() == null) return;
+
+        String username = state.getVerifiedUsername();
+        if (username != null && !username.isEmpty())
+        {
+            pendingArchiveDeletes.add(getArchiveFile(username, bossData.getArchiveKey()));
+        }
+        bossData.setArchiveKey(null);
+        bossData.setArchivedKills(0);
+        bossData.setArchiveBytes(0);
+        bossData.setArchivedHighestDrop(0);
+    }
+
+    private boolean hydrateAllHistory()
+    {
+        boolean changed = false;
+        for (LootStorageData.BossKillData bossData : currentData.getBossKills().values())
+        {
+            changed |= hydrateHistory(bossData);
+        }
+        return changed;
+    }
+
+    /** The archived kills followed by the resident ones. */
+    private List<LootStorageData.KillRecord> fullHistory(LootStorageData.BossKillData bossData)
+    {
+        List<LootStorageData.KillRecord> result = readArchive(bossData);
+        result.addAll(kills(bossData));
+        return result;
+    }
+
+    /** One boss's share of an archive pass: what to append and where. */
+    private static final class ArchiveBatch
+    {
+        final LootStorageData.BossKillData bossData;
+        final String archiveKey;
+        final File file;
+        final long committedBytes;
+        /** The resident records being paged out, for the identity check on commit. */
+        final List<LootStorageData.KillRecord> originals;
+        /** Detached copies of {@link #originals}, serialised off the lock. */
+        final List<LootStorageData.KillRecord> copies;
+        long written = -1;
+
+        ArchiveBatch(LootStorageData.BossKillData bossData, File file, List<LootStorageData.KillRecord> originals)
+        {
+            this.bossData       = bossData;
+            this.archiveKey     = bossData.getArchiveKey();
+            this.file           = file;
+            this.committedBytes = bossData.getArchiveBytes();
+            this.originals      = new ArrayList<>(originals);
+            this.copies         = new ArrayList<>(originals.size());
+            for (LootStorageData.KillRecord kill : originals) copies.add(kill.copy());
+        }
+    }
+
+    /**
+     * Picks each boss's oldest synced kills beyond the last
+     * {@value #RECENT_KILLS_KEPT} for its archive. Unsynced kills are never
+     * archived, so the uploader, relabel and RoW-append paths only ever see
+     * resident records. Nothing moves yet — see {@link #commitArchive}.
+     * Caller must hold the monitor.
+     */
+    private List<ArchiveBatch> planArchive(String username)
+    {
+        List<ArchiveBatch> batches = new ArrayList<>();
+        for (LootStorageData.BossKillData bossData : currentData.getBossKills().values())
+        {
+            List<LootStorageData.KillRecord> kills = kills(bossData);
+            int limit = kills.size() - RECENT_KILLS_KEPT;
+
+            int eligible = 0;
+            while (eligible < limit && kills.get(eligible).isSyncedToServer()) eligible++;
+            if (eligible < ARCHIVE_BATCH) continue;
+
+            if (bossData.getArchiveKey() == null)
+            {
+                bossData.setArchiveKey(sanitizeFileName(String.valueOf(bossData.getNpcName()))
+                        + "-" + System.currentTimeMillis());
+            }
+            batches.add(new ArchiveBatch(bossData,
+                    getArchiveFile(username, bossData.getArchiveKey()), kills.subList(0, eligible)));
+        }
+        return batches;
+    }
+
+    /** Appends one planned batch to its archive file. Runs without the monitor. */
+    private void writeArchive(ArchiveBatch batch)
+    {
+        try
+        {
+            batch.written = appendToArchive(batch.file, batch.committedBytes, batch.copies);
+        }
+        catch (IOException e)
+        {
+            // Kills stay resident; the next save tries again.
+            log.debug("Failed to archive kills for {}", batch.bossData.getNpcName(), e);
+        }
+    }
+
+    /**
+     * Moves every written batch's kills out of the resident history, unless
+     * that history changed under it (a merge, prestige or hydrate since the
+     * plan) — then the kills stay resident and the unreferenced tail of the
+     * archive is cut off by the next append. Caller must hold the monitor.
+     */
+    private void commitArchive(List<ArchiveBatch> batches)
+    {
+        for (ArchiveBatch batch : batches)
+        {
+            LootStorageData.BossKillData bossData = batch.bossData;
+            if (batch.written < 0
+                    || currentData.getBossKills().get(bossData.getNpcName()) != bossData
+                    || !batch.archiveKey.equals(bossData.getArchiveKey())
+                    || bossData.getArchiveBytes() != batch.committedBytes)
+            {
+                continue;
+            }
+
+            List<LootStorageData.KillRecord> kills = kills(bossData);
+            int count = batch.originals.size();
+            boolean unchanged = kills.size() >= count;
+            for (int i = 0; unchanged && i < count; i++)
+            {
+                unchanged = kills.get(i) == batch.originals.get(i) && kills.get(i).isSyncedToServer();
+            }
+            if (!unchanged) continue;
+
+            long highest = bossData.getArchivedHighestDrop();
+            for (LootStorageData.KillRecord kill : batch.copies)
+            {
+                for (LootStorageData.DropRecord drop : kill.getDrops())
+                {
+                    if (!drop.isPet()) highest = Math.max(highest, drop.getTotalValue());
+                }
+            }
+
+            bossData.setArchivedHighestDrop(highest);
+            bossData.setArchiveBytes(bossData.getArchiveBytes() + batch.written);
+            bossData.setArchivedKills(bossData.getArchivedKills() + count);
+            kills.subList(0, count).clear();
+            log.debug("Archived {} old kills for {} ({} archived total)",
+                    count, bossData.getNpcName(), bossData.getArchivedKills());
+        }
+    }
+
+    /**
+     * Writes {@code kills} to {@code file} at offset {@code committedBytes},
+     * first cutting off any tail left by an archive pass whose snapshot never
+     * reached disk.
+     *
+     * @return bytes written
+     */
+    private long appendToArchive(File file, long committedBytes, List<LootStorageData.KillRecord> kills)
+            throws IOException
+    {
+        File parentDir = file.getParentFile();
+        if (parentDir != null && !parentDir.exists())
+        {
+            parentDir.mkdirs();
+        }
+
+        StringBuilder lines = new StringBuilder();
+        for (LootStorageData.KillRecord kill : kills)
+        {
+            lines.append(compactGson.toJson(kill)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        int length = buffer.remaining();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE))
+        {
+            if (channel.size() < committedBytes)
+            {
+                throw new IOException("Archive " + file.getName() + " is shorter than its committed length");
+            }
+            channel.truncate(committedBytes);
+            channel.position(committedBytes);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+        }
+        return length;
+    }
+
+    /** Parses {@code bossData}'s whole archive, never reading past its committed length. */
+    private List<LootStorageData.KillRecord> readArchive(LootStorageData.BossKillData bossData)
+    {
+        List<LootStorageData.KillRecord> result = new ArrayList<>();
+        File file = archiveFile(bossData);
+        if (file != null) readArchive(file, bossData.getArchiveBytes(), result);
+        return result;
+    }
+
+    /** {@code bossData}'s archive file, or {@code null} when it has none (or no account is verified). */
+    private File archiveFile(LootStorageData.BossKillData bossData)
+    {
+        String username = state.getVerifiedUsername();
+        if (bossData.getArchiveKey() == null || username == null || username.isEmpty())
+        {
+            return null;
+        }
+        return getArchiveFile(username, bossData.getArchiveKey());
+    }
+
+    /**
+     * Adds the kills in the first {@code committedBytes} of {@code file} to
+     * {@code result}. Needs no lock.
+     *
+     * @return {@code false} if the file could not be read to the end
+     */
+    private boolean readArchive(File file, long committedBytes, List<LootStorageData.KillRecord> result)
+    {
+        try (InputStream in = Files.newInputStream(file.toPath());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     ByteStreams.limit(in, committedBytes), StandardCharsets.UTF_8)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                result.add(compactGson.fromJson(line, LootStorageData.KillRecord.class));
+            }
+            return true;
+        }
+        catch (Exception e)
+        {
+            log.debug("Failed to read kill archive {}", file.getName(), e);
+            return false;
+        }
+    }
+
+    private static List<LootStorageData.KillRecord> kills(LootStorageData.BossKillData bossData)
+    {
+        if (bossData.getKills() == null) bossData.setKills(new ArrayList<>());
+        return bossData.getKills();
+    }
+
+    /**
+     * Persists one kill-path mutation that has already been applied to
+     * {@code currentData}. In journal mode the entry is numbered, encoded under
+     * the lock (small — one kill) and appended on the save executor; once
+     * {@value #JOURNAL_COMPACT_THRESHOLD} entries pile up a background
+     * compaction is scheduled. Otherwise falls back to the debounced snapshot.
+     * Caller must hold the monitor.
+     */
+    private void persist(LootJournal.Entry entry)
+    {
+        persistAll(Collections.singletonList(entry));
+    }
+
+    /** Journals {@code entries} in order as a single append on the save executor. */
+    private void persistAll(List<LootJournal.Entry> entries)
+    {
+        String username = state.getVerifiedUsername();
+        if (!journalEnabled || username == null || username.isEmpty())
+        {
+            scheduleSave();
+            return;
+        }
+
+        long seq = currentData.getJournalSeq();
+        StringBuilder lines = new StringBuilder();
+        for (LootJournal.Entry entry : entries)
+        {
+            entry.setSeq(++seq);
+            if (lines.length() > 0) lines.append('\n');
+            lines.append(journal.encode(entry));
+        }
+        currentData.setJournalSeq(seq);
+        final long lastSeq = seq;
+
+        File file = getJournalFile(username);
+        String text = lines.toString();
+
+        if (saveExecutor.isShutdown())
+            saveExecutor = newSaveExecutor();
+        saveExecutor.execute(() -> {
+            try
+            {
+                journal.append(file, text);
+            }
+            catch (Exception e)
+            {
+                // The entries are still in memory; the next snapshot covers them.
+                log.debug("Failed to append loot journal through #{}", lastSeq, e);
+            }
+        });
+
+        journalEntriesSinceSnapshot += entries.size();
+        if (journalEntriesSinceSnapshot >= JOURNAL_COMPACT_THRESHOLD)
+        {
+            scheduleSave();
+        }
+    }
+
+    /**
+     * Test seam: blocks until every journal append / save queued so far on the
+     * save executor has run.
+     */
+    void awaitPendingWrites() throws Exception
+    {
+        java.util.concurrent.ScheduledExecutorService executor;
+        synchronized (this)
+        {
+            executor = saveExecutor;
+        }
+        executor.submit(() -> { }).get();
+    }
+
     /**
      * Get storage file for username
      */
     private File getStorageFile(String username)
     {
-        String sanitized = username.toLowerCase().replaceAll("[^a-z0-9_-]", "_");
-        String filename = STORAGE_FILE_PREFIX + sanitized + STORAGE_FILE_SUFFIX;
-        return new File(RuneLite.RUNELITE_DIR, filename);
+        return new File(storageDir, STORAGE_FILE_PREFIX + sanitizeFileName(username) + STORAGE_FILE_SUFFIX);
+    }
+
+    private File getBinaryFile(String username)
+    {
+        return new File(storageDir, STORAGE_FILE_PREFIX + sanitizeFileName(username) + BINARY_FILE_SUFFIX);
+    }
+
+    private File getJournalFile(String username)
+    {
+        return new File(storageDir, STORAGE_FILE_PREFIX + sanitizeFileName(username) + JOURNAL_FILE_SUFFIX);
+    }
+
+    private File getArchiveFile(String username, String archiveKey)
+    {
+        File historyDir = new File(storageDir,
+                STORAGE_FILE_PREFIX + sanitizeFileName(username) + HISTORY_DIR_SUFFIX);
+        return new File(historyDir, archiveKey + ARCHIVE_FILE_SUFFIX);
+    }
+
+    private static String sanitizeFileName(String username)
+    {
+        return username.toLowerCase().replaceAll("[^a-z0-9_-]", "_");
     }
 }
@@ -5,10 +5,13 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import lombok.extern.slf4j.Slf4j;
-import net.runelite.api.ItemComposition;
 import net.runelite.client.callback.ClientThread;
-import net.runelite.client.game.ItemManager;
 import okhttp3.*;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+import okio.GzipSink;
+import okio.Okio;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -21,6 +24,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static com.runealytics.RuneAlyticsHttp.JSON;
@@ -41,12 +45,29 @@ public class LootTrackerApiClient
     private static final String LOOT_SYNC_ABSOLUTE_PATH = "/runelite/loot/sync-absolute";
     private static final String PLAYER_DEATH_EVENT_PATH = "/runelite/player/death-event";
 
+    /**
+     * Bulk-sync bodies at least this long are gzip-compressed; below it the
+     * header costs more than it saves. No other endpoint is ever compressed.
+     */
+    static final int GZIP_MIN_BYTES = 1_024;
+
+    /** Status reported by the upload methods when the request never got a response. */
+    static final int NETWORK_FAILURE = -1;
+
     private final OkHttpClient       httpClient;
     private final RunealyticsConfig  config;
     private final RuneAlyticsState   state;
     private final Gson               gson;
-    private final ItemManager        itemManager;
+    private final ItemValueCache     itemValues;
     private final ClientThread       clientThread;
+    private final SyncOutbox         outbox;
+
+    /**
+     * Cleared for the rest of the session once the server turns a gzip body
+     * down (see {@link #rejectsGzip}), after which bulk-sync goes out
+     * uncompressed.
+     */
+    private volatile boolean gzipRequests = true;
 
     @Inject
     public LootTrackerApiClient(
@@ -54,11 +75,13 @@ public class LootTrackerApiClient
             RunealyticsConfig config,
             RuneAlyticsState state,
             Gson gson,
-            ItemManager itemManager,
-            ClientThread clientThread)
+            ItemValueCache itemValues,
+            ClientThread clientThread,
+            SyncOutbox outbox)
     {
-        this.itemManager  = itemManager;
+        this.itemValues   = itemValues;
         this.clientThread = clientThread;
+        this.outbox       = outbox;
         // Apply the configured timeout so loot uploads/downloads don't hang on
         // RuneLite's shared-client defaults.
         this.httpClient = httpClient.newBuilder()
@@ -109,8 +132,7 @@ public class LootTrackerApiClient
                 // The server requires a non-empty drops array (HTTP 422 otherwise).
                 // Zero-loot kills are tracked locally for kill-count accuracy but
                 // are not sent to the server — they carry no drop data to store.
-                List<LootStorageData.DropRecord> drops = kill.getDrops();
-                if (drops == null || drops.isEmpty())
+                if (!hasDrops(kill))
                 {
                     skippedZeroLoot++;
                     // Mark synced so they are not retried on the next batch pass.
@@ -141,7 +163,44 @@ public class LootTrackerApiClient
                 state.getCurrentGameMode(),
                 state.getCurrentAccountSubtype(),
                 killPayloads);
-        return postJson(LOOT_BULK_SYNC_PATH, envelope, "bulk-sync " + killPayloads.size() + " kills");
+        return postBulkSync(envelope, "bulk-sync " + killPayloads.size() + " kills");
+    }
+
+    /**
+     * Uploads already-built kill payloads to {@code /loot/bulk-sync} without
+     * blocking the caller. The call runs on OkHttp's dispatcher, so several
+     * batches can be in flight at once (see {@link LootBulkUploader}).
+     *
+     * @return future HTTP status, or {@value #NETWORK_FAILURE} if no response arrived
+     */
+    public CompletableFuture<Integer> postBulkKillsAsync(String username, List<JsonObject> killPayloads)
+    {
+        JsonObject envelope = LootKillJsonBuilder.buildBulkEnvelope(
+                username,
+                state.getCurrentGameMode(),
+                state.getCurrentAccountSubtype(),
+                killPayloads);
+        String json = gson.toJson(envelope);
+        String context = "bulk-sync " + killPayloads.size() + " kills";
+
+        boolean gzip = shouldGzip(json);
+        return enqueue(newPost(LOOT_BULK_SYNC_PATH, json, gzip), context).thenCompose(code -> {
+            if (gzip && rejectsGzip(code))
+            {
+                return enqueue(newPost(LOOT_BULK_SYNC_PATH, json, false), context)
+                        .thenApply(plain -> afterPlainResend(code, plain, context));
+            }
+            return CompletableFuture.completedFuture(code);
+        });
+    }
+
+    /**
+     * Kills without drops are tracked locally for kill-count accuracy but never
+     * uploaded: the server requires a non-empty drops array (HTTP 422 otherwise).
+     */
+    static boolean hasDrops(LootStorageData.KillRecord kill)
+    {
+        return kill.getDrops() != null && !kill.getDrops().isEmpty();
     }
 
     // ═════════════════════════════════════════════════════════════════════════
@@ -269,7 +328,7 @@ public class LootTrackerApiClient
      *
      * @param  username  normalized RuneScape account name
      * @param  sources   merged source/item totals from {@link LootSyncMergeService}
-     * @return true on HTTP 2xx
+     * @return true on HTTP 2xx; otherwise the upload is left in the {@link SyncOutbox}
      */
     public boolean syncAbsolute(String username,
             List<LootSyncMergeService.MergedSource> sources) throws IOException
@@ -308,8 +367,8 @@ public class LootTrackerApiClient
         }
         envelope.add("sources", sourcesArr);
 
-        return postJson(LOOT_SYNC_ABSOLUTE_PATH, envelope,
-                "sync-absolute " + sources.size() + " sources");
+        // Totals are absolute (max-wins), so a newer merge supersedes one still queued.
+        return outbox.send(LOOT_SYNC_ABSOLUTE_PATH, envelope, "loot-sync-absolute");
     }
 
     // ═════════════════════════════════════════════════════════════════════════
@@ -322,7 +381,7 @@ public class LootTrackerApiClient
      * <p>Recovered items sent in this call are stored as metadata only and
      * are never counted toward loot totals.</p>
      *
-     * @return true on HTTP 2xx
+     * @return true on HTTP 2xx; otherwise the event is left in the {@link SyncOutbox}
      */
     public boolean sendDeathEvent(String username,
             String eventType,
@@ -365,7 +424,7 @@ public class LootTrackerApiClient
             envelope.add("death_context", ctx);
         }
 
-        return postJson(PLAYER_DEATH_EVENT_PATH, envelope, "death-event " + eventType);
+        return outbox.send(PLAYER_DEATH_EVENT_PATH, envelope, null);
     }
 
     // ═════════════════════════════════════════════════════════════════════════
@@ -531,38 +590,34 @@ public class LootTrackerApiClient
             log.debug("Skipped {} malformed kill record(s) in history response", skipped);
 
         // Re-resolve GE price / high alch for drops stored as 0 (noted, charged,
-        // or untradeable items). ItemManager reads the client's item cache and
-        // must run on the client thread; this method runs on a background sync
-        // thread, so the whole history is resolved in a single client-thread hop.
-        clientThread.invoke(() ->
+        // or untradeable items). Ids the client thread has already valued are
+        // filled straight from the cache on this background sync thread; the
+        // rest need ItemManager, which must run on the client thread, so they
+        // are resolved together in a single client-thread hop.
+        List<LootStorageData.DropRecord> unresolved = new ArrayList<>();
+        for (LootStorageData.BossKillData bossData : result.values())
         {
-            for (LootStorageData.BossKillData bossData : result.values())
+            for (LootStorageData.KillRecord killRecord : bossData.getKills())
             {
-                for (LootStorageData.KillRecord killRecord : bossData.getKills())
+                for (LootStorageData.DropRecord drop : killRecord.getDrops())
                 {
-                    for (LootStorageData.DropRecord drop : killRecord.getDrops())
-                    {
-                        int itemId = drop.getItemId();
-                        if (itemId <= 0) continue;
-
-                        if (drop.getGePrice() <= 0)
-                        {
-                            int gePrice = ItemValueResolver.perItemGeValue(itemManager, itemId);
-                            if (gePrice > 0)
-                            {
-                                drop.setGePrice(gePrice);
-                                drop.setTotalValue((long) gePrice * drop.getQuantity());
-                            }
-                        }
-                        if (drop.getHighAlch() <= 0)
-                        {
-                            ItemComposition comp = itemManager.getItemComposition(itemId);
-                            if (comp != null) drop.setHighAlch(comp.getHaPrice());
-                        }
-                    }
+                    if (drop.getItemId() <= 0) continue;
+                    if (drop.getGePrice() > 0 && drop.getHighAlch() > 0) continue;
+
+                    ItemValueCache.ItemValue value = itemValues.peek(drop.getItemId());
+                    if (value != null) applyMissingValue(drop, value);
+                    else unresolved.add(drop);
                 }
             }
-        });
+        }
+        if (!unresolved.isEmpty())
+        {
+            clientThread.invoke(() ->
+            {
+                for (LootStorageData.DropRecord drop : unresolved)
+                    applyMissingValue(drop, itemValues.get(drop.getItemId()));
+            });
+        }
 
         log.debug("Fetched {} bosses with total {} kills from server",
                 result.size(),
@@ -571,6 +626,17 @@ public class LootTrackerApiClient
         return result;
     }
 
+    /** Fills a zero GE price (and total) or zero high alch from {@code value}. */
+    private static void applyMissingValue(LootStorageData.DropRecord drop, ItemValueCache.ItemValue value)
+    {
+        if (drop.getGePrice() <= 0 && value.getGePrice() > 0)
+        {
+            drop.setGePrice(value.getGePrice());
+            drop.setTotalValue((long) value.getGePrice() * drop.getQuantity());
+        }
+        if (drop.getHighAlch() <= 0) drop.setHighAlch(value.getHighAlch());
+    }
+
     // ── JSON field helpers (null/type-safe) ───────────────────────────────────
 
     private static String getString(JsonObject obj, String key, String def)
@@ -624,42 +690,156 @@ public class LootTrackerApiClient
     // ═════════════════════════════════════════════════════════════════════════
 
     /**
-     * Shared POST helper. Adds the auth header if available and logs the result.
+     * Blocking POST to bulk-sync. Adds the auth header if available, gzips
+     * large bodies and logs the result. Bulk-sync bypasses the
+     * {@link SyncOutbox}: unsynced kills are already durable in
+     * {@link LootStorageManager} and are re-sent from there.
      *
      * @return true on HTTP 2xx
      */
-    private boolean postJson(String path, JsonObject payload, String contextForLog)
+    private boolean postBulkSync(JsonObject payload, String contextForLog)
+    {
+        String json = gson.toJson(payload);
+        boolean gzip = shouldGzip(json);
+
+        int code = execute(newPost(LOOT_BULK_SYNC_PATH, json, gzip), contextForLog);
+        if (gzip && rejectsGzip(code))
+        {
+            code = afterPlainResend(code, execute(newPost(LOOT_BULK_SYNC_PATH, json, false), contextForLog),
+                    contextForLog);
+        }
+        return code >= 200 && code < 300;
+    }
+
+    private boolean shouldGzip(String json)
+    {
+        return gzipRequests && json.length() >= GZIP_MIN_BYTES;
+    }
+
+    /**
+     * Statuses a server that can't decode {@code Content-Encoding: gzip}
+     * answers with: 415 when it says so, otherwise usually 400 or 422 from
+     * the JSON parser choking on the compressed bytes.
+     */
+    static boolean rejectsGzip(int code)
     {
-        String url = config.apiUrl() + path;
-        RequestBody body = RequestBody.create(JSON, gson.toJson(payload));
+        return code == 415 || code == 400 || code == 422;
+    }
+
+    /**
+     * Settles a gzip rejection once the same body was resent uncompressed.
+     * Compression stays off for the session after a 415, or when the plain
+     * resend got through where the gzip body didn't; a 400/422 the plain body
+     * gets too is a real payload error and leaves gzip on.
+     *
+     * @return the plain resend's status
+     */
+    private int afterPlainResend(int gzipCode, int plainCode, String contextForLog)
+    {
+        if (gzipCode == 415 || (plainCode >= 200 && plainCode < 300))
+        {
+            gzipRequests = false;
+            log.debug("[{}] server rejected gzip body (HTTP {}) — sending bulk-sync uncompressed",
+                    contextForLog, gzipCode);
+        }
+        return plainCode;
+    }
+
+    private Request newPost(String path, String json, boolean gzip)
+    {
+        RequestBody body = gzip
+                ? RequestBody.create(JSON, gzip(json))
+                : RequestBody.create(JSON, json);
 
         Request.Builder rb = new Request.Builder()
-                .url(url)
+                .url(config.apiUrl() + path)
                 .post(body)
                 .addHeader("Content-Type", "application/json")
                 .addHeader("Accept",       "application/json");
 
+        if (gzip)
+        {
+            rb.addHeader("Content-Encoding", "gzip");
+        }
+
         String token = state.getVerificationCode();
         if (token != null && !token.isEmpty())
         {
             rb.addHeader("Authorization", "Bearer " + token);
         }
+        return rb.build();
+    }
 
-        try (Response response = httpClient.newCall(rb.build()).execute())
+    private static ByteString gzip(String json)
+    {
+        Buffer buffer = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(buffer)))
         {
-            if (!response.isSuccessful())
-            {
-                String responseBody = response.body() != null ? response.body().string() : "";
-                log.debug("[{}] failed: HTTP {} — {}", contextForLog, response.code(), responseBody);
-                return false;
-            }
-            log.debug("[{}] ok", contextForLog);
-            return true;
+            sink.writeUtf8(json);
+        }
+        catch (IOException e)
+        {
+            // Writing to an in-memory buffer cannot fail.
+            throw new IllegalStateException(e);
+        }
+        return buffer.readByteString();
+    }
+
+    /** Blocking send; returns the HTTP status, or {@value #NETWORK_FAILURE}. */
+    private int execute(Request request, String contextForLog)
+    {
+        try (Response response = httpClient.newCall(request).execute())
+        {
+            return logResponse(response, contextForLog);
         }
         catch (IOException e)
         {
             log.debug("[{}] network failure: {}", contextForLog, e.getMessage());
-            return false;
+            return NETWORK_FAILURE;
+        }
+    }
+
+    /** Asynchronous send on OkHttp's dispatcher; the future never completes exceptionally. */
+    private CompletableFuture<Integer> enqueue(Request request, String contextForLog)
+    {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        httpClient.newCall(request).enqueue(new Callback()
+        {
+            @Override
+            public void onFailure(Call call, IOException e)
+            {
+                log.debug("[{}] network failure: {}", contextForLog, e.getMessage());
+                result.complete(NETWORK_FAILURE);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response)
+            {
+                try (Response r = response)
+                {
+                    result.complete(logResponse(r, contextForLog));
+                }
+                catch (IOException e)
+                {
+                    log.debug("[{}] network failure: {}", contextForLog, e.getMessage());
+                    result.complete(NETWORK_FAILURE);
+                }
+            }
+        });
+        return result;
+    }
+
+    private static int logResponse(Response response, String contextForLog) throws IOException
+    {
+        if (!response.isSuccessful())
+        {
+            String responseBody = response.body() != null ? response.body().string() : "";
+            log.debug("[{}] failed: HTTP {} — {}", contextForLog, response.code(), responseBody);
+        }
+        else
+        {
+            log.debug("[{}] ok", contextForLog);
         }
+        return response.code();
     }
 }
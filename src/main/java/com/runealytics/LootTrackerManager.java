@@ -12,11 +12,12 @@ import net.runelite.client.game.ItemManager;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.swing.*;
-import java.io.IOException;
 import java.util.*;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
 
 /**
  * Central coordinator for all loot tracking.
@@ -257,6 +258,7 @@ public class LootTrackerManager
     private final Client                   client;
     private final ClientThread             clientThread;
     private final ItemManager              itemManager;
+    private final ItemValueCache           itemValues;
     private final RunealyticsConfig        config;
     private final RuneAlyticsState         state;
     private final LootStorageManager       storageManager;
@@ -264,6 +266,7 @@ public class LootTrackerManager
     private final ConfigManager            configManager;
     private final ScheduledExecutorService executorService;
     private final Gson                     gson;
+    private final PluginMetrics            metrics;
 
     // ═════════════════════════════════════════════════════════════════════════
     //  MUTABLE STATE
@@ -293,7 +296,7 @@ public class LootTrackerManager
      * Listeners notified on every kill or data refresh. CopyOnWriteArrayList
      * because {@code addListener} runs on the EDT (panel construction) while
      * {@code notifyListeners}/{@code notifyDataRefresh} iterate from the client
-     * thread, so registration and iteration can race.
+     * (or loot writer) thread, so registration and iteration can race.
      */
     private final List<LootTrackerUpdateListener> listeners = new java.util.concurrent.CopyOnWriteArrayList<>();
 
@@ -367,18 +370,21 @@ public class LootTrackerManager
             Client                   client,
             ClientThread             clientThread,
             ItemManager              itemManager,
+            ItemValueCache           itemValues,
             RunealyticsConfig        config,
             RuneAlyticsState         state,
             LootStorageManager       storageManager,
             LootTrackerApiClient     apiClient,
             ConfigManager            configManager,
             ScheduledExecutorService executorService,
-            Gson                     gson
+            Gson                     gson,
+            PluginMetrics            metrics
     )
     {
         this.client          = client;
         this.clientThread    = clientThread;
         this.itemManager     = itemManager;
+        this.itemValues      = itemValues;
         this.config          = config;
         this.state           = state;
         this.storageManager  = storageManager;
@@ -386,6 +392,7 @@ public class LootTrackerManager
         this.configManager   = configManager;
         this.executorService = executorService;
         this.gson            = gson.newBuilder().setPrettyPrinting().create();
+        this.metrics         = metrics;
     }
 
     // ═════════════════════════════════════════════════════════════════════════
@@ -396,6 +403,8 @@ public class LootTrackerManager
     public void shutdown()
     {
         log.debug("LootTrackerManager: saving on shutdown");
+        setWriterThreadEnabled(false); // applies whatever the writer still holds
+        applyTickBatch();
         storageManager.shutdown();
     }
 
@@ -419,9 +428,20 @@ public class LootTrackerManager
      * @param items the dropped items in our internal {@link ItemStack} format
      */
     public void processNpcLoot(NPC npc, List<ItemStack> items)
+    {
+        KillEvent kill = captureNpcKill(npc, items);
+        if (kill != null) recordKill(kill);
+    }
+
+    /**
+     * The kill {@link #processNpcLoot} records for {@code npc}, read on the
+     * caller's thread, or {@code null} when tracking is off or the NPC isn't
+     * tracked.
+     */
+    private KillEvent captureNpcKill(NPC npc, List<ItemStack> items)
     {
         if (!config.enableLootTracking() || npc == null || npc.getName() == null)
-            return;
+            return null;
 
         log.debug("NPC loot: '{}' id={} cb={} items={}",
                 npc.getName(), npc.getId(), npc.getCombatLevel(), items.size());
@@ -434,14 +454,14 @@ public class LootTrackerManager
             log.debug("Filtered NPC (not a tracked boss): '{}' id={} "
                             + "→ enable 'Track All NPCs' or add id to TRACKED_BOSS_IDS",
                     name, npc.getId());
-            return;
+            return null;
         }
 
         // Record the kill even if every drop was filtered out by
         // minimumLootValue, so the kill counter stays accurate. Zero-drop kills
         // stay local-only; the bulk-sync path skips them from server upload.
         List<LootStorageData.DropRecord> drops = convertToDropRecords(items);
-        recordKill(name, npc.getId(), npc.getCombatLevel(), client.getWorld(), drops);
+        return captureKill(name, npc.getId(), npc.getCombatLevel(), client.getWorld(), drops, -1);
     }
 
     /**
@@ -456,16 +476,26 @@ public class LootTrackerManager
      * only invokes this when its own NPC-index-keyed bookkeeping confirms a
      * zero-loot kill was just flushed for this exact NPC.</p>
      *
-     * @return {@code true} if the drops were attached to the existing kill;
-     *         {@code false} if there was nothing eligible to upgrade, in
-     *         which case the caller should fall back to {@link #processNpcLoot}
+     * <p>Whether there is such a kill is decided on the writer, behind the
+     * zero-loot kill itself; when there is none the drops are recorded as a
+     * new kill, as {@link #processNpcLoot} would.</p>
      */
-    public boolean upgradeRecentZeroLootKill(NPC npc, List<ItemStack> items)
+    public void upgradeRecentZeroLootKill(NPC npc, List<ItemStack> items)
     {
-        if (!config.enableLootTracking() || npc == null || npc.getName() == null) return false;
-        if (items == null || items.isEmpty()) return false;
+        if (items == null || items.isEmpty()) return;
 
-        String name = normalizeBossName(npc.getName());
+        KillEvent fallback = captureNpcKill(npc, items);
+        if (fallback == null) return;
+
+        ingest(() ->
+        {
+            if (!attachToZeroLootKill(fallback.npcName, fallback.drops)) recordKill(fallback);
+        });
+    }
+
+    /** Writer side of {@link #upgradeRecentZeroLootKill}; {@code false} if there was nothing to upgrade. */
+    private boolean attachToZeroLootKill(String name, List<LootStorageData.DropRecord> drops)
+    {
         BossKillStats stats = bossKillStats.get(name);
         if (stats == null || stats.getKillHistory().isEmpty()) return false;
 
@@ -473,9 +503,9 @@ public class LootTrackerManager
                 stats.getKillHistory().get(stats.getKillHistory().size() - 1);
         if (!lastKill.getDrops().isEmpty()) return false; // last kill wasn't zero-loot
 
-        appendDropsToLastKill(name, items);
+        if (!drops.isEmpty()) applyAppendedDrops(name, drops);
         log.debug("Upgraded zero-loot kill for '{}' with {} late drop(s) from a delayed NpcLootReceived",
-                name, items.size());
+                name, drops.size());
         return true;
     }
 
@@ -866,6 +896,16 @@ public class LootTrackerManager
     {
         if (items == null || items.isEmpty()) return;
 
+        List<LootStorageData.DropRecord> newDrops = convertToDropRecords(items);
+        if (newDrops.isEmpty()) return;
+
+        ingest(() -> applyAppendedDrops(npcName, newDrops));
+    }
+
+    private void applyAppendedDrops(String npcName, List<LootStorageData.DropRecord> newDrops)
+    {
+        applyTickBatch(); // the kill being appended to may still be pending
+
         BossKillStats stats = bossKillStats.get(npcName);
         if (stats == null || stats.getKillHistory().isEmpty())
         {
@@ -873,32 +913,27 @@ public class LootTrackerManager
             return;
         }
 
-        List<LootStorageData.DropRecord> newDrops = convertToDropRecords(items);
-        if (newDrops.isEmpty()) return;
-
-        // Update in-memory kill record
-        LootStorageData.KillRecord lastKill =
-                stats.getKillHistory().get(stats.getKillHistory().size() - 1);
-        lastKill.getDrops().addAll(newDrops);
-        lastKill.setSyncedToServer(false);
+        // Update in-memory kill record. Replaced, not edited: records loaded
+        // from storage are shared with LootStorageManager.
+        LootStorageData.KillRecord lastKill = stats.replaceLastKill(previous ->
+        {
+            List<LootStorageData.DropRecord> merged = new ArrayList<>(previous.getDrops());
+            merged.addAll(newDrops);
+            LootStorageData.KillRecord updated = previous.withDrops(merged);
+            updated.setSyncedToServer(false);
+            return updated;
+        });
 
         // Update in-memory aggregated stats
-        long addedValue = 0;
-        for (LootStorageData.DropRecord dr : newDrops)
-        {
-            addedValue += dr.getTotalValue();
-            if (dr.getTotalValue() > stats.getHighestDrop())
-                stats.setHighestDrop(dr.getTotalValue());
-        }
-        stats.setTotalLootValue(stats.getTotalLootValue() + addedValue);
+        stats.recordAppendedDrops(newDrops);
 
         // Persist and re-sync
         storageManager.appendDropsToLastKill(npcName, newDrops);
 
         notifyListeners(stats, lastKill);
 
-        log.debug("appendDropsToLastKill: {} drop(s) added to '{}' last kill (+{} gp)",
-                newDrops.size(), npcName, addedValue);
+        log.debug("appendDropsToLastKill: {} drop(s) added to '{}' last kill",
+                newDrops.size(), npcName);
     }
 
     /**
@@ -913,13 +948,6 @@ public class LootTrackerManager
      */
     public void appendPetDrop(String npcName, ItemStack petItem)
     {
-        BossKillStats stats = bossKillStats.get(npcName);
-        if (stats == null || stats.getKillHistory().isEmpty())
-        {
-            log.debug("[Pet] No existing kill record for '{}' – pet drop not recorded", npcName);
-            return;
-        }
-
         LootStorageData.DropRecord drop = new LootStorageData.DropRecord();
         if (petItem != null)
         {
@@ -940,12 +968,31 @@ public class LootTrackerManager
         drop.setPet(true);
         drop.setHidden(false);
 
-        LootStorageData.KillRecord lastKill =
-                stats.getKillHistory().get(stats.getKillHistory().size() - 1);
-        lastKill.getDrops().add(0, drop); // index 0 so storage order also has pet first
-        lastKill.setSyncedToServer(false);
+        ingest(() -> applyPetDrop(npcName, drop));
+    }
+
+    private void applyPetDrop(String npcName, LootStorageData.DropRecord drop)
+    {
+        applyTickBatch(); // the kill being appended to may still be pending
+
+        BossKillStats stats = bossKillStats.get(npcName);
+        if (stats == null || stats.getKillHistory().isEmpty())
+        {
+            log.debug("[Pet] No existing kill record for '{}' – pet drop not recorded", npcName);
+            return;
+        }
 
-        stats.setTotalLootValue(stats.getTotalLootValue() + drop.getTotalValue());
+        LootStorageData.KillRecord lastKill = stats.replaceLastKill(previous ->
+        {
+            List<LootStorageData.DropRecord> withPet = new ArrayList<>();
+            withPet.add(drop); // index 0 so storage order also has pet first
+            withPet.addAll(previous.getDrops());
+            LootStorageData.KillRecord updated = previous.withDrops(withPet);
+            updated.setSyncedToServer(false);
+            return updated;
+        });
+
+        stats.recordAppendedDrops(Collections.singletonList(drop));
 
         storageManager.appendDropsToLastKill(npcName, Collections.singletonList(drop));
         notifyListeners(stats, lastKill);
@@ -1174,15 +1221,44 @@ public class LootTrackerManager
     {
         if (npc == null || items == null || items.isEmpty()) return;
 
-        String name = normalizeBossName(npc.getName());
-        BossKillStats stats = bossKillStats.get(name);
+        // Everything that needs the client is read here; the writer then
+        // decides, behind the kill these items may supplement, whether they
+        // are a supplement or a fresh kill.
+        GroundItemBatch batch = new GroundItemBatch();
+        batch.name     = normalizeBossName(npc.getName());
+        batch.rawName  = npc.getName();
+        batch.npcId    = npc.getId();
+        batch.items    = new ArrayList<>(items);
+        batch.fallback = captureNpcKill(npc, items);
+        batch.nowMs    = System.currentTimeMillis();
+        for (ItemStack item : items) batch.values.computeIfAbsent(item.getId(), itemValues::get);
+
+        ingest(() -> applyGroundItemBatch(batch));
+    }
+
+    /** A ground-item batch as read on the client thread, for {@link #applyGroundItemBatch}. */
+    private static final class GroundItemBatch
+    {
+        String          name;
+        String          rawName;
+        int             npcId;
+        List<ItemStack> items;
+        /** The fresh kill to record if these items supplement nothing; {@code null} when untracked. */
+        KillEvent       fallback;
+        long            nowMs;
+        final Map<Integer, ItemValueCache.ItemValue> values = new HashMap<>();
+    }
+
+    private void applyGroundItemBatch(GroundItemBatch batch)
+    {
+        BossKillStats stats = bossKillStats.get(batch.name);
 
         // No prior kill for this NPC → genuine FALLBACK path
         if (stats == null || stats.getKillHistory().isEmpty())
         {
             log.debug("Ground items from '{}' (id={}): {} items — no prior kill, treating as fresh",
-                    npc.getName(), npc.getId(), items.size());
-            processNpcLoot(npc, items);
+                    batch.rawName, batch.npcId, batch.items.size());
+            if (batch.fallback != null) recordKill(batch.fallback);
             return;
         }
 
@@ -1195,12 +1271,12 @@ public class LootTrackerManager
         // Only dedupe against kills that happened in the last few seconds —
         // anything older is a separate kill and the ground items belong to
         // the new one as a fallback.
-        long ageMs = System.currentTimeMillis() - lastKill.getTimestamp();
+        long ageMs = batch.nowMs - lastKill.getTimestamp();
         if (ageMs > 10_000L)
         {
             log.debug("Ground items from '{}': last kill {}ms ago — treating as fresh",
-                    npc.getName(), ageMs);
-            processNpcLoot(npc, items);
+                    batch.rawName, ageMs);
+            if (batch.fallback != null) recordKill(batch.fallback);
             return;
         }
 
@@ -1209,7 +1285,7 @@ public class LootTrackerManager
             recorded.merge(dr.getItemId(), dr.getQuantity(), Integer::sum);
 
         List<ItemStack> extras = new ArrayList<>();
-        for (ItemStack item : items)
+        for (ItemStack item : batch.items)
         {
             int alreadyRecorded = recorded.getOrDefault(item.getId(), 0);
             int delta = item.getQuantity() - alreadyRecorded;
@@ -1219,13 +1295,16 @@ public class LootTrackerManager
         if (extras.isEmpty())
         {
             log.debug("Ground items for '{}': all already recorded by NpcLootReceived — skipping",
-                    npc.getName());
+                    batch.rawName);
             return;
         }
 
+        List<LootStorageData.DropRecord> newDrops = convertToDropRecords(extras, batch.values::get);
+        if (newDrops.isEmpty()) return;
+
         log.debug("Ground items for '{}': appending {} extra item type(s) to last kill",
-                npc.getName(), extras.size());
-        appendDropsToLastKill(name, extras);
+                batch.rawName, extras.size());
+        applyAppendedDrops(batch.name, newDrops);
     }
 
     // ═════════════════════════════════════════════════════════════════════════
@@ -1284,13 +1363,84 @@ public class LootTrackerManager
     /**
      * The single write path for all loot sources. When {@code gameKC} is
      * positive, the local {@link BossKillStats} counter is synced to
-     * {@code gameKC - 1} before the kill is added. Does not sync to the server;
+     * {@code gameKC - 1} before the kill is added. The caller's thread only
+     * captures a {@link KillEvent}; it is applied here or, with the writer
+     * thread on, on the writer (see {@link #ingest}). The in-memory stats
+     * change when it is applied; storage, listeners and live sync follow at
+     * the next {@link #commitTickBatch()}. Does not sync to the server;
      * unsynced kills are uploaded in batches by {@link #uploadUnsyncedKills()}.
+     * Package-private for the JMH benchmarks.
      */
-    private void recordKill(
+    void recordKill(
+            String npcName, int npcId, int combatLevel, int world,
+            List<LootStorageData.DropRecord> drops, int gameKC)
+    {
+        recordKill(captureKill(npcName, npcId, combatLevel, world, drops, gameKC));
+    }
+
+    /** Hands a captured kill to the writer; on the writer itself it is applied at once. */
+    private void recordKill(KillEvent kill)
+    {
+        metrics.count("recordKill.drops", kill.drops.size());
+        metrics.time("recordKill", () -> ingest(() -> writeKill(kill)));
+    }
+
+    /** Everything about a kill that must be read on the caller's thread, frozen for the writer. */
+    private static final class KillEvent
+    {
+        final String                           npcName;
+        final int                              npcId;
+        final int                              combatLevel;
+        final int                              world;
+        final List<LootStorageData.DropRecord> drops;
+        final int                              gameKC;
+        final PlayerLocationSnapshot           location;
+        final long                             timestampMs;
+        final String                           gameMode;
+        final String                           accountType;
+        final int                              prestige;
+
+        KillEvent(String npcName, int npcId, int combatLevel, int world,
+                  List<LootStorageData.DropRecord> drops, int gameKC, PlayerLocationSnapshot location,
+                  long timestampMs, String gameMode, String accountType, int prestige)
+        {
+            this.npcName     = npcName;
+            this.npcId       = npcId;
+            this.combatLevel = combatLevel;
+            this.world       = world;
+            this.drops       = drops;
+            this.gameKC      = gameKC;
+            this.location    = location;
+            this.timestampMs = timestampMs;
+            this.gameMode    = gameMode;
+            this.accountType = accountType;
+            this.prestige    = prestige;
+        }
+    }
+
+    private KillEvent captureKill(
             String npcName, int npcId, int combatLevel, int world,
             List<LootStorageData.DropRecord> drops, int gameKC)
     {
+        // Snapshot the player's location at kill time. Loot events fire on
+        // the client thread, so reading the live client state here is safe.
+        // captureRespectingPrivacy substitutes the Grand Exchange decoy when
+        // visibility is private — a private player's real coordinates must
+        // never be written into a kill record that later gets synced.
+        PlayerLocationSnapshot location =
+                PlayerLocationSnapshot.captureRespectingPrivacy(client, config.playerVisibility());
+
+        return new KillEvent(npcName, npcId, combatLevel, world,
+                Collections.unmodifiableList(new ArrayList<>(drops)), gameKC, location,
+                System.currentTimeMillis(), state.getCurrentGameMode(),
+                state.getCurrentAccountSubtype(), state.getPrestige());
+    }
+
+    private void writeKill(KillEvent kill)
+    {
+        String npcName = kill.npcName;
+        int    gameKC  = kill.gameKC;
+
         // 0. Correlate with the authoritative game KC parsed from chat. The
         //    KC message and the loot event fire within ticks of each other in
         //    either order; when the message came first, claim it here so this
@@ -1299,7 +1449,9 @@ public class LootTrackerManager
         //    can never reuse it. When the caller already supplies a gameKC
         //    (e.g. the Whisperer flow), the pending observation is discarded
         //    so it cannot leak onto a later kill.
-        long nowMs = System.currentTimeMillis();
+        //    Correlation runs at the kill's own capture time, so a kill the
+        //    writer applies late still matches the same observations.
+        long nowMs = kill.timestampMs;
         if (gameKC <= 0)
         {
             Integer chatKC = killCountResolver.consume(npcName, nowMs);
@@ -1314,74 +1466,237 @@ public class LootTrackerManager
             killCountResolver.consume(npcName, nowMs);
         }
 
-        // 1. Get or create the UI statistics container
-        BossKillStats stats = bossKillStats.computeIfAbsent(
-                npcName, k -> new BossKillStats(npcName, npcId));
+        // Steps 1-5 change this source's stats and queue its storage write
+        // together; a background load rebuilding the same source must see
+        // both or neither.
+        int killNumber;
+        synchronized (statsLock)
+        {
+            // 1. Get or create the UI statistics container
+            BossKillStats stats = bossKillStats.computeIfAbsent(
+                    npcName, k -> new BossKillStats(npcName, kill.npcId));
+
+            // 2. Determine the kill number
+            killNumber = (gameKC > 0)
+                    ? gameKC
+                    : stats.getKillCount() + 1;
+
+            // 3. Create the storage-compatible record
+            LootStorageData.KillRecord killRecord = new LootStorageData.KillRecord();
+            killRecord.setTimestamp(kill.timestampMs);
+            killRecord.setKillNumber(killNumber);
+            killRecord.setWorld(kill.world);
+            killRecord.setCombatLevel(kill.combatLevel);
+            killRecord.setDrops(new ArrayList<>(kill.drops));
+            killRecord.setSyncedToServer(false); // picked up by the next batch
+            killRecord.setGameMode(kill.gameMode);
+            killRecord.setAccountType(kill.accountType);
+            killRecord.setLocation(kill.location);
+
+            // 4. Update the in-memory UI stats. When a kill
+            //    carries an authoritative game kill count (e.g. the Whisperer KC
+            //    chat message), seed the in-memory counter to gameKC - 1 so
+            //    addKill() lands it exactly on gameKC. Only raise the counter so a
+            //    stale/low gameKC can't regress it.
+            if (gameKC > 0 && gameKC > stats.getKillCount())
+            {
+                stats.setKillCount(gameKC - 1);
+            }
+            stats.addKill(killRecord);
 
-        // 2. Determine the kill number
-        int killNumber = (gameKC > 0)
-                ? gameKC
-                : stats.getKillCount() + 1;
+            // 5. Queue the storage write (and, with gameKC, the raise-only
+            //    last-known game KC, so it survives restarts and can be
+            //    audited against the local counter). It is committed with the
+            //    rest of this tick's kills by commitTickBatch(), together with
+            //    the listener fan-out and the live-sync kick.
+            tickBatch.add(new PendingKill(
+                    new LootStorageManager.KillWrite(npcName, kill.npcId, kill.combatLevel, killNumber,
+                            kill.world, kill.prestige, kill.drops, kill.location, Math.max(gameKC, 0)),
+                    killRecord));
+        }
 
-        // 3. Snapshot the player's location at kill time. Loot events fire on
-        //    the client thread, so reading the live client state here is safe.
-        //    captureRespectingPrivacy substitutes the Grand Exchange decoy when
-        //    visibility is private — a private player's real coordinates must
-        //    never be written into a kill record that later gets synced.
-        PlayerLocationSnapshot location =
-                PlayerLocationSnapshot.captureRespectingPrivacy(client, config.playerVisibility());
+        // Guarded: the stream sum below is real work per kill, so it should
+        // never run when debug logging is off (the default), not just have its
+        // formatted message discarded.
+        if (log.isDebugEnabled())
+        {
+            log.debug("Kill recorded: '{}' #{} (gameKC={}) – {} drops, {} gp",
+                    npcName, killNumber, gameKC > 0 ? gameKC : "n/a",
+                    kill.drops.size(),
+                    kill.drops.stream().mapToLong(LootStorageData.DropRecord::getTotalValue).sum());
+        }
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  WRITER THREAD
+    //
+    //  With RunealyticsConfig.lootWriterThread() on, the client thread only
+    //  captures each loot event (recordKill's KillEvent, a chat KC, drops to
+    //  append) and hands the rest to one LootIngestQueue writer. Everything
+    //  that reads or writes kill order (bossKillStats' last kills, the
+    //  KillCountResolver, the tick batch) is then touched by that one thread,
+    //  in the order the client thread saw the events. Paths that read a
+    //  source's last kill before editing it are writer tasks too; a logout,
+    //  which must flush on the calling thread, stops and drains the writer
+    //  first (withWriterStopped). Off, every task runs inline as before.
+    // ═════════════════════════════════════════════════════════════════════════
+
+    /** The writer's queue, or {@code null} when loot is applied on the calling thread. */
+    private volatile LootIngestQueue ingestQueue;
+
+    /**
+     * Moves the loot write path onto a dedicated writer thread, or back onto
+     * the calling thread. Turning it off applies everything the writer still
+     * holds first. Toggled from {@link RunealyticsConfig#lootWriterThread()}.
+     */
+    public void setWriterThreadEnabled(boolean enabled)
+    {
+        LootIngestQueue queue = ingestQueue;
+        if (enabled == (queue != null)) return;
+
+        if (enabled)
+        {
+            ingestQueue = new LootIngestQueue(LootIngestQueue.DEFAULT_CAPACITY, metrics);
+        }
+        else
+        {
+            ingestQueue = null;
+            queue.stop();
+        }
+        log.debug("Loot writer thread {}", enabled ? "started" : "stopped");
+    }
+
+    /** Runs {@code task} on the writer when there is one, else right here. */
+    private void ingest(Runnable task)
+    {
+        LootIngestQueue queue = ingestQueue;
+        if (queue == null || queue.isWriterThread())
+        {
+            task.run();
+        }
+        else
+        {
+            queue.submit(task);
+        }
+    }
 
-        // 4. Create the storage-compatible record
-        LootStorageData.KillRecord killRecord = new LootStorageData.KillRecord();
-        killRecord.setTimestamp(System.currentTimeMillis());
-        killRecord.setKillNumber(killNumber);
-        killRecord.setWorld(world);
-        killRecord.setCombatLevel(combatLevel);
-        killRecord.setDrops(new ArrayList<>(drops));
-        killRecord.setSyncedToServer(false); // picked up by the next batch
-        killRecord.setGameMode(state.getCurrentGameMode());
-        killRecord.setAccountType(state.getCurrentAccountSubtype());
-        killRecord.setLocation(location);
+    /**
+     * Runs {@code work} on the calling thread with the writer stopped and
+     * everything it held applied, then restarts it if it was on, so
+     * {@code work} can clear state the writer's tasks touch.
+     */
+    private void withWriterStopped(Runnable work)
+    {
+        boolean writerOn = ingestQueue != null;
+        setWriterThreadEnabled(false);
+        try
+        {
+            work.run();
+        }
+        finally
+        {
+            if (writerOn) setWriterThreadEnabled(true);
+        }
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  TICK BATCH
+    //
+    //  One AOE tick can record several kills (NpcLootReceived per NPC,
+    //  ground-item flushes, zero-loot promotions). recordKill updates the
+    //  in-memory stats at once, so kill numbering, same-tick appends and the
+    //  panel's data stay exact, but the rest of the write is deferred to
+    //  commitTickBatch(), which the plugin calls at the end of every
+    //  onGameTick: one storage call and journal append for all of them, one
+    //  listener call per source, one live-sync kick.
+    //
+    //  Anything that edits a source's last stored kill (appended drops, pets)
+    //  commits first, and a rebuild from storage writes the pending kills
+    //  before it reads, so storage is never behind for them. A late game KC
+    //  relabels a kill still in the batch in place instead.
+    // ═════════════════════════════════════════════════════════════════════════
+
+    /** A kill whose storage write and notifications wait for the tick's commit. */
+    private static final class PendingKill
+    {
+        final LootStorageManager.KillWrite write;
+        final LootStorageData.KillRecord   record;
+
+        PendingKill(LootStorageManager.KillWrite write, LootStorageData.KillRecord record)
+        {
+            this.write  = write;
+            this.record = record;
+        }
+    }
 
-        // 5. Update the in-memory UI stats and persistent storage. When a kill
-        //    carries an authoritative game kill count (e.g. the Whisperer KC
-        //    chat message), seed the in-memory counter to gameKC - 1 so
-        //    addKill() lands it exactly on gameKC. Only raise the counter so a
-        //    stale/low gameKC can't regress it.
-        if (gameKC > 0 && gameKC > stats.getKillCount())
+    /**
+     * Index in {@link #tickBatch} of the pending kill carrying {@code record},
+     * or {@code -1}. Caller holds {@link #statsLock}.
+     */
+    private int pendingIndexLocked(LootStorageData.KillRecord record)
+    {
+        for (int i = tickBatch.size() - 1; i >= 0; i--)
         {
-            stats.setKillCount(gameKC - 1);
+            if (tickBatch.get(i).record == record) return i;
         }
-        stats.addKill(killRecord);
-        storageManager.addKill(
-                npcName, npcId, combatLevel, killNumber,
-                world, state.getPrestige(), drops, location);
+        return -1;
+    }
+
+    /** Kills recorded since the last commit, oldest first. Guarded by {@link #statsLock}. */
+    private final List<PendingKill> tickBatch = new ArrayList<>();
+
+    /** How many of {@link #tickBatch} a rebuild has already written to storage. Guarded by {@link #statsLock}. */
+    private int tickBatchStored;
+
+    /**
+     * Commits every kill recorded since the last call: their storage writes,
+     * one {@link LootTrackerUpdateListener#onLootUpdated} per source (with that
+     * source's newest kill) and a live-sync kick. Called by the plugin at the
+     * end of each game tick; a no-op when nothing is pending. With the writer
+     * thread on, the commit is queued behind the tick's kills.
+     */
+    public void commitTickBatch()
+    {
+        ingest(this::applyTickBatch);
+    }
 
-        // Persist the authoritative game KC (raise-only) so the last known
-        // real KC per boss survives restarts and can be audited against the
-        // local counter.
-        if (gameKC > 0)
+    private void applyTickBatch()
+    {
+        List<PendingKill> batch;
+        synchronized (statsLock)
         {
-            storageManager.recordLastGameKc(npcName, gameKC);
+            if (tickBatch.isEmpty()) return;
+            storeTickBatchLocked();
+            batch = new ArrayList<>(tickBatch);
+            tickBatch.clear();
+            tickBatchStored = 0;
         }
+        metrics.count("tickBatch.kills", batch.size());
 
-        notifyListeners(stats, killRecord);
+        Map<String, PendingKill> newestBySource = new LinkedHashMap<>();
+        for (PendingKill pending : batch) newestBySource.put(pending.write.npcName, pending);
+        for (PendingKill pending : newestBySource.values())
+        {
+            BossKillStats stats = bossKillStats.get(pending.write.npcName);
+            if (stats != null) notifyListeners(stats, pending.record);
+        }
 
         // Kick off a debounced live sync so the website updates within a few
         // seconds.  Multiple kills inside the debounce window batch into one
         // HTTP call (see LIVE_SYNC_DEBOUNCE_MS).
         scheduleLiveSync();
+    }
 
-        // Guarded: the stream sum below is real work per kill, so it should
-        // never run when debug logging is off (the default), not just have its
-        // formatted message discarded.
-        if (log.isDebugEnabled())
-        {
-            log.debug("Kill recorded: '{}' #{} (gameKC={}) – {} drops, {} gp",
-                    npcName, killNumber, gameKC > 0 ? gameKC : "n/a",
-                    drops.size(),
-                    drops.stream().mapToLong(LootStorageData.DropRecord::getTotalValue).sum());
-        }
+    /** Writes the not-yet-stored part of {@link #tickBatch} to storage. Caller holds {@link #statsLock}. */
+    private void storeTickBatchLocked()
+    {
+        int size = tickBatch.size();
+        if (tickBatchStored == size) return;
+
+        List<LootStorageManager.KillWrite> writes = new ArrayList<>(size - tickBatchStored);
+        for (int i = tickBatchStored; i < size; i++) writes.add(tickBatch.get(i).write);
+        storageManager.addKills(writes);
+        tickBatchStored = size;
     }
 
     /**
@@ -1486,38 +1801,14 @@ public class LootTrackerManager
             int total = unsynced.values().stream().mapToInt(List::size).sum();
             log.debug("Uploading {} unsynced kills across {} bosses", total, unsynced.size());
 
-            final int BATCH_SIZE = 50;
-            List<LootStorageData.KillRecord> batchBuffer = new ArrayList<>();
-            Map<String, List<LootStorageData.KillRecord>> currentBatchMap = new HashMap<>();
-
-            // Iterate by boss directly to avoid building large temporary maps
-            for (Map.Entry<String, List<LootStorageData.KillRecord>> entry : unsynced.entrySet())
-            {
-                String bossName = entry.getKey();
-                List<LootStorageData.KillRecord> kills = new ArrayList<>(entry.getValue());
-
-                for (LootStorageData.KillRecord kill : kills)
-                {
-                    currentBatchMap.computeIfAbsent(bossName, k -> new ArrayList<>()).add(kill);
-                    batchBuffer.add(kill);
-
-                    // When batch reaches limit, sync it. Each batch is a
-                    // blocking HTTP round-trip, so the requests are naturally
-                    // spaced out without an explicit inter-batch delay.
-                    if (batchBuffer.size() >= BATCH_SIZE)
-                    {
-                        processBatch(username, currentBatchMap);
-                        batchBuffer.clear();
-                        currentBatchMap.clear();
-                    }
-                }
-            }
-
-            // Sync any remaining kills in the final partial batch
-            if (!batchBuffer.isEmpty())
-            {
-                processBatch(username, currentBatchMap);
-            }
+            // Batches are sized by payload bytes and pipelined; each one is
+            // acknowledged (one persisted write) as soon as it and every
+            // batch before it have been accepted.
+            LootStorageData data = storageManager.getCurrentData();
+            Map<String, LootStorageData.BossKillData> bossLookup =
+                    data != null ? data.getBossKills() : Collections.emptyMap();
+            new LootBulkUploader(apiClient, username, bossLookup, storageManager::markKillsSynced)
+                    .upload(unsynced);
         }
         catch (Exception e)
         {
@@ -1557,35 +1848,6 @@ public class LootTrackerManager
         uploadUnsyncedKillsBlocking(username);
     }
 
-    /**
-     * Helper to handle the actual API call and storage update for one batch.
-     *
-     * <p>The per-boss {@link LootStorageData.BossKillData} map is needed so the
-     * client can populate {@code npc_id} / {@code prestige} on every kill —
-     * those fields live on the boss record, not on individual kills.</p>
-     */
-    private void processBatch(String username, Map<String, List<LootStorageData.KillRecord>> byBoss) throws IOException
-    {
-        LootStorageData data = storageManager.getCurrentData();
-        Map<String, LootStorageData.BossKillData> bossLookup =
-                data != null ? data.getBossKills() : Collections.emptyMap();
-
-        boolean ok = apiClient.bulkSyncKills(username, byBoss, bossLookup);
-        if (ok)
-        {
-            for (Map.Entry<String, List<LootStorageData.KillRecord>> e : byBoss.entrySet())
-            {
-                long min = e.getValue().stream().mapToLong(LootStorageData.KillRecord::getTimestamp).min().orElse(0);
-                long max = e.getValue().stream().mapToLong(LootStorageData.KillRecord::getTimestamp).max().orElse(Long.MAX_VALUE);
-                storageManager.markKillsSynced(e.getKey(), min, max);
-            }
-        }
-        else
-        {
-            log.debug("Batch upload failed for {} bosses", byBoss.size());
-        }
-    }
-
     public void performManualSync(String username)
     {
         if (username == null || username.isEmpty()) return;
@@ -1667,8 +1929,24 @@ public class LootTrackerManager
         // we never display or sync one account's loot under another.
         log.debug("Loading local loot data for '{}' (was '{}')", norm, loadedAccount);
         storageManager.dropCache();
-        refreshLootDisplay();
+        long generation = publishSummaries();
         loadedAccount = norm;
+
+        // Histories, value backfill and key migration are the slow part of a
+        // large store; the panel already shows the totals, so finish them
+        // separately instead of holding up the rest of the login work.
+        executorService.execute(() ->
+        {
+            try
+            {
+                completeLoad(generation);
+            }
+            catch (Exception e)
+            {
+                log.debug("[Loot] Background load failed", e);
+                if (panel != null) panel.showLoadProgress(0, 0);
+            }
+        });
     }
 
     /**
@@ -1681,20 +1959,31 @@ public class LootTrackerManager
      */
     public void resetForLogout()
     {
-        storageManager.flushNow();   // persist the account we're leaving
-        storageManager.dropCache();  // next login reloads the correct file
+        loadGeneration.incrementAndGet(); // abandon any background load
 
-        bossKillStats.clear();
-        hiddenDrops.clear();
-        hiddenBosses.clear();
-        loadedAccount = null;
+        // The flush must run now, while the verified username is still the
+        // leaving account's, so the writer is drained and stopped instead.
+        withWriterStopped(() ->
+        {
+            applyTickBatch();            // kills from the final tick
+            storageManager.flushNow();   // persist the account we're leaving
+            storageManager.dropCache();  // next login reloads the correct file
 
-        // Account isolation: pending KC observations and reward fingerprints
-        // belong to the account that just left and must never apply to the
-        // next login.
-        killCountResolver.clear();
-        rewardBatchDeduplicator.clear();
-        lastPlayerLootTime.clear();
+            synchronized (statsLock)
+            {
+                bossKillStats.clear();
+            }
+            hiddenDrops.clear();
+            hiddenBosses.clear();
+            loadedAccount = null;
+
+            // Account isolation: pending KC observations and reward fingerprints
+            // belong to the account that just left and must never apply to the
+            // next login.
+            killCountResolver.clear();
+            rewardBatchDeduplicator.clear();
+            lastPlayerLootTime.clear();
+        });
 
         if (panel != null) SwingUtilities.invokeLater(() -> panel.refreshDisplay());
         log.debug("Loot tracker reset for logout");
@@ -1718,6 +2007,7 @@ public class LootTrackerManager
 
     private void refreshLootDisplay()
     {
+        long generation = loadGeneration.incrementAndGet();
         LootStorageData data = storageManager.getCurrentData();
 
         // Always restore the persisted RuneAlytics-specific ignore list.
@@ -1731,106 +2021,173 @@ public class LootTrackerManager
             return;
         }
 
-        // One client-thread hop for the whole dataset; a per-kill hop is too
-        // slow against a large history.
-        boolean backfilled = backfillAllMissingDropValues(data);
+        rebuildAllStats(generation, false);
+    }
 
-        // Re-canonicalise storage keys and purge known no-drop encounter adds.
-        // Handles data written before normalizeBossName() stripped <col=...>
-        // markup or gained the Mokhaiotl branch, and before the encounter-add
-        // blacklist existed, so old duplicate/junk containers disappear too.
-        boolean migrated = migrateBossKillKeys(data);
+    // ═════════════════════════════════════════════════════════════════════════
+    //  STAGED LOAD
+    //
+    //  Login loads in two stages. publishSummaries() shows every source's
+    //  persisted totals straight from the file, without replaying any kill;
+    //  completeLoad() then backfills prices and migrates keys on the client
+    //  thread, waits for that, and rebuilds each source from a copy of its
+    //  kill history taken under the storage lock, reporting progress to the
+    //  panel. Kills keep being recorded throughout: each rebuilt source is
+    //  published under statsLock, which recordKill also holds while it updates
+    //  the same stats and storage, and only if storage still holds the source
+    //  as copied, so a live kill is never lost to a rebuild from an older
+    //  copy of its history.
+    // ═════════════════════════════════════════════════════════════════════════
 
-        bossKillStats.clear();
+    /** Minimum time between two progress updates to the panel. */
+    private static final long LOAD_PROGRESS_INTERVAL_MS = 250L;
 
-        List<String> emptyPlaceholderKeys = new ArrayList<>();
-        boolean purgedPlaceholders = false;
+    /** Bumped by every load and by logout; a background stage that sees a newer value stops. */
+    private final AtomicLong loadGeneration = new AtomicLong();
 
-        for (Map.Entry<String, LootStorageData.BossKillData> entry : data.getBossKills().entrySet())
-        {
-            LootStorageData.BossKillData bd = entry.getValue();
+    /** Held while one source's stats and storage change together (recordKill, a rebuild). */
+    private final Object statsLock = new Object();
 
-            // Skip placeholder entries: 0 kill count and no recorded drops.
-            // These can show up as empty rows on the panel (e.g. a source the
-            // merge saw on the website/RuneLite side with no actual loot).
-            // Note: a non-empty kills list with no actual kill count/drops in
-            // it doesn't count as "real" data, so this checks effective totals
-            // rather than just list emptiness.
-            boolean hasDrops = bd.getAggregatedDrops() != null
-                    && bd.getAggregatedDrops().values().stream()
-                            .anyMatch(d -> d.getTotalQuantity() > 0);
-            int effectiveKillCount = Math.max(bd.getKillCount(),
-                    bd.getKills() != null ? bd.getKills().size() : 0);
-            if (effectiveKillCount <= 0 && !hasDrops)
-            {
-                emptyPlaceholderKeys.add(entry.getKey());
-                continue;
-            }
+    /**
+     * Stage 1: replaces the display cache with per-source summaries built from
+     * the persisted totals and refreshes the panel.
+     *
+     * @return the generation the following {@link #completeLoad} belongs to
+     */
+    private long publishSummaries()
+    {
+        long generation = loadGeneration.incrementAndGet();
+        LootStorageData data = storageManager.getCurrentData();
+
+        rehydrateHiddenDrops();
+        rehydrateHiddenBosses();
 
-            if (effectiveKillCount > 0 && !hasDrops)
+        Map<String, BossKillStats> summaries = new HashMap<>();
+        if (data != null)
+        {
+            for (LootStorageData.BossKillData bd : new ArrayList<>(data.getBossKills().values()))
             {
-                log.debug("[Loot] '{}' has {} kill(s) but no recorded drops — "
-                                + "kills.size={}, aggregatedDrops.size={} (underlying data has no items "
-                                + "for this source; nothing to display)",
-                        entry.getKey(), effectiveKillCount,
-                        bd.getKills() != null ? bd.getKills().size() : 0,
-                        bd.getAggregatedDrops() != null ? bd.getAggregatedDrops().size() : 0);
+                if (isPlaceholder(bd)) continue;
+                summaries.put(bd.getNpcName(), summaryStats(bd));
             }
+        }
 
-            BossKillStats stats = new BossKillStats(bd.getNpcName(), bd.getNpcId());
-            stats.setPrestige(bd.getPrestige());
+        synchronized (statsLock)
+        {
+            bossKillStats.keySet().retainAll(summaries.keySet());
+            bossKillStats.putAll(summaries);
+        }
 
-            if (bd.getKills() != null && !bd.getKills().isEmpty())
-            {
-                for (LootStorageData.KillRecord kr : bd.getKills())
-                {
-                    stats.addKill(kr);
-                }
+        log.debug("[Loot] {} source summaries published", summaries.size());
+        if (panel != null)
+        {
+            panel.showLoadProgress(0, summaries.size());
+            SwingUtilities.invokeLater(() -> panel.refreshDisplay());
+        }
+        return generation;
+    }
 
-                if (stats.getKillCount() != bd.getKillCount())
-                {
-                    log.debug("KC mismatch '{}': memory={} disk={}",
-                            entry.getKey(), stats.getKillCount(), bd.getKillCount());
-                    stats.setKillCount(bd.getKillCount());
-                }
-            }
-            else
-            {
-                stats.setKillCount(bd.getKillCount());
-            }
+    /** A source's display stats from its persisted totals only; the newest kill keeps "Recent" sorting right. */
+    private static BossKillStats summaryStats(LootStorageData.BossKillData bd)
+    {
+        BossKillStats stats = new BossKillStats(bd.getNpcName(), bd.getNpcId());
+        stats.setPrestige(bd.getPrestige());
 
-            // Sources synced purely via the website/RuneLite-tracker merge
-            // have aggregated drop totals but no per-kill records — without
-            // this, BossKillStats.getAggregatedDrops() (which sums killHistory)
-            // would come back empty and the panel would show "No drops
-            // recorded yet" even though real totals exist.
-            boolean usingPreloadedDrops = hasDrops
-                    && (bd.getKills() == null || bd.getKills().isEmpty());
-            if (hasDrops)
-            {
-                List<BossKillStats.AggregatedDrop> preloaded = new ArrayList<>();
-                long preloadedValue = 0;
-                for (LootStorageData.AggregatedDrop agg : bd.getAggregatedDrops().values())
+        List<LootStorageData.KillRecord> kills = bd.getKills();
+        List<LootStorageData.KillRecord> newest = kills == null || kills.isEmpty()
+                ? Collections.emptyList()
+                : Collections.singletonList(kills.get(kills.size() - 1));
+        int killCount = Math.max(bd.getKillCount(),
+                bd.getArchivedKills() + (kills != null ? kills.size() : 0));
+
+        stats.restoreSummary(newest, toStatsDrops(bd), killCount,
+                bd.getTotalLootValue(), bd.getArchivedHighestDrop());
+        return stats;
+    }
+
+    /**
+     * Stage 2: backfill, key migration and a full per-source rebuild, unless
+     * a newer load or a logout has started since {@code generation}.
+     */
+    private void completeLoad(long generation)
+    {
+        if (generation != loadGeneration.get()) return;
+        LootStorageData data = storageManager.getCurrentData();
+        if (data == null || data.getBossKills().isEmpty())
+        {
+            if (panel != null) panel.showLoadProgress(0, 0);
+            return;
+        }
+        rebuildAllStats(generation, true);
+    }
+
+    /**
+     * Backfills missing values, migrates keys and rebuilds every source's
+     * stats from the stored data, one source at a time.
+     */
+    private void rebuildAllStats(long generation, boolean reportProgress)
+    {
+        prepareStoredData(generation);
+
+        List<String> keys = storedKeys();
+        List<String> emptyPlaceholderKeys = new ArrayList<>();
+        Set<String> rebuilt = new HashSet<>();
+        long lastProgressMs = System.currentTimeMillis();
+
+        for (int i = 0; i < keys.size(); i++)
+        {
+            if (generation != loadGeneration.get())
+            {
+                log.debug("[Loot] Load superseded after {}/{} sources", i, keys.size());
+                return;
+            }
+
+            String key = keys.get(i);
+            StoredSource source = copySource(key);
+            if (source == null) continue; // removed since the keys were listed
+
+            // Skip placeholder entries: 0 kill count and no recorded drops.
+            // These can show up as empty rows on the panel (e.g. a source the
+            // merge saw on the website/RuneLite side with no actual loot).
+            if (isPlaceholder(source.data))
+            {
+                emptyPlaceholderKeys.add(key);
+                continue;
+            }
+
+            // Replayed off statsLock so a long history never holds up
+            // recordKill; published only if the source is unchanged since.
+            BossKillStats stats = rebuildStats(key, source.data);
+            synchronized (statsLock)
+            {
+                storeTickBatchLocked(); // this source's pending kills belong in the rebuild
+                if (!source.isCurrent())
                 {
-                    if (agg.getTotalQuantity() <= 0) continue;
-                    BossKillStats.AggregatedDrop pd = new BossKillStats.AggregatedDrop(
-                            agg.getItemId(), agg.getItemName(),
-                            agg.getTotalQuantity(), agg.getTotalValue(), agg.getDropCount(),
-                            agg.getGePrice(), agg.getHighAlch());
-                    pd.setPet(agg.isPet());
-                    preloaded.add(pd);
-                    preloadedValue += agg.getTotalValue();
+                    source = copySource(key);
+                    if (source == null) continue;
+                    stats = rebuildStats(key, source.data);
                 }
-                stats.setPreloadedDrops(preloaded);
-                if (usingPreloadedDrops) stats.setTotalLootValue(preloadedValue);
+                bossKillStats.put(stats.getNpcName(), stats);
+                rebuilt.add(stats.getNpcName());
             }
 
-            // Drop objects are shared with bd.getKills(), so the backfill pass
-            // above already mutated the persisted records in place — just
-            // bring the persisted total in line with what was recomputed.
-            bd.setTotalLootValue(stats.getTotalLootValue());
+            long now = System.currentTimeMillis();
+            if (reportProgress && panel != null && now - lastProgressMs >= LOAD_PROGRESS_INTERVAL_MS)
+            {
+                lastProgressMs = now;
+                panel.showLoadProgress(i + 1, keys.size());
+            }
+        }
 
-            bossKillStats.put(stats.getNpcName(), stats);
+        // Drop sources that were migrated away or turned out to be
+        // placeholders; keep any the client thread created meanwhile.
+        synchronized (statsLock)
+        {
+            storeTickBatchLocked(); // a pending kill's new source is in storage, so it stays
+            Set<String> stored = storageManager.withCurrentData(d ->
+                    d != null ? new HashSet<>(d.getBossKills().keySet()) : new HashSet<>());
+            bossKillStats.keySet().removeIf(k -> !rebuilt.contains(k)
+                    && (emptyPlaceholderKeys.contains(k) || !stored.contains(k)));
         }
 
         // Purge empty placeholder entries (0 kill count, no drops) directly
@@ -1838,76 +2195,417 @@ public class LootTrackerManager
         // refresh or get re-uploaded on the next sync.
         if (!emptyPlaceholderKeys.isEmpty())
         {
-            for (String key : emptyPlaceholderKeys) data.getBossKills().remove(key);
-            purgedPlaceholders = true;
-            log.debug("[Loot] Purged {} empty placeholder boss entry(ies) from storage: {}",
-                    emptyPlaceholderKeys.size(), emptyPlaceholderKeys);
+            int purged = storageManager.withCurrentData(d ->
+            {
+                int removed = 0;
+                for (String key : emptyPlaceholderKeys)
+                {
+                    LootStorageData.BossKillData bd = d != null ? d.getBossKills().get(key) : null;
+                    if (bd == null || !isPlaceholder(bd)) continue; // a kill landed meanwhile
+                    d.getBossKills().remove(key);
+                    removed++;
+                }
+                return removed;
+            });
+            if (purged > 0)
+            {
+                log.debug("[Loot] Purged {} empty placeholder boss entry(ies) from storage: {}",
+                        purged, emptyPlaceholderKeys);
+                storageManager.invalidateUnsyncedIndex();
+                storageManager.scheduleSave();
+            }
         }
 
-        // Persist once, outside the loop, if any drop's value was backfilled
-        // or empty placeholder entries were purged.
-        if (backfilled || purgedPlaceholders || migrated)
+        log.debug("refreshLootDisplay: {} bosses loaded", bossKillStats.size());
+        if (panel != null)
         {
-            log.debug("[Loot] Backfilled missing GE/alch values and/or purged placeholders "
-                    + "and/or migrated boss keys — saving");
-            storageManager.scheduleSave();
+            if (reportProgress) panel.showLoadProgress(keys.size(), keys.size());
+            SwingUtilities.invokeLater(() -> panel.refreshDisplay());
         }
-
-        log.debug("refreshLootDisplay: {} bosses loaded", bossKillStats.size());
-        if (panel != null) SwingUtilities.invokeLater(() -> panel.refreshDisplay());
     }
 
+    /** How long a rebuild waits for the client thread to value items the cache lacks. */
+    private static final long PREPARE_TIMEOUT_MS = 20_000L;
+
     /**
-     * Re-canonicalises every stored boss key through the current
-     * {@link #normalizeBossName} / {@link #isNonLootEncounterAdd} rules,
-     * merging any entry whose stored key no longer matches its canonical
-     * name into the canonical entry, and dropping known no-drop encounter
-     * adds outright. Runs once per load so historical data written under
-     * older (buggier) normalisation rules self-heals.
+     * Migrates stored keys, backfills missing drop values and re-totals every
+     * source, so the rebuild that follows replays the corrected records.
+     * Schedules a save when anything changed.
      *
-     * @return true if any key was renamed, merged, or removed
+     * <p>Each edit holds the storage lock for one key or one source, so
+     * addKill and the writer keep going meanwhile. Item values come from the
+     * cache where it has them; only the rest are resolved on the client
+     * thread (ItemManager needs it), with the storage lock not held.</p>
      */
-    private boolean migrateBossKillKeys(LootStorageData data)
+    private void prepareStoredData(long generation)
     {
-        Map<String, LootStorageData.BossKillData> bossKills = data.getBossKills();
-        List<String> keysSnapshot = new ArrayList<>(bossKills.keySet());
-        boolean changed = false;
-
-        for (String rawKey : keysSnapshot)
+        try
         {
-            LootStorageData.BossKillData bd = bossKills.get(rawKey);
-            if (bd == null) continue; // already merged away earlier in this pass
-
-            String canonical = normalizeBossName(rawKey);
+            // Re-canonicalise storage keys and purge known no-drop encounter adds.
+            // Handles data written before normalizeBossName() stripped <col=...>
+            // markup or gained the Mokhaiotl branch, and before the encounter-add
+            // blacklist existed, so old duplicate/junk containers disappear too.
+            boolean migrated = false;
+            for (String key : storedKeys())
+            {
+                if (generation != loadGeneration.get()) return;
+                migrated |= storageManager.withCurrentData(d -> d != null && migrateBossKillKey(d, key));
+            }
+            if (migrated) storageManager.invalidateUnsyncedIndex();
 
-            if (isNonLootEncounterAdd(canonical.toLowerCase()))
+            List<String> keys = storedKeys();
+            Set<Integer> unpriced = new HashSet<>();
+            for (String key : keys)
             {
-                bossKills.remove(rawKey);
-                changed = true;
-                log.debug("[Loot] Purged known no-drop encounter add '{}' from storage", rawKey);
-                continue;
+                storageManager.withCurrentData(d ->
+                {
+                    LootStorageData.BossKillData bd = d != null ? d.getBossKills().get(key) : null;
+                    if (bd != null) collectUnpricedItemIds(bd, unpriced);
+                    return null;
+                });
             }
+            Map<Integer, ItemValueCache.ItemValue> values = resolveItemValues(unpriced);
 
-            if (!canonical.equals(rawKey))
+            // The backfill corrects drop values in place; bring each source's
+            // persisted total in line with what a replay of it adds up to.
+            boolean fixed = false;
+            for (String key : keys)
             {
-                bd.setNpcName(canonical);
-                LootStorageData.BossKillData existing = bossKills.get(canonical);
-                if (existing != null && existing != bd)
+                if (generation != loadGeneration.get()) return;
+                fixed |= storageManager.withCurrentData(d ->
                 {
-                    mergeBossKillData(existing, bd);
-                    bossKills.remove(rawKey);
-                }
-                else
+                    LootStorageData.BossKillData bd = d != null ? d.getBossKills().get(key) : null;
+                    if (bd == null) return false; // migrated or purged since the keys were listed
+
+                    boolean changed = backfillMissingDropValues(key, bd, values);
+                    long total = replayedTotal(bd);
+                    if (total != bd.getTotalLootValue())
+                    {
+                        bd.setTotalLootValue(total);
+                        changed = true;
+                    }
+                    return changed;
+                });
+            }
+
+            if (migrated || fixed)
+            {
+                log.debug("[Loot] Backfilled missing GE/alch values and/or migrated boss keys — saving");
+                storageManager.scheduleSave();
+            }
+        }
+        catch (Exception e)
+        {
+            log.debug("[Loot] Backfill/migration failed", e);
+        }
+    }
+
+    /** The stored source keys, copied under the storage lock. */
+    private List<String> storedKeys()
+    {
+        return storageManager.withCurrentData(d ->
+                d != null ? new ArrayList<>(d.getBossKills().keySet()) : new ArrayList<>());
+    }
+
+    /**
+     * Valuations for {@code itemIds}: cached ones straight away, the rest in a
+     * single client-thread hop, waited for up to {@link #PREPARE_TIMEOUT_MS}.
+     * Ids that hop has not reached by then are left out.
+     */
+    private Map<Integer, ItemValueCache.ItemValue> resolveItemValues(Set<Integer> itemIds)
+    {
+        Map<Integer, ItemValueCache.ItemValue> values = new ConcurrentHashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int itemId : itemIds)
+        {
+            ItemValueCache.ItemValue value = itemValues.peek(itemId);
+            if (value != null) values.put(itemId, value);
+            else missing.add(itemId);
+        }
+        if (missing.isEmpty()) return values;
+
+        java.util.concurrent.CountDownLatch done = new java.util.concurrent.CountDownLatch(1);
+        clientThread.invoke(() ->
+        {
+            try
+            {
+                for (int itemId : missing)
                 {
-                    bossKills.remove(rawKey);
-                    bossKills.put(canonical, bd);
+                    // An unresolvable legacy item id must never block the rest.
+                    try
+                    {
+                        values.put(itemId, itemValues.get(itemId));
+                    }
+                    catch (Exception ex)
+                    {
+                        log.debug("[Loot] Backfill could not value item {}: {}", itemId, ex.getMessage());
+                    }
                 }
-                changed = true;
-                log.debug("[Loot] Migrated boss key '{}' → '{}'", rawKey, canonical);
             }
+            finally
+            {
+                done.countDown();
+            }
+        });
+
+        try
+        {
+            if (!done.await(PREPARE_TIMEOUT_MS, java.util.concurrent.TimeUnit.MILLISECONDS))
+            {
+                log.debug("[Loot] Client thread did not value {} item(s) within {} ms; backfilling what it had",
+                        missing.size(), PREPARE_TIMEOUT_MS);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
         }
+        return values;
+    }
 
-        return changed;
+    /**
+     * The total loot value {@link #rebuildStats} arrives at for {@code bd}:
+     * the persisted total under lazy history, else the resident kills' drops,
+     * else the per-item totals of a merge-only source.
+     */
+    private static long replayedTotal(LootStorageData.BossKillData bd)
+    {
+        if (bd.getArchivedKills() > 0) return bd.getTotalLootValue();
+
+        long total = 0;
+        if (bd.getKills() != null && !bd.getKills().isEmpty())
+        {
+            for (LootStorageData.KillRecord kr : bd.getKills())
+            {
+                for (LootStorageData.DropRecord drop : kr.getDrops()) total += drop.getTotalValue();
+            }
+            return total;
+        }
+        if (bd.getAggregatedDrops() == null) return 0L;
+        for (LootStorageData.AggregatedDrop agg : bd.getAggregatedDrops().values())
+        {
+            if (agg.getTotalQuantity() > 0) total += agg.getTotalValue();
+        }
+        return total;
+    }
+
+    /**
+     * One stored source copied under the storage lock, with enough of the
+     * original to tell whether it changed after the copy was taken.
+     */
+    private final class StoredSource
+    {
+        final String                       key;
+        final LootStorageData.BossKillData data;
+
+        private final LootStorageData.BossKillData original;
+        private final int                          kills;
+        private final LootStorageData.KillRecord   lastKill;
+        private final int                          killCount;
+        private final long                         totalLootValue;
+        private final int                          prestige;
+        private final int                          archivedKills;
+
+        /** Caller holds the storage lock. */
+        StoredSource(String key, LootStorageData.BossKillData original)
+        {
+            this.key            = key;
+            this.data           = original.copy();
+            this.original       = original;
+            this.kills          = data.getKills().size();
+            this.lastKill       = kills > 0 ? data.getKills().get(kills - 1) : null;
+            this.killCount      = original.getKillCount();
+            this.totalLootValue = original.getTotalLootValue();
+            this.prestige       = original.getPrestige();
+            this.archivedKills  = original.getArchivedKills();
+        }
+
+        /**
+         * Whether storage still holds this source as copied: a kill, appended
+         * drops, a prestige or an archive trim since would change one of these.
+         */
+        boolean isCurrent()
+        {
+            return storageManager.withCurrentData(d ->
+            {
+                LootStorageData.BossKillData bd = d != null ? d.getBossKills().get(key) : null;
+                if (bd != original) return false;
+                List<LootStorageData.KillRecord> now = bd.getKills();
+                int size = now != null ? now.size() : 0;
+                return size == kills
+                        && (size == 0 || now.get(size - 1) == lastKill)
+                        && bd.getKillCount() == killCount
+                        && bd.getTotalLootValue() == totalLootValue
+                        && bd.getPrestige() == prestige
+                        && bd.getArchivedKills() == archivedKills;
+            });
+        }
+    }
+
+    /** {@code key}'s stored source, copied under the storage lock; {@code null} if it is gone. */
+    private StoredSource copySource(String key)
+    {
+        return storageManager.withCurrentData(d ->
+        {
+            LootStorageData.BossKillData bd = d != null ? d.getBossKills().get(key) : null;
+            return bd != null ? new StoredSource(key, bd) : null;
+        });
+    }
+
+    /**
+     * A stored source with no kills and no drops. Note: a non-empty kills
+     * list with no actual kill count/drops in it doesn't count as "real"
+     * data, so this checks effective totals rather than just list emptiness.
+     */
+    private static boolean isPlaceholder(LootStorageData.BossKillData bd)
+    {
+        return effectiveKillCount(bd) <= 0 && !hasDrops(bd);
+    }
+
+    private static boolean hasDrops(LootStorageData.BossKillData bd)
+    {
+        return bd.getAggregatedDrops() != null
+                && bd.getAggregatedDrops().values().stream()
+                        .anyMatch(d -> d.getTotalQuantity() > 0);
+    }
+
+    private static int effectiveKillCount(LootStorageData.BossKillData bd)
+    {
+        return Math.max(bd.getKillCount(),
+                bd.getArchivedKills() + (bd.getKills() != null ? bd.getKills().size() : 0));
+    }
+
+    /** Full display stats for one stored source, replaying its resident kill history. */
+    private BossKillStats rebuildStats(String key, LootStorageData.BossKillData bd)
+    {
+        boolean hasDrops = hasDrops(bd);
+        int effectiveKillCount = effectiveKillCount(bd);
+        if (effectiveKillCount > 0 && !hasDrops)
+        {
+            log.debug("[Loot] '{}' has {} kill(s) but no recorded drops — "
+                            + "kills.size={}, aggregatedDrops.size={} (underlying data has no items "
+                            + "for this source; nothing to display)",
+                    key, effectiveKillCount,
+                    bd.getKills() != null ? bd.getKills().size() : 0,
+                    bd.getAggregatedDrops() != null ? bd.getAggregatedDrops().size() : 0);
+        }
+
+        BossKillStats stats = new BossKillStats(bd.getNpcName(), bd.getNpcId());
+        stats.setPrestige(bd.getPrestige());
+
+        if (bd.getArchivedKills() > 0)
+        {
+            // Lazy-history storage: only the recent kills are resident, so
+            // the persisted totals (which cover the archive) are the truth.
+            stats.restoreSummary(bd.getKills(), toStatsDrops(bd),
+                    bd.getKillCount(), bd.getTotalLootValue(), bd.getArchivedHighestDrop());
+        }
+        else if (bd.getKills() != null && !bd.getKills().isEmpty())
+        {
+            for (LootStorageData.KillRecord kr : bd.getKills())
+            {
+                stats.addKill(kr);
+            }
+
+            if (stats.getKillCount() != bd.getKillCount())
+            {
+                log.debug("KC mismatch '{}': memory={} disk={}",
+                        key, stats.getKillCount(), bd.getKillCount());
+                stats.setKillCount(bd.getKillCount());
+            }
+        }
+        else
+        {
+            stats.setKillCount(bd.getKillCount());
+        }
+
+        // Sources synced purely via the website/RuneLite-tracker merge
+        // have aggregated drop totals but no per-kill records — without
+        // this, BossKillStats.getAggregatedDrops() (which sums killHistory)
+        // would come back empty and the panel would show "No drops
+        // recorded yet" even though real totals exist.
+        boolean usingPreloadedDrops = hasDrops
+                && (bd.getKills() == null || bd.getKills().isEmpty());
+        if (hasDrops)
+        {
+            List<BossKillStats.AggregatedDrop> preloaded = toStatsDrops(bd);
+            long preloadedValue = 0;
+            for (BossKillStats.AggregatedDrop pd : preloaded)
+            {
+                preloadedValue += pd.getTotalValue();
+            }
+            stats.setPreloadedDrops(preloaded);
+            if (usingPreloadedDrops) stats.setTotalLootValue(preloadedValue);
+        }
+
+        return stats;
+    }
+
+    /** The persisted per-item totals for {@code bd}, as panel-side aggregates. */
+    private static List<BossKillStats.AggregatedDrop> toStatsDrops(LootStorageData.BossKillData bd)
+    {
+        List<BossKillStats.AggregatedDrop> drops = new ArrayList<>();
+        if (bd.getAggregatedDrops() == null) return drops;
+
+        for (LootStorageData.AggregatedDrop agg : bd.getAggregatedDrops().values())
+        {
+            if (agg.getTotalQuantity() <= 0) continue;
+            BossKillStats.AggregatedDrop pd = new BossKillStats.AggregatedDrop(
+                    agg.getItemId(), agg.getItemName(),
+                    agg.getTotalQuantity(), agg.getTotalValue(), agg.getDropCount(),
+                    agg.getGePrice(), agg.getHighAlch());
+            pd.setPet(agg.isPet());
+            drops.add(pd);
+        }
+        return drops;
+    }
+
+    /**
+     * Re-canonicalises the stored boss key {@code rawKey} through the current
+     * {@link #normalizeBossName} / {@link #isNonLootEncounterAdd} rules,
+     * merging its entry into the canonical entry if the key no longer matches
+     * its canonical name, and dropping known no-drop encounter adds outright.
+     * Runs for every key once per load so historical data written under
+     * older (buggier) normalisation rules self-heals. The caller holds the
+     * storage lock.
+     *
+     * @return true if the key was renamed, merged, or removed
+     */
+    private boolean migrateBossKillKey(LootStorageData data, String rawKey)
+    {
+        Map<String, LootStorageData.BossKillData> bossKills = data.getBossKills();
+        LootStorageData.BossKillData bd = bossKills.get(rawKey);
+        if (bd == null) return false; // already merged away earlier in this pass
+
+        String canonical = normalizeBossName(rawKey);
+
+        if (isNonLootEncounterAdd(canonical.toLowerCase()))
+        {
+            bossKills.remove(rawKey);
+            log.debug("[Loot] Purged known no-drop encounter add '{}' from storage", rawKey);
+            return true;
+        }
+
+        if (canonical.equals(rawKey)) return false;
+
+        bd.setNpcName(canonical);
+        LootStorageData.BossKillData existing = bossKills.get(canonical);
+        if (existing != null && existing != bd)
+        {
+            // The merge interleaves both histories, so neither side
+            // can keep a paged-out archive.
+            storageManager.hydrateHistory(existing);
+            storageManager.hydrateHistory(bd);
+            mergeBossKillData(existing, bd);
+            bossKills.remove(rawKey);
+        }
+        else
+        {
+            bossKills.remove(rawKey);
+            bossKills.put(canonical, bd);
+        }
+        log.debug("[Loot] Migrated boss key '{}' → '{}'", rawKey, canonical);
+        return true;
     }
 
     /** Folds {@code from} into {@code into}, summing counts/values and combining drop history. */
@@ -1939,110 +2637,109 @@ public class LootTrackerManager
         }
     }
 
+    /** Adds the id of every drop and aggregated drop in {@code bd} stored with no GE price to {@code into}. */
+    private static void collectUnpricedItemIds(LootStorageData.BossKillData bd, Set<Integer> into)
+    {
+        for (LootStorageData.KillRecord kr : bd.getKills() != null
+                ? bd.getKills() : Collections.<LootStorageData.KillRecord>emptyList())
+        {
+            if (kr.getDrops() == null) continue;
+            for (LootStorageData.DropRecord drop : kr.getDrops())
+            {
+                if (drop.getItemId() > 0 && drop.getGePrice() <= 0) into.add(drop.getItemId());
+            }
+        }
+        if (bd.getAggregatedDrops() == null) return;
+        for (LootStorageData.AggregatedDrop agg : bd.getAggregatedDrops().values())
+        {
+            if (agg.getItemId() > 0 && agg.getGePrice() <= 0) into.add(agg.getItemId());
+        }
+    }
+
     /**
-     * Re-resolves GE price / high alch / total value for every drop stored as 0.
-     * Mutates the drop records in place.
-     *
-     * <p>Runs the whole scan inside a single {@link ClientThread#invoke} call;
-     * ItemManager's composition/price lookups must run on the client thread.</p>
+     * Fills GE price / high alch / total value for every drop in {@code bd}
+     * stored as 0, from {@code values}; drops whose item is not in there are
+     * left alone. Mutates the drop records in place. The caller holds the
+     * storage lock.
      *
      * @return true if any drop's value was recomputed
      */
-    private boolean backfillAllMissingDropValues(LootStorageData data)
+    private boolean backfillMissingDropValues(String key, LootStorageData.BossKillData bd,
+                                              Map<Integer, ItemValueCache.ItemValue> values)
     {
-        boolean[] changed = { false };
-        clientThread.invoke(() ->
+        boolean changed = false;
+        for (LootStorageData.KillRecord kr : bd.getKills() != null
+                ? bd.getKills() : Collections.<LootStorageData.KillRecord>emptyList())
         {
-            for (Map.Entry<String, LootStorageData.BossKillData> entry : data.getBossKills().entrySet())
-            {
-                LootStorageData.BossKillData bd = entry.getValue();
+            if (kr.getDrops() == null) continue;
 
-                for (LootStorageData.KillRecord kr : bd.getKills() != null
-                        ? bd.getKills() : Collections.<LootStorageData.KillRecord>emptyList())
+            // A backfill failure (e.g. a malformed legacy record) must never
+            // block the rest of the scan.
+            try
+            {
+                for (LootStorageData.DropRecord drop : kr.getDrops())
                 {
-                    if (kr.getDrops() == null) continue;
+                    if (drop.getItemId() <= 0 || drop.getGePrice() > 0) continue;
 
-                    // A backfill failure (e.g. an unresolvable legacy item id)
-                    // must never block the rest of the scan.
-                    try
-                    {
-                        for (LootStorageData.DropRecord drop : kr.getDrops())
-                        {
-                            if (drop.getItemId() <= 0 || drop.getGePrice() > 0) continue;
-
-                            int gePrice = ItemValueResolver.perItemGeValue(itemManager, drop.getItemId());
-                            if (gePrice <= 0) continue;
-
-                            drop.setGePrice(gePrice);
-                            if (drop.getHighAlch() <= 0)
-                            {
-                                ItemComposition comp = itemManager.getItemComposition(drop.getItemId());
-                                if (comp != null) drop.setHighAlch(comp.getHaPrice());
-                            }
-                            if (drop.getItemName() == null || drop.getItemName().isEmpty())
-                            {
-                                ItemComposition comp = itemManager.getItemComposition(drop.getItemId());
-                                if (comp != null) drop.setItemName(comp.getName());
-                            }
-                            drop.setTotalValue((long) gePrice * drop.getQuantity());
-                            changed[0] = true;
-
-                            // aggregatedDrops is a separate persisted snapshot
-                            // (per-item rows the panel reads via
-                            // getStorageDropsForBoss), seeded from the first
-                            // drop and not updated by later corrections. Patch
-                            // the matching aggregate entry so it matches the
-                            // corrected drop.
-                            LootStorageData.AggregatedDrop agg =
-                                    bd.getAggregatedDrops() != null
-                                            ? bd.getAggregatedDrops().get(drop.getItemId())
-                                            : null;
-                            if (agg != null)
-                            {
-                                if (agg.getGePrice() <= 0)  agg.setGePrice(drop.getGePrice());
-                                if (agg.getHighAlch() <= 0) agg.setHighAlch(drop.getHighAlch());
-                            }
-                        }
-                    }
-                    catch (Exception ex)
-                    {
-                        log.debug("[Loot] Backfill failed for a drop in '{}': {}", entry.getKey(), ex.getMessage());
-                    }
-                }
+                    ItemValueCache.ItemValue value = values.get(drop.getItemId());
+                    if (value == null) continue;
+                    int gePrice = value.getGePrice();
+                    if (gePrice <= 0) continue;
 
-                // Merge-only sources (e.g. RuneLite-tracker / website import)
-                // have aggregated totals but no per-kill records, so the loop
-                // above never touches them — resolve their price fields here
-                // directly so they don't sit at 0gp forever.
-                if (bd.getAggregatedDrops() == null) continue;
-                for (LootStorageData.AggregatedDrop agg : bd.getAggregatedDrops().values())
-                {
-                    if (agg.getItemId() <= 0 || agg.getGePrice() > 0) continue;
-                    try
+                    drop.setGePrice(gePrice);
+                    if (drop.getHighAlch() <= 0) drop.setHighAlch(value.getHighAlch());
+                    if (drop.getItemName() == null || drop.getItemName().isEmpty())
                     {
-                        int gePrice = ItemValueResolver.perItemGeValue(itemManager, agg.getItemId());
-                        if (gePrice <= 0) continue;
-
-                        agg.setGePrice(gePrice);
-                        ItemComposition comp = itemManager.getItemComposition(agg.getItemId());
-                        if (comp != null)
-                        {
-                            if (agg.getHighAlch() <= 0) agg.setHighAlch(comp.getHaPrice());
-                            if (agg.getItemName() == null || agg.getItemName().isEmpty())
-                                agg.setItemName(comp.getName());
-                        }
-                        agg.setTotalValue((long) gePrice * agg.getTotalQuantity());
-                        changed[0] = true;
+                        drop.setItemName(value.getName());
                     }
-                    catch (Exception ex)
+                    drop.setTotalValue((long) gePrice * drop.getQuantity());
+                    changed = true;
+
+                    // aggregatedDrops is a separate persisted snapshot
+                    // (per-item rows the panel reads via
+                    // getStorageDropsForBoss), seeded from the first
+                    // drop and not updated by later corrections. Patch
+                    // the matching aggregate entry so it matches the
+                    // corrected drop.
+                    LootStorageData.AggregatedDrop agg =
+                            bd.getAggregatedDrops() != null
+                                    ? bd.getAggregatedDrops().get(drop.getItemId())
+                                    : null;
+                    if (agg != null)
                     {
-                        log.debug("[Loot] Backfill failed for aggregated drop in '{}': {}",
-                                entry.getKey(), ex.getMessage());
+                        if (agg.getGePrice() <= 0)  agg.setGePrice(drop.getGePrice());
+                        if (agg.getHighAlch() <= 0) agg.setHighAlch(drop.getHighAlch());
                     }
                 }
             }
-        });
-        return changed[0];
+            catch (Exception ex)
+            {
+                log.debug("[Loot] Backfill failed for a drop in '{}': {}", key, ex.getMessage());
+            }
+        }
+
+        // Merge-only sources (e.g. RuneLite-tracker / website import)
+        // have aggregated totals but no per-kill records, so the loop
+        // above never touches them — resolve their price fields here
+        // directly so they don't sit at 0gp forever.
+        if (bd.getAggregatedDrops() == null) return changed;
+        for (LootStorageData.AggregatedDrop agg : bd.getAggregatedDrops().values())
+        {
+            if (agg.getItemId() <= 0 || agg.getGePrice() > 0) continue;
+
+            ItemValueCache.ItemValue value = values.get(agg.getItemId());
+            if (value == null) continue;
+            int gePrice = value.getGePrice();
+            if (gePrice <= 0) continue;
+
+            agg.setGePrice(gePrice);
+            if (agg.getHighAlch() <= 0) agg.setHighAlch(value.getHighAlch());
+            if (agg.getItemName() == null || agg.getItemName().isEmpty())
+                agg.setItemName(value.getName());
+            agg.setTotalValue((long) gePrice * agg.getTotalQuantity());
+            changed = true;
+        }
+        return changed;
     }
 
     /**
@@ -2162,10 +2859,19 @@ public class LootTrackerManager
 
     public void clearAllData()
     {
-        bossKillStats.clear();
-        hiddenDrops.clear();
-        lastPlayerLootTime.clear();
-        storageManager.clearData();
+        // Stopped and drained so no queued kill lands after the wipe.
+        withWriterStopped(() ->
+        {
+            synchronized (statsLock)
+            {
+                bossKillStats.clear();
+                tickBatch.clear(); // recorded before the wipe, so never stored
+                tickBatchStored = 0;
+            }
+            hiddenDrops.clear();
+            lastPlayerLootTime.clear();
+            storageManager.clearData();
+        });
 
         // After clearing, the plugin keeps no cache/temp file for this
         // account — the next sync reads only RuneLite's own Loot Tracker file
@@ -2189,10 +2895,9 @@ public class LootTrackerManager
     private Map<Integer, Integer> sumItemQuantities(LootStorageData data, String bossName)
     {
         Map<Integer, Integer> totals = new HashMap<>();
-        LootStorageData.BossKillData bd = data.getBossKills().get(bossName);
-        if (bd == null || bd.getKills() == null) return totals;
+        if (!data.getBossKills().containsKey(bossName)) return totals;
 
-        for (LootStorageData.KillRecord kr : bd.getKills())
+        for (LootStorageData.KillRecord kr : storageManager.getFullKillHistory(bossName))
         {
             if (kr.getDrops() == null) continue;
             for (LootStorageData.DropRecord drop : kr.getDrops())
@@ -2450,9 +3155,8 @@ public class LootTrackerManager
             for (Map.Entry<String, LootStorageData.BossKillData> entry : current.getBossKills().entrySet())
             {
                 Set<Integer> kcs = new HashSet<>();
-                if (entry.getValue().getKills() != null)
-                    for (LootStorageData.KillRecord kr : entry.getValue().getKills())
-                        kcs.add(kr.getKillNumber());
+                for (LootStorageData.KillRecord kr : storageManager.getFullKillHistory(entry.getKey()))
+                    kcs.add(kr.getKillNumber());
                 existingKCsByBoss.put(normalizeBossName(entry.getKey()), kcs);
             }
 
@@ -2516,16 +3220,16 @@ public class LootTrackerManager
 
                     // Imported records only carry id/qty — resolve name and
                     // value the same way a live drop does.
-                    ItemComposition comp = itemManager.getItemComposition(itemId);
-                    int  gePrice    = ItemValueResolver.perItemGeValue(itemManager, itemId);
+                    ItemValueCache.ItemValue value = itemValues.get(itemId);
+                    int  gePrice    = value.getGePrice();
                     long totalValue = (long) gePrice * delta;
 
                     LootStorageData.DropRecord dr = new LootStorageData.DropRecord();
                     dr.setItemId(itemId);
-                    dr.setItemName(comp.getName());
+                    dr.setItemName(value.getName());
                     dr.setQuantity(delta);
                     dr.setGePrice(gePrice);
-                    dr.setHighAlch(comp.getHaPrice());
+                    dr.setHighAlch(value.getHighAlch());
                     dr.setTotalValue(totalValue);
                     dr.setHidden(false);
                     drops.add(dr);
@@ -2611,40 +3315,6 @@ public class LootTrackerManager
         }
     }
 
-    public void clearBossData(String npcName)
-    {
-        bossKillStats.remove(npcName);
-        hiddenDrops.remove(npcName);
-        lastPlayerLootTime.remove(npcName);
-        storageManager.saveData();
-        if (panel != null) SwingUtilities.invokeLater(() -> panel.refreshDisplay());
-    }
-
-    public void prestigeBoss(String npcName)
-    {
-        BossKillStats stats = bossKillStats.get(npcName);
-        if (stats != null)
-        {
-            // 1. Update the local UI object
-            stats.prestige();
-
-            // 2. Update the persistent storage data
-            LootStorageData data = storageManager.getCurrentData();
-            if (data != null && data.getBossKills().containsKey(npcName))
-            {
-                LootStorageData.BossKillData bossData = data.getBossKills().get(npcName);
-                bossData.setPrestige(stats.getPrestige());
-                bossData.getKills().clear(); // Clear the history in storage as well
-                storageManager.saveData();
-            }
-
-            if (panel != null)
-            {
-                SwingUtilities.invokeLater(() -> panel.refreshDisplay());
-            }
-        }
-    }
-
     public boolean isDropHidden(String npcName, int itemId)
     {
         Set<Integer> h = hiddenDrops.get(npcName);
@@ -2748,36 +3418,7 @@ public class LootTrackerManager
 
     public boolean isBoss(int npcId, String name)
     {
-        return TRACKED_BOSS_IDS.contains(npcId) || matchesBossName(name);
-    }
-
-    private boolean matchesBossName(String name)
-    {
-        if (name == null) return false;
-        String l = name.toLowerCase();
-        return l.contains("mokhaiotl")   || l.contains("duke")        || l.contains("leviathan")
-                || l.contains("vardorvis")   || l.contains("whisperer")
-                || l.contains("zulrah")      || l.contains("vorkath")
-                || l.contains("cerberus")    || l.contains("nightmare")
-                || l.contains("gauntlet")    || l.contains("barrows")
-                || l.contains("yama")        || l.contains("tempoross")
-                || l.contains("wintertodt")  || l.contains("zalcano")
-                || l.contains("eldric")      || l.contains("branda")
-                || l.contains("hueycoatl")   || l.contains("araxxor")
-                || l.contains("scurrius")    || l.contains("amoxliatl")
-                || l.contains("colosseum")   || l.contains("skotizo")
-                || l.contains("hespori")     || l.contains("abyssal")
-                || l.contains("thermonuclear")
-                || l.contains("grotesque")   || l.contains("kalphite")
-                || l.contains("dagannoth")   || l.contains("corporeal")
-                || l.contains("tormented demon")
-                // Bosses previously only covered by the trackAllNpcs fallback —
-                // name-matched so they stay tracked as bosses even when
-                // trackAllNpcs is off (their NPC ids are not whitelisted).
-                || l.contains("muspah")      || l.contains("sarachnis")
-                || l.contains("obor")        || l.contains("bryophyta")
-                || l.contains("giant mole")  || l.contains("king black dragon")
-                || l.contains("chaos elemental");
+        return TRACKED_BOSS_IDS.contains(npcId) || BossNames.isBossName(name);
     }
 
     // ═════════════════════════════════════════════════════════════════════════
@@ -2822,15 +3463,22 @@ public class LootTrackerManager
      * </ul>
      */
     public void parseKillCountMessage(String message)
+    {
+        // Observed in order with the kills around it (see ingest), at the
+        // time the message arrived.
+        long nowMs = System.currentTimeMillis();
+        ingest(() -> observeKillCount(message, nowMs));
+    }
+
+    private void observeKillCount(String message, long nowMs)
     {
         try
         {
-            KillCountResolver.KcObservation obs =
-                    killCountResolver.observe(message, System.currentTimeMillis());
+            KillCountResolver.KcObservation obs = killCountResolver.observe(message, nowMs);
             if (obs == null) return;
 
             log.debug("KC from chat: '{}' = {}", obs.getBossName(), obs.getKillCount());
-            applyLateGameKc(obs.getBossName(), obs.getKillCount());
+            applyLateGameKc(obs.getBossName(), obs.getKillCount(), nowMs);
         }
         catch (Exception e)
         {
@@ -2851,7 +3499,7 @@ public class LootTrackerManager
      * for the next kill) or when it already synced to the server (relabeling
      * a synced record would re-upload it as a new kill).</p>
      */
-    private void applyLateGameKc(String npcName, int gameKC)
+    private void applyLateGameKc(String npcName, int gameKC, long nowMs)
     {
         BossKillStats stats = bossKillStats.get(npcName);
         if (stats == null || stats.getKillHistory().isEmpty()) return;
@@ -2859,99 +3507,79 @@ public class LootTrackerManager
         LootStorageData.KillRecord lastKill =
                 stats.getKillHistory().get(stats.getKillHistory().size() - 1);
 
-        long ageMs = System.currentTimeMillis() - lastKill.getTimestamp();
+        long ageMs = nowMs - lastKill.getTimestamp();
         if (ageMs > LATE_KC_APPLY_WINDOW_MS) return;
 
         // A kill this recent is the one this KC belongs to — claim the
         // observation NOW, before any early return below, so it can never
         // leak onto the next kill of the same boss.
-        killCountResolver.consume(npcName, System.currentTimeMillis());
+        killCountResolver.consume(npcName, nowMs);
 
         if (lastKill.getKillNumber() >= gameKC) return; // already correct or ahead
         if (lastKill.isSyncedToServer()) return;        // too late — avoid dup upload
 
-        if (!storageManager.relabelLastKill(npcName, gameKC))
+        LootStorageData.KillRecord relabeled;
+        synchronized (statsLock)
         {
-            return; // storage-side record already synced/ahead — keep in sync
-        }
+            // A kill still waiting in this tick's batch is relabeled there,
+            // so the rest of the tick's kills still commit together; only one
+            // already in storage is relabeled there.
+            int pending = pendingIndexLocked(lastKill);
+            boolean unstored = pending >= tickBatchStored;
+            if (!unstored && !storageManager.relabelLastKill(npcName, gameKC))
+            {
+                return; // storage-side record already synced/ahead — keep in sync
+            }
 
-        lastKill.setKillNumber(gameKC);
-        if (gameKC > stats.getKillCount())
-        {
-            stats.setKillCount(gameKC);
+            // Replaced, not edited: the record may be shared with storage.
+            relabeled = stats.replaceLastKill(previous ->
+            {
+                if (previous != lastKill) return previous;
+                LootStorageData.KillRecord updated = previous.withDrops(previous.getDrops());
+                updated.setKillNumber(gameKC);
+                return updated;
+            });
+            if (gameKC > stats.getKillCount())
+            {
+                stats.setKillCount(gameKC);
+            }
+
+            if (pending >= 0)
+            {
+                LootStorageManager.KillWrite write = tickBatch.get(pending).write;
+                tickBatch.set(pending, new PendingKill(unstored ? write.withGameKc(gameKC) : write, relabeled));
+            }
         }
 
-        notifyListeners(stats, lastKill);
+        notifyListeners(stats, relabeled);
         log.debug("Late game KC {} applied to last '{}' kill ({}ms after record)",
                 gameKC, npcName, ageMs);
     }
 
-    public String detectChestSource(String lower)
-    {
-        if (lower.contains("wintertodt") || lower.contains("cold of the wintertodt"))
-            return "Wintertodt";
-
-        if (lower.contains("subdued the spirit") || lower.contains("you have helped to subdue"))
-            return "Tempoross";
-
-        if (lower.contains("zalcano") && (lower.contains("loot") || lower.contains("defeated")))
-            return "Zalcano";
-
-        if (lower.contains("congratulations - your raid is complete")
-                || lower.contains("congratulations! your raid is complete"))
-            return "Chambers of Xeric";
-
-        if (lower.contains("theatre of blood") && lower.contains("complete"))
-            return "Theatre of Blood";
-
-        if (lower.contains("tombs of amascut") && lower.contains("complete"))
-            return "Tombs of Amascut";
-
-        if (lower.contains("gauntlet") && lower.contains("complete"))
-            return lower.contains("corrupted") ? "Corrupted Gauntlet" : "The Gauntlet";
-
-        if (lower.contains("phosani") && lower.contains("defeated"))
-            return "Phosani's Nightmare";
-        if (lower.contains("nightmare") && lower.contains("defeated"))
-            return "The Nightmare";
-
-        if (lower.contains("royal titans") || lower.contains("eldric the ice king")
-                || lower.contains("branda the fire queen"))
-            return "Royal Titans";
-
-        if (lower.contains("colosseum") || lower.contains("fortis"))
-            return "Fortis Colosseum";
-
-        if (lower.contains("treasure trail"))
-        {
-            if (lower.contains("beginner")) return "Beginner Clue";
-            if (lower.contains("easy"))     return "Easy Clue";
-            if (lower.contains("medium"))   return "Medium Clue";
-            if (lower.contains("hard"))     return "Hard Clue";
-            if (lower.contains("elite"))    return "Elite Clue";
-            if (lower.contains("master"))   return "Master Clue";
-            return "Clue Scroll";
-        }
-
-        return null;
-    }
-
     // ═════════════════════════════════════════════════════════════════════════
     //  UTILITY – DROP RECORD CONVERSION
     // ═════════════════════════════════════════════════════════════════════════
 
     private List<LootStorageData.DropRecord> convertToDropRecords(List<ItemStack> items)
+    {
+        return convertToDropRecords(items, itemValues::get);
+    }
+
+    /** As {@link #convertToDropRecords(List)}, with values the caller looked up on the client thread. */
+    private List<LootStorageData.DropRecord> convertToDropRecords(
+            List<ItemStack> items, IntFunction<ItemValueCache.ItemValue> values)
     {
         List<LootStorageData.DropRecord> drops = new ArrayList<>();
 
         for (ItemStack item : items)
         {
-            ItemComposition comp = itemManager.getItemComposition(item.getId());
             // Plain itemManager.getItemPrice() returns 0 for noted/charged/
-            // untradeable variants (e.g. Scythe of Vitur, noted items) — go
-            // through ItemValueResolver so those still report a real value by
-            // canonicalising or decomposing into their tradeable components.
-            int  gePrice    = ItemValueResolver.perItemGeValue(itemManager, item.getId());
+            // untradeable variants (e.g. Scythe of Vitur, noted items) — the
+            // cache values through ItemValueResolver so those still report a
+            // real value by canonicalising or decomposing into their
+            // tradeable components.
+            ItemValueCache.ItemValue value = values.apply(item.getId());
+            int  gePrice    = value.getGePrice();
             // long math: gePrice * quantity overflows int for large stacks of
             // high-value items (e.g. big coin / rune drops) and would record a
             // negative or garbage value.
@@ -2963,14 +3591,12 @@ public class LootTrackerManager
             // always kept regardless of the configured threshold.
             if (totalValue > 0 && totalValue < config.minimumLootValue()) continue;
 
-            ItemComposition canonicalComp = itemManager.getItemComposition(itemManager.canonicalize(item.getId()));
-
             LootStorageData.DropRecord drop = new LootStorageData.DropRecord();
             drop.setItemId   (item.getId());
-            drop.setItemName (comp.getName());
+            drop.setItemName (value.getName());
             drop.setQuantity (item.getQuantity());
             drop.setGePrice  (gePrice);
-            drop.setHighAlch (Math.max(comp.getHaPrice(), canonicalComp.getHaPrice()));
+            drop.setHighAlch (value.getHighAlch());
             drop.setTotalValue(totalValue);
             drop.setHidden   (false);
 
@@ -18,15 +18,14 @@ import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Slf4j
 @Singleton
 public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateListener
 {
-    private static final int  ITEMS_PER_ROW    = 5;
-    private static final int  ITEM_SIZE        = 36;
-    private static final int  ITEM_GAP         = 2;
-    private static final int  PAD              = 6;
+    private static final int  PAD              = LootCardList.PAD;
     private static final long SYNC_COOLDOWN_MS = 5 * 60 * 1_000L;
 
     private static final Font CALIBRI_BOLD  = new Font("Calibri", Font.BOLD, 12);
@@ -61,13 +60,18 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
 
     private final JLabel totalKillsLabel = new JLabel("Kills: 0");
     private final JLabel totalValueLabel = new JLabel("Value: 0 gp");
-    private final JPanel bossListPanel   = new JPanel();
+    /** Virtualized boss cards; the scroll pane's view whenever there is loot. */
+    private LootCardList cardList;
+    /** The scroll pane's view when there is nothing to show. */
+    private final JPanel emptyStatePanel = new JPanel(new BorderLayout());
 
     private JButton           eyeButton;
     private JButton           sortButton;
     private JButton           clearButton;
     private JButton           syncButton;
     private JLabel            syncStatusLabel;
+    /** True while {@link #syncStatusLabel} shows load progress rather than sync status. */
+    private boolean           loadProgressShown;
     private javax.swing.Timer syncResetTimer;
     private javax.swing.Timer cooldownTickTimer;
     /** Shown when RuneLite tracker history can't be tied to the current account. */
@@ -87,7 +91,7 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
     private JScrollPane       scrollPane;
     private boolean           suppressComboAction = false;
 
-    private String       lastDisplayFingerprint = null;
+    private volatile String lastDisplayFingerprint = null;
     private String       highlightedBoss        = null;
     /** Boss order + highlight currently laid out, so a refresh that doesn't change
      *  structure can update cards in place (no teardown / no flicker). */
@@ -100,14 +104,6 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
     private long         lastSyncTime           = 0L;
 
     private final Map<String, Boolean> bossExpandedState = new HashMap<>();
-    private final Map<String, JLabel>  itemSlotMap       = new ConcurrentHashMap<>();
-    private final Map<String, JPanel>  bossCardMap       = new ConcurrentHashMap<>();
-    private final Map<String, JLabel>  bossValueLabelMap = new ConcurrentHashMap<>();
-    private final Map<String, JLabel>  bossNameLabelMap  = new ConcurrentHashMap<>();
-    /** The collapsible grid wrapper for each boss card. Stored so an incremental
-     *  rebuild can swap only the inner item grid and preserve the header row and
-     *  its expand/collapse listener (which captures this exact wrapper). */
-    private final Map<String, JPanel>  bossGridWrapperMap = new ConcurrentHashMap<>();
 
     private final Map<String, javax.swing.Timer> lootDebounceMap = new ConcurrentHashMap<>();
 
@@ -116,6 +112,37 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
     private final AtomicBoolean refreshing = new AtomicBoolean(false);
     private javax.swing.Timer refreshDebounce;
 
+    // Card models are built on the executor, never on the EDT: reading drops
+    // synchronizes on LootStorageManager and can wait behind a save or merge.
+    // Each build takes a sequence number when it starts; the EDT only swaps
+    // in a card that is newer than the one it shows.
+    private final AtomicLong modelSeq = new AtomicLong();
+    /** EDT only: sequence of the last full model shown, and of later per-card updates. */
+    private long shownModelSeq = -1L;
+    private final Map<String, Long> shownCardSeq = new HashMap<>();
+
+    /** Everything the EDT needs to show one full refresh, built off the EDT. */
+    private static final class TabModel
+    {
+        final long seq;
+        final List<LootCardList.Card> cards;
+        final List<String> order;
+        final String highlight;
+        final long totalValue;
+        final int  totalKills;
+
+        TabModel(long seq, List<LootCardList.Card> cards, List<String> order, String highlight,
+                 long totalValue, int totalKills)
+        {
+            this.seq        = seq;
+            this.cards      = cards;
+            this.order      = order;
+            this.highlight  = highlight;
+            this.totalValue = totalValue;
+            this.totalKills = totalKills;
+        }
+    }
+
     @Getter
     private enum SortMode
     {
@@ -131,6 +158,29 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
 
     private enum SourceFilter { ALL, COMBAT, SKILLS }
 
+    /**
+     * The EDT-owned display settings a model build depends on, captured on
+     * the EDT and handed to the executor so the build never reads the
+     * panel's fields from another thread.
+     */
+    private static final class ViewState
+    {
+        final boolean      showIgnored;
+        final SortMode     sort;
+        final SourceFilter filter;
+        final String       skillFilter;
+        final String       highlight;
+
+        ViewState(boolean showIgnored, SortMode sort, SourceFilter filter, String skillFilter, String highlight)
+        {
+            this.showIgnored = showIgnored;
+            this.sort        = sort;
+            this.filter      = filter;
+            this.skillFilter = skillFilter;
+            this.highlight   = highlight;
+        }
+    }
+
     @Inject
     public LootTrackerPanel(
             LootTrackerManager lootManager,
@@ -159,19 +209,35 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
         setBackground(ColorScheme.DARK_GRAY_COLOR);
         add(buildHeader(), BorderLayout.NORTH);
 
-        bossListPanel.setLayout(new BoxLayout(bossListPanel, BoxLayout.Y_AXIS));
-        bossListPanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
-        bossListPanel.setBorder(new EmptyBorder(PAD, PAD, PAD, PAD));
+        cardList = new LootCardList(new LootCardList.Actions()
+        {
+            @Override
+            public void loadIcon(LootCardList.Slot slot, Consumer<Icon> onLoaded)
+            {
+                AsyncBufferedImage image = itemManager.getImage(slot.itemId, slot.quantity, slot.quantity > 1);
+                onLoaded.accept(new ImageIcon(image));
+                image.onLoaded(() -> SwingUtilities.invokeLater(() -> onLoaded.accept(new ImageIcon(image))));
+            }
+
+            @Override
+            public JPopupMenu headerMenu(LootCardList.Card card)
+            {
+                return buildHeaderMenu(card.npcName);
+            }
+
+            @Override
+            public JPopupMenu slotMenu(LootCardList.Card card, LootCardList.Slot slot)
+            {
+                return buildSlotMenu(card.npcName, slot);
+            }
+        }, bossExpandedState);
 
-        // Wrapping bossListPanel at NORTH of a BorderLayout panel means it always
-        // takes only its natural (preferred) height — the viewport fills the rest
-        // with empty space. This avoids BoxLayout stretching cards to fill the pane.
-        JPanel scrollContent = new JPanel(new BorderLayout());
-        scrollContent.setBackground(ColorScheme.DARK_GRAY_COLOR);
-        scrollContent.add(bossListPanel, BorderLayout.NORTH);
+        // Held at NORTH so the empty state keeps its natural height.
+        emptyStatePanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
+        emptyStatePanel.setBorder(new EmptyBorder(PAD, PAD, PAD, PAD));
 
         // Preferred-size inflation is handled at the JTabbedPane level in RuneAlyticsPanel.
-        scrollPane = new JScrollPane(scrollContent);
+        scrollPane = new JScrollPane(cardList);
         scrollPane.setBorder(null);
         scrollPane.setBackground(ColorScheme.DARK_GRAY_COLOR);
         scrollPane.getViewport().setBackground(ColorScheme.DARK_GRAY_COLOR);
@@ -750,6 +816,33 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
      * message. Used when a manual sync can't start because another sync is
      * already running, so the button never gets stuck on "Syncing…".
      */
+    /**
+     * Shows the background loot load's progress in the sync status line;
+     * {@code done >= total} clears it. Only clears text it set itself, so a
+     * sync message shown meanwhile is left alone.
+     */
+    public void showLoadProgress(int done, int total)
+    {
+        if (!SwingUtilities.isEventDispatchThread())
+        {
+            SwingUtilities.invokeLater(() -> showLoadProgress(done, total));
+            return;
+        }
+        if (syncStatusLabel == null) return;
+        if (done < total)
+        {
+            loadProgressShown = true;
+            syncStatusLabel.setText("Loading history " + done + "/" + total);
+            syncStatusLabel.setForeground(new Color(100, 160, 220));
+        }
+        else if (loadProgressShown)
+        {
+            loadProgressShown = false;
+            syncStatusLabel.setText(" ");
+            syncStatusLabel.setForeground(new Color(0, 0, 0, 0));
+        }
+    }
+
     public void showSyncBusy(String message)
     {
         if (!SwingUtilities.isEventDispatchThread())
@@ -792,8 +885,8 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
     private void scheduleLootUpdate(String npcName, BossKillStats stats)
     {
         // javax.swing.Timer must be created and started on the EDT. This is
-        // invoked from the client thread (loot events), so marshal the whole
-        // create-register-start sequence onto the EDT.
+        // invoked from the client or loot writer thread (loot events), so
+        // marshal the whole create-register-start sequence onto the EDT.
         Runnable schedule = () ->
         {
             javax.swing.Timer existing = lootDebounceMap.get(npcName);
@@ -814,68 +907,44 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
             SwingUtilities.invokeLater(schedule);
     }
 
+    /**
+     * EDT: rebuilds {@code npcName}'s card on the executor and swaps it in on
+     * the EDT; a source that isn't shown yet triggers a full refresh instead.
+     */
     public void updateLoot(String npcName, BossKillStats stats)
     {
-        if (!passesFilter(npcName)) return;
-        if (!showIgnoredItems && lootManager.isBossHidden(npcName)) return;
-
-        List<BossKillStats.AggregatedDrop> drops = lootManager.getStorageDropsForBoss(npcName);
-        long totalValue = drops.stream().mapToLong(BossKillStats.AggregatedDrop::getTotalValue).sum();
-
-        JPanel card = bossCardMap.get(npcName);
-        if (card == null)
-        {
-            invalidateFingerprint();
-            refreshDisplay();
-            return;
-        }
-
-        boolean needsRebuild = false;
-        for (BossKillStats.AggregatedDrop drop : drops)
+        final long      seq  = modelSeq.incrementAndGet();
+        final ViewState view = captureViewState();
+        executorService.execute(() ->
         {
-            JLabel existing = itemSlotMap.get(npcName + "_" + drop.getItemId());
-            if (existing != null)
+            try
             {
-                AsyncBufferedImage img = itemManager.getImage(
-                        drop.getItemId(), drop.getTotalQuantity(), drop.getTotalQuantity() > 1);
-                img.addTo(existing);
+                if (!passesFilter(npcName, view)) return;
+                if (!view.showIgnored && lootManager.isBossHidden(npcName)) return;
+
+                LootCardList.Card card = toCard(stats, view);
+                SwingUtilities.invokeLater(() -> publishCard(card, seq));
             }
-            else
+            catch (Throwable ex)
             {
-                needsRebuild = true;
+                log.debug("Loot card build failed for {}", npcName, ex);
             }
-        }
-
-        JLabel vl = bossValueLabelMap.get(npcName);
-        JLabel nl = bossNameLabelMap.get(npcName);
-        if (vl != null) vl.setText(totalValue > 0 ? formatGp(totalValue) : "");
-        if (nl != null) nl.setText(buildNameLabel(npcName, stats.getKillCount()));
-
-        if (needsRebuild)
-            rebuildBossCardGrid(npcName, drops);
-        else
-        {
-            bossListPanel.repaint();
-        }
+        });
     }
 
-    private void rebuildBossCardGrid(String npcName, List<BossKillStats.AggregatedDrop> drops)
+    /** EDT: shows {@code card} unless a newer build of it is already on screen. */
+    private void publishCard(LootCardList.Card card, long seq)
     {
-        // Swap only the inner item grid inside the existing wrapper, preserving the
-        // header row and its collapse listener (which captures this wrapper instance).
-        JPanel gridWrapper = bossGridWrapperMap.get(npcName);
-        if (gridWrapper == null) { invalidateFingerprint(); refreshDisplay(); return; }
+        Long shown = shownCardSeq.get(card.npcName);
+        if (seq < shownModelSeq || (shown != null && seq < shown)) return;
 
-        itemSlotMap.keySet().removeIf(k -> k.startsWith(npcName + "_"));
-
-        JPanel newGrid = buildItemGrid(drops, npcName);
-        gridWrapper.removeAll();
-        gridWrapper.add(newGrid, BorderLayout.NORTH);
-
-        gridWrapper.revalidate();
-        gridWrapper.repaint();
-        bossListPanel.revalidate();
-        bossListPanel.repaint();
+        if (cardList.updateCard(card))
+        {
+            shownCardSeq.put(card.npcName, seq);
+            return;
+        }
+        invalidateFingerprint();
+        refreshDisplay();
     }
 
     public void refreshDisplay()
@@ -886,17 +955,26 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
             SwingUtilities.invokeLater(refreshDebounce::restart);
     }
 
+    /** EDT: the current display settings, for a build on the executor. */
+    private ViewState captureViewState()
+    {
+        return new ViewState(showIgnoredItems, currentSort, currentFilter, currentSkillFilter, highlightedBoss);
+    }
+
+    /** EDT (refresh debounce timer): builds the tab model on the executor. */
     private void executeRefresh()
     {
         if (!refreshing.compareAndSet(false, true)) return;
 
+        final ViewState view = captureViewState();
         executorService.execute(() ->
         {
             try
             {
+                final long seq = modelSeq.incrementAndGet();
                 List<BossKillStats> allStats = lootManager.getAllBossStats();
 
-                String fp = buildDisplayFingerprint(allStats, highlightedBoss);
+                String fp = buildDisplayFingerprint(allStats, view);
                 if (fp.equals(lastDisplayFingerprint))
                 {
                     refreshing.set(false);
@@ -909,72 +987,32 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
 
                 List<BossKillStats> sorted = new ArrayList<>();
                 for (BossKillStats s : unique.values())
-                    if (passesFilter(s.getNpcName())
-                            && (showIgnoredItems || !lootManager.isBossHidden(s.getNpcName())))
+                    if (passesFilter(s.getNpcName(), view)
+                            && (view.showIgnored || !lootManager.isBossHidden(s.getNpcName())))
                         sorted.add(s);
 
-                sortStats(sorted);
+                sortStats(sorted, view);
+
+                long totalVal   = 0L;
+                int  totalKills = 0;
+                List<LootCardList.Card> cards = new ArrayList<>(sorted.size());
+                List<String>            order = new ArrayList<>(sorted.size());
+                for (BossKillStats s : sorted)
+                {
+                    totalVal   += s.getTotalLootValue();
+                    totalKills += s.getKillCount();
+                    cards.add(toCard(s, view));
+                    order.add(s.getNpcName());
+                }
 
-                final long totalVal   = sorted.stream().mapToLong(BossKillStats::getTotalLootValue).sum();
-                final int  totalKills = sorted.stream().mapToInt(BossKillStats::getKillCount).sum();
+                final TabModel model = new TabModel(seq, Collections.unmodifiableList(cards),
+                        Collections.unmodifiableList(order), view.highlight, totalVal, totalKills);
 
                 SwingUtilities.invokeLater(() ->
                 {
                     try
                     {
-                        List<String> newOrder = new ArrayList<>(sorted.size());
-                        for (BossKillStats s : sorted) newOrder.add(s.getNpcName());
-
-                        // Fast path: same bosses, same order, same highlight → update
-                        // the existing cards in place. No removeAll, so no flicker.
-                        boolean inPlace = !sorted.isEmpty()
-                                && newOrder.equals(displayedOrder)
-                                && java.util.Objects.equals(highlightedBoss, displayedHighlight)
-                                && bossCardMap.size() == newOrder.size();
-
-                        if (inPlace)
-                        {
-                            for (BossKillStats stats : sorted)
-                                updateLoot(stats.getNpcName(), stats);
-                            totalKillsLabel.setText("Kills " + formatNumber(totalKills));
-                            totalValueLabel.setText("Value " + formatGp(totalVal));
-                            return;
-                        }
-
-                        // Slow path: structure changed (boss added/removed/reordered,
-                        // filter or highlight change) → rebuild the list.
-                        int savedScroll = scrollPane.getVerticalScrollBar().getValue();
-                        bossListPanel.removeAll();
-                        itemSlotMap.clear();
-                        bossCardMap.clear();
-                        bossValueLabelMap.clear();
-                        bossNameLabelMap.clear();
-                        bossGridWrapperMap.clear();
-                        lootDebounceMap.values().forEach(javax.swing.Timer::stop);
-                        lootDebounceMap.clear();
-
-                        if (sorted.isEmpty())
-                        {
-                            bossListPanel.add(buildEmptyState());
-                        }
-                        else
-                        {
-                            for (BossKillStats stats : sorted)
-                            {
-                                bossListPanel.add(buildBossCard(stats));
-                                bossListPanel.add(Box.createVerticalStrut(5));
-                            }
-                            totalKillsLabel.setText("Kills " + formatNumber(totalKills));
-                            totalValueLabel.setText("Value " + formatGp(totalVal));
-                        }
-
-                        displayedOrder     = newOrder;
-                        displayedHighlight = highlightedBoss;
-
-                        bossListPanel.revalidate();
-                        bossListPanel.repaint();
-                        scrollPane.revalidate();
-                        scrollPane.getVerticalScrollBar().setValue(savedScroll);
+                        publishModel(model);
                     }
                     catch (Throwable ex)
                     {
@@ -995,39 +1033,100 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
         });
     }
 
-    private boolean passesFilter(String npcName)
+    /** EDT: swaps in a model built by {@link #executeRefresh}. */
+    private void publishModel(TabModel model)
+    {
+        // Fast path: same bosses, same order, same highlight → update
+        // the existing cards in place. No removeAll, so no flicker.
+        boolean inPlace = !model.cards.isEmpty()
+                && model.order.equals(displayedOrder)
+                && java.util.Objects.equals(model.highlight, displayedHighlight)
+                && cardList.cardCount() == model.order.size();
+
+        if (inPlace)
+        {
+            for (LootCardList.Card card : model.cards) publishCard(card, model.seq);
+            totalKillsLabel.setText("Kills " + formatNumber(model.totalKills));
+            totalValueLabel.setText("Value " + formatGp(model.totalValue));
+            return;
+        }
+
+        // Slow path: structure changed (boss added/removed/reordered,
+        // filter or highlight change) → swap in the new card model.
+        // The list only rebinds the cards that are on screen.
+        int savedScroll = scrollPane.getVerticalScrollBar().getValue();
+        lootDebounceMap.values().forEach(javax.swing.Timer::stop);
+        lootDebounceMap.clear();
+
+        // A per-card update that started after this model was built is newer
+        // than its card here; rebuild once more so it isn't lost.
+        boolean overtaken = false;
+        for (long cardSeq : shownCardSeq.values()) overtaken |= cardSeq > model.seq;
+
+        cardList.setCards(model.cards);
+        shownModelSeq = model.seq;
+        shownCardSeq.clear();
+
+        if (model.cards.isEmpty())
+        {
+            emptyStatePanel.removeAll();
+            emptyStatePanel.add(buildEmptyState(), BorderLayout.NORTH);
+            scrollPane.setViewportView(emptyStatePanel);
+        }
+        else
+        {
+            if (scrollPane.getViewport().getView() != cardList) scrollPane.setViewportView(cardList);
+            totalKillsLabel.setText("Kills " + formatNumber(model.totalKills));
+            totalValueLabel.setText("Value " + formatGp(model.totalValue));
+        }
+
+        displayedOrder     = model.order;
+        displayedHighlight = model.highlight;
+
+        scrollPane.revalidate();
+        scrollPane.repaint();
+        scrollPane.getVerticalScrollBar().setValue(savedScroll);
+
+        if (overtaken)
+        {
+            invalidateFingerprint();
+            refreshDisplay();
+        }
+    }
+
+    private boolean passesFilter(String npcName, ViewState view)
     {
         boolean isSkilling   = lootManager.isSkillingSource(npcName);
         boolean isPickpocket = lootManager.isPickpocketSource(npcName);
-        switch (currentFilter)
+        switch (view.filter)
         {
             case COMBAT:
                 return !isSkilling && !isPickpocket;
             case SKILLS:
-                if (currentSkillFilter == null)
+                if (view.skillFilter == null)
                     return isSkilling || isPickpocket;
-                if ("Thieving".equals(currentSkillFilter))
+                if ("Thieving".equals(view.skillFilter))
                     return isPickpocket;
-                return npcName.equals(LootTrackerManager.SKILLING_PREFIX + currentSkillFilter);
+                return npcName.equals(LootTrackerManager.SKILLING_PREFIX + view.skillFilter);
             default:
                 return true;
         }
     }
 
-    private String buildDisplayFingerprint(List<BossKillStats> stats, String highlight)
+    private String buildDisplayFingerprint(List<BossKillStats> stats, ViewState view)
     {
         StringBuilder sb = new StringBuilder(stats.size() * 40 + 32);
-        sb.append(highlight == null ? "" : highlight)
-                .append('|').append(currentSort.name())
-                .append('|').append(currentFilter.name())
-                .append('|').append(currentSkillFilter == null ? "" : currentSkillFilter)
-                .append('|').append(showIgnoredItems).append('|');
+        sb.append(view.highlight == null ? "" : view.highlight)
+                .append('|').append(view.sort.name())
+                .append('|').append(view.filter.name())
+                .append('|').append(view.skillFilter == null ? "" : view.skillFilter)
+                .append('|').append(view.showIgnored).append('|');
 
         List<BossKillStats> copy = new ArrayList<>(stats);
-        sortStats(copy);
+        sortStats(copy, view);
         for (BossKillStats s : copy)
         {
-            if (!passesFilter(s.getNpcName())) continue;
+            if (!passesFilter(s.getNpcName(), view)) continue;
             sb.append(s.getNpcName())
                     .append(':').append(s.getKillCount())
                     .append(':').append(s.getTotalLootValue())
@@ -1055,64 +1154,56 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
                 : npcName;
     }
 
-    private JPanel buildBossCard(BossKillStats stats)
+    /**
+     * Card model for {@code stats}: header text and colours plus one slot per
+     * visible drop. Reads loot storage, so call it off the EDT.
+     */
+    private LootCardList.Card toCard(BossKillStats stats, ViewState view)
     {
         final String npcName = stats.getNpcName();
         boolean ip = lootManager.isPickpocketSource(npcName);
         boolean is = lootManager.isSkillingSource(npcName);
-        boolean hl = npcName.equals(highlightedBoss);
+        boolean hl = npcName.equals(view.highlight);
 
         List<BossKillStats.AggregatedDrop> drops = lootManager.getStorageDropsForBoss(npcName);
         long totalValue = drops.stream().mapToLong(BossKillStats.AggregatedDrop::getTotalValue).sum();
         if (totalValue <= 0) totalValue = stats.getTotalLootValue();
 
-        JPanel card = new JPanel(new BorderLayout());
-        card.setBackground(new Color(28, 28, 28));
-        card.setBorder(new EmptyBorder(0, 0, 0, 0));
-
         Color borderCol = hl ? (ip ? new Color(160, 80, 255) : is ? new Color(60, 180, 80) : new Color(0, 180, 60))
                 : new Color(50, 50, 50);
 
-        JPanel container = new JPanel(new BorderLayout());
-        container.setBorder(BorderFactory.createLineBorder(borderCol, hl ? 2 : 1));
-        container.setOpaque(false);
-
         Color headerBg = hl ? (ip ? PICKPOCKET_HEADER_HL : is ? SKILLING_HEADER_HL : new Color(20, 35, 20))
                 : (ip ? PICKPOCKET_HEADER_BASE : is ? SKILLING_HEADER_BASE : new Color(36, 36, 36));
 
-        JPanel headerRow = new JPanel(new BorderLayout());
-        headerRow.setBackground(headerBg);
-        headerRow.setPreferredSize(new Dimension(0, 28));
-        headerRow.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-
         Color nameCol = hl ? (ip ? new Color(200, 160, 255) : is ? new Color(140, 230, 140) : new Color(100, 255, 100))
                 : new Color(210, 210, 210);
 
-        boolean bossHiddenForLabel = lootManager.isBossHidden(npcName);
-        String  nameText = buildNameLabel(npcName, stats.getKillCount()) + (bossHiddenForLabel ? "  (hidden)" : "");
-        JLabel nameLabel = new JLabel(nameText);
-        nameLabel.setForeground(bossHiddenForLabel ? new Color(140, 90, 90) : nameCol);
-        nameLabel.setFont(CALIBRI_BOLD);
-        nameLabel.setBorder(new EmptyBorder(0, 8, 0, 4));
-
-        JLabel valueLabel = new JLabel(totalValue > 0 ? formatGp(totalValue) : "");
-        valueLabel.setForeground(new Color(200, 180, 80));
-        valueLabel.setFont(CALIBRI_PLAIN);
-        valueLabel.setBorder(new EmptyBorder(0, 4, 0, 8));
+        boolean bossHidden = lootManager.isBossHidden(npcName);
+        String  nameText   = buildNameLabel(npcName, stats.getKillCount()) + (bossHidden ? "  (hidden)" : "");
 
-        headerRow.add(nameLabel,  BorderLayout.WEST);
-        headerRow.add(valueLabel, BorderLayout.EAST);
+        return new LootCardList.Card(npcName, nameText, bossHidden ? new Color(140, 90, 90) : nameCol,
+                totalValue > 0 ? formatGp(totalValue) : "", headerBg, borderCol, hl ? 2 : 1,
+                toSlots(drops, npcName, view.showIgnored));
+    }
 
-        bossNameLabelMap.put(npcName,  nameLabel);
-        bossValueLabelMap.put(npcName, valueLabel);
+    private List<LootCardList.Slot> toSlots(List<BossKillStats.AggregatedDrop> drops, String npcName,
+                                            boolean showIgnored)
+    {
+        List<LootCardList.Slot> slots = new ArrayList<>(drops.size());
+        for (BossKillStats.AggregatedDrop drop : drops)
+        {
+            boolean hidden = lootManager.isDropHidden(npcName, drop.getItemId());
+            if (hidden && !showIgnored) continue;
 
-        JPanel grid = buildItemGrid(drops, npcName);
-        JPanel gridWrapper = new JPanel(new BorderLayout());
-        gridWrapper.setBackground(new Color(28, 28, 28));
-        gridWrapper.add(grid, BorderLayout.NORTH);
-        gridWrapper.setVisible(bossExpandedState.getOrDefault(npcName, true));
-        bossGridWrapperMap.put(npcName, gridWrapper);
+            slots.add(new LootCardList.Slot(drop.getItemId(), (int) drop.getTotalQuantity(),
+                    drop.getItemName(), buildTooltip(drop), drop.isPet(), hidden,
+                    drop.isPet() && drop.getItemId() == LootTrackerManager.PET_ITEM_ID_UNKNOWN));
+        }
+        return slots;
+    }
 
+    private JPopupMenu buildHeaderMenu(String npcName)
+    {
         boolean bossHidden = lootManager.isBossHidden(npcName);
         String  bossDisplayName = displayNameFor(npcName);
         JPopupMenu headerMenu = new JPopupMenu();
@@ -1126,142 +1217,23 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
             refreshDisplay();
         });
         headerMenu.add(toggleBossHide);
-
-        headerRow.addMouseListener(new MouseAdapter()
-        {
-            @Override
-            public void mouseClicked(MouseEvent e)
-            {
-                if (!SwingUtilities.isLeftMouseButton(e)) return;
-                boolean nowVisible = !gridWrapper.isVisible();
-                gridWrapper.setVisible(nowVisible);
-                bossExpandedState.put(npcName, nowVisible);
-                container.revalidate();
-                container.repaint();
-                SwingUtilities.invokeLater(() -> {
-                    bossListPanel.revalidate();
-                    bossListPanel.repaint();
-                });
-            }
-
-            @Override
-            public void mousePressed(MouseEvent e)  { if (e.isPopupTrigger()) headerMenu.show(e.getComponent(), e.getX(), e.getY()); }
-            @Override
-            public void mouseReleased(MouseEvent e) { if (e.isPopupTrigger()) headerMenu.show(e.getComponent(), e.getX(), e.getY()); }
-        });
-
-        container.add(headerRow,   BorderLayout.NORTH);
-        container.add(gridWrapper, BorderLayout.CENTER);
-        card.add(container, BorderLayout.CENTER);
-
-        bossCardMap.put(npcName, card);
-        return card;
+        return headerMenu;
     }
 
-    private JPanel buildItemGrid(List<BossKillStats.AggregatedDrop> drops, String npcName)
+    private JPopupMenu buildSlotMenu(String npcName, LootCardList.Slot slot)
     {
-        List<BossKillStats.AggregatedDrop> visible = new ArrayList<>();
-        for (BossKillStats.AggregatedDrop d : drops)
-            if (!lootManager.isDropHidden(npcName, d.getItemId()) || showIgnoredItems)
-                visible.add(d);
-
-        JPanel grid = new JPanel(new GridLayout(0, ITEMS_PER_ROW, ITEM_GAP, ITEM_GAP));
-        grid.setBackground(new Color(28, 28, 28));
-        grid.setBorder(new EmptyBorder(4, 4, 5, 4));
-
-        if (visible.isEmpty())
-        {
-            grid.setLayout(new FlowLayout(FlowLayout.LEFT));
-            JLabel none = new JLabel("No drops recorded yet");
-            none.setForeground(new Color(80, 80, 80));
-            none.setFont(CALIBRI_PLAIN);
-            grid.add(none);
-            return grid;
-        }
-
-        for (BossKillStats.AggregatedDrop drop : visible)
-        {
-            boolean hidden  = lootManager.isDropHidden(npcName, drop.getItemId());
-            boolean isPet   = drop.isPet();
-            String  tooltip = buildTooltip(drop);
-            String  slotKey = npcName + "_" + drop.getItemId();
-
-            JPanel slot = new JPanel(new BorderLayout());
-            slot.setOpaque(true);
-            if (isPet)
-                slot.setBackground(new Color(50, 40, 10));
-            else
-                slot.setBackground(hidden ? new Color(50, 28, 28) : new Color(35, 35, 35));
-
-            Color borderColor = isPet ? new Color(200, 160, 40)
-                    : hidden ? new Color(80, 40, 40) : new Color(58, 58, 58);
-            slot.setBorder(BorderFactory.createLineBorder(borderColor, isPet ? 2 : 1));
-            slot.setPreferredSize(new Dimension(ITEM_SIZE, ITEM_SIZE));
-            slot.setToolTipText(tooltip);
-
-            // Use layered pane so the ★ badge can float over the item icon
-            JLayeredPane layers = new JLayeredPane();
-            layers.setPreferredSize(new Dimension(ITEM_SIZE, ITEM_SIZE));
-            layers.setOpaque(false);
-
-            JLabel iconLabel = new JLabel();
-            iconLabel.setHorizontalAlignment(SwingConstants.CENTER);
-            iconLabel.setVerticalAlignment(SwingConstants.CENTER);
-            iconLabel.setToolTipText(tooltip);
-            iconLabel.setBounds(0, 0, ITEM_SIZE, ITEM_SIZE);
-
-            if (isPet && drop.getItemId() == LootTrackerManager.PET_ITEM_ID_UNKNOWN)
-            {
-                // No sprite available — show a placeholder star icon
-                iconLabel.setText("★");
-                iconLabel.setFont(iconLabel.getFont().deriveFont(java.awt.Font.BOLD, 20f));
-                iconLabel.setForeground(new Color(220, 180, 40));
-            }
-            else
-            {
-                long qty = drop.getTotalQuantity();
-                itemManager.getImage(drop.getItemId(), (int) qty, qty > 1)
-                        .addTo(iconLabel);
-            }
-
-            layers.add(iconLabel, JLayeredPane.DEFAULT_LAYER);
-
-            if (isPet)
-            {
-                JLabel badge = new JLabel("★");
-                badge.setFont(badge.getFont().deriveFont(java.awt.Font.BOLD, 9f));
-                badge.setForeground(new Color(220, 180, 40));
-                badge.setBounds(ITEM_SIZE - 12, ITEM_SIZE - 12, 12, 12);
-                layers.add(badge, JLayeredPane.PALETTE_LAYER);
-            }
-
-            slot.add(layers, BorderLayout.CENTER);
-            itemSlotMap.put(slotKey, iconLabel);
-
-            JPopupMenu menu = new JPopupMenu();
-            JMenuItem toggleHide = new JMenuItem(hidden
-                    ? "Unhide \"" + drop.getItemName() + "\""
-                    : "Hide \"" + drop.getItemName() + "\"");
-            toggleHide.addActionListener(e -> {
-                if (hidden) lootManager.unhideDropForNpc(npcName, drop.getItemId());
-                else        lootManager.hideDropForNpc  (npcName, drop.getItemId());
-                invalidateFingerprint();
-                refreshDisplay();
-            });
-            menu.add(toggleHide);
-            slot.addMouseListener(new MouseAdapter()
-            {
-                @Override public void mousePressed (MouseEvent e) { if (e.isPopupTrigger()) menu.show(e.getComponent(), e.getX(), e.getY()); }
-                @Override public void mouseReleased(MouseEvent e) { if (e.isPopupTrigger()) menu.show(e.getComponent(), e.getX(), e.getY()); }
-            });
-
-            grid.add(slot);
-        }
-
-        int rem = (ITEMS_PER_ROW - (visible.size() % ITEMS_PER_ROW)) % ITEMS_PER_ROW;
-        for (int i = 0; i < rem; i++) { JPanel p = new JPanel(); p.setOpaque(false); grid.add(p); }
-
-        return grid;
+        JPopupMenu menu = new JPopupMenu();
+        JMenuItem toggleHide = new JMenuItem(slot.hidden
+                ? "Unhide \"" + slot.itemName + "\""
+                : "Hide \"" + slot.itemName + "\"");
+        toggleHide.addActionListener(e -> {
+            if (slot.hidden) lootManager.unhideDropForNpc(npcName, slot.itemId);
+            else             lootManager.hideDropForNpc  (npcName, slot.itemId);
+            invalidateFingerprint();
+            refreshDisplay();
+        });
+        menu.add(toggleHide);
+        return menu;
     }
 
     private JPanel buildEmptyState()
@@ -1295,14 +1267,14 @@ public class LootTrackerPanel extends PluginPanel implements LootTrackerUpdateLi
         return p;
     }
 
-    private void sortStats(List<BossKillStats> stats)
+    private void sortStats(List<BossKillStats> stats, ViewState view)
     {
         stats.sort((a, b) -> {
-            boolean aHl = a.getNpcName().equals(highlightedBoss);
-            boolean bHl = b.getNpcName().equals(highlightedBoss);
+            boolean aHl = a.getNpcName().equals(view.highlight);
+            boolean bHl = b.getNpcName().equals(view.highlight);
             if (aHl && !bHl) return -1;
             if (bHl && !aHl) return  1;
-            switch (currentSort)
+            switch (view.sort)
             {
                 case VALUE:  return Long.   compare(b.getTotalLootValue(),    a.getTotalLootValue());
                 case KILLS:  return Integer.compare(b.getKillCount(),         a.getKillCount());
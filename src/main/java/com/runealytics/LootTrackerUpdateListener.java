@@ -11,8 +11,9 @@ package com.runealytics;
 public interface LootTrackerUpdateListener
 {
     /**
-     * Fired once after every kill is recorded and every time aggregated
-     * loot for an existing kill changes (e.g. Ring of Wealth coin pickup).
+     * Fired once per source for each game tick's batch of new kills (with
+     * the newest of them), and every time aggregated loot for an existing
+     * kill changes (e.g. Ring of Wealth coin pickup).
      */
     void onLootUpdated(BossKillStats stats, LootStorageData.KillRecord kill);
 
@@ -1,12 +1,7 @@
 package com.runealytics;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 /**
  * Reward-batch fingerprint deduplication for chest / widget / raid loot.
@@ -22,11 +17,20 @@ import java.util.TreeMap;
  *
  * <h2>Approach</h2>
  * <p>Every accepted chest/widget reward batch is reduced to a canonical
- * fingerprint — SHA-256 over the normalised source name plus the sorted,
- * merged {@code itemId:quantity} multiset — and remembered for
- * {@value #DEFAULT_WINDOW_MS} ms. A batch whose fingerprint was already
- * accepted inside the window is a re-read of the same reward and is dropped.
- * Batch ordering and stack splitting do not affect the fingerprint.</p>
+ * 64-bit fingerprint — a non-cryptographic hash over the lower-cased source
+ * name plus the sorted, merged {@code itemId:quantity} multiset — and
+ * remembered for {@value #DEFAULT_WINDOW_MS} ms. A batch whose fingerprint was
+ * already accepted inside the window is a re-read of the same reward and is
+ * dropped. Batch ordering and stack splitting do not affect the
+ * fingerprint.</p>
+ *
+ * <p>Nothing here needs to resist a chosen input, only to keep two real
+ * rewards apart: with at most {@value #MAX_ENTRIES} fingerprints alive, a new
+ * batch is mistaken for a remembered one with odds of about 2<sup>-56</sup>.
+ * Remembered fingerprints live in a fixed open-addressing table (linear
+ * probing, half full at most) with a ring of acceptance order beside it for
+ * expiry and the cap, so a check allocates nothing once the sort buffer has
+ * grown to the largest batch seen.</p>
  *
  * <h2>What this deliberately does NOT dedupe</h2>
  * <ul>
@@ -52,12 +56,29 @@ public class RewardBatchDeduplicator
     static final long DEFAULT_WINDOW_MS = 90_000L;
 
     /** Hard cap on remembered fingerprints, to bound memory. */
-    private static final int MAX_ENTRIES = 256;
+    static final int MAX_ENTRIES = 256;
+
+    /** Open-addressing table size: a power of two, twice the cap. */
+    private static final int TABLE_SIZE = MAX_ENTRIES * 2;
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+    /** {@link #tableTimes} value of a free slot; never a real wall-clock time. */
+    private static final long EMPTY = Long.MIN_VALUE;
 
     private final long windowMs;
 
-    /** fingerprint → acceptance time (insertion-ordered for cheap pruning). */
-    private final LinkedHashMap<String, Long> recent = new LinkedHashMap<>();
+    /** fingerprint → acceptance time; linear probing, {@link #EMPTY} marks a free slot. */
+    private final long[] tableKeys  = new long[TABLE_SIZE];
+    private final long[] tableTimes = new long[TABLE_SIZE];
+
+    /** Accepted fingerprints, oldest first, as a ring of {@link #MAX_ENTRIES}. */
+    private final long[] orderKeys  = new long[MAX_ENTRIES];
+    private final long[] orderTimes = new long[MAX_ENTRIES];
+    private int orderHead;
+    private int orderSize;
+
+    /** Packed {@code id << 32 | quantity} pairs of the batch being fingerprinted. */
+    private long[] scratch = new long[32];
 
     public RewardBatchDeduplicator()
     {
@@ -68,6 +89,7 @@ public class RewardBatchDeduplicator
     RewardBatchDeduplicator(long windowMs)
     {
         this.windowMs = windowMs;
+        Arrays.fill(tableTimes, EMPTY);
     }
 
     /**
@@ -87,96 +109,167 @@ public class RewardBatchDeduplicator
 
         prune(nowMs);
 
-        String fp = fingerprint(source, items);
-        Long acceptedAt = recent.get(fp);
-        if (acceptedAt != null && nowMs - acceptedAt < windowMs)
+        if (scratch.length < items.size()) scratch = new long[Integer.highestOneBit(items.size()) << 1];
+        long fp = fingerprint(source, items, scratch);
+
+        int slot = find(fp);
+        if (slot >= 0 && nowMs - tableTimes[slot] < windowMs)
         {
             return true;
         }
 
-        recent.put(fp, nowMs);
+        if (orderSize == MAX_ENTRIES) dropOldest();
+        put(fp, nowMs);
+        int tail = (orderHead + orderSize) % MAX_ENTRIES;
+        orderKeys[tail]  = fp;
+        orderTimes[tail] = nowMs;
+        orderSize++;
         return false;
     }
 
     /**
-     * Canonical fingerprint of a reward batch: SHA-256 hex over the lowercase
-     * source name and the merged multiset of {@code itemId:quantity} pairs
-     * sorted by item id — invariant under item ordering and stack splitting.
+     * Canonical fingerprint of a reward batch: a 64-bit hash over the
+     * lowercase source name and the merged multiset of
+     * {@code itemId:quantity} pairs sorted by item id — invariant under item
+     * ordering and stack splitting.
      */
-    public static String fingerprint(String source, List<ItemStack> items)
+    public static long fingerprint(String source, List<ItemStack> items)
     {
-        // Merge split stacks so {a:2} equals {a:1, a:1}.
-        Map<Integer, Long> merged = new TreeMap<>();
+        return fingerprint(source, items, new long[items == null ? 0 : items.size()]);
+    }
+
+    /** {@link #fingerprint(String, List)} using {@code buf} (at least {@code items.size()} long) to sort. */
+    private static long fingerprint(String source, List<ItemStack> items, long[] buf)
+    {
+        String name = source == null ? "" : source;
+        long h = 0x27D4EB2F165667C5L;
+        for (int i = 0; i < name.length(); i++)
+        {
+            h = mix(h, Character.toLowerCase(name.charAt(i)));
+        }
+        h = mix(h, name.length());
+
+        int n = 0;
         if (items != null)
         {
             for (ItemStack item : items)
             {
                 if (item == null) continue;
-                merged.merge(item.getId(), (long) item.getQuantity(), Long::sum);
+                buf[n++] = ((long) item.getId() << 32) | (item.getQuantity() & 0xFFFFFFFFL);
             }
         }
+        // Sorting the packed pairs groups each item id into one run.
+        Arrays.sort(buf, 0, n);
 
-        StringBuilder sb = new StringBuilder();
-        sb.append(source == null ? "" : source.toLowerCase()).append('|');
-        for (Map.Entry<Integer, Long> e : merged.entrySet())
+        int distinct = 0;
+        for (int i = 0; i < n; )
         {
-            sb.append(e.getKey()).append(':').append(e.getValue()).append(';');
+            int  id       = (int) (buf[i] >> 32);
+            long quantity = 0;
+            for (; i < n && (int) (buf[i] >> 32) == id; i++)
+            {
+                quantity += (int) buf[i];
+            }
+            h = mix(mix(h, id), quantity);
+            distinct++;
         }
+        return finish(h ^ distinct);
+    }
 
-        return sha256Hex(sb.toString());
+    private static long mix(long h, long v)
+    {
+        h ^= v * 0x9E3779B97F4A7C15L;
+        return Long.rotateLeft(h, 29) * 0xBF58476D1CE4E5B9L;
+    }
+
+    /** MurmurHash3 64-bit finaliser: every input bit affects every output bit. */
+    private static long finish(long h)
+    {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
     }
 
     /** Drops all remembered fingerprints (logout / account switch). */
     public synchronized void clear()
     {
-        recent.clear();
+        Arrays.fill(tableTimes, EMPTY);
+        orderHead = 0;
+        orderSize = 0;
+    }
+
+    /** Number of remembered fingerprints, expired ones not yet pruned included. */
+    synchronized int size()
+    {
+        return orderSize;
     }
 
     private void prune(long nowMs)
     {
-        Iterator<Map.Entry<String, Long>> it = recent.entrySet().iterator();
-        while (it.hasNext())
+        // Acceptance order: the first young-enough entry means the rest are
+        // younger still (times are monotonic per call site).
+        while (orderSize > 0 && nowMs - orderTimes[orderHead] >= windowMs)
         {
-            Map.Entry<String, Long> e = it.next();
-            if (nowMs - e.getValue() >= windowMs || recent.size() > MAX_ENTRIES)
-            {
-                it.remove();
-            }
-            else
-            {
-                // Insertion-ordered: the first young-enough entry means the
-                // rest are younger still (times are monotonic per call site).
-                break;
-            }
-        }
-        // Enforce the cap even if the head entries are young.
-        while (recent.size() > MAX_ENTRIES)
-        {
-            Iterator<String> keys = recent.keySet().iterator();
-            keys.next();
-            keys.remove();
+            dropOldest();
         }
     }
 
-    private static String sha256Hex(String input)
+    private void dropOldest()
+    {
+        long key  = orderKeys[orderHead];
+        long time = orderTimes[orderHead];
+        orderHead = (orderHead + 1) % MAX_ENTRIES;
+        orderSize--;
+
+        // Only if it wasn't re-accepted later; that acceptance owns the slot now.
+        int slot = find(key);
+        if (slot >= 0 && tableTimes[slot] == time) remove(slot);
+    }
+
+    // ── Open-addressing table ─────────────────────────────────────────────────
+
+    private static int home(long key)
+    {
+        return (int) key & TABLE_MASK;
+    }
+
+    private int find(long key)
     {
-        try
+        for (int i = home(key); tableTimes[i] != EMPTY; i = (i + 1) & TABLE_MASK)
         {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] digest = md.digest(input.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hex = new StringBuilder(digest.length * 2);
-            for (byte b : digest)
-            {
-                hex.append(Character.forDigit((b >> 4) & 0xF, 16))
-                   .append(Character.forDigit(b & 0xF, 16));
-            }
-            return hex.toString();
+            if (tableKeys[i] == key) return i;
         }
-        catch (java.security.NoSuchAlgorithmException e)
+        return -1;
+    }
+
+    private void put(long key, long time)
+    {
+        int i = home(key);
+        while (tableTimes[i] != EMPTY && tableKeys[i] != key) i = (i + 1) & TABLE_MASK;
+        tableKeys[i]  = key;
+        tableTimes[i] = time;
+    }
+
+    /** Backward-shift deletion, so probe runs never need tombstones. */
+    private void remove(int slot)
+    {
+        int gap = slot;
+        tableTimes[gap] = EMPTY;
+        for (int i = (gap + 1) & TABLE_MASK; tableTimes[i] != EMPTY; i = (i + 1) & TABLE_MASK)
         {
-            // SHA-256 is mandated by the JVM spec; fall back to the raw key so
-            // dedupe still works (just with longer keys) rather than crashing.
-            return input;
+            int h = home(tableKeys[i]);
+            // An entry may move back into the gap only if its home slot is not
+            // in the cyclic range (gap, i].
+            boolean homeAfterGap = gap <= i ? (gap < h && h <= i) : (gap < h || h <= i);
+            if (homeAfterGap) continue;
+
+            tableKeys[gap]  = tableKeys[i];
+            tableTimes[gap] = tableTimes[i];
+            tableTimes[i]   = EMPTY;
+            gap = i;
         }
     }
 }
@@ -6,6 +6,8 @@ import net.runelite.api.Item;
 import net.runelite.api.ItemContainer;
 import net.runelite.client.game.ItemManager;
 
+import java.util.function.IntUnaryOperator;
+
 /**
  * Shared helpers for converting RuneLite {@link ItemContainer}s and
  * {@link ItemStack} lists into the {@code [{id, qty}, ...]} JSON shape used
@@ -87,6 +89,21 @@ public final class RuneAlyticsItemJson
      * resolved via {@link ItemValueResolver}.
      */
     public static JsonArray fromContainerWithValues(ItemContainer container, ItemManager itemManager)
+    {
+        return fromContainerWithValues(container, id -> ItemValueResolver.perItemGeValue(itemManager, id));
+    }
+
+    /**
+     * {@link #fromContainerWithValues(ItemContainer, ItemManager)} valued
+     * through {@code values}, so repeat ids (and repeat syncs) skip the
+     * ItemManager lookups. MUST be called on the client thread.
+     */
+    public static JsonArray fromContainerWithValues(ItemContainer container, ItemValueCache values)
+    {
+        return fromContainerWithValues(container, values::gePrice);
+    }
+
+    private static JsonArray fromContainerWithValues(ItemContainer container, IntUnaryOperator gePerItem)
     {
         JsonArray arr = new JsonArray();
         if (container == null) return arr;
@@ -99,7 +116,7 @@ public final class RuneAlyticsItemJson
             if (item == null) continue;
             if (item.getId() <= 0 || item.getQuantity() <= 0) continue;
 
-            int gePer = ItemValueResolver.perItemGeValue(itemManager, item.getId());
+            int gePer = gePerItem.applyAsInt(item.getId());
             long total = (long) gePer * item.getQuantity();
 
             JsonObject entry = new JsonObject();
@@ -117,6 +134,17 @@ public final class RuneAlyticsItemJson
      * Returns 0 for a null/empty container.
      */
     public static long containerTotalValue(ItemContainer container, ItemManager itemManager)
+    {
+        return containerTotalValue(container, id -> ItemValueResolver.perItemGeValue(itemManager, id));
+    }
+
+    /** {@link #containerTotalValue(ItemContainer, ItemManager)} valued through {@code values}. */
+    public static long containerTotalValue(ItemContainer container, ItemValueCache values)
+    {
+        return containerTotalValue(container, values::gePrice);
+    }
+
+    private static long containerTotalValue(ItemContainer container, IntUnaryOperator gePerItem)
     {
         if (container == null) return 0L;
         Item[] items = container.getItems();
@@ -127,7 +155,7 @@ public final class RuneAlyticsItemJson
         {
             if (item == null) continue;
             if (item.getId() <= 0 || item.getQuantity() <= 0) continue;
-            total += (long) ItemValueResolver.perItemGeValue(itemManager, item.getId()) * item.getQuantity();
+            total += (long) gePerItem.applyAsInt(item.getId()) * item.getQuantity();
         }
         return total;
     }
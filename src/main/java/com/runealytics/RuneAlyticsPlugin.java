@@ -126,14 +126,23 @@ public class RuneAlyticsPlugin extends Plugin
             "loot-jar", "loot", "pickpocket", "pick-pocket"
     );
 
-    private final Map<String, List<ItemStack>> skillingSnapshot = new java.util.concurrent.ConcurrentHashMap<>();
+    private final Map<String, InventorySnapshot> skillingSnapshot = new java.util.concurrent.ConcurrentHashMap<>();
     private final Map<String, Long>            skillingExpiry   = new java.util.concurrent.ConcurrentHashMap<>();
 
     /**
      * Last-known equipment loadout, refreshed on every ItemContainerChanged.
      * Used to recognise equip/unequip swaps so they aren't mistaken for loot.
      */
-    private List<ItemStack> equipmentSnapshot = Collections.emptyList();
+    private InventorySnapshot equipmentSnapshot = InventorySnapshot.EMPTY;
+
+    /**
+     * Most recent inventory read. Passed back to {@link #snapshotCapture} so an
+     * unchanged inventory yields the same instance instead of a copy.
+     */
+    private InventorySnapshot lastInventory = InventorySnapshot.EMPTY;
+
+    /** Scratch buffer for container reads; client thread only. */
+    private final InventorySnapshot.Capture snapshotCapture = new InventorySnapshot.Capture();
 
     /**
      * Suppresses inventory-diff loot attribution (skilling, pickpocket,
@@ -156,12 +165,15 @@ public class RuneAlyticsPlugin extends Plugin
     @Inject private ConfigManager            configManager;
     @Inject private ItemManager              itemManager;
     @Inject private LootTrackerManager       lootManager;
+    @Inject private LootStorageManager       lootStorageManager;
     @Inject private RuneAlyticsState         state;
     @Inject private ScheduledExecutorService executorService;
     @Inject private XpTrackerManager         xpTrackerManager;
     @Inject private RuneAlyticsXpSessionManager xpSessionManager;
     @Inject private RunealyticsApiClient     apiClient;
     @Inject private BankDataManager          bankDataManager;
+    @Inject private SyncOutbox               syncOutbox;
+    @Inject private ItemValueCache           itemValueCache;
     @Inject private MatchmakingManager       matchmakingManager;
     @Inject private MatchmakingMinimapOverlay matchmakingOverlay;
     @Inject private LiveMapMinimapOverlay     liveMapOverlay;
@@ -169,6 +181,7 @@ public class RuneAlyticsPlugin extends Plugin
     @Inject private CurrentPlayerIdentityService currentPlayerIdentity;
     @Inject private LootSyncMergeService     lootSyncMergeService;
     @Inject private DeathRecoveryGuard       deathRecoveryGuard;
+    @Inject private PluginMetrics            metrics;
 
     // ── UI ───────────────────────────────────────────────────────────────────
     @Getter private RuneAlyticsPanel mainPanel;
@@ -206,7 +219,7 @@ public class RuneAlyticsPlugin extends Plugin
     //  LOOT TRACKING STATE
     // ═════════════════════════════════════════════════════════════════════════
 
-    private List<ItemStack> inventorySnapshot        = null;
+    private InventorySnapshot inventorySnapshot      = null;
     private boolean         waitingForTemporossLoot  = false;
     private boolean         waitingForWintertodtLoot = false;
     /** Expiry time (ms) for the Tempoross/Wintertodt crate-loot wait window. */
@@ -228,6 +241,8 @@ public class RuneAlyticsPlugin extends Plugin
     private static final long WHISPERER_GROUND_ITEM_WINDOW_MS = 5_000;
     private ScheduledFuture<?> whispererFlushTask;
     private static final int WHISPERER_DEBOUNCE_MS = 450;
+    private static final Pattern WHISPERER_KC_PATTERN =
+            Pattern.compile("kill count is:?\\s*(\\d+)", Pattern.CASE_INSENSITIVE);
     private int whispererParsedKC = -1;
 
     private NPC             lastKilledBoss           = null;
@@ -239,7 +254,7 @@ public class RuneAlyticsPlugin extends Plugin
     /** How long (ms) the RoW inventory snapshot is kept after an NPC kill. */
     private static final long ROW_WINDOW_MS = 4_000;
     /** Inventory snapshot taken at NPC kill to diff against after RoW message. */
-    private List<ItemStack> rowInventorySnapshot = null;
+    private InventorySnapshot rowInventorySnapshot = null;
     /** The boss NPC whose kill opened the current RoW snapshot window. */
     private NPC             rowSnapshotBoss      = null;
     /** Absolute expiry time (ms) for the RoW snapshot window. */
@@ -256,21 +271,24 @@ public class RuneAlyticsPlugin extends Plugin
     private static final class GroundLootSession
     {
         final NPC            npc;
-        final WorldPoint     loc;
-        final long           killTimeMs;
         final List<ItemStack> buffer         = new ArrayList<>();
         boolean              flushScheduled  = false;
 
-        GroundLootSession(NPC npc, WorldPoint loc, long killTimeMs)
+        GroundLootSession(NPC npc)
         {
             this.npc = npc;
-            this.loc = loc;
-            this.killTimeMs = killTimeMs;
         }
     }
 
-    /** All mutations happen on the client thread (event handlers / invokeLater), so a plain list is safe. */
-    private final List<GroundLootSession> groundLootSessions = new ArrayList<>();
+    /** Max tile distance between a kill and a ground item attributed to it. */
+    private static final int GROUND_ITEM_MAX_DISTANCE = 5;
+
+    /**
+     * Open sessions, bucketed by kill tile and expired in kill order. All
+     * mutations happen on the client thread (event handlers / invokeLater).
+     */
+    private final GroundLootIndex<GroundLootSession> groundLootSessions =
+            new GroundLootIndex<>(GROUND_ITEM_WINDOW_MS, GROUND_ITEM_MAX_DISTANCE);
 
     private String lastChestSource = null;
 
@@ -303,7 +321,7 @@ public class RuneAlyticsPlugin extends Plugin
      * <p>Updated to the <em>current</em> inventory after each successful diff so
      * that rapid consecutive pickpocket actions are each counted separately.</p>
      */
-    private List<ItemStack> pickpocketInventorySnapshot = null;
+    private InventorySnapshot pickpocketInventorySnapshot = null;
 
     /**
      * Absolute time (ms since epoch) at which the pickpocket attribution window closes.
@@ -325,7 +343,7 @@ public class RuneAlyticsPlugin extends Plugin
 
     /** Raw item name of the impling jar that was last looted, e.g. "Eclectic impling jar". */
     private String  pendingImpJarName       = null;
-    private List<ItemStack> impJarInventorySnapshot = null;
+    private InventorySnapshot impJarInventorySnapshot = null;
     private long    impJarWindowExpiry      = 0L;
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -397,6 +415,11 @@ public class RuneAlyticsPlugin extends Plugin
     {
         log.debug("RuneAlytics starting");
 
+        lootStorageManager.setJournalEnabled(config.lootJournal());
+        lootStorageManager.setLazyHistoryEnabled(config.lootLazyHistory());
+        lootStorageManager.setBinaryFormatEnabled(config.lootBinaryStorage());
+        lootManager.setWriterThreadEnabled(config.lootWriterThread());
+
         // Build the root panel on the EDT, then register the nav button.
         buildOnEdt(() -> mainPanel = injector.getInstance(RuneAlyticsPanel.class));
 
@@ -487,6 +510,8 @@ public class RuneAlyticsPlugin extends Plugin
         try { flushXpSessionOnLogout(); } catch (Exception e) { log.debug("XP session flush on shutdown failed: {}", e.getMessage()); }
         try { xpSessionManager.setLoggedIn(false); } catch (Exception e) { log.debug("XP session pause on shutdown failed: {}", e.getMessage()); }
         try { lootManager.shutdown();             } catch (Exception e) { log.debug("Loot manager shutdown failed: {}", e.getMessage()); }
+        try { syncOutbox.shutdown();              } catch (Exception e) { log.debug("Sync outbox shutdown failed: {}", e.getMessage()); }
+        itemValueCache.invalidate();
         try { matchmakingManager.reset();         } catch (Exception e) { log.debug("Matchmaking reset on shutdown failed: {}", e.getMessage()); }
         try { overlayManager.remove(matchmakingOverlay); } catch (Exception e) { log.debug("Matchmaking overlay removal failed: {}", e.getMessage()); }
         try { overlayManager.remove(liveMapOverlay);     } catch (Exception e) { log.debug("Live-map overlay removal failed: {}", e.getMessage()); }
@@ -558,6 +583,11 @@ public class RuneAlyticsPlugin extends Plugin
 
     @Subscribe
     public void onNpcLootReceived(NpcLootReceived event)
+    {
+        metrics.time("onNpcLootReceived", () -> handleNpcLootReceived(event));
+    }
+
+    private void handleNpcLootReceived(NpcLootReceived event)
     {
         if (!config.enableLootTracking()) return;
 
@@ -580,7 +610,8 @@ public class RuneAlyticsPlugin extends Plugin
         WorldPoint killLoc = npc.getWorldLocation();
         if (killLoc != null)
         {
-            groundLootSessions.add(new GroundLootSession(npc, killLoc, Instant.now().toEpochMilli()));
+            groundLootSessions.add(new GroundLootSession(npc), killLoc.getX(), killLoc.getY(),
+                    killLoc.getPlane(), Instant.now().toEpochMilli());
         }
 
         // Snapshot inventory to diff against if Ring of Wealth auto-collects coins.
@@ -604,9 +635,9 @@ public class RuneAlyticsPlugin extends Plugin
         // doubles for every kill that races the zero-loot flush.
         Long flushedAt = recentZeroLootFlushes.remove(npc.getIndex());
         if (flushedAt != null
-                && System.currentTimeMillis() - flushedAt < ZERO_LOOT_UPGRADE_WINDOW_MS
-                && lootManager.upgradeRecentZeroLootKill(npc, items))
+                && System.currentTimeMillis() - flushedAt < ZERO_LOOT_UPGRADE_WINDOW_MS)
         {
+            lootManager.upgradeRecentZeroLootKill(npc, items);
             return;
         }
 
@@ -621,6 +652,11 @@ public class RuneAlyticsPlugin extends Plugin
 
     @Subscribe
     public void onHitsplatApplied(HitsplatApplied event)
+    {
+        metrics.time("onHitsplatApplied", () -> handleHitsplatApplied(event));
+    }
+
+    private void handleHitsplatApplied(HitsplatApplied event)
     {
         Actor target = event.getActor();
         Hitsplat hs   = event.getHitsplat();
@@ -643,6 +679,11 @@ public class RuneAlyticsPlugin extends Plugin
 
     @Subscribe
     public void onActorDeath(ActorDeath event)
+    {
+        metrics.time("onActorDeath", () -> handleActorDeath(event));
+    }
+
+    private void handleActorDeath(ActorDeath event)
     {
         Actor actor = event.getActor();
 
@@ -672,6 +713,11 @@ public class RuneAlyticsPlugin extends Plugin
 
     @Subscribe
     public void onNpcDespawned(NpcDespawned event)
+    {
+        metrics.time("onNpcDespawned", () -> handleNpcDespawned(event));
+    }
+
+    private void handleNpcDespawned(NpcDespawned event)
     {
         NPC npc = event.getNpc();
         if (npc == null) return;
@@ -687,6 +733,11 @@ public class RuneAlyticsPlugin extends Plugin
 
     @Subscribe
     public void onPlayerLootReceived(PlayerLootReceived event)
+    {
+        metrics.time("onPlayerLootReceived", () -> handlePlayerLootReceived(event));
+    }
+
+    private void handlePlayerLootReceived(PlayerLootReceived event)
     {
         if (!config.enableLootTracking()) return;
 
@@ -714,6 +765,11 @@ public class RuneAlyticsPlugin extends Plugin
 
     @Subscribe
     public void onWidgetLoaded(WidgetLoaded event)
+    {
+        metrics.time("onWidgetLoaded", () -> handleWidgetLoaded(event));
+    }
+
+    private void handleWidgetLoaded(WidgetLoaded event)
     {
         // ── Death recovery guard: detect gravestone / Death's Office UI ───────
         deathRecoveryGuard.onWidgetLoaded(event);
@@ -781,6 +837,11 @@ public class RuneAlyticsPlugin extends Plugin
      */
     @Subscribe
     public void onWidgetClosed(WidgetClosed event)
+    {
+        metrics.time("onWidgetClosed", () -> handleWidgetClosed(event));
+    }
+
+    private void handleWidgetClosed(WidgetClosed event)
     {
         inventoryDiffGuard.onWidgetClosed(event.getGroupId());
     }
@@ -804,6 +865,11 @@ public class RuneAlyticsPlugin extends Plugin
      */
     @Subscribe
     public void onItemContainerChanged(ItemContainerChanged event)
+    {
+        metrics.time("onItemContainerChanged", () -> handleItemContainerChanged(event));
+    }
+
+    private void handleItemContainerChanged(ItemContainerChanged event)
     {
         // ── Matchmaking: refresh gear snapshot and report on change ──────────
         // Runs on the client thread, so ItemContainer reads are safe.
@@ -864,11 +930,14 @@ public class RuneAlyticsPlugin extends Plugin
             // every inventory gain below so an unequip isn't mistaken for a drop.
             // Items that just ENTERED equipment are likewise subtracted from the
             // consumption side so equipping gear isn't costed as a used supply.
-            List<ItemStack> currentEquipment = getCurrentEquipment();
-            List<ItemStack> justUnequipped   = diffInventory(currentEquipment, equipmentSnapshot);
-            List<ItemStack> justEquipped     = diffInventory(equipmentSnapshot, currentEquipment);
+            InventorySnapshot currentEquipment = getCurrentEquipment();
+            InventorySnapshot justUnequipped   = InventorySnapshot.gained(currentEquipment, equipmentSnapshot);
+            InventorySnapshot justEquipped     = InventorySnapshot.gained(equipmentSnapshot, currentEquipment);
             equipmentSnapshot = currentEquipment;
 
+            // One read of the inventory shared by every diff below.
+            InventorySnapshot currentInv = getCurrentInventory();
+
             // ── Impling jar loot (no XP, so the skilling diff misses it) ──────
             if (pendingImpJarName != null && impJarInventorySnapshot != null)
             {
@@ -879,15 +948,14 @@ public class RuneAlyticsPlugin extends Plugin
                 }
                 else
                 {
-                    List<ItemStack> currentInv = getCurrentInventory();
-                    List<ItemStack> gained     = excludeEquipmentMovement(
-                            diffInventory(impJarInventorySnapshot, currentInv), justUnequipped);
+                    InventorySnapshot gained = InventorySnapshot.gained(impJarInventorySnapshot, currentInv)
+                            .minus(justUnequipped);
                     if (!gained.isEmpty())
                     {
                         String jarName = pendingImpJarName;
                         pendingImpJarName       = null;
                         impJarInventorySnapshot = null;
-                        lootManager.processImplingLoot(jarName, gained);
+                        lootManager.processImplingLoot(jarName, gained.toItemStacks());
                     }
                 }
             }
@@ -895,21 +963,20 @@ public class RuneAlyticsPlugin extends Plugin
             // ── Tempoross / Wintertodt ────────────────────────────────────────
             if ((waitingForTemporossLoot || waitingForWintertodtLoot) && inventorySnapshot != null)
             {
-                List<ItemStack> current = getCurrentInventory();
-                List<ItemStack> gained  = excludeEquipmentMovement(
-                        diffInventory(inventorySnapshot, current), justUnequipped);
+                InventorySnapshot gained = InventorySnapshot.gained(inventorySnapshot, currentInv)
+                        .minus(justUnequipped);
 
                 if (!gained.isEmpty())
                 {
                     if (waitingForTemporossLoot)
                     {
-                        lootManager.processInventoryDiff("Tempoross", gained);
+                        lootManager.processInventoryDiff("Tempoross", gained.toItemStacks());
                         waitingForTemporossLoot = false;
                         inventorySnapshot = null;
                     }
                     else
                     {
-                        lootManager.processInventoryDiff("Wintertodt", gained);
+                        lootManager.processInventoryDiff("Wintertodt", gained.toItemStacks());
                         waitingForWintertodtLoot = false;
                         inventorySnapshot = null;
                     }
@@ -924,7 +991,6 @@ public class RuneAlyticsPlugin extends Plugin
             // burning logs, offering bones) show as a complete loss.
             if (!skillingSnapshot.isEmpty() && config.enableLootTracking())
             {
-                List<ItemStack> inv = getCurrentInventory();
                 long now = System.currentTimeMillis();
                 for (String skill : new ArrayList<>(skillingExpiry.keySet()))
                 {
@@ -935,18 +1001,18 @@ public class RuneAlyticsPlugin extends Plugin
                         log.debug("Skilling session expired: {}", skill);
                         continue;
                     }
-                    List<ItemStack> snap = skillingSnapshot.get(skill);
+                    InventorySnapshot snap = skillingSnapshot.get(skill);
                     if (snap == null) continue;
-                    List<ItemStack> gained   = excludeEquipmentMovement(diffInventory(snap, inv), justUnequipped);
-                    List<ItemStack> consumed = excludeEquipmentMovement(diffInventory(inv, snap), justEquipped);
+                    InventorySnapshot gained   = InventorySnapshot.gained(snap, currentInv).minus(justUnequipped);
+                    InventorySnapshot consumed = InventorySnapshot.gained(currentInv, snap).minus(justEquipped);
                     if (gained.isEmpty() && consumed.isEmpty()) continue;
 
                     if (!gained.isEmpty() && SKILLING_LOOT_NAMES.contains(skill))
                     {
-                        lootManager.processSkillLoot(skill, new ArrayList<>(gained));
+                        lootManager.processSkillLoot(skill, gained.toItemStacks());
                     }
                     recordSkillEconomy(skill, gained, consumed);
-                    skillingSnapshot.put(skill, inv);
+                    skillingSnapshot.put(skill, currentInv);
                 }
             }
 
@@ -961,19 +1027,17 @@ public class RuneAlyticsPlugin extends Plugin
                 return;
             }
 
-            List<ItemStack> current = getCurrentInventory();
-            List<ItemStack> gained  = excludeEquipmentMovement(
-                    diffInventory(pickpocketInventorySnapshot, current), justUnequipped);
+            InventorySnapshot gained = InventorySnapshot.gained(pickpocketInventorySnapshot, currentInv)
+                    .minus(justUnequipped);
 
             if (!gained.isEmpty())
             {
                 String npc = pendingPickpocketNpc;
-                List<ItemStack> loot = new ArrayList<>(gained);
 
-                log.debug("Pickpocket diff: '{}' gained {} item type(s)", npc, loot.size());
-                lootManager.processPickpocketLoot(npc, loot);
+                log.debug("Pickpocket diff: '{}' gained {} item type(s)", npc, gained.size());
+                lootManager.processPickpocketLoot(npc, gained.toItemStacks());
 
-                pickpocketInventorySnapshot = current;
+                pickpocketInventorySnapshot = currentInv;
             }
         });
     }
@@ -994,6 +1058,11 @@ public class RuneAlyticsPlugin extends Plugin
      */
     @Subscribe
     public void onMenuOptionClicked(MenuOptionClicked event)
+    {
+        metrics.time("onMenuOptionClicked", () -> handleMenuOptionClicked(event));
+    }
+
+    private void handleMenuOptionClicked(MenuOptionClicked event)
     {
         if (!config.enableLootTracking()) return;
 
@@ -1067,6 +1136,11 @@ public class RuneAlyticsPlugin extends Plugin
 
     @Subscribe
     public void onItemSpawned(ItemSpawned event)
+    {
+        metrics.time("onItemSpawned", () -> handleItemSpawned(event));
+    }
+
+    private void handleItemSpawned(ItemSpawned event)
     {
         if (!config.enableLootTracking()) return;
 
@@ -1097,28 +1171,14 @@ public class RuneAlyticsPlugin extends Plugin
         // ── Normal ground item logic ──────────────────────────────────────────
         if (itemLoc == null || groundLootSessions.isEmpty()) return;
 
-        long now = Instant.now().toEpochMilli();
-        groundLootSessions.removeIf(s -> now - s.killTimeMs > GROUND_ITEM_WINDOW_MS);
-        if (groundLootSessions.isEmpty()) return;
-
         // Multiple kills (same or different NPC types) can have open, overlapping
         // attribution windows at once — e.g. an AOE attack that kills several
         // NPCs together. Attribute this item to whichever recent kill happened
         // closest to it, rather than to "the last kill" unconditionally.
-        GroundLootSession best = null;
-        int bestDist = Integer.MAX_VALUE;
-        for (GroundLootSession s : groundLootSessions)
-        {
-            int dist = itemLoc.distanceTo(s.loc);
-            if (dist <= 5 && dist < bestDist)
-            {
-                best = s;
-                bestDist = dist;
-            }
-        }
-        if (best == null) return;
+        final GroundLootSession session = groundLootSessions.nearest(
+                itemLoc.getX(), itemLoc.getY(), itemLoc.getPlane(), Instant.now().toEpochMilli());
+        if (session == null) return;
 
-        final GroundLootSession session = best;
         session.buffer.add(new ItemStack(tile.getId(), tile.getQuantity()));
 
         if (!session.flushScheduled)
@@ -1151,19 +1211,27 @@ public class RuneAlyticsPlugin extends Plugin
     @Subscribe
     public void onChatMessage(ChatMessage event)
     {
-        // ── Death recovery guard: detect death messages ───────────────────────
-        deathRecoveryGuard.onChatMessage(event);
-
-        if (!config.enableLootTracking()) return;
+        metrics.time("onChatMessage", () -> handleChatMessage(event));
+    }
 
+    private void handleChatMessage(ChatMessage event)
+    {
         ChatMessageType type = event.getType();
         if (type != ChatMessageType.GAMEMESSAGE && type != ChatMessageType.SPAM) return;
 
-        String msg   = event.getMessage();
-        String lower = msg.toLowerCase();
+        // One keyword pass decides which handlers below see this message; most
+        // spam matches nothing and stops here.
+        String msg      = event.getMessage();
+        long   keywords = ChatMessageRouter.scan(msg);
+        if (keywords == 0L) return;
+
+        // ── Death recovery guard: detect death messages ───────────────────────
+        if (ChatMessageRouter.deathGuard(keywords)) deathRecoveryGuard.onChatMessage(event);
+
+        if (!config.enableLootTracking()) return;
 
         // ── Tempoross ─────────────────────────────────────────────────────────
-        if (lower.contains("subdued the spirit") || lower.contains("you have helped to subdue"))
+        if (ChatMessageRouter.tempoross(keywords))
         {
             clientThread.invokeLater(() -> {
                 inventorySnapshot       = getCurrentInventory();
@@ -1176,7 +1244,7 @@ public class RuneAlyticsPlugin extends Plugin
         }
 
         // ── Wintertodt ───────────────────────────────────────────────────────
-        if (lower.contains("supply crate") && lower.contains("wintertodt"))
+        if (ChatMessageRouter.wintertodtCrate(keywords))
         {
             clientThread.invokeLater(() -> {
                 inventorySnapshot        = getCurrentInventory();
@@ -1188,12 +1256,10 @@ public class RuneAlyticsPlugin extends Plugin
         }
 
         // ── The Whisperer ────────────────────────────────────────────────────
-        if (lower.contains("whisperer") && lower.contains("kill count"))
+        if (ChatMessageRouter.whispererKillCount(keywords))
         {
             String stripped = msg.replaceAll("<[^>]*>", "");
-            Matcher kcM = Pattern
-                    .compile("kill count is:?\\s*(\\d+)", Pattern.CASE_INSENSITIVE)
-                    .matcher(stripped);
+            Matcher kcM = WHISPERER_KC_PATTERN.matcher(stripped);
 
             whispererParsedKC = kcM.find() ? Integer.parseInt(kcM.group(1)) : -1;
 
@@ -1210,8 +1276,7 @@ public class RuneAlyticsPlugin extends Plugin
         // ── Pet drop ─────────────────────────────────────────────────────────
         // OSRS never includes pets in NpcLootReceived — they arrive silently in
         // inventory (or bank) accompanied by one of these three game messages.
-        if (lower.contains("funny feeling like you're being followed")
-                || lower.contains("sneaking into your backpack"))
+        if (ChatMessageRouter.petDrop(keywords))
         {
             if (lastKilledBoss != null && lastKillTime != null)
             {
@@ -1219,22 +1284,22 @@ public class RuneAlyticsPlugin extends Plugin
                 if (elapsedSec < BOSS_CLEAR_TIMEOUT_SECONDS)
                 {
                     final NPC           boss = lastKilledBoss;
-                    final List<ItemStack> snap = rowInventorySnapshot != null
-                            ? new ArrayList<>(rowInventorySnapshot) : Collections.emptyList();
-                    final boolean wentToBank = lower.contains("sneaking into your backpack");
+                    final InventorySnapshot snap = rowInventorySnapshot != null
+                            ? rowInventorySnapshot : InventorySnapshot.EMPTY;
+                    final boolean wentToBank = ChatMessageRouter.petWentToBank(keywords);
 
                     clientThread.invokeLater(() -> {
                         ItemStack petItem = null;
                         if (!wentToBank)
                         {
                             // Pet went to inventory — diff to find which item it is
-                            List<ItemStack> gained = diffInventory(snap, getCurrentInventory());
+                            InventorySnapshot gained = InventorySnapshot.gained(snap, getCurrentInventory());
                             // Pick the first gained item that isn't coins or a common consumable
-                            for (ItemStack is : gained)
+                            for (int i = 0; i < gained.size(); i++)
                             {
-                                if (is.getId() != ITEM_ID_COINS && is.getQuantity() == 1)
+                                if (gained.idAt(i) != ITEM_ID_COINS && gained.quantityAt(i) == 1)
                                 {
-                                    petItem = is;
+                                    petItem = new ItemStack(gained.idAt(i), 1);
                                     break;
                                 }
                             }
@@ -1255,24 +1320,22 @@ public class RuneAlyticsPlugin extends Plugin
         // Auto-picked items bypass ItemSpawned; diff inventory against the
         // snapshot taken at the NPC kill and append all gained items to the
         // last kill record.
-        if (lower.contains("ring of wealth") &&
-                (lower.contains("automatically picked up") || lower.contains("automatically alched")))
+        if (ChatMessageRouter.ringOfWealthPickup(keywords))
         {
             if (rowInventorySnapshot != null && rowSnapshotBoss != null
                     && System.currentTimeMillis() < rowSnapshotExpiry)
             {
                 final NPC           boss = rowSnapshotBoss;
-                final List<ItemStack> snap = rowInventorySnapshot;
+                final InventorySnapshot snap = rowInventorySnapshot;
                 rowInventorySnapshot = null;
                 rowSnapshotBoss      = null;
 
                 clientThread.invokeLater(() -> {
-                    List<ItemStack> current = getCurrentInventory();
-                    List<ItemStack> gained  = diffInventory(snap, current);
+                    InventorySnapshot gained = InventorySnapshot.gained(snap, getCurrentInventory());
                     if (!gained.isEmpty())
                     {
                         String bossName = lootManager.normalizeBossName(boss.getName());
-                        lootManager.appendDropsToLastKill(bossName, gained);
+                        lootManager.appendDropsToLastKill(bossName, gained.toItemStacks());
                         log.debug("Ring of Wealth: {} item type(s) appended to '{}'",
                                 gained.size(), bossName);
                     }
@@ -1286,11 +1349,11 @@ public class RuneAlyticsPlugin extends Plugin
         // several forms ("chest count is", "completion count is", "Your
         // completed X count is", "Your subdued X count is"). All of them are
         // routed to the KillCountResolver via the manager.
-        if (lower.contains("count is"))
+        if (ChatMessageRouter.killCount(keywords))
             lootManager.parseKillCountMessage(msg);
 
         // ── Chest detection fallback ─────────────────────────────────────────
-        String detected = lootManager.detectChestSource(lower);
+        String detected = ChatMessageRouter.chestSource(keywords);
         if (detected != null && lastChestSource == null)
         {
             lastChestSource = detected;
@@ -1304,6 +1367,11 @@ public class RuneAlyticsPlugin extends Plugin
 
     @Subscribe
     public void onGameTick(GameTick tick)
+    {
+        metrics.time("onGameTick", () -> handleGameTick(tick));
+    }
+
+    private void handleGameTick(GameTick tick)
     {
         gameTickCount++;
 
@@ -1399,6 +1467,10 @@ public class RuneAlyticsPlugin extends Plugin
             }
             return false;
         });
+        // ── Commit this tick's kills ──────────────────────────────────────────
+        // Every kill recorded since the last tick (an AoE wave, several
+        // zero-loot flushes above) is written and announced as one batch.
+        lootManager.commitTickBatch();
     }
 
     // ═════════════════════════════════════════════════════════════════════════
@@ -1407,6 +1479,11 @@ public class RuneAlyticsPlugin extends Plugin
 
     @Subscribe
     public void onGameStateChanged(GameStateChanged event)
+    {
+        metrics.time("onGameStateChanged", () -> handleGameStateChanged(event));
+    }
+
+    private void handleGameStateChanged(GameStateChanged event)
     {
         GameState gs = event.getGameState();
         log.debug("GameState: {}", gs);
@@ -1527,6 +1604,11 @@ public class RuneAlyticsPlugin extends Plugin
 
     @Subscribe
     public void onPlayerSpawned(PlayerSpawned event)
+    {
+        metrics.time("onPlayerSpawned", () -> handlePlayerSpawned(event));
+    }
+
+    private void handlePlayerSpawned(PlayerSpawned event)
     {
         if (event.getPlayer() != client.getLocalPlayer()) return;
 
@@ -1555,6 +1637,22 @@ public class RuneAlyticsPlugin extends Plugin
     {
         if (!"runealytics".equals(event.getGroup())) return;
         String key = event.getKey();
+        if ("lootJournal".equals(key))
+        {
+            lootStorageManager.setJournalEnabled(config.lootJournal());
+        }
+        if ("lootLazyHistory".equals(key))
+        {
+            lootStorageManager.setLazyHistoryEnabled(config.lootLazyHistory());
+        }
+        if ("lootBinaryStorage".equals(key))
+        {
+            lootStorageManager.setBinaryFormatEnabled(config.lootBinaryStorage());
+        }
+        if ("lootWriterThread".equals(key))
+        {
+            lootManager.setWriterThreadEnabled(config.lootWriterThread());
+        }
         if ("bankPrivacy".equals(key) || "playerVisibility".equals(key))
         {
             SwingUtilities.invokeLater(() ->
@@ -1649,6 +1747,8 @@ public class RuneAlyticsPlugin extends Plugin
             heartbeatTask.cancel(false);
             heartbeatTask = null;
         }
+        // The next session starts from a keyframe.
+        apiClient.resetHeartbeatDelta();
         // Drop any cached map players so the overlay clears immediately on logout.
         state.setVisibleMapPlayers(new ArrayList<>());
     }
@@ -1733,6 +1833,11 @@ public class RuneAlyticsPlugin extends Plugin
      */
     @Subscribe
     public void onStatChanged(StatChanged event)
+    {
+        metrics.time("onStatChanged", () -> handleStatChanged(event));
+    }
+
+    private void handleStatChanged(StatChanged event)
     {
         Skill skill = event.getSkill();
         if (skill == Skill.OVERALL) return;
@@ -2175,7 +2280,7 @@ public class RuneAlyticsPlugin extends Plugin
                 return;
             }
 
-            final List<ItemStack> loot = mergeItemStacks(whispererGroundItems);
+            final List<ItemStack> loot = snapshotCapture.of(whispererGroundItems).toItemStacks();
             whispererGroundItems.clear();
 
             log.debug("The Whisperer: merged into {} item types, KC={}", loot.size(), kc);
@@ -2187,44 +2292,23 @@ public class RuneAlyticsPlugin extends Plugin
     //  UTILITY HELPERS
     // ═════════════════════════════════════════════════════════════════════════
 
-    /**
-     * Merges a list of {@link ItemStack}s with duplicate IDs into a single entry
-     * per item ID by summing quantities.
-     */
-    private List<ItemStack> mergeItemStacks(List<ItemStack> raw)
-    {
-        Map<Integer, Integer> merged = new LinkedHashMap<>();
-        for (ItemStack s : raw)
-            merged.merge(s.getId(), s.getQuantity(), Integer::sum);
-
-        List<ItemStack> result = new ArrayList<>(merged.size());
-        for (Map.Entry<Integer, Integer> e : merged.entrySet())
-            result.add(new ItemStack(e.getKey(), e.getValue()));
-        return result;
-    }
-
-    private List<ItemStack> getCurrentInventory()
+    /** Current inventory, id-merged. MUST run on the client thread. */
+    private InventorySnapshot getCurrentInventory()
     {
         ItemContainer inv = client.getItemContainer(InventoryID.INVENTORY);
-        if (inv == null) return Collections.emptyList();
+        if (inv == null) return InventorySnapshot.EMPTY;
 
-        List<ItemStack> items = new ArrayList<>();
-        for (Item item : inv.getItems())
-            if (item != null && item.getId() > 0 && item.getQuantity() > 0)
-                items.add(new ItemStack(item.getId(), item.getQuantity()));
-        return items;
+        lastInventory = snapshotCapture.of(inv.getItems(), lastInventory);
+        return lastInventory;
     }
 
-    private List<ItemStack> getCurrentEquipment()
+    /** Current equipment, id-merged. MUST run on the client thread. */
+    private InventorySnapshot getCurrentEquipment()
     {
         ItemContainer eq = client.getItemContainer(InventoryID.EQUIPMENT);
-        if (eq == null) return Collections.emptyList();
+        if (eq == null) return InventorySnapshot.EMPTY;
 
-        List<ItemStack> items = new ArrayList<>();
-        for (Item item : eq.getItems())
-            if (item != null && item.getId() > 0 && item.getQuantity() > 0)
-                items.add(new ItemStack(item.getId(), item.getQuantity()));
-        return items;
+        return snapshotCapture.of(eq.getItems(), equipmentSnapshot);
     }
 
     /**
@@ -2232,7 +2316,7 @@ public class RuneAlyticsPlugin extends Plugin
      * tracker. Exception-isolated: economics must never break loot or XP
      * handling. MUST run on the client thread (item value resolution).
      */
-    private void recordSkillEconomy(String skillName, List<ItemStack> gained, List<ItemStack> consumed)
+    private void recordSkillEconomy(String skillName, InventorySnapshot gained, InventorySnapshot consumed)
     {
         try
         {
@@ -2252,31 +2336,30 @@ public class RuneAlyticsPlugin extends Plugin
      * Resolves item names plus per-item GE and high-alch values for an
      * inventory delta. MUST run on the client thread (ItemManager reads).
      */
-    private List<SkillEconomyTracker.ValuedStack> toValuedStacks(List<ItemStack> items)
+    private List<SkillEconomyTracker.ValuedStack> toValuedStacks(InventorySnapshot items)
     {
-        if (items == null || items.isEmpty()) return Collections.emptyList();
+        if (items.isEmpty()) return Collections.emptyList();
 
         List<SkillEconomyTracker.ValuedStack> out = new ArrayList<>(items.size());
-        for (ItemStack item : items)
+        for (int i = 0; i < items.size(); i++)
         {
-            String name = "Item " + item.getId();
+            int itemId = items.idAt(i);
+            String name = "Item " + itemId;
+            long ge = 0L;
             long alch = 0L;
             try
             {
-                ItemComposition comp = itemManager.getItemComposition(item.getId());
-                if (comp != null)
-                {
-                    name = comp.getName();
-                    alch = comp.getHaPrice();
-                }
+                ItemValueCache.ItemValue value = itemValueCache.get(itemId);
+                name = value.getName();
+                ge   = value.getGePrice();
+                alch = value.getHighAlch();
             }
             catch (Exception ignored)
             {
-                /* keep fallback name / zero alch */
+                /* keep fallback name / zero values */
             }
 
-            long ge = ItemValueResolver.perItemGeValue(itemManager, item.getId());
-            if (item.getId() == ITEM_ID_COINS)
+            if (itemId == ITEM_ID_COINS)
             {
                 // Coins are worth exactly face value under both schemes.
                 ge = 1L;
@@ -2284,40 +2367,11 @@ public class RuneAlyticsPlugin extends Plugin
             }
 
             out.add(new SkillEconomyTracker.ValuedStack(
-                    item.getId(), name, item.getQuantity(), ge, alch));
+                    itemId, name, items.quantityAt(i), ge, alch));
         }
         return out;
     }
 
-    /**
-     * Strips equip/unequip noise out of an inventory-gain list.
-     *
-     * <p>Unequipping an item makes it appear in the inventory exactly like a
-     * drop would, so any "gained" item that just disappeared from the
-     * equipment container in the same tick is removed here before the
-     * remainder is handed to the loot manager.</p>
-     *
-     * @param gained        items the caller believes were gained
-     * @param justUnequipped items that disappeared from equipment this tick
-     *                       (see {@link #onItemContainerChanged})
-     */
-    private List<ItemStack> excludeEquipmentMovement(List<ItemStack> gained, List<ItemStack> justUnequipped)
-    {
-        if (gained.isEmpty() || justUnequipped.isEmpty()) return gained;
-
-        Map<Integer, Integer> unequippedMap = new HashMap<>();
-        for (ItemStack i : justUnequipped) unequippedMap.merge(i.getId(), i.getQuantity(), Integer::sum);
-
-        List<ItemStack> filtered = new ArrayList<>();
-        for (ItemStack i : gained)
-        {
-            int unequippedQty = unequippedMap.getOrDefault(i.getId(), 0);
-            int remaining     = i.getQuantity() - unequippedQty;
-            if (remaining > 0) filtered.add(new ItemStack(i.getId(), remaining));
-        }
-        return filtered;
-    }
-
     /**
      * Reads a freshly-filled reward container and dispatches the items as
      * {@code source} loot.  Used for chests that don't surface a usable
@@ -2341,31 +2395,6 @@ public class RuneAlyticsPlugin extends Plugin
         lootManager.processPlayerLoot(source, items);
     }
 
-    /**
-     * Returns only the items that were GAINED (new or increased in quantity)
-     * between {@code before} and {@code after} inventory snapshots.
-     *
-     * @param before snapshot taken before the action
-     * @param after  snapshot taken after the action
-     * @return list of gained {@link ItemStack}s (may be empty)
-     */
-    private List<ItemStack> diffInventory(List<ItemStack> before, List<ItemStack> after)
-    {
-        Map<Integer, Integer> beforeMap = new HashMap<>();
-        for (ItemStack i : before) beforeMap.merge(i.getId(), i.getQuantity(), Integer::sum);
-
-        Map<Integer, Integer> afterMap = new HashMap<>();
-        for (ItemStack i : after) afterMap.merge(i.getId(), i.getQuantity(), Integer::sum);
-
-        List<ItemStack> gained = new ArrayList<>();
-        for (Map.Entry<Integer, Integer> e : afterMap.entrySet())
-        {
-            int delta = e.getValue() - beforeMap.getOrDefault(e.getKey(), 0);
-            if (delta > 0) gained.add(new ItemStack(e.getKey(), delta));
-        }
-        return gained;
-    }
-
     private void checkVerificationStatus()
     {
         if (client.getLocalPlayer() == null) return;
@@ -2442,6 +2471,10 @@ public class RuneAlyticsPlugin extends Plugin
         // confirmed (onGameStateChanged(LOGGED_IN) runs before this completes).
         if (verified)
         {
+            // Replay uploads this account left in the outbox (failed, or pending
+            // when the client last closed).
+            syncOutbox.resume();
+
             // Push current privacy preferences so the site mirrors the in-client setting.
             syncPrivacySettings();
 
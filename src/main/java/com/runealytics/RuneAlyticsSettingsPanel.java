@@ -16,6 +16,9 @@ import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.DocumentFilter;
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
 
@@ -52,6 +55,7 @@ public class RuneAlyticsSettingsPanel extends JPanel
     private final RunealyticsApiClient         apiClient;
     private final ScheduledExecutorService     executorService;
     private final Client                       client;
+    private final PluginMetrics                metrics;
 
     private JScrollPane scroll;
 
@@ -68,7 +72,8 @@ public class RuneAlyticsSettingsPanel extends JPanel
             RuneAlyticsState             state,
             RunealyticsApiClient         apiClient,
             ScheduledExecutorService     executorService,
-            Client                       client
+            Client                       client,
+            PluginMetrics                metrics
     )
     {
         this.verificationPanel = verificationPanel;
@@ -77,6 +82,7 @@ public class RuneAlyticsSettingsPanel extends JPanel
         this.apiClient         = apiClient;
         this.executorService   = executorService;
         this.client            = client;
+        this.metrics           = metrics;
 
         setLayout(new BorderLayout());
         setBackground(PANEL_BG);
@@ -139,6 +145,8 @@ public class RuneAlyticsSettingsPanel extends JPanel
         panel.add(buildPrivacySection());
         panel.add(vSpace(16));
         panel.add(buildNeedHelpSection());
+        panel.add(vSpace(16));
+        panel.add(buildPerformanceSection());
         panel.add(vSpace(20));
         panel.add(buildVersionLabel());
         panel.add(Box.createVerticalGlue());
@@ -300,6 +308,8 @@ public class RuneAlyticsSettingsPanel extends JPanel
         panel.add(buildBenefitsSection());
         panel.add(vSpace(16));
         panel.add(buildNeedHelpSection());
+        panel.add(vSpace(16));
+        panel.add(buildPerformanceSection());
         panel.add(vSpace(20));
         panel.add(buildVersionLabel());
         panel.add(Box.createVerticalGlue());
@@ -500,6 +510,85 @@ public class RuneAlyticsSettingsPanel extends JPanel
         return p;
     }
 
+    /**
+     * Debug view of {@link PluginMetrics}: per-handler client-thread latency,
+     * refreshed on demand, plus a dump of the full report for stutter reports.
+     */
+    private JPanel buildPerformanceSection()
+    {
+        JPanel p = verticalPanel();
+
+        p.add(sectionHeader("PERFORMANCE"));
+        p.add(vSpace(8));
+
+        JPanel card = settingsCard();
+        card.add(compactLabel(
+                "Time RuneAlytics spends in game events. Attach a dump when reporting stutter.",
+                BODY_TEXT,
+                cf(Font.PLAIN, 12f)
+        ));
+        card.add(vSpace(8));
+
+        JTextArea metricsText = new JTextArea(metricsSummary());
+        metricsText.setEditable(false);
+        metricsText.setFocusable(false);
+        metricsText.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 10));
+        metricsText.setForeground(DIM_TEXT);
+        metricsText.setBackground(CARD_BG);
+        metricsText.setBorder(null);
+        metricsText.setAlignmentX(Component.LEFT_ALIGNMENT);
+        card.add(metricsText);
+        card.add(vSpace(10));
+
+        JLabel dumpStatus = compactLabel("", DIM_TEXT, cf(Font.ITALIC, 11f));
+
+        JButton refreshBtn = buildTealButton("Refresh");
+        refreshBtn.addActionListener(e -> {
+            metricsText.setText(metricsSummary());
+            card.revalidate();
+        });
+        card.add(refreshBtn);
+        card.add(vSpace(8));
+
+        JButton dumpBtn = buildTealButton("Dump to file");
+        dumpBtn.addActionListener(e -> {
+            dumpBtn.setEnabled(false);
+            executorService.execute(() -> {
+                String message;
+                try
+                {
+                    File file = metrics.dump();
+                    message = "Saved " + file.getAbsolutePath();
+                }
+                catch (IOException ex)
+                {
+                    log.warn("Failed to write metrics dump", ex);
+                    message = "Could not write the metrics file.";
+                }
+
+                String text = message;
+                SwingUtilities.invokeLater(() -> {
+                    dumpStatus.setText("<html><body style='width:" + TEXT_WRAP_PX + "px; margin:0; padding:0'>"
+                            + escapeHtml(text) + "</body></html>");
+                    dumpBtn.setEnabled(true);
+                    card.revalidate();
+                });
+            });
+        });
+        card.add(dumpBtn);
+        card.add(vSpace(6));
+        card.add(dumpStatus);
+
+        p.add(card);
+        return p;
+    }
+
+    private String metricsSummary()
+    {
+        List<String> lines = metrics.summaryLines();
+        return lines.isEmpty() ? "No events recorded yet." : String.join("\n", lines);
+    }
+
     private JPanel buildStepCard(String stepNum, String title, String body)
     {
         JPanel card = new AutoHeightPanel();
@@ -12,7 +12,6 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -92,7 +91,7 @@ class RuneAlyticsXpSessionManager
     private volatile long pauseStartWall;
 
     // Rolling overall XP/hr history (last hour).
-    private final List<RuneAlyticsXpSkillState.Sample> overallRateHistory = new ArrayList<>();
+    private final XpSeries overallRateHistory = new XpSeries(MAX_RATE_SAMPLES);
     private volatile long lastRateSampleMs;
 
     // "Today" running total (per account, persisted).
@@ -416,10 +415,8 @@ class RuneAlyticsXpSessionManager
         long rate = overallXpPerHour(now);
         synchronized (overallRateHistory)
         {
-            overallRateHistory.add(new RuneAlyticsXpSkillState.Sample(now, rate));
-            long cutoff = now - RATE_WINDOW_MS;
-            overallRateHistory.removeIf(s -> s.timeMs < cutoff);
-            while (overallRateHistory.size() > MAX_RATE_SAMPLES) overallRateHistory.remove(0);
+            overallRateHistory.add(now, rate);
+            overallRateHistory.pruneBefore(now - RATE_WINDOW_MS);
         }
 
         for (RuneAlyticsXpSkillState st : states.values())
@@ -428,12 +425,11 @@ class RuneAlyticsXpSessionManager
         }
     }
 
-    List<RuneAlyticsXpSkillState.Sample> overallRateHistorySnapshot()
+    XpSeries.View overallRateHistorySnapshot()
     {
         synchronized (overallRateHistory)
         {
-            return overallRateHistory.isEmpty()
-                    ? Collections.emptyList() : new ArrayList<>(overallRateHistory);
+            return overallRateHistory.view();
         }
     }
 
@@ -25,7 +25,6 @@ import java.awt.GridLayout;
 import java.awt.Insets;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.List;
 import java.util.function.Consumer;
 
 import static com.runealytics.RuneAlyticsXpTrackerPanel.CARD_BG;
@@ -537,8 +536,10 @@ class RuneAlyticsXpSkillDetailPanel extends JPanel
         }
         dropsCard.setVisible(true);
 
-        List<RuneAlyticsXpSkillState.XpDrop> drops = st.recentDropsSnapshot();
-        int signature = drops.isEmpty() ? 0 : (drops.size() * 31 + drops.get(0).amount);
+        // Oldest first; rows are listed newest first.
+        XpSeries.View drops = st.recentDropsSnapshot();
+        int newest = drops.size() - 1;
+        int signature = drops.isEmpty() ? 0 : Long.hashCode(drops.timeAt(newest) * 31 + drops.valueAt(newest));
         if (signature == lastDropSignature)
         {
             // Only the "time ago" text drifts; refresh those labels cheaply.
@@ -561,18 +562,17 @@ class RuneAlyticsXpSkillDetailPanel extends JPanel
             int shown = Math.min(drops.size(), 12);
             for (int i = 0; i < shown; i++)
             {
-                RuneAlyticsXpSkillState.XpDrop d = drops.get(i);
                 JPanel row = new JPanel(new BorderLayout());
                 row.setOpaque(false);
                 row.setAlignmentX(Component.LEFT_ALIGNMENT);
                 row.setBorder(new EmptyBorder(2, 0, 2, 0));
                 row.setMaximumSize(new Dimension(Integer.MAX_VALUE, 18));
 
-                JLabel amt = new JLabel("+" + XpFormat.comma(d.amount) + " xp");
+                JLabel amt = new JLabel("+" + XpFormat.comma(drops.valueAt(newest - i)) + " xp");
                 amt.setFont(DROP_FONT);
                 amt.setForeground(XP_GREEN);
 
-                JLabel ago = new JLabel(XpFormat.ago(nowMs - d.timeMs));
+                JLabel ago = new JLabel(XpFormat.ago(nowMs - drops.timeAt(newest - i)));
                 ago.setFont(DROP_FONT);
                 ago.setForeground(MUTED);
                 ago.setHorizontalAlignment(SwingConstants.RIGHT);
@@ -586,7 +586,7 @@ class RuneAlyticsXpSkillDetailPanel extends JPanel
         dropsList.repaint();
     }
 
-    private void refreshDropTimes(long nowMs, List<RuneAlyticsXpSkillState.XpDrop> drops)
+    private void refreshDropTimes(long nowMs, XpSeries.View drops)
     {
         Component[] rows = dropsList.getComponents();
         int shown = Math.min(Math.min(rows.length, drops.size()), 12);
@@ -597,7 +597,7 @@ class RuneAlyticsXpSkillDetailPanel extends JPanel
             Object east = ((BorderLayout) row.getLayout()).getLayoutComponent(BorderLayout.EAST);
             if (east instanceof JLabel)
             {
-                ((JLabel) east).setText(XpFormat.ago(nowMs - drops.get(i).timeMs));
+                ((JLabel) east).setText(XpFormat.ago(nowMs - drops.timeAt(drops.size() - 1 - i)));
             }
         }
     }
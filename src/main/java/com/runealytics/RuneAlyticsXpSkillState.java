@@ -1,15 +1,10 @@
 package com.runealytics;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import net.runelite.api.Experience;
 import net.runelite.api.Skill;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Deque;
-import java.util.List;
-
 /**
  * Per-skill XP session state for the RuneAlytics XP Tracker.
  *
@@ -29,6 +24,12 @@ import java.util.List;
  *
  * <p>Drop timestamps, the "LIVE" marker and chart sample X-positions use real
  * wall-clock time so "time ago" and the last-hour window stay truthful.</p>
+ *
+ * <h2>History buffers</h2>
+ * Recent drops, the cumulative trend and the XP/hr history are fixed-capacity
+ * {@link XpSeries} ring buffers, so recording an XP drop on the client thread
+ * allocates nothing even at high actions-per-hour. The panels read them through
+ * immutable {@link XpSeries.View}s.
  */
 @Getter
 class RuneAlyticsXpSkillState
@@ -37,6 +38,8 @@ class RuneAlyticsXpSkillState
     static final int MAX_RECENT_DROPS = 25;
     /** Max trend samples retained per skill (down-sampled when exceeded). */
     static final int MAX_SAMPLES = 120;
+    /** Max XP/hr samples retained per skill, on top of the time window. */
+    static final int MAX_RATE_SAMPLES = MAX_SAMPLES * 3;
 
     private final Skill skill;
 
@@ -62,12 +65,15 @@ class RuneAlyticsXpSkillState
     private volatile int lastDropXp;
     private volatile int actions;
 
-    /** Most-recent-first list of XP drops (amount + wall time). Guarded by {@code this}. */
-    private final Deque<XpDrop> recentDrops = new ArrayDeque<>();
+    /** Recent XP drops (wall time → amount), oldest first. Guarded by {@code this}. */
+    @Getter(AccessLevel.NONE)
+    private final XpSeries recentDrops = new XpSeries(MAX_RECENT_DROPS);
     /** Cumulative-gained trend samples (wall time). Guarded by {@code this}. */
-    private final List<Sample> samples = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final XpSeries samples = new XpSeries(MAX_SAMPLES);
     /** Rolling XP/hr samples (last hour, wall time). Guarded by {@code this}. */
-    private final List<Sample> rateHistory = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final XpSeries rateHistory = new XpSeries(MAX_RATE_SAMPLES);
 
     RuneAlyticsXpSkillState(Skill skill, long baselineXp)
     {
@@ -116,25 +122,12 @@ class RuneAlyticsXpSkillState
         lastDropXp   = gained;
         actions++;
 
-        recentDrops.addFirst(new XpDrop(gained, wallNow));
-        while (recentDrops.size() > MAX_RECENT_DROPS) recentDrops.removeLast();
-
-        samples.add(new Sample(wallNow, totalGained));
-        if (samples.size() > MAX_SAMPLES) downSample();
+        recentDrops.add(wallNow, gained);
+        samples.addDecimating(wallNow, totalGained);
 
         return gained;
     }
 
-    private void downSample()
-    {
-        List<Sample> compact = new ArrayList<>(MAX_SAMPLES / 2 + 2);
-        for (int i = 0; i < samples.size(); i += 2) compact.add(samples.get(i));
-        Sample last = samples.get(samples.size() - 1);
-        if (compact.isEmpty() || compact.get(compact.size() - 1) != last) compact.add(last);
-        samples.clear();
-        samples.addAll(compact);
-    }
-
     // ── Derived stats (EDT-safe reads) ────────────────────────────────────────
 
     int displayLevel()
@@ -201,29 +194,29 @@ class RuneAlyticsXpSkillState
         return toNext * 3_600_000L / rate;
     }
 
-    synchronized List<XpDrop> recentDropsSnapshot()
+    /** Recent drops, oldest first: time = wall ms, value = XP gained. */
+    synchronized XpSeries.View recentDropsSnapshot()
     {
-        return new ArrayList<>(recentDrops);
+        return recentDrops.view();
     }
 
-    synchronized List<Sample> samplesSnapshot()
+    /** Cumulative XP gained over the session (wall time), down-sampled to {@value #MAX_SAMPLES}. */
+    synchronized XpSeries.View samplesSnapshot()
     {
-        return samples.isEmpty() ? Collections.emptyList() : new ArrayList<>(samples);
+        return samples.view();
     }
 
     /** Appends a rolling XP/hr sample (wall X, rate Y) and prunes past {@code windowMs}. */
     synchronized void sampleRate(long wallNow, long activeNow, boolean ignoreAfk,
                                  long afkTimeoutMs, long windowMs)
     {
-        rateHistory.add(new Sample(wallNow, xpPerHour(activeNow, ignoreAfk, afkTimeoutMs)));
-        long cutoff = wallNow - windowMs;
-        rateHistory.removeIf(s -> s.timeMs < cutoff);
-        while (rateHistory.size() > MAX_SAMPLES * 3) rateHistory.remove(0);
+        rateHistory.add(wallNow, xpPerHour(activeNow, ignoreAfk, afkTimeoutMs));
+        rateHistory.pruneBefore(wallNow - windowMs);
     }
 
-    synchronized List<Sample> rateHistorySnapshot()
+    synchronized XpSeries.View rateHistorySnapshot()
     {
-        return rateHistory.isEmpty() ? Collections.emptyList() : new ArrayList<>(rateHistory);
+        return rateHistory.view();
     }
 
     /** Resets only the XP/hr timing (and rate history), keeping the XP gained. */
@@ -242,30 +235,4 @@ class RuneAlyticsXpSkillState
         int clamped = (int) Math.min(Math.max(xp, 0L), Experience.MAX_SKILL_XP);
         return Experience.getLevelForXp(clamped);
     }
-
-    // ── Value types ───────────────────────────────────────────────────────────
-
-    static final class XpDrop
-    {
-        final int  amount;
-        final long timeMs;
-
-        XpDrop(int amount, long timeMs)
-        {
-            this.amount = amount;
-            this.timeMs = timeMs;
-        }
-    }
-
-    static final class Sample
-    {
-        final long timeMs;
-        final long totalGained;
-
-        Sample(long timeMs, long totalGained)
-        {
-            this.timeMs      = timeMs;
-            this.totalGained = totalGained;
-        }
-    }
 }
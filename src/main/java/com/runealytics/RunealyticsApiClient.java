@@ -2,6 +2,7 @@ package com.runealytics;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import okhttp3.*;
@@ -13,6 +14,7 @@ import javax.inject.Singleton;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -29,14 +31,21 @@ public class RunealyticsApiClient
     private final Gson          gson;
     private final RunealyticsConfig config;
     private final RuneAlyticsState  state;
+    private final SyncOutbox        outbox;
+
+    private static final String BANK_SYNC_PATH    = "/bank/sync";
+    private static final String BANK_COALESCE_KEY = "bank";
+
+    private final HeartbeatDelta heartbeatDelta = new HeartbeatDelta();
 
     @Inject
     public RunealyticsApiClient(OkHttpClient httpClient, RunealyticsConfig config,
-                                RuneAlyticsState state, Gson gson)
+                                RuneAlyticsState state, Gson gson, SyncOutbox outbox)
     {
         this.config = config;
         this.gson   = gson;
         this.state  = state;
+        this.outbox = outbox;
 
         this.httpClient = httpClient.newBuilder()
                 .connectTimeout(config.syncTimeout(), TimeUnit.SECONDS)
@@ -50,7 +59,8 @@ public class RunealyticsApiClient
     // ═════════════════════════════════════════════════════════════════════════
 
     /**
-     * Sends a batched XP payload to {@code /xp/batch}.
+     * Sends a batched XP payload to {@code /xp/batch} through the
+     * {@link SyncOutbox}, so a batch that fails is retried rather than lost.
      *
      * @param xpGains skill-name (lowercase) → total XP gained in the window
      */
@@ -98,51 +108,10 @@ public class RunealyticsApiClient
             log.debug("[XP Batch] no location captured — omitting location field");
         }
 
-        String payloadJson = gson.toJson(payload);
-        String url         = config.apiUrl() + "/xp/batch";
-
-        log.debug("[XP Batch] POST {} | skills={} payload={}", url, xpGains.size(), payloadJson);
-
-        RequestBody body    = RequestBody.create(JSON, payloadJson);
-        Request     request = new Request.Builder()
-                .url(url)
-                .post(body)
-                .addHeader("Authorization", "Bearer " + token)
-                .addHeader("Content-Type",  "application/json")
-                .addHeader("Accept",        "application/json")
-                .build();
-
-        httpClient.newCall(request).enqueue(new Callback()
-        {
-            @Override
-            @SuppressWarnings("NullableProblems")
-            public void onFailure(Call call, IOException e)
-            {
-                log.debug("[XP Batch] Network failure: {}", e.getMessage());
-            }
+        log.debug("[XP Batch] POST /xp/batch | skills={} payload={}", xpGains.size(), payload);
 
-            @Override
-            @SuppressWarnings("NullableProblems")
-            public void onResponse(Call call, Response response)
-            {
-                try
-                {
-                    String body = response.body() != null ? response.body().string() : "";
-                    if (response.isSuccessful())
-                        log.debug("[XP Batch] OK HTTP {} — {}", response.code(), body);
-                    else
-                        log.debug("[XP Batch] FAILED HTTP {} — {}", response.code(), body);
-                }
-                catch (IOException e)
-                {
-                    log.debug("[XP Batch] Could not read response body: {}", e.getMessage());
-                }
-                finally
-                {
-                    response.close();
-                }
-            }
-        });
+        // Gains are deltas: every batch must arrive, none supersedes another.
+        outbox.submit("/xp/batch", payload, null);
     }
 
     // ═════════════════════════════════════════════════════════════════════════
@@ -154,8 +123,8 @@ public class RunealyticsApiClient
      *
      * <p>Carries only the account named in the payload (built by
      * {@link RuneAlyticsXpSessionManager#buildPayload}, which is scoped to a
-     * single account key). Fails gracefully — network / HTTP errors are logged at
-     * debug and never propagate. The auth token is attached as a {@code Bearer}
+     * single account key). Delivered through the {@link SyncOutbox}, which
+     * retries failures and never propagates them. The auth token is attached as a {@code Bearer}
      * header (same token used for the heartbeat and loot sync), never logged.</p>
      *
      * @param payload the session snapshot to send
@@ -181,54 +150,16 @@ public class RunealyticsApiClient
             return;
         }
 
-        String payloadJson = gson.toJson(payload.toJson());
-        String url         = config.apiUrl() + "/plugin/xp/session";
+        JsonObject payloadJson = payload.toJson();
 
         // Log the payload for debugging, but never the token.
-        log.debug("[XP Session] POST {} | skills={} total_xp={} duration={}s ended={} payload={}",
-                url, payload.skills.size(), payload.totalXp,
+        log.debug("[XP Session] POST /plugin/xp/session | skills={} total_xp={} duration={}s ended={} payload={}",
+                payload.skills.size(), payload.totalXp,
                 payload.durationSec, payload.ended, payloadJson);
 
-        RequestBody body    = RequestBody.create(JSON, payloadJson);
-        Request     request = new Request.Builder()
-                .url(url)
-                .post(body)
-                .addHeader("Authorization", "Bearer " + token)   // same token as heartbeat / loot sync
-                .addHeader("Content-Type",  "application/json")
-                .addHeader("Accept",        "application/json")
-                .build();
-
-        httpClient.newCall(request).enqueue(new Callback()
-        {
-            @Override
-            @SuppressWarnings("NullableProblems")
-            public void onFailure(Call call, IOException e)
-            {
-                log.debug("[XP Session] Network failure: {}", e.getMessage());
-            }
-
-            @Override
-            @SuppressWarnings("NullableProblems")
-            public void onResponse(Call call, Response response)
-            {
-                try
-                {
-                    String responseBody = response.body() != null ? response.body().string() : "";
-                    if (response.isSuccessful())
-                        log.debug("[XP Session] OK HTTP {} — {}", response.code(), responseBody);
-                    else
-                        log.debug("[XP Session] FAILED HTTP {} — {}", response.code(), responseBody);
-                }
-                catch (IOException e)
-                {
-                    log.debug("[XP Session] Could not read response body: {}", e.getMessage());
-                }
-                finally
-                {
-                    response.close();
-                }
-            }
-        });
+        // Each snapshot carries the whole session so far, so a newer one for
+        // the same session replaces any still waiting in the outbox.
+        outbox.submit("/plugin/xp/session", payloadJson, "xp-session:" + payload.sessionStartSec);
     }
 
     // ═════════════════════════════════════════════════════════════════════════
@@ -266,52 +197,10 @@ public class RunealyticsApiClient
         payload.addProperty("player_visibility", wireValue(playerVisibility));
         payload.addProperty("timestamp",         System.currentTimeMillis() / 1000);
 
-        String payloadJson = gson.toJson(payload);
-        String url         = config.apiUrl() + "/plugin/privacy";
-
-        log.debug("[Privacy] POST {} | bank={} player={}", url,
+        log.debug("[Privacy] POST /plugin/privacy | bank={} player={}",
                 wireValue(bankPrivacy), wireValue(playerVisibility));
 
-        RequestBody body    = RequestBody.create(JSON, payloadJson);
-        Request     request = new Request.Builder()
-                .url(url)
-                .post(body)
-                .addHeader("Authorization", "Bearer " + token)
-                .addHeader("Content-Type",  "application/json")
-                .addHeader("Accept",        "application/json")
-                .build();
-
-        httpClient.newCall(request).enqueue(new Callback()
-        {
-            @Override
-            @SuppressWarnings("NullableProblems")
-            public void onFailure(Call call, IOException e)
-            {
-                log.debug("[Privacy] Network failure: {}", e.getMessage());
-            }
-
-            @Override
-            @SuppressWarnings("NullableProblems")
-            public void onResponse(Call call, Response response)
-            {
-                try
-                {
-                    String responseBody = response.body() != null ? response.body().string() : "";
-                    if (response.isSuccessful())
-                        log.debug("[Privacy] OK HTTP {} — {}", response.code(), responseBody);
-                    else
-                        log.debug("[Privacy] FAILED HTTP {} — {}", response.code(), responseBody);
-                }
-                catch (IOException e)
-                {
-                    log.debug("[Privacy] Could not read response body: {}", e.getMessage());
-                }
-                finally
-                {
-                    response.close();
-                }
-            }
-        });
+        outbox.submit("/plugin/privacy", payload, "privacy");
     }
 
     // ═════════════════════════════════════════════════════════════════════════
@@ -341,6 +230,11 @@ public class RunealyticsApiClient
      * may see equipment/inventory; the plugin always uploads and the server
      * honors the flag.</p>
      *
+     * <p>Friends, ignores, equipment and inventory are delta-encoded by
+     * {@link HeartbeatDelta}: each heartbeat carries their content hashes, but
+     * only the sections that changed since the last acknowledged heartbeat (or
+     * all of them on a keyframe) are included.</p>
+     *
      * @param location      current world location (omitted when {@code null})
      * @param friends       in-game friends list names
      * @param ignores       in-game ignore list names
@@ -377,10 +271,15 @@ public class RunealyticsApiClient
         payload.addProperty("username",        username);
         payload.addProperty("visibility",      wireValue(visibility));
         payload.addProperty("gear_visibility", wireValue(gearVisibility));
-        payload.add("friends",                 toJsonArray(friends));
-        payload.add("ignores",                 toJsonArray(ignores));
-        payload.add("equipment",               equipment != null ? equipment : new JsonArray());
-        payload.add("inventory",               inventory != null ? inventory : new JsonArray());
+
+        // Large sections go through the delta encoder: only the ones whose
+        // content hash changed since the last acknowledged heartbeat are sent.
+        Map<String, JsonElement> sections = new LinkedHashMap<>();
+        sections.put("friends",   toJsonArray(friends));
+        sections.put("ignores",   toJsonArray(ignores));
+        sections.put("equipment", equipment != null ? equipment : new JsonArray());
+        sections.put("inventory", inventory != null ? inventory : new JsonArray());
+        final HeartbeatDelta.Frame frame = heartbeatDelta.encode(username, sections, payload);
 
         // Non-authoritative preview; omitted entirely when empty.
         if (xpPreview != null && !xpPreview.isEmpty())
@@ -404,14 +303,10 @@ public class RunealyticsApiClient
         String payloadJson = gson.toJson(payload);
         String url         = config.apiUrl() + "/plugin/heartbeat";
 
-        log.debug("[Heartbeat] POST {} | visibility={} gear_visibility={} friends={} ignores={} "
-                        + "equipment={} inventory={} location={}",
-                url, wireValue(visibility), wireValue(gearVisibility),
-                friends != null ? friends.size() : 0,
-                ignores != null ? ignores.size() : 0,
-                equipment != null ? equipment.size() : 0,
-                inventory != null ? inventory.size() : 0,
-                location != null);
+        log.debug("[Heartbeat] POST {} | visibility={} gear_visibility={} keyframe={} sections={} "
+                        + "bytes={} location={}",
+                url, wireValue(visibility), wireValue(gearVisibility), frame.keyframe,
+                sentSections(payload, sections), payloadJson.length(), location != null);
 
         RequestBody body    = RequestBody.create(JSON, payloadJson);
         Request     request = new Request.Builder()
@@ -438,6 +333,16 @@ public class RunealyticsApiClient
                 try
                 {
                     String responseBody = response.body() != null ? response.body().string() : "";
+                    if (response.code() == 409 || resyncRequested(responseBody))
+                    {
+                        log.debug("[Heartbeat] Server requested a resync; next heartbeat is a keyframe");
+                        heartbeatDelta.ack(frame, true);
+                    }
+                    else if (response.isSuccessful())
+                    {
+                        heartbeatDelta.ack(frame, false);
+                    }
+
                     if (response.isSuccessful())
                     {
                         log.debug("[Heartbeat] OK HTTP {} — {}", response.code(), responseBody);
@@ -464,6 +369,43 @@ public class RunealyticsApiClient
         });
     }
 
+    /**
+     * Forgets the acknowledged heartbeat state so the next heartbeat is a full
+     * keyframe. Called when the heartbeat stops (logout, shutdown).
+     */
+    public void resetHeartbeatDelta()
+    {
+        heartbeatDelta.reset();
+    }
+
+    /** {@code true} when a heartbeat response carries {@code "resync": true}. */
+    private boolean resyncRequested(String responseBody)
+    {
+        try
+        {
+            JsonObject json = gson.fromJson(responseBody, JsonObject.class);
+            return json != null && json.has("resync") && json.get("resync").isJsonPrimitive()
+                    && json.get("resync").getAsBoolean();
+        }
+        catch (RuntimeException ignored)
+        {
+            return false;
+        }
+    }
+
+    /** Names of the delta sections actually included in {@code payload}, for logging. */
+    private static String sentSections(JsonObject payload, Map<String, JsonElement> sections)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (String name : sections.keySet())
+        {
+            if (!payload.has(name)) continue;
+            if (sb.length() > 0) sb.append(',');
+            sb.append(name);
+        }
+        return sb.length() > 0 ? sb.toString() : "none";
+    }
+
     /**
      * Parses the {@code players} array from a heartbeat response into the list of
      * players the local account may see on the live map. Tolerant of a missing /
@@ -629,24 +571,45 @@ public class RunealyticsApiClient
     //  BANK SYNC
     // ═════════════════════════════════════════════════════════════════════════
 
-    public boolean syncBankData(String token, JsonObject bankData) throws IOException
+    /**
+     * Uploads a wealth snapshot to {@code /bank/sync} through the
+     * {@link SyncOutbox}. A snapshot that can't be delivered now stays queued
+     * until it is sent or replaced by a newer one.
+     *
+     * @return true on HTTP 2xx from the immediate attempt
+     */
+    public boolean syncBankData(JsonObject bankData)
     {
-        RequestBody body    = RequestBody.create(JSON, gson.toJson(bankData));
-        Request     request = new Request.Builder()
-                .url(config.apiUrl() + "/bank/sync")
-                .post(body)
-                .addHeader("Authorization", "Bearer " + token)
-                .build();
+        return SyncOutbox.isSuccess(syncBankSnapshot(bankData));
+    }
 
-        try (Response response = httpClient.newCall(request).execute())
-        {
-            if (response.isSuccessful())
-            {
-                log.debug("Bank data synced successfully");
-                return true;
-            }
-            log.debug("Failed to sync bank data. Status: {}", response.code());
-            return false;
-        }
+    /**
+     * {@link #syncBankData}, returning the HTTP status of the immediate
+     * attempt ({@link SyncOutbox#sendForStatus}) so a caller can tell a
+     * rejected delta (HTTP 409) from a deferred one.
+     */
+    public int syncBankSnapshot(JsonObject bankData)
+    {
+        int status = outbox.sendForStatus(BANK_SYNC_PATH, bankData, BANK_COALESCE_KEY);
+        log.debug(SyncOutbox.isSuccess(status)
+                ? "Bank data synced successfully"
+                : "Bank data sync not accepted (HTTP " + status + ")");
+        return status;
+    }
+
+    /** Queues a wealth snapshot in the {@link SyncOutbox} without an immediate attempt. */
+    public void submitBankSnapshot(JsonObject bankData)
+    {
+        outbox.submit(BANK_SYNC_PATH, bankData, BANK_COALESCE_KEY);
+    }
+
+    /**
+     * Registers {@code listener} for bank snapshots the outbox delivered
+     * after the immediate attempt and the server then rejected (e.g. a delta
+     * answered with HTTP 409).
+     */
+    public void setBankSyncRejectionListener(SyncOutbox.RejectionListener listener)
+    {
+        outbox.setRejectionListener(BANK_COALESCE_KEY, listener);
     }
 }
@@ -413,4 +413,57 @@ public interface RunealyticsConfig extends Config
     {
         return 30;
     }
+
+    @ConfigItem(
+            keyName = "lootJournal",
+            name = "Journal Loot Saves",
+            description = "Append each kill to a small journal file instead of rewriting the whole loot file. "
+                    + "Much cheaper for large kill histories; the loot file is compacted in the background.",
+            section = advancedSection,
+            position = 1
+    )
+    default boolean lootJournal()
+    {
+        return true;
+    }
+
+    @ConfigItem(
+            keyName = "lootLazyHistory",
+            name = "Page Old Kills From Disk",
+            description = "Keep only recent kills and per-boss totals in memory; older synced kills are moved "
+                    + "to a per-boss archive and read back only when needed. Cuts login time and memory "
+                    + "for very large kill histories.",
+            section = advancedSection,
+            position = 2
+    )
+    default boolean lootLazyHistory()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+            keyName = "lootBinaryStorage",
+            name = "Compact Binary Loot File",
+            description = "Store loot history in a compact binary file instead of JSON. Smaller on disk and "
+                    + "faster to load; existing data is converted automatically in either direction.",
+            section = advancedSection,
+            position = 3
+    )
+    default boolean lootBinaryStorage()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+            keyName = "lootWriterThread",
+            name = "Record Loot Off Client Thread",
+            description = "Record kills on a background writer thread so the game thread only notes each "
+                    + "drop and moves on. Reduces stutter during fast multi-kill content.",
+            section = advancedSection,
+            position = 4
+    )
+    default boolean lootWriterThread()
+    {
+        return false;
+    }
 }
@@ -0,0 +1,822 @@
+package com.runealytics;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static com.runealytics.RuneAlyticsHttp.JSON;
+
+/**
+ * Durable, per-account outbox for fire-and-forget uploads (XP batches and
+ * sessions, privacy settings, bank snapshots, sync-absolute, death events).
+ *
+ * <h2>Why</h2>
+ * <p>These calls used to be logged and dropped on failure; nothing was
+ * retried until some unrelated trigger happened to fire again, and anything
+ * pending when the client closed was lost.</p>
+ *
+ * <h2>How</h2>
+ * <ul>
+ *   <li><b>Persistence</b> — pending requests live in
+ *       {@code runealytics-outbox-<user>.json}, rewritten atomically on the
+ *       outbox thread after every change, and are replayed by
+ *       {@link #resume()} once the account is verified again after a
+ *       restart. Callers (client thread, EDT) only touch the in-memory queue;
+ *       reading an account's file and every write happen on the outbox
+ *       thread.</li>
+ *   <li><b>Ordering</b> — requests are delivered oldest first, one at a time.
+ *       A retryable failure (network, HTTP 408/429/5xx) holds the whole queue
+ *       behind the head, so a flaky API is probed once per backoff step
+ *       instead of once per queued request. Any other status drops the
+ *       request and is reported to the {@link RejectionListener} registered
+ *       for its coalesce key, if any.</li>
+ *   <li><b>Backoff</b> — {@value #BASE_DELAY_MS} ms doubling per attempt up
+ *       to {@value #MAX_DELAY_MS} ms, with equal jitter (half fixed, half
+ *       random) so clients that lost the API together don't return
+ *       together.</li>
+ *   <li><b>Coalescing</b> — a request may carry a coalesce key; queuing it
+ *       drops every older request with the same key. A newer bank snapshot,
+ *       privacy setting or XP-session snapshot fully supersedes the old
+ *       one.</li>
+ *   <li><b>Bounds</b> — requests older than {@value #MAX_AGE_MS} ms are
+ *       discarded, and at most {@value #MAX_ENTRIES} are kept.</li>
+ * </ul>
+ *
+ * <p>Loot bulk-sync does not use the outbox: the unsynced-kill index in
+ * {@link LootStorageManager} already is its durable queue.</p>
+ *
+ * <p>Requests are only sent while the outbox's account is the verified
+ * account in {@link RuneAlyticsState}, using that account's current token; the
+ * token itself is never written to disk.</p>
+ */
+@Slf4j
+@Singleton
+public class SyncOutbox
+{
+    private static final String FILE_PREFIX = "runealytics-outbox-";
+    private static final String FILE_SUFFIX = ".json";
+
+    static final long BASE_DELAY_MS = 5_000L;
+    static final long MAX_DELAY_MS  = 10 * 60_000L;
+    static final long MAX_AGE_MS    = 7 * 24 * 60 * 60_000L;
+    static final int  MAX_ENTRIES   = 500;
+
+    /** Status reported when a request never got a response. */
+    static final int NETWORK_FAILURE = -1;
+    /** Status reported by {@link #sendForStatus} when a request was queued without an attempt. */
+    static final int QUEUED = 0;
+
+    private static final Type ENTRY_LIST = new TypeToken<List<Entry>>() { }.getType();
+
+    /** Told, on the outbox thread, about a queued request the server rejected when it was finally sent. */
+    public interface RejectionListener
+    {
+        void rejected(String account, Entry entry, int status);
+    }
+
+    /** One pending request, as persisted. */
+    @Data
+    public static class Entry
+    {
+        @SerializedName("seq")
+        private long seq;
+
+        @SerializedName("path")
+        private String path;
+
+        @SerializedName("body")
+        private String body;
+
+        /** Requests sharing a non-null key supersede each other. */
+        @SerializedName("coalesce_key")
+        private String coalesceKey;
+
+        @SerializedName("created_at")
+        private long createdAt;
+
+        @SerializedName("attempts")
+        private int attempts;
+
+        @SerializedName("next_attempt_at")
+        private long nextAttemptAt;
+    }
+
+    private final OkHttpClient httpClient;
+    private final RunealyticsConfig config;
+    private final RuneAlyticsState state;
+    private final Gson gson;
+    private final File storageDir;
+    private final LongSupplier clock;
+    private final Random random;
+    private final long baseDelayMs;
+    private final Map<String, RejectionListener> rejectionListeners = new ConcurrentHashMap<>();
+
+    /** Normalised account whose queue is open, or {@code null}. */
+    private String account;
+    private List<Entry> entries = new ArrayList<>();
+    private long nextSeq;
+
+    /**
+     * {@code false} until the open account's file has been read and merged
+     * ahead of {@link #entries}; nothing is sent or written for it before.
+     */
+    private boolean loaded;
+    /** Bumped on every account switch so a stale load is ignored. */
+    private long generation;
+    private Future<?> loadTask;
+    private boolean persistQueued;
+
+    private ScheduledExecutorService executor = newExecutor();
+    private ScheduledFuture<?> drainTask;
+    private boolean draining;
+    private boolean stopped;
+
+    private static ScheduledExecutorService newExecutor()
+    {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "RuneAlytics-Outbox");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Inject
+    public SyncOutbox(OkHttpClient httpClient, RunealyticsConfig config,
+                      RuneAlyticsState state, Gson gson)
+    {
+        this(httpClient, config, state, gson, RuneLite.RUNELITE_DIR,
+                System::currentTimeMillis, new Random(), BASE_DELAY_MS);
+    }
+
+    /** Test seam: storage directory, clock, jitter source and backoff base. */
+    SyncOutbox(OkHttpClient httpClient, RunealyticsConfig config, RuneAlyticsState state, Gson gson,
+               File storageDir, LongSupplier clock, Random random, long baseDelayMs)
+    {
+        this.config      = config;
+        this.state       = state;
+        this.gson        = gson;
+        this.storageDir  = storageDir;
+        this.clock       = clock;
+        this.random      = random;
+        this.baseDelayMs = baseDelayMs;
+        this.httpClient  = httpClient.newBuilder()
+                .connectTimeout(config.syncTimeout(), TimeUnit.SECONDS)
+                .readTimeout(config.syncTimeout(),    TimeUnit.SECONDS)
+                .writeTimeout(config.syncTimeout(),   TimeUnit.SECONDS)
+                .build();
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  PUBLIC API
+    // ═════════════════════════════════════════════════════════════════════════
+
+    /**
+     * Queues a request for the verified account and returns immediately; it
+     * is persisted and sent on the outbox thread. Without a verified account
+     * the request is sent once, best effort.
+     *
+     * @param coalesceKey key under which a later request supersedes this one, or {@code null}
+     */
+    public void submit(String path, JsonObject payload, String coalesceKey)
+    {
+        String json = gson.toJson(payload);
+        synchronized (this)
+        {
+            if (openVerifiedAccount())
+            {
+                offer(newEntry(path, json, coalesceKey));
+                persist();
+                scheduleDrain(0L);
+                return;
+            }
+            executor().execute(() -> post(path, json));
+        }
+    }
+
+    /**
+     * Sends a request on the calling (background) thread and reports whether
+     * the server accepted it. When the attempt fails with a retryable status,
+     * or older requests are still queued ahead of it, the request is left in
+     * the outbox and delivered later.
+     *
+     * @return {@code true} on HTTP 2xx from this attempt
+     */
+    public boolean send(String path, JsonObject payload, String coalesceKey)
+    {
+        return isSuccess(sendForStatus(path, payload, coalesceKey));
+    }
+
+    /**
+     * {@link #send}, reporting the HTTP status of the immediate attempt:
+     * {@value #NETWORK_FAILURE} when it got no response, or {@value #QUEUED}
+     * when it was queued behind older requests without being sent.
+     */
+    public int sendForStatus(String path, JsonObject payload, String coalesceKey)
+    {
+        String json  = gson.toJson(payload);
+        Entry  entry = newEntry(path, json, coalesceKey);
+        awaitLoaded();
+
+        String owner;
+        synchronized (this)
+        {
+            owner = openVerifiedAccount() ? account : null;
+            if (owner != null)
+            {
+                dropSuperseded(entry);
+                if (!loaded || !entries.isEmpty())
+                {
+                    // Don't overtake older requests (or hammer an API that is already failing).
+                    offer(entry);
+                    persist();
+                    scheduleDrain(0L);
+                    return QUEUED;
+                }
+            }
+        }
+
+        int code = post(path, json);
+        if (isSuccess(code)) return code;
+        if (owner == null || !isRetryable(code)) return code;
+
+        synchronized (this)
+        {
+            if (!owner.equals(account)) return code;
+            entry.setAttempts(1);
+            entry.setNextAttemptAt(clock.getAsLong() + backoffMs(1));
+            offer(entry);
+            persist();
+            scheduleDrain(Math.max(0L, entry.getNextAttemptAt() - clock.getAsLong()));
+        }
+        return code;
+    }
+
+    /**
+     * Loads the verified account's outbox and starts delivering it without
+     * waiting out the current backoff. Call once the account is verified
+     * (login, restart).
+     */
+    public synchronized void resume()
+    {
+        // A pending load does the same once the file has been read.
+        if (!openVerifiedAccount() || !loaded || entries.isEmpty()) return;
+
+        log.debug("[outbox] resuming {} pending request(s) for {}", entries.size(), account);
+        long now = clock.getAsLong();
+        for (Entry e : entries)
+        {
+            e.setNextAttemptAt(Math.min(e.getNextAttemptAt(), now));
+        }
+        if (drainTask != null)
+        {
+            drainTask.cancel(false);
+            drainTask = null;
+        }
+        scheduleDrain(0L);
+    }
+
+    /**
+     * Stops delivery and waits (up to the sync timeout, for a request already
+     * in flight) for the queued writes; pending requests stay on disk for the
+     * next {@link #resume()}.
+     */
+    public void shutdown()
+    {
+        ScheduledExecutorService stopping;
+        synchronized (this)
+        {
+            if (drainTask != null)
+            {
+                drainTask.cancel(false);
+                drainTask = null;
+            }
+            persist();
+            stopped  = true;
+            stopping = executor;
+            stopping.shutdown();
+        }
+
+        try
+        {
+            stopping.awaitTermination(config.syncTimeout(), TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Registers {@code listener} for queued requests with {@code coalesceKey}
+     * that are dropped after a non-retryable status. Immediate attempts made
+     * by {@link #sendForStatus} are not reported; their caller sees the status.
+     */
+    public void setRejectionListener(String coalesceKey, RejectionListener listener)
+    {
+        rejectionListeners.put(coalesceKey, listener);
+    }
+
+    /** Test seam: waits for every task already queued on the outbox thread. */
+    void awaitQueuedTasks() throws Exception
+    {
+        executor().submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+
+    /** Number of requests waiting for the loaded account. */
+    public synchronized int pendingCount()
+    {
+        return entries.size();
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  QUEUE
+    // ═════════════════════════════════════════════════════════════════════════
+
+    private Entry newEntry(String path, String json, String coalesceKey)
+    {
+        long now = clock.getAsLong();
+        Entry entry = new Entry();
+        entry.setPath(path);
+        entry.setBody(json);
+        entry.setCoalesceKey(coalesceKey);
+        entry.setCreatedAt(now);
+        entry.setNextAttemptAt(now);
+        return entry;
+    }
+
+    /**
+     * Makes the verified account's queue the open one. On an account switch
+     * the previous queue is handed to the outbox thread to be written, and
+     * the new account's file is read there too; until that load has run the
+     * new queue holds only what was offered since.
+     *
+     * @return {@code false} when no account is verified
+     */
+    private boolean openVerifiedAccount()
+    {
+        String username = state.getVerifiedUsername();
+        if (username == null || username.isEmpty()) return false;
+
+        String key = username.toLowerCase();
+        if (!key.equals(account))
+        {
+            if (account != null)
+            {
+                String      previous       = account;
+                List<Entry> previousQueue  = entries;
+                boolean     previousLoaded = loaded;
+                executor().execute(() -> saveDetached(previous, previousQueue, previousLoaded));
+            }
+
+            account = key;
+            entries = new ArrayList<>();
+            nextSeq = 0L;
+            loaded  = false;
+            long loadGeneration = ++generation;
+            loadTask = executor().submit(() -> loadAccount(key, loadGeneration));
+        }
+        return true;
+    }
+
+    /** Blocks a background caller until the open account's pending load, if any, has run. */
+    private void awaitLoaded()
+    {
+        Future<?> pending;
+        synchronized (this)
+        {
+            if (!openVerifiedAccount() || loaded) return;
+            pending = loadTask;
+        }
+
+        try
+        {
+            pending.get(config.syncTimeout(), TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (Exception e)
+        {
+            log.debug("[outbox] waiting for the outbox to load failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Outbox thread: reads {@code key}'s file and puts its requests ahead of
+     * the ones offered since the switch, which are newer and may supersede
+     * them, then starts delivery without waiting out the stored backoff.
+     */
+    private void loadAccount(String key, long loadGeneration)
+    {
+        List<Entry> stored = load(getFile(key));
+        synchronized (this)
+        {
+            if (loadGeneration != generation) return;
+
+            List<Entry> offered = entries;
+            entries = stored;
+            nextSeq = maxSeq(stored);
+            for (Entry e : offered)
+            {
+                offer(e);
+            }
+            loaded = true;
+
+            long now = clock.getAsLong();
+            for (Entry e : entries)
+            {
+                e.setNextAttemptAt(Math.min(e.getNextAttemptAt(), now));
+            }
+            if (!offered.isEmpty()) persist();
+            if (!entries.isEmpty())
+            {
+                log.debug("[outbox] loaded {} pending request(s) for {}", entries.size(), key);
+                scheduleDrain(0L);
+            }
+        }
+    }
+
+    /**
+     * Outbox thread: writes a queue whose account is no longer open, merging
+     * it into the stored file first if that file was never loaded.
+     */
+    private void saveDetached(String key, List<Entry> queue, boolean queueLoaded)
+    {
+        List<Entry> snapshot;
+        synchronized (this)
+        {
+            snapshot = copyOf(queue);
+        }
+
+        File file = getFile(key);
+        if (queueLoaded)
+        {
+            write(file, snapshot);
+            return;
+        }
+
+        List<Entry> stored = load(file);
+        long seq = maxSeq(stored);
+        long cutoff = clock.getAsLong() - MAX_AGE_MS;
+        for (Entry e : snapshot)
+        {
+            e.setSeq(++seq);
+            append(stored, e, cutoff);
+        }
+        write(file, stored);
+    }
+
+    /** Appends {@code entry}, dropping requests it supersedes and enforcing the bounds. */
+    private void offer(Entry entry)
+    {
+        entry.setSeq(++nextSeq);
+        append(entries, entry, clock.getAsLong() - MAX_AGE_MS);
+    }
+
+    private static void append(List<Entry> queue, Entry entry, long cutoff)
+    {
+        dropSuperseded(queue, entry);
+        queue.add(entry);
+
+        queue.removeIf(e -> e.getCreatedAt() < cutoff);
+        while (queue.size() > MAX_ENTRIES)
+        {
+            Entry dropped = queue.remove(0);
+            log.debug("[outbox] full — dropping oldest request to {}", dropped.getPath());
+        }
+    }
+
+    private static long maxSeq(List<Entry> queue)
+    {
+        long max = 0L;
+        for (Entry e : queue)
+        {
+            max = Math.max(max, e.getSeq());
+        }
+        return max;
+    }
+
+    private void dropSuperseded(Entry entry)
+    {
+        dropSuperseded(entries, entry);
+    }
+
+    private static void dropSuperseded(List<Entry> queue, Entry entry)
+    {
+        if (entry.getCoalesceKey() == null) return;
+        for (Iterator<Entry> it = queue.iterator(); it.hasNext(); )
+        {
+            Entry e = it.next();
+            if (entry.getCoalesceKey().equals(e.getCoalesceKey()))
+            {
+                log.debug("[outbox] {} superseded", e.getCoalesceKey());
+                it.remove();
+            }
+        }
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  DELIVERY
+    // ═════════════════════════════════════════════════════════════════════════
+
+    private void scheduleDrain(long delayMs)
+    {
+        // A running drain re-reads the queue before it exits.
+        if (draining) return;
+        if (drainTask != null && !drainTask.isDone())
+        {
+            if (drainTask.getDelay(TimeUnit.MILLISECONDS) <= delayMs) return;
+            drainTask.cancel(false);
+        }
+        drainTask = executor().schedule(this::drain, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** The delivery executor, recreated if a plugin restart shut it down. */
+    private ScheduledExecutorService executor()
+    {
+        if (executor.isShutdown())
+        {
+            executor = newExecutor();
+            stopped  = false;
+        }
+        return executor;
+    }
+
+    /** Delivers requests oldest first until the queue is empty or the head has to back off. */
+    private void drain()
+    {
+        while (true)
+        {
+            Entry       head;
+            List<Entry> queue;
+            String      owner;
+            synchronized (this)
+            {
+                drainTask = null;
+                String token = state.getVerificationCode();
+                String user  = state.getVerifiedUsername();
+                if (stopped || !loaded || entries.isEmpty() || token == null || token.isEmpty()
+                        || user == null || !user.toLowerCase().equals(account))
+                {
+                    // Nothing to do, or another account is active — resume() / the load restarts us.
+                    draining = false;
+                    return;
+                }
+
+                head = entries.get(0);
+                long wait = head.getNextAttemptAt() - clock.getAsLong();
+                if (wait > 0)
+                {
+                    draining = false;
+                    scheduleDrain(wait);
+                    return;
+                }
+                queue    = entries;
+                owner    = account;
+                draining = true;
+            }
+
+            int code = post(head.getPath(), head.getBody());
+
+            long retryDelay = -1L;
+            synchronized (this)
+            {
+                // After an account switch the queue is detached; its pending
+                // saveDetached (queued behind this drain) writes the result.
+                if (isSuccess(code) || !isRetryable(code))
+                {
+                    if (!isSuccess(code))
+                    {
+                        log.debug("[outbox] dropping request to {} after HTTP {}", head.getPath(), code);
+                    }
+                    queue.remove(head);
+                }
+                else
+                {
+                    head.setAttempts(head.getAttempts() + 1);
+                    if (queue == entries)
+                    {
+                        retryDelay = backoffMs(head.getAttempts());
+                        head.setNextAttemptAt(clock.getAsLong() + retryDelay);
+                        log.debug("[outbox] {} failed (HTTP {}), attempt {} — retrying in {} ms; {} pending",
+                                head.getPath(), code, head.getAttempts(), retryDelay, entries.size());
+                    }
+                }
+            }
+
+            // Already on the outbox thread: write now rather than behind this loop.
+            writeQueue();
+
+            if (!isSuccess(code) && !isRetryable(code))
+            {
+                notifyRejected(owner, head, code);
+            }
+
+            if (retryDelay >= 0)
+            {
+                synchronized (this)
+                {
+                    draining = false;
+                    scheduleDrain(retryDelay);
+                }
+                return;
+            }
+        }
+    }
+
+    private void notifyRejected(String owner, Entry entry, int code)
+    {
+        RejectionListener listener = entry.getCoalesceKey() != null
+                ? rejectionListeners.get(entry.getCoalesceKey())
+                : null;
+        if (listener == null) return;
+        try
+        {
+            listener.rejected(owner, entry, code);
+        }
+        catch (Exception e)
+        {
+            log.debug("[outbox] rejection listener for {} failed: {}", entry.getCoalesceKey(), e.getMessage());
+        }
+    }
+
+    /** Delay before the next attempt after {@code attempts} failures: doubling, capped, with equal jitter. */
+    long backoffMs(int attempts)
+    {
+        long delay = Math.min(MAX_DELAY_MS, baseDelayMs << Math.min(attempts - 1, 20));
+        long half  = delay / 2;
+        return half + (long) (random.nextDouble() * (delay - half));
+    }
+
+    static boolean isSuccess(int code)
+    {
+        return code >= 200 && code < 300;
+    }
+
+    static boolean isRetryable(int code)
+    {
+        return code == NETWORK_FAILURE || code == 408 || code == 429 || code >= 500;
+    }
+
+    /** Blocking POST with the current token; returns the HTTP status, or {@value #NETWORK_FAILURE}. */
+    private int post(String path, String json)
+    {
+        Request.Builder rb = new Request.Builder()
+                .url(config.apiUrl() + path)
+                .post(RequestBody.create(JSON, json))
+                .addHeader("Content-Type", "application/json")
+                .addHeader("Accept",       "application/json");
+
+        String token = state.getVerificationCode();
+        if (token != null && !token.isEmpty())
+        {
+            rb.addHeader("Authorization", "Bearer " + token);
+        }
+
+        try (Response response = httpClient.newCall(rb.build()).execute())
+        {
+            if (response.isSuccessful())
+            {
+                log.debug("[outbox] {} ok", path);
+            }
+            else
+            {
+                String responseBody = response.body() != null ? response.body().string() : "";
+                log.debug("[outbox] {} failed: HTTP {} — {}", path, response.code(), responseBody);
+            }
+            return response.code();
+        }
+        catch (IOException e)
+        {
+            log.debug("[outbox] {} network failure: {}", path, e.getMessage());
+            return NETWORK_FAILURE;
+        }
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  PERSISTENCE
+    // ═════════════════════════════════════════════════════════════════════════
+
+    /** Queues a write of the open account's queue on the outbox thread. Caller holds the monitor. */
+    private void persist()
+    {
+        if (account == null || persistQueued) return;
+        persistQueued = true;
+        executor().execute(this::writeQueue);
+    }
+
+    /** Outbox thread: writes a copy of the open account's queue, once it has been loaded. */
+    private void writeQueue()
+    {
+        File        file;
+        List<Entry> snapshot;
+        synchronized (this)
+        {
+            persistQueued = false;
+            if (account == null || !loaded) return;
+            file     = getFile(account);
+            snapshot = copyOf(entries);
+        }
+        write(file, snapshot);
+    }
+
+    /** Field copies, so a queue can be serialised off the monitor while delivery updates it. */
+    private static List<Entry> copyOf(List<Entry> queue)
+    {
+        List<Entry> copy = new ArrayList<>(queue.size());
+        for (Entry e : queue)
+        {
+            Entry c = new Entry();
+            c.setSeq(e.getSeq());
+            c.setPath(e.getPath());
+            c.setBody(e.getBody());
+            c.setCoalesceKey(e.getCoalesceKey());
+            c.setCreatedAt(e.getCreatedAt());
+            c.setAttempts(e.getAttempts());
+            c.setNextAttemptAt(e.getNextAttemptAt());
+            copy.add(c);
+        }
+        return copy;
+    }
+
+    private List<Entry> load(File file)
+    {
+        if (!file.exists()) return new ArrayList<>();
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))
+        {
+            List<Entry> loaded = gson.fromJson(reader, ENTRY_LIST);
+            return loaded != null ? new ArrayList<>(loaded) : new ArrayList<>();
+        }
+        catch (Exception e)
+        {
+            log.debug("Failed to read outbox {}", file.getName(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    private void write(File file, List<Entry> list)
+    {
+        try
+        {
+            if (list.isEmpty())
+            {
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+
+            File parentDir = file.getParentFile();
+            if (parentDir != null && !parentDir.exists())
+            {
+                parentDir.mkdirs();
+            }
+
+            File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8))
+            {
+                gson.toJson(list, ENTRY_LIST, writer);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e)
+        {
+            log.debug("Failed to write outbox {}", file.getName(), e);
+        }
+    }
+
+    File getFile(String username)
+    {
+        return new File(storageDir, FILE_PREFIX + username.toLowerCase().replaceAll("[^a-z0-9_-]", "_") + FILE_SUFFIX);
+    }
+}
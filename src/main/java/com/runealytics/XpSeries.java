@@ -0,0 +1,214 @@
+package com.runealytics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-capacity ring buffer of {@code (timeMs, value)} pairs held in two
+ * primitive arrays, for the XP tracker's per-drop and per-sample histories.
+ *
+ * <p>Recording into the buffer never allocates: once full, {@link #add}
+ * overwrites the oldest pair and {@link #addDecimating} first halves the
+ * buffer in place (every other pair, always keeping the newest). Readers get
+ * an immutable {@link View} copied from the buffer; it is cached until the
+ * next mutation, so a UI refresh that finds nothing new costs no copy.</p>
+ *
+ * <p>Every view also carries the sequence number of its oldest pair and a
+ * generation, unique across all series, that changes whenever pairs are
+ * rewritten rather than only appended or dropped from the front (decimation,
+ * clear). Two views of the same generation therefore come from the same
+ * series and agree on every pair they share, which lets
+ * {@link XpSeriesPyramid} extend itself instead of rebuilding.</p>
+ *
+ * <p>Not thread-safe: the owner guards every call, as
+ * {@link RuneAlyticsXpSkillState} does with its own monitor. Views are safe to
+ * hand to any thread.</p>
+ */
+final class XpSeries
+{
+    private static final AtomicInteger GENERATIONS = new AtomicInteger();
+
+    private final long[] times;
+    private final long[] values;
+
+    /** Physical index of the oldest pair. */
+    private int head;
+    private int size;
+
+    /** Sequence number of the oldest pair: pairs dropped from the front since the generation began. */
+    private long firstSeq;
+    /** Replaced when pairs are rewritten in place. */
+    private int generation = GENERATIONS.incrementAndGet();
+
+    /** Cached {@link #view()}; {@code null} after any mutation. */
+    private View view = View.EMPTY;
+
+    XpSeries(int capacity)
+    {
+        if (capacity < 2) throw new IllegalArgumentException("capacity must be at least 2");
+        this.times  = new long[capacity];
+        this.values = new long[capacity];
+    }
+
+    int capacity()
+    {
+        return times.length;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    /** Appends a pair, overwriting the oldest one when full. */
+    void add(long timeMs, long value)
+    {
+        int cap  = times.length;
+        int tail = (head + size) % cap;
+        times[tail]  = timeMs;
+        values[tail] = value;
+        if (size == cap)
+        {
+            head = (head + 1) % cap;
+            firstSeq++;
+        }
+        else
+        {
+            size++;
+        }
+        view = null;
+    }
+
+    /**
+     * Appends a pair; when full, first thins the buffer to every other pair
+     * (oldest first, newest always kept) so the series keeps spanning its whole
+     * history at half the resolution.
+     */
+    void addDecimating(long timeMs, long value)
+    {
+        if (size == times.length) decimate();
+        add(timeMs, value);
+    }
+
+    /** Keeps logical pairs 0, 2, 4, … plus the newest, compacted in place. */
+    private void decimate()
+    {
+        int cap  = times.length;
+        int kept = 0;
+        for (int i = 0; i < size; i += 2)
+        {
+            move(i, kept++, cap);
+        }
+        if ((size & 1) == 0)
+        {
+            // Even size: the newest pair sits at an odd index and was skipped.
+            move(size - 1, kept++, cap);
+        }
+        size = kept;
+        firstSeq = 0L;
+        generation = GENERATIONS.incrementAndGet();
+        view = null;
+    }
+
+    private void move(int from, int to, int cap)
+    {
+        if (from == to) return;
+        int src = (head + from) % cap;
+        int dst = (head + to) % cap;
+        times[dst]  = times[src];
+        values[dst] = values[src];
+    }
+
+    /** Drops the oldest pairs whose time is before {@code cutoffMs}. */
+    void pruneBefore(long cutoffMs)
+    {
+        int cap = times.length;
+        int dropped = 0;
+        while (size > 0 && times[head] < cutoffMs)
+        {
+            head = (head + 1) % cap;
+            size--;
+            dropped++;
+        }
+        firstSeq += dropped;
+        if (dropped > 0) view = null;
+    }
+
+    void clear()
+    {
+        head = 0;
+        size = 0;
+        firstSeq = 0L;
+        generation = GENERATIONS.incrementAndGet();
+        view = View.EMPTY;
+    }
+
+    /** Immutable copy of the current contents, oldest first. */
+    View view()
+    {
+        View v = view;
+        if (v != null) return v;
+
+        long[] t = new long[size];
+        long[] x = new long[size];
+        int cap   = times.length;
+        int first = Math.min(size, cap - head);
+        System.arraycopy(times,  head, t, 0, first);
+        System.arraycopy(values, head, x, 0, first);
+        System.arraycopy(times,  0, t, first, size - first);
+        System.arraycopy(values, 0, x, first, size - first);
+
+        v = new View(t, x, firstSeq, generation);
+        view = v;
+        return v;
+    }
+
+    /** Read-only snapshot of an {@link XpSeries}, oldest pair at index 0. */
+    static final class View
+    {
+        static final View EMPTY = new View(new long[0], new long[0], 0L, -1);
+
+        private final long[] times;
+        private final long[] values;
+        private final long firstSeq;
+        private final int generation;
+
+        private View(long[] times, long[] values, long firstSeq, int generation)
+        {
+            this.times      = times;
+            this.values     = values;
+            this.firstSeq   = firstSeq;
+            this.generation = generation;
+        }
+
+        int size()
+        {
+            return times.length;
+        }
+
+        boolean isEmpty()
+        {
+            return times.length == 0;
+        }
+
+        long timeAt(int i)
+        {
+            return times[i];
+        }
+
+        long valueAt(int i)
+        {
+            return values[i];
+        }
+
+        /** Sequence number of pair 0; pair {@code i} is {@code firstSeq() + i}. */
+        long firstSeq()
+        {
+            return firstSeq;
+        }
+
+        int generation()
+        {
+            return generation;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.runealytics;
+
+import java.util.Arrays;
+
+/**
+ * Multi-resolution downsampling of an {@link XpSeries} for plotting.
+ *
+ * <p>Level 0 is every sample; each following level keeps one point out of
+ * every pair of the level below, chosen Largest-Triangle-Three-Buckets
+ * (LTTB) style — the one forming the largest triangle with the previously
+ * kept point and the average of the next pair — so the samples that shape
+ * the line (peaks, dips, corners) survive instead of every other one. A new
+ * level is started once the one below reaches twice {@link #MIN_LEVEL_SIZE}.
+ * {@link #select} then only has to thin a level that is less than twice the
+ * requested size.</p>
+ *
+ * <p>The pyramid is built once per series and kept up to date by
+ * {@link #update}: new samples are appended to level 0 and each level only
+ * settles the pairs that became complete, and samples the series dropped
+ * from the front are trimmed from every level. Only a rewritten series (a
+ * new {@link XpSeries.View#generation()}) needs a rebuild.</p>
+ *
+ * <p>Levels hold sample sequence numbers ({@link XpSeries.View#firstSeq()}
+ * plus the index), so a plotted point is always a real sample and its
+ * tooltip shows a recorded value, not an average.</p>
+ *
+ * <p>Not thread-safe; owned by one {@link XpSparkline} on the EDT.</p>
+ */
+final class XpSeriesPyramid
+{
+    /** Levels are not thinned below this many points. */
+    static final int MIN_LEVEL_SIZE = 64;
+
+    private XpSeries.View view;
+    private Level[] levels = new Level[0];
+
+    XpSeriesPyramid(XpSeries.View view)
+    {
+        this.view = view;
+        addLevel();
+        append(0, view.size());
+    }
+
+    XpSeries.View view()
+    {
+        return view;
+    }
+
+    int depth()
+    {
+        return levels.length;
+    }
+
+    int levelSize(int level)
+    {
+        return levels[level].size;
+    }
+
+    /**
+     * Moves the pyramid to {@code next}, a later view of the same series:
+     * trims what it dropped from the front and settles what it appended.
+     *
+     * @return {@code false} when {@code next} is not an extension of the
+     *         current view and a new pyramid has to be built
+     */
+    boolean update(XpSeries.View next)
+    {
+        if (next == view) return true;
+
+        long oldEnd = view.firstSeq() + view.size();
+        long newEnd = next.firstSeq() + next.size();
+        if (next.generation() != view.generation() || next.firstSeq() < view.firstSeq() || newEnd < oldEnd)
+        {
+            return false;
+        }
+
+        view = next;
+        for (Level level : levels)
+        {
+            level.trimBefore(next.firstSeq());
+        }
+        append((int) Math.max(0L, oldEnd - next.firstSeq()), next.size());
+        return true;
+    }
+
+    /**
+     * Ascending sample indices for a plot about {@code target} points wide:
+     * the whole series if it already fits, otherwise the coarsest level that
+     * still has at least {@code target} points, thinned to exactly that.
+     */
+    int[] select(int target)
+    {
+        int level = 0;
+        while (level + 1 < levels.length && levels[level + 1].size >= target) level++;
+        return lttb(view, indices(level), target);
+    }
+
+    /**
+     * View indices covering the whole series at {@code level}'s resolution:
+     * the first sample, the level itself, then the not yet settled tail of
+     * each level below it, and the last sample.
+     */
+    private int[] indices(int level)
+    {
+        int n = view.size();
+        if (n == 0) return new int[0];
+
+        int count = levels[level].size;
+        for (int k = level - 1; k >= 0; k--) count += levels[k].pending();
+
+        int[] idx = new int[count + 2];
+        int out = 0;
+        idx[out++] = 0;
+        out = copy(levels[level], 0, idx, out);
+        for (int k = level - 1; k >= 0; k--)
+        {
+            out = copy(levels[k], levels[k].size - levels[k].pending(), idx, out);
+        }
+        if (idx[out - 1] != n - 1) idx[out++] = n - 1;
+
+        return out == idx.length ? idx : Arrays.copyOf(idx, out);
+    }
+
+    /** Appends {@code level}'s entries from {@code from}, skipping any already written. */
+    private int copy(Level level, int from, int[] idx, int out)
+    {
+        for (int i = from; i < level.size; i++)
+        {
+            int index = (int) (level.get(i) - view.firstSeq());
+            if (index > idx[out - 1]) idx[out++] = index;
+        }
+        return out;
+    }
+
+    // ── Incremental build ───────────────────────────────────────────────────
+
+    /** Feeds view indices {@code [from, to)} into level 0 and settles every level above. */
+    private void append(int from, int to)
+    {
+        for (int i = from; i < to; i++)
+        {
+            levels[0].add(view.firstSeq() + i);
+        }
+        for (int k = 1; k <= levels.length; k++)
+        {
+            if (k == levels.length)
+            {
+                if (levels[k - 1].size < 2 * MIN_LEVEL_SIZE) break;
+                addLevel();
+            }
+            settle(levels[k - 1], levels[k]);
+        }
+    }
+
+    private void addLevel()
+    {
+        Level[] grown = Arrays.copyOf(levels, levels.length + 1);
+        grown[levels.length] = new Level();
+        levels = grown;
+    }
+
+    /**
+     * Settles every pair of {@code src} whose following pair is complete: the
+     * point of the pair forming the largest triangle with the last point kept
+     * in {@code dst} and the following pair's average goes to {@code dst}.
+     */
+    private void settle(Level src, Level dst)
+    {
+        long t0 = view.size() > 0 ? view.timeAt(0) : 0L;
+        int start = src.size - src.pending();
+        while (src.size - start >= 4)
+        {
+            int p = index(src.get(start));
+            int q = index(src.get(start + 1));
+            int c1 = index(src.get(start + 2));
+            int c2 = index(src.get(start + 3));
+
+            long kept;
+            if (dst.size == 0)
+            {
+                kept = src.get(start);
+            }
+            else
+            {
+                int a = index(dst.get(dst.size - 1));
+                double ax = view.timeAt(a) - t0;
+                double ay = view.valueAt(a);
+                double cx = ((view.timeAt(c1) - t0) + (view.timeAt(c2) - t0)) / 2.0;
+                double cy = (view.valueAt(c1) + view.valueAt(c2)) / 2.0;
+                kept = area(ax, ay, cx, cy, p, t0) >= area(ax, ay, cx, cy, q, t0)
+                        ? src.get(start) : src.get(start + 1);
+            }
+
+            dst.add(kept);
+            src.settledThrough = src.get(start + 1);
+            start += 2;
+        }
+    }
+
+    private double area(double ax, double ay, double cx, double cy, int i, long t0)
+    {
+        double bx = view.timeAt(i) - t0;
+        double by = view.valueAt(i);
+        return Math.abs((ax - cx) * (by - ay) - (ax - bx) * (cy - ay));
+    }
+
+    private int index(long seq)
+    {
+        return (int) (seq - view.firstSeq());
+    }
+
+    /** Growable ring of ascending sample sequence numbers. */
+    private static final class Level
+    {
+        private long[] seqs = new long[16];
+        private int head;
+        private int size;
+        /** Last entry of this level already folded into the level above; {@code -1} for none. */
+        private long settledThrough = -1L;
+
+        long get(int i)
+        {
+            return seqs[(head + i) % seqs.length];
+        }
+
+        void add(long seq)
+        {
+            if (size == seqs.length)
+            {
+                long[] grown = new long[seqs.length * 2];
+                for (int i = 0; i < size; i++) grown[i] = get(i);
+                seqs = grown;
+                head = 0;
+            }
+            seqs[(head + size) % seqs.length] = seq;
+            size++;
+        }
+
+        void trimBefore(long firstSeq)
+        {
+            while (size > 0 && seqs[head] < firstSeq)
+            {
+                head = (head + 1) % seqs.length;
+                size--;
+            }
+        }
+
+        /** Entries after {@link #settledThrough}; always the tail of the level. */
+        int pending()
+        {
+            int n = 0;
+            while (n < size && get(size - 1 - n) > settledThrough) n++;
+            return n;
+        }
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets over the points {@code idx} of
+     * {@code view}. Returns {@code idx} itself when it already has at most
+     * {@code threshold} points (or when {@code threshold < 3}); otherwise
+     * {@code threshold} ascending indices that always include the first and
+     * last point.
+     */
+    static int[] lttb(XpSeries.View view, int[] idx, int threshold)
+    {
+        int n = idx.length;
+        if (threshold >= n || threshold < 3) return idx;
+
+        // Times relative to the first sample keep the area products well inside double precision.
+        long t0 = view.timeAt(idx[0]);
+
+        int[] out = new int[threshold];
+        out[0] = idx[0];
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+
+        for (int i = 0; i < threshold - 2; i++)
+        {
+            int avgStart = (int) ((i + 1) * every) + 1;
+            int avgEnd   = Math.min((int) ((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++)
+            {
+                avgX += view.timeAt(idx[j]) - t0;
+                avgY += view.valueAt(idx[j]);
+            }
+            int avgLen = avgEnd - avgStart;
+            avgX /= avgLen;
+            avgY /= avgLen;
+
+            int rangeStart = (int) (i * every) + 1;
+            int rangeEnd   = (int) ((i + 1) * every) + 1;
+            double ax = view.timeAt(idx[a]) - t0;
+            double ay = view.valueAt(idx[a]);
+
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++)
+            {
+                double area = Math.abs((ax - avgX) * (view.valueAt(idx[j]) - ay)
+                        - (ax - (view.timeAt(idx[j]) - t0)) * (avgY - ay));
+                if (area > maxArea)
+                {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            out[i + 1] = idx[next];
+            a = next;
+        }
+
+        out[threshold - 1] = idx[n - 1];
+        return out;
+    }
+}
@@ -17,10 +17,20 @@ import java.awt.event.MouseMotionAdapter;
 import java.awt.event.MouseWheelEvent;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Path2D;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * XP/hr line chart for the XP tab.
+ *
+ * <p>The grid, labels, line and outlier markers are rendered once into an
+ * offscreen image and reused until the samples, the y-axis (zoom or rescale),
+ * the colour or the size change; hovering only blits that image and draws
+ * the marker on top. The line is drawn from an {@link XpSeriesPyramid}
+ * thinned to about one point per pixel, so a session that has been open for
+ * hours costs the same to paint as a short one, and hover hit-testing is a
+ * binary search over the plotted x positions.</p>
+ */
 class XpSparkline extends JComponent
 {
     private static final Color GRID = new Color(95, 95, 95, 110);
@@ -42,13 +52,16 @@ class XpSparkline extends JComponent
     private static final double MAX_ZOOM = 4.0;
 
     private Color lineColor = LINE_DEFAULT;
-    private List<RuneAlyticsXpSkillState.Sample> samples = java.util.Collections.emptyList();
+    private XpSeries.View samples = XpSeries.View.EMPTY;
 
     private int lastSize = -1;
     private long lastSig = Long.MIN_VALUE;
 
-    private int gPadL, gPlotW;
-    private long gT0, gSpan;
+    /** Downsampling levels for {@link #samples}; extended as samples arrive, rebuilt only when the series is rewritten. */
+    private XpSeriesPyramid pyramid;
+
+    /** The last rendered chart. */
+    private Plot plot;
 
     private int hoverIdx = -1;
 
@@ -128,10 +141,10 @@ class XpSparkline extends JComponent
         repaint();
     }
 
-    void setSamples(List<RuneAlyticsXpSkillState.Sample> s)
+    /** Sets the plotted series: time = wall ms, value = XP/hr. */
+    void setSamples(XpSeries.View s)
     {
-        List<RuneAlyticsXpSkillState.Sample> next =
-                s != null ? s : java.util.Collections.emptyList();
+        XpSeries.View next = s != null ? s : XpSeries.View.EMPTY;
 
         samples = next;
 
@@ -140,8 +153,7 @@ class XpSparkline extends JComponent
 
         if (size > 0)
         {
-            RuneAlyticsXpSkillState.Sample last = next.get(size - 1);
-            sig = last.timeMs * 31L + last.totalGained;
+            sig = next.timeAt(size - 1) * 31L + next.valueAt(size - 1);
         }
 
         if (hoverIdx >= size)
@@ -166,32 +178,83 @@ class XpSparkline extends JComponent
         repaint();
     }
 
-    private int nearestIndex(int mx)
+    /** Geometry and offscreen image of one rendered chart. */
+    private static final class Plot
     {
-        List<RuneAlyticsXpSkillState.Sample> data = samples;
+        final XpSeries.View data;
+        final int w;
+        final int h;
+        final double scale;
+        final long maxY;
+        final Color color;
+
+        int padL;
+        int padT;
+        int plotW;
+        int plotH;
+        int baseY;
+        long t0;
+        long span;
+
+        /** Plotted sample indices and their x positions, both ascending; empty below two samples. */
+        int[] idx = new int[0];
+        int[] xs = new int[0];
+
+        BufferedImage image;
+
+        Plot(XpSeries.View data, int w, int h, double scale, long maxY, Color color)
+        {
+            this.data  = data;
+            this.w     = w;
+            this.h     = h;
+            this.scale = scale;
+            this.maxY  = maxY;
+            this.color = color;
+        }
 
-        if (data.size() < 2 || gSpan <= 0)
+        boolean matches(XpSeries.View data, int w, int h, double scale, long maxY, Color color)
+        {
+            return this.data == data && this.w == w && this.h == h && this.scale == scale
+                    && this.maxY == maxY && this.color.equals(color);
+        }
+    }
+
+    private int nearestIndex(int mx)
+    {
+        Plot p = plot;
+        if (p == null || p.xs.length == 0)
         {
             return -1;
         }
 
-        int best = -1;
-        int bestDist = Integer.MAX_VALUE;
+        return p.idx[nearestPosition(p.xs, mx)];
+    }
 
-        for (int i = 0; i < data.size(); i++)
-        {
-            double fx = (data.get(i).timeMs - gT0) / (double) gSpan;
-            int x = gPadL + (int) Math.round(fx * gPlotW);
-            int d = Math.abs(x - mx);
+    /** Position in the ascending {@code xs} closest to {@code mx}; ties go to the left. */
+    static int nearestPosition(int[] xs, int mx)
+    {
+        int lo = 0;
+        int hi = xs.length - 1;
 
-            if (d < bestDist)
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (xs[mid] < mx)
             {
-                bestDist = d;
-                best = i;
+                lo = mid + 1;
+            }
+            else
+            {
+                hi = mid;
             }
         }
 
-        return best;
+        if (lo > 0 && mx - xs[lo - 1] <= xs[lo] - mx)
+        {
+            return lo - 1;
+        }
+
+        return lo;
     }
 
     @Override
@@ -199,36 +262,37 @@ class XpSparkline extends JComponent
     {
         int idx = nearestIndex(e.getX());
 
-        if (idx < 0 || idx >= samples.size())
+        Plot p = plot;
+        XpSeries.View data = p != null ? p.data : XpSeries.View.EMPTY;
+        if (idx < 0 || idx >= data.size())
         {
             return null;
         }
 
-        RuneAlyticsXpSkillState.Sample s = samples.get(idx);
-        String when = XpFormat.ago(System.currentTimeMillis() - s.timeMs);
+        String when = XpFormat.ago(System.currentTimeMillis() - data.timeAt(idx));
 
-        return "<html><b>" + XpFormat.compactUpper(s.totalGained) + "</b> xp/hr<br>"
+        return "<html><b>" + XpFormat.compactUpper(data.valueAt(idx)) + "</b> xp/hr<br>"
                 + "<span style='color:#9aa2b2'>" + when + "</span></html>";
     }
 
-    private long calculateVisibleMax(List<RuneAlyticsXpSkillState.Sample> data)
+    private long calculateVisibleMax(XpSeries.View data)
     {
         if (data == null || data.isEmpty())
         {
             return 100_000L;
         }
 
-        List<Long> values = new ArrayList<>();
+        long[] values = new long[data.size()];
         long rawMax = 1L;
 
-        for (RuneAlyticsXpSkillState.Sample s : data)
+        for (int i = 0; i < values.length; i++)
         {
-            long value = Math.max(0L, s.totalGained);
-            values.add(value);
+            long value = Math.max(0L, data.valueAt(i));
+            values[i] = value;
             rawMax = Math.max(rawMax, value);
         }
 
-        Collections.sort(values);
+        Arrays.sort(values);
 
         long median = percentile(values, 0.50);
         long p75 = percentile(values, 0.75);
@@ -251,17 +315,17 @@ class XpSparkline extends JComponent
         return roundUpToIncrement(zoomedMax, increment);
     }
 
-    static long percentile(List<Long> sorted, double pct)
+    static long percentile(long[] sorted, double pct)
     {
-        if (sorted == null || sorted.isEmpty())
+        if (sorted == null || sorted.length == 0)
         {
             return 0L;
         }
 
-        int index = (int) Math.floor((sorted.size() - 1) * pct);
-        index = Math.max(0, Math.min(sorted.size() - 1, index));
+        int index = (int) Math.floor((sorted.length - 1) * pct);
+        index = Math.max(0, Math.min(sorted.length - 1, index));
 
-        return sorted.get(index);
+        return sorted[index];
     }
 
     static long incrementFor(long maxValue)
@@ -317,10 +381,57 @@ class XpSparkline extends JComponent
         try
         {
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 
             int w = getWidth();
             int h = getHeight();
+            double scale = g2.getTransform().getScaleX();
+
+            XpSeries.View data = samples;
+            long maxY = displayedMaxY > 0 ? displayedMaxY : calculateVisibleMax(data);
+
+            Plot p = plot;
+            if (p == null || !p.matches(data, w, h, scale, maxY, lineColor))
+            {
+                p = render(data, w, h, scale, maxY, lineColor, g2.getFont());
+                plot = p;
+            }
+
+            g2.drawImage(p.image, 0, 0, w, h, null);
+            paintHover(g2, p);
+        }
+        finally
+        {
+            g2.dispose();
+        }
+    }
+
+    private XpSeriesPyramid pyramidFor(XpSeries.View data)
+    {
+        XpSeriesPyramid pyr = pyramid;
+        if (pyr == null || !pyr.update(data))
+        {
+            pyr = new XpSeriesPyramid(data);
+            pyramid = pyr;
+        }
+        return pyr;
+    }
+
+    /** Draws grid, labels, line and outlier markers into a new {@link Plot} image. */
+    private Plot render(XpSeries.View data, int w, int h, double scale, long maxY, Color lineCol, Font font)
+    {
+        Plot p = new Plot(data, w, h, scale, maxY, lineCol);
+        p.image = new BufferedImage(
+                Math.max(1, (int) Math.ceil(w * scale)),
+                Math.max(1, (int) Math.ceil(h * scale)),
+                BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g2 = p.image.createGraphics();
+
+        try
+        {
+            g2.scale(scale, scale);
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 
             int padL = 6;
             int padR = 6;
@@ -331,13 +442,15 @@ class XpSparkline extends JComponent
             int plotH = Math.max(1, h - padT - padB);
             int baseY = h - padB;
 
-            List<RuneAlyticsXpSkillState.Sample> data = samples;
+            p.padL = padL;
+            p.padT = padT;
+            p.plotW = plotW;
+            p.plotH = plotH;
+            p.baseY = baseY;
 
-            long maxY = displayedMaxY > 0 ? displayedMaxY : calculateVisibleMax(data);
             long increment = Math.max(1L, maxY / (GRID_LINES - 1));
 
-            Font originalFont = g2.getFont();
-            Font labelFont = originalFont.deriveFont(Font.BOLD, 7.25f);
+            Font labelFont = font.deriveFont(Font.BOLD, 7.25f);
             g2.setFont(labelFont);
             FontMetrics fm = g2.getFontMetrics();
 
@@ -384,52 +497,48 @@ class XpSparkline extends JComponent
                 g2.drawLine(lineStartX, y, w - padR, y);
             }
 
-            g2.setFont(originalFont);
-
-            Color lineCol = lineColor;
             Color fillTop = new Color(lineCol.getRed(), lineCol.getGreen(), lineCol.getBlue(), 80);
             Color fillBot = new Color(lineCol.getRed(), lineCol.getGreen(), lineCol.getBlue(), 0);
 
             if (data.size() < 2)
             {
-                gSpan = 0L;
-
                 g2.setColor(lineCol);
                 g2.setStroke(new BasicStroke(2f));
                 g2.drawLine(padL, baseY, w - padR, baseY);
-                return;
+                return p;
             }
 
-            long t0 = data.get(0).timeMs;
-            long t1 = data.get(data.size() - 1).timeMs;
+            long t0 = data.timeAt(0);
+            long t1 = data.timeAt(data.size() - 1);
             long span = Math.max(1L, t1 - t0);
 
-            gPadL = padL;
-            gPlotW = plotW;
-            gT0 = t0;
-            gSpan = span;
+            p.t0 = t0;
+            p.span = span;
+
+            int[] idx = pyramidFor(data).select(plotW);
+            int[] xs = new int[idx.length];
 
             GeneralPath line = new GeneralPath();
             Path2D.Float area = new Path2D.Float();
 
-            boolean started = false;
-            int lastX = padL;
+            g2.setColor(OUTLIER);
 
-            for (RuneAlyticsXpSkillState.Sample s : data)
+            for (int k = 0; k < idx.length; k++)
             {
-                double fx = (s.timeMs - t0) / (double) span;
-                double rawFy = s.totalGained / (double) maxY;
+                int i = idx[k];
+                double fx = (data.timeAt(i) - t0) / (double) span;
+                double rawFy = data.valueAt(i) / (double) maxY;
                 double fy = Math.min(1.0, rawFy);
 
                 int x = padL + (int) Math.round(fx * plotW);
                 int y = padT + (int) Math.round((1.0 - fy) * plotH);
+                xs[k] = x;
 
-                if (!started)
+                if (k == 0)
                 {
                     line.moveTo(x, y);
                     area.moveTo(x, baseY);
                     area.lineTo(x, y);
-                    started = true;
                 }
                 else
                 {
@@ -439,14 +548,14 @@ class XpSparkline extends JComponent
 
                 if (rawFy > 1.0)
                 {
-                    g2.setColor(OUTLIER);
                     g2.fillOval(x - 2, padT - 1, 4, 4);
                 }
-
-                lastX = x;
             }
 
-            area.lineTo(lastX, baseY);
+            p.idx = idx;
+            p.xs = xs;
+
+            area.lineTo(xs[xs.length - 1], baseY);
             area.closePath();
 
             g2.setPaint(new GradientPaint(0, padT, fillTop, 0, baseY, fillBot));
@@ -456,31 +565,37 @@ class XpSparkline extends JComponent
             g2.setStroke(new BasicStroke(2f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
             g2.draw(line);
 
-            if (hoverIdx >= 0 && hoverIdx < data.size())
-            {
-                RuneAlyticsXpSkillState.Sample s = data.get(hoverIdx);
-
-                double fx = (s.timeMs - t0) / (double) span;
-                double fy = Math.min(1.0, s.totalGained / (double) maxY);
-
-                int x = padL + (int) Math.round(fx * plotW);
-                int y = padT + (int) Math.round((1.0 - fy) * plotH);
-
-                g2.setColor(new Color(255, 255, 255, 45));
-                g2.setStroke(new BasicStroke(1f));
-                g2.drawLine(x, padT, x, baseY);
-
-                g2.setColor(lineCol);
-                g2.fillOval(x - 3, y - 3, 6, 6);
-
-                g2.setColor(MARKER);
-                g2.setStroke(new BasicStroke(1.5f));
-                g2.drawOval(x - 3, y - 3, 6, 6);
-            }
+            return p;
         }
         finally
         {
             g2.dispose();
         }
     }
+
+    private void paintHover(Graphics2D g2, Plot p)
+    {
+        XpSeries.View data = p.data;
+        if (hoverIdx < 0 || hoverIdx >= data.size() || p.xs.length == 0)
+        {
+            return;
+        }
+
+        double fx = (data.timeAt(hoverIdx) - p.t0) / (double) p.span;
+        double fy = Math.min(1.0, data.valueAt(hoverIdx) / (double) p.maxY);
+
+        int x = p.padL + (int) Math.round(fx * p.plotW);
+        int y = p.padT + (int) Math.round((1.0 - fy) * p.plotH);
+
+        g2.setColor(new Color(255, 255, 255, 45));
+        g2.setStroke(new BasicStroke(1f));
+        g2.drawLine(x, p.padT, x, p.baseY);
+
+        g2.setColor(p.color);
+        g2.fillOval(x - 3, y - 3, 6, 6);
+
+        g2.setColor(MARKER);
+        g2.setStroke(new BasicStroke(1.5f));
+        g2.drawOval(x - 3, y - 3, 6, 6);
+    }
 }
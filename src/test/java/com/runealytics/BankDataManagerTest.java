@@ -1,16 +1,24 @@
 package com.runealytics;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import net.runelite.api.Item;
 import net.runelite.api.ItemContainer;
 import net.runelite.client.game.ItemManager;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -19,11 +27,15 @@ import static org.mockito.Mockito.when;
 
 /**
  * Guard-path coverage for {@link BankDataManager#syncBankData} (no network call
- * on missing token/username/snapshot, exceptions swallowed) plus the wealth
- * math in {@link BankDataManager#buildBankSnapshot}.
+ * on missing token/username/snapshot, exceptions swallowed), the wealth math
+ * in {@link BankDataManager#buildBankSnapshot}, and delta uploads against the
+ * acknowledged {@link BankBaseline}.
  */
 public class BankDataManagerTest
 {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
     private RunealyticsApiClient apiClient;
     private ItemManager itemManager;
     private BankDataManager manager;
@@ -34,7 +46,13 @@ public class BankDataManagerTest
         apiClient = mock(RunealyticsApiClient.class);
         itemManager = mock(ItemManager.class);
         when(itemManager.canonicalize(anyInt())).thenAnswer(inv -> inv.getArgument(0));
-        manager = new BankDataManager(apiClient, itemManager);
+        manager = newManager();
+    }
+
+    private BankDataManager newManager()
+    {
+        return new BankDataManager(apiClient, new ItemValueCache(itemManager),
+                new BankBaseline(new Gson(), tmp.getRoot()));
     }
 
     private static Item item(int id, int qty)
@@ -53,45 +71,50 @@ public class BankDataManagerTest
     }
 
     @Test
-    public void syncBankData_skipsOnMissingToken() throws IOException
+    public void syncBankData_skipsOnMissingToken()
     {
         manager.syncBankData(null, "Zezima", new JsonObject());
         manager.syncBankData("", "Zezima", new JsonObject());
-        verify(apiClient, never()).syncBankData(any(), any());
+        verify(apiClient, never()).syncBankSnapshot(any());
     }
 
     @Test
-    public void syncBankData_skipsOnMissingUsername() throws IOException
+    public void syncBankData_skipsOnMissingUsername()
     {
         manager.syncBankData("tok", null, new JsonObject());
         manager.syncBankData("tok", "", new JsonObject());
-        verify(apiClient, never()).syncBankData(any(), any());
+        verify(apiClient, never()).syncBankSnapshot(any());
     }
 
     @Test
-    public void syncBankData_skipsOnNullSnapshot() throws IOException
+    public void syncBankData_skipsOnNullSnapshot()
     {
         manager.syncBankData("tok", "Zezima", null);
-        verify(apiClient, never()).syncBankData(any(), any());
+        verify(apiClient, never()).syncBankSnapshot(any());
     }
 
     @Test
-    public void syncBankData_forwardsToApiWhenValid() throws IOException
+    public void syncBankData_forwardsToApiWhenValid()
     {
         JsonObject snapshot = new JsonObject();
-        when(apiClient.syncBankData("tok", snapshot)).thenReturn(true);
+        snapshot.addProperty("username", "Zezima");
+        when(apiClient.syncBankSnapshot(any())).thenReturn(200);
 
         manager.syncBankData("tok", "Zezima", snapshot);
-        verify(apiClient, times(1)).syncBankData("tok", snapshot);
+
+        ArgumentCaptor<JsonObject> sent = ArgumentCaptor.forClass(JsonObject.class);
+        verify(apiClient, times(1)).syncBankSnapshot(sent.capture());
+        assertEquals("full", sent.getValue().get("mode").getAsString());
+        assertEquals("Zezima", sent.getValue().get("username").getAsString());
     }
 
     @Test
-    public void syncBankData_swallowsApiException() throws IOException
+    public void syncBankData_swallowsApiException()
     {
-        when(apiClient.syncBankData(any(), any())).thenThrow(new IOException("boom"));
+        when(apiClient.syncBankSnapshot(any())).thenThrow(new IllegalStateException("boom"));
         // Must not propagate.
         manager.syncBankData("tok", "Zezima", new JsonObject());
-        verify(apiClient).syncBankData(any(), any());
+        verify(apiClient).syncBankSnapshot(any());
     }
 
     @Test
@@ -114,4 +137,157 @@ public class BankDataManagerTest
         assertEquals(0L, data.get("equipment_value").getAsLong());
         assertEquals(3500L, data.get("total_wealth").getAsLong());
     }
+
+    @Test
+    public void buildBankSnapshot_resolvesEachItemOnceAcrossSyncs()
+    {
+        when(itemManager.getItemPrice(100)).thenReturn(1000);
+
+        ItemContainer bank = container(item(100, 2), item(100, 5));
+        manager.buildBankSnapshot("Zezima", 330, bank, null, null);
+        JsonObject data = manager.buildBankSnapshot("Zezima", 330, bank, null, null);
+
+        assertEquals(7000L, data.get("bank_value").getAsLong());
+        verify(itemManager, times(1)).getItemComposition(100);
+    }
+
+    // ── differential snapshots ───────────────────────────────────────────────
+
+    private JsonObject snapshot(Item... bankItems)
+    {
+        return manager.buildBankSnapshot("Zezima", 330, container(bankItems), container(item(995, 100)), null);
+    }
+
+    /** Syncs {@code snapshot} answering each upload with {@code statuses} in turn; returns the payloads sent. */
+    private List<JsonObject> sync(JsonObject snapshot, Integer... statuses)
+    {
+        Integer[] replies = statuses.length > 0 ? statuses : new Integer[]{200};
+        clearInvocations(apiClient);
+        when(apiClient.syncBankSnapshot(any())).thenReturn(replies[0],
+                Arrays.copyOfRange(replies, 1, replies.length));
+        manager.syncBankData("tok", "Zezima", snapshot);
+
+        ArgumentCaptor<JsonObject> sent = ArgumentCaptor.forClass(JsonObject.class);
+        verify(apiClient, atLeastOnce()).syncBankSnapshot(sent.capture());
+        return sent.getAllValues();
+    }
+
+    @Test
+    public void syncBankData_sendsOnlyChangedItemsAgainstAcknowledgedBaseline()
+    {
+        when(itemManager.getItemPrice(anyInt())).thenReturn(10);
+
+        JsonObject first = sync(snapshot(item(100, 1), item(200, 5), item(300, 7),
+                item(400, 1), item(500, 1), item(600, 1))).get(0);
+        assertEquals("full", first.get("mode").getAsString());
+        assertEquals(6, first.getAsJsonArray("items").size());
+
+        // One stack grew, one item left the bank.
+        JsonObject second = sync(snapshot(item(100, 1), item(200, 9),
+                item(400, 1), item(500, 1), item(600, 1))).get(0);
+        assertEquals("delta", second.get("mode").getAsString());
+        assertEquals(first.get("hash").getAsString(), second.get("base_hash").getAsString());
+        assertFalse(second.has("items"));
+        assertFalse(second.has("inventory"));
+        assertEquals(130L, second.get("bank_value").getAsLong());
+
+        JsonObject changes = second.getAsJsonObject("changes");
+        assertEquals(1, changes.entrySet().size());
+        JsonObject bank = changes.getAsJsonObject("items");
+        assertEquals(1, bank.getAsJsonArray("set").size());
+        assertEquals(200, bank.getAsJsonArray("set").get(0).getAsJsonObject().get("id").getAsInt());
+        assertEquals(9, bank.getAsJsonArray("set").get(0).getAsJsonObject().get("qty").getAsInt());
+        assertEquals(300, bank.getAsJsonArray("remove").get(0).getAsInt());
+
+        // Nothing changed: an empty delta.
+        JsonObject third = sync(snapshot(item(100, 1), item(200, 9),
+                item(400, 1), item(500, 1), item(600, 1))).get(0);
+        assertEquals("delta", third.get("mode").getAsString());
+        assertEquals(0, third.getAsJsonObject("changes").entrySet().size());
+        assertEquals(second.get("hash").getAsString(), third.get("base_hash").getAsString());
+    }
+
+    @Test
+    public void syncBankData_unacknowledgedDeltaKeepsBaseline()
+    {
+        when(itemManager.getItemPrice(anyInt())).thenReturn(10);
+        JsonObject first = sync(snapshot(item(100, 1), item(200, 5), item(300, 7))).get(0);
+
+        // Deferred to the outbox: the server may never have seen it.
+        sync(snapshot(item(100, 1), item(200, 6), item(300, 7)), SyncOutbox.QUEUED);
+
+        JsonObject retry = sync(snapshot(item(100, 1), item(200, 7), item(300, 7))).get(0);
+        assertEquals(first.get("hash").getAsString(), retry.get("base_hash").getAsString());
+    }
+
+    @Test
+    public void syncBankData_conflictFallsBackToFullSnapshot()
+    {
+        when(itemManager.getItemPrice(anyInt())).thenReturn(10);
+        sync(snapshot(item(100, 1), item(200, 5), item(300, 7)));
+
+        List<JsonObject> sent = sync(snapshot(item(100, 1), item(200, 6), item(300, 7)), 409, 200);
+        assertEquals(2, sent.size());
+        assertEquals("delta", sent.get(0).get("mode").getAsString());
+        assertEquals("full", sent.get(1).get("mode").getAsString());
+        assertEquals(3, sent.get(1).getAsJsonArray("items").size());
+
+        JsonObject next = sync(snapshot(item(100, 1), item(200, 6), item(300, 7))).get(0);
+        assertEquals(sent.get(1).get("hash").getAsString(), next.get("base_hash").getAsString());
+    }
+
+    @Test
+    public void syncBankData_deferredDeltaRejectedLaterQueuesFullSnapshot()
+    {
+        ArgumentCaptor<SyncOutbox.RejectionListener> listener =
+                ArgumentCaptor.forClass(SyncOutbox.RejectionListener.class);
+        verify(apiClient).setBankSyncRejectionListener(listener.capture());
+
+        when(itemManager.getItemPrice(anyInt())).thenReturn(10);
+        JsonObject first = sync(snapshot(item(100, 1), item(200, 5), item(300, 7))).get(0);
+
+        // The delta is queued, and the server rejects its base when the outbox sends it.
+        JsonObject delta = sync(snapshot(item(100, 1), item(200, 6), item(300, 7)), SyncOutbox.QUEUED).get(0);
+        assertEquals(first.get("hash").getAsString(), delta.get("base_hash").getAsString());
+
+        SyncOutbox.Entry entry = new SyncOutbox.Entry();
+        entry.setBody(new Gson().toJson(delta));
+        entry.setCoalesceKey("bank");
+        listener.getValue().rejected("zezima", entry, 409);
+
+        ArgumentCaptor<JsonObject> queued = ArgumentCaptor.forClass(JsonObject.class);
+        verify(apiClient).submitBankSnapshot(queued.capture());
+        assertEquals("full", queued.getValue().get("mode").getAsString());
+        assertEquals(delta.get("hash").getAsString(), queued.getValue().get("hash").getAsString());
+        assertEquals(3, queued.getValue().getAsJsonArray("items").size());
+
+        // The baseline is gone, so the next sync is full too.
+        JsonObject next = sync(snapshot(item(100, 1), item(200, 6), item(300, 7))).get(0);
+        assertEquals("full", next.get("mode").getAsString());
+    }
+
+    @Test
+    public void syncBankData_mostlyChangedBankIsSentInFull()
+    {
+        when(itemManager.getItemPrice(anyInt())).thenReturn(10);
+        sync(snapshot(item(100, 1), item(200, 5), item(300, 7)));
+
+        // A price refresh moves every item's value.
+        when(itemManager.getItemPrice(anyInt())).thenReturn(11);
+        manager = newManager();
+        JsonObject next = sync(snapshot(item(100, 1), item(200, 5), item(300, 7))).get(0);
+        assertEquals("full", next.get("mode").getAsString());
+    }
+
+    @Test
+    public void syncBankData_baselineSurvivesRestart()
+    {
+        when(itemManager.getItemPrice(anyInt())).thenReturn(10);
+        JsonObject first = sync(snapshot(item(100, 1), item(200, 5), item(300, 7))).get(0);
+
+        manager = newManager();
+        JsonObject afterRestart = sync(snapshot(item(100, 2), item(200, 5), item(300, 7))).get(0);
+        assertEquals("delta", afterRestart.get("mode").getAsString());
+        assertEquals(first.get("hash").getAsString(), afterRestart.get("base_hash").getAsString());
+    }
 }
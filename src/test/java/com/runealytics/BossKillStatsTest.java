@@ -9,6 +9,8 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -143,4 +145,125 @@ public class BossKillStatsTest
         assertEquals(100_000L, sorted.get(2).getTotalValue());
         assertFalse(sorted.get(1).isPet());
     }
+
+    @Test
+    public void recordAppendedDrops_foldsIntoAggregatesAndTotals()
+    {
+        BossKillStats stats = new BossKillStats("Vorkath", 8061);
+        LootStorageData.KillRecord k = kill(1L, drop(995, "Coins", 100, 100L));
+        stats.addKill(k);
+
+        LootStorageData.DropRecord extra = drop(995, "Coins", 50, 50L);
+        k.getDrops().add(extra);
+        stats.recordAppendedDrops(Collections.singletonList(extra));
+
+        List<BossKillStats.AggregatedDrop> drops = stats.getAggregatedDrops();
+        assertEquals(1, drops.size());
+        assertEquals(150, drops.get(0).getTotalQuantity());
+        assertEquals(2, drops.get(0).getDropCount());
+        assertEquals(150L, stats.getTotalLootValue());
+    }
+
+    @Test
+    public void setKillHistory_rebuildsAggregates()
+    {
+        BossKillStats stats = new BossKillStats("Zulrah", 2042);
+        stats.addKill(kill(1L, drop(1, "Scale", 100, 1_000L)));
+
+        stats.setKillHistory(new ArrayList<>(Arrays.asList(
+                kill(2L, drop(2, "Fang", 1, 5_000L)),
+                kill(3L, drop(2, "Fang", 1, 5_000L)))));
+
+        List<BossKillStats.AggregatedDrop> drops = stats.getAggregatedDrops();
+        assertEquals(1, drops.size());
+        assertEquals(2, drops.get(0).getItemId());
+        assertEquals(2, drops.get(0).getTotalQuantity());
+    }
+
+    @Test
+    public void getAggregatedDrops_returnsDetachedCopies()
+    {
+        BossKillStats stats = new BossKillStats("Zulrah", 2042);
+        stats.addKill(kill(1L, drop(1, "Scale", 100, 1_000L)));
+
+        stats.getAggregatedDrops().get(0).setTotalQuantity(0);
+        stats.getAggregatedDropsSorted().get(0).setTotalQuantity(0);
+
+        assertEquals(100, stats.getAggregatedDrops().get(0).getTotalQuantity());
+    }
+
+    @Test
+    public void getAggregatedDropsSorted_reflectsKillsAddedAfterPreviousRead()
+    {
+        BossKillStats stats = new BossKillStats("boss", 1);
+        stats.addKill(kill(1L, drop(1, "a", 1, 100L), drop(2, "b", 1, 50L)));
+        assertEquals(1, stats.getAggregatedDropsSorted().get(0).getItemId());
+
+        stats.addKill(kill(2L, drop(2, "b", 1, 500L)));
+        assertEquals(2, stats.getAggregatedDropsSorted().get(0).getItemId());
+    }
+
+    @Test
+    public void restoreSummary_keepsArchivedTotalsAndFoldsNewKillsOnTop()
+    {
+        BossKillStats stats = new BossKillStats("Zulrah", 2042);
+        List<BossKillStats.AggregatedDrop> totals = Collections.singletonList(
+                new BossKillStats.AggregatedDrop(1, "a", 300, 3_000L, 300, 10L, 0L));
+
+        stats.restoreSummary(Collections.singletonList(kill(1L, drop(1, "a", 1, 10L))),
+                totals, 300, 3_000L, 900L);
+
+        assertEquals(300, stats.getKillCount());
+        assertEquals(900L, stats.getHighestDrop());
+        assertEquals(1, stats.getKillHistory().size());
+        assertEquals(300, stats.getAggregatedDrops().get(0).getTotalQuantity());
+
+        stats.addKill(kill(2L, drop(1, "a", 2, 20L)));
+        assertEquals(301, stats.getKillCount());
+        assertEquals(3_020L, stats.getTotalLootValue());
+        assertEquals(302, stats.getAggregatedDrops().get(0).getTotalQuantity());
+    }
+
+    @Test
+    public void replaceLastKill_swapsOnlyTheNewestRecordAndKeepsTotals()
+    {
+        BossKillStats stats = new BossKillStats("Zulrah", 2042);
+        LootStorageData.KillRecord first = kill(1L, drop(1, "a", 1, 10L));
+        stats.addKill(first);
+        stats.addKill(kill(2L, drop(1, "a", 1, 20L)));
+
+        LootStorageData.KillRecord replaced = stats.replaceLastKill(previous ->
+        {
+            LootStorageData.KillRecord copy = previous.withDrops(previous.getDrops());
+            copy.setKillNumber(57);
+            return copy;
+        });
+
+        assertEquals(57, replaced.getKillNumber());
+        assertSame(replaced, stats.getKillHistory().get(1));
+        assertSame(first, stats.getKillHistory().get(0));
+        assertEquals(30L, stats.getTotalLootValue());
+        assertNull(new BossKillStats("Vorkath", 8061).replaceLastKill(previous -> previous));
+    }
+
+    @Test
+    public void pets_neverCountAsHighestDrop()
+    {
+        LootStorageData.DropRecord pet = drop(13262, "Pet snakeling", 1, 5_000_000L);
+        pet.setPet(true);
+
+        BossKillStats stats = new BossKillStats("Zulrah", 2042);
+        stats.addKill(kill(1L, pet, drop(1, "a", 1, 100L)));
+        stats.recordAppendedDrops(Collections.singletonList(pet));
+
+        assertEquals(100L, stats.getHighestDrop());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getKillHistory_isReadOnly()
+    {
+        BossKillStats stats = new BossKillStats("Zulrah", 2042);
+        stats.addKill(kill(1L, drop(1, "a", 1, 100L)));
+        stats.getKillHistory().clear();
+    }
 }
@@ -3,6 +3,8 @@ package com.runealytics;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Covers the mappings added alongside the {@link BossNames} extraction; the
@@ -33,4 +35,48 @@ public class BossNamesTest
             assertEquals(LootTrackerManager.normalizeBossName(s), BossNames.normalize(s));
         }
     }
+
+    @Test
+    public void firstListedRuleWins()
+    {
+        assertEquals("Corrupted Gauntlet", BossNames.normalize("Corrupted Gauntlet"));
+        assertEquals("The Gauntlet", BossNames.normalize("Crystalline Hunllef (Gauntlet)"));
+        assertEquals("Phosani's Nightmare", BossNames.normalize("Phosani's Nightmare"));
+        assertEquals("The Nightmare", BossNames.normalize("The Nightmare"));
+        assertEquals("Dagannoth Rex", BossNames.normalize("<col=ff0000>Dagannoth Rex</col>"));
+        assertEquals("Royal Titans", BossNames.normalize("Branda the Fire Queen"));
+    }
+
+    @Test
+    public void clueTiersNeedTheWordClue()
+    {
+        assertEquals("Hard Clue", BossNames.normalize("Clue Scroll (hard)"));
+        assertEquals("Master Clue", BossNames.normalize("master clue"));
+        assertEquals("Hard hat", BossNames.normalize("Hard hat"));
+    }
+
+    @Test
+    public void bossClassification()
+    {
+        assertTrue(BossNames.isBossName("Zulrah"));
+        assertTrue(BossNames.isBossName("Giant Mole"));
+        assertTrue(BossNames.isBossName("Dagannoth Supreme"));
+        assertFalse(BossNames.isBossName("Goblin"));
+        assertFalse(BossNames.isBossName(""));
+        assertFalse(BossNames.isBossName(null));
+    }
+
+    @Test
+    public void memoIsBoundedAndConsistent()
+    {
+        for (int i = 0; i < BossNames.CACHE_CAPACITY * 2; i++)
+        {
+            assertEquals("Pickpocket: Man " + i, BossNames.normalize("Pickpocket: Man " + i));
+            assertTrue(BossNames.cacheSize() <= BossNames.CACHE_CAPACITY);
+        }
+        // Hits return the same answer as the miss that filled them.
+        assertEquals("Vorkath", BossNames.normalize("Vorkath"));
+        assertEquals("Vorkath", BossNames.normalize("Vorkath"));
+        assertTrue(BossNames.isBossName("Vorkath"));
+    }
 }
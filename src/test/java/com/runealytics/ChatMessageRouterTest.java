@@ -0,0 +1,82 @@
+package com.runealytics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Routing decisions of {@link ChatMessageRouter} for real game messages, and
+ * the chest-source fallback it took over from the manager.
+ */
+public class ChatMessageRouterTest
+{
+    private static String chest(String message)
+    {
+        return ChatMessageRouter.chestSource(ChatMessageRouter.scan(message));
+    }
+
+    @Test
+    public void ordinarySpamMatchesNothing()
+    {
+        assertEquals(0L, ChatMessageRouter.scan("You eat the shark."));
+        assertEquals(0L, ChatMessageRouter.scan("<col=ef1020>Your prayer is running low.</col>"));
+        assertEquals(0L, ChatMessageRouter.scan("You catch a swordfish."));
+    }
+
+    @Test
+    public void deathAndGravestoneGoToGuard()
+    {
+        assertTrue(ChatMessageRouter.deathGuard(ChatMessageRouter.scan("Oh dear, you are dead!")));
+        assertTrue(ChatMessageRouter.deathGuard(ChatMessageRouter.scan("<col=ff0000>You have died.</col>")));
+        assertTrue(ChatMessageRouter.deathGuard(ChatMessageRouter.scan("Your gravestone has collapsed.")));
+        assertFalse(ChatMessageRouter.deathGuard(ChatMessageRouter.scan("Your Vorkath kill count is: 5.")));
+    }
+
+    @Test
+    public void handlerRoutes()
+    {
+        long kc = ChatMessageRouter.scan("Your <col=ff0000>Vorkath</col> kill count is: <col=ff0000>100</col>.");
+        assertTrue(ChatMessageRouter.killCount(kc));
+        assertFalse(ChatMessageRouter.whispererKillCount(kc));
+
+        assertTrue(ChatMessageRouter.whispererKillCount(
+                ChatMessageRouter.scan("Your Whisperer kill count is: 12.")));
+        assertTrue(ChatMessageRouter.tempoross(
+                ChatMessageRouter.scan("You have helped to subdue the spirit of Tempoross!")));
+        assertTrue(ChatMessageRouter.wintertodtCrate(
+                ChatMessageRouter.scan("You have earned a supply crate from the Wintertodt.")));
+        assertFalse(ChatMessageRouter.wintertodtCrate(
+                ChatMessageRouter.scan("The cold of the Wintertodt seeps into your bones.")));
+
+        long toBank = ChatMessageRouter.scan("You feel something weird sneaking into your backpack.");
+        assertTrue(ChatMessageRouter.petDrop(toBank));
+        assertTrue(ChatMessageRouter.petWentToBank(toBank));
+        long followed = ChatMessageRouter.scan("You have a funny feeling like you're being followed.");
+        assertTrue(ChatMessageRouter.petDrop(followed));
+        assertFalse(ChatMessageRouter.petWentToBank(followed));
+
+        assertTrue(ChatMessageRouter.ringOfWealthPickup(
+                ChatMessageRouter.scan("Your ring of wealth has automatically picked up the coins.")));
+        assertFalse(ChatMessageRouter.ringOfWealthPickup(
+                ChatMessageRouter.scan("Your ring of wealth has 3 charges left.")));
+    }
+
+    @Test
+    public void chestSourceFallback()
+    {
+        assertEquals("Chambers of Xeric", chest("Congratulations - your raid is complete!"));
+        assertEquals("Theatre of Blood", chest("Theatre of Blood challenge complete! Duration: 20:00"));
+        assertEquals("Corrupted Gauntlet", chest("Corrupted Gauntlet challenge complete!"));
+        assertEquals("The Gauntlet", chest("Gauntlet challenge complete!"));
+        assertEquals("Phosani's Nightmare", chest("You have defeated Phosani's Nightmare!"));
+        assertEquals("The Nightmare", chest("You have defeated The Nightmare!"));
+        assertEquals("Zalcano", chest("Zalcano has been defeated."));
+        assertEquals("Tempoross", chest("You have helped to subdue the spirit of Tempoross!"));
+        assertEquals("Hard Clue", chest("You have completed 50 hard Treasure Trails."));
+        assertNull(chest("You have completed 50 hard treasure hunts."));
+        assertNull(chest("You eat the shark."));
+    }
+}
@@ -0,0 +1,185 @@
+package com.runealytics;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link GroundLootIndex}: nearest-kill matching across bucket edges, expiry
+ * in kill order, and a replay of a recorded AOE burst checked against the
+ * linear scan the index replaced.
+ */
+public class GroundLootIndexTest
+{
+    private static final long WINDOW_MS = 3_000;
+    private static final int MAX_DISTANCE = 5;
+
+    private final GroundLootIndex<String> index = new GroundLootIndex<>(WINDOW_MS, MAX_DISTANCE);
+
+    @Test
+    public void nearest_picksClosestKillAcrossBucketEdges()
+    {
+        // 1703 and 1704 sit in different 8-tile buckets.
+        index.add("west", 1703, 10087, 0, 0);
+        index.add("east", 1706, 10087, 0, 0);
+
+        assertEquals("west", index.nearest(1704, 10087, 0, 100));
+        assertEquals("east", index.nearest(1705, 10087, 0, 100));
+        assertEquals("east", index.nearest(1711, 10092, 0, 100));
+        assertNull(index.nearest(1712, 10087, 0, 100));
+    }
+
+    @Test
+    public void nearest_prefersEarliestKillOnTie()
+    {
+        index.add("first", 3200, 3200, 0, 0);
+        index.add("second", 3202, 3200, 0, 10);
+
+        assertEquals("first", index.nearest(3201, 3200, 0, 100));
+    }
+
+    @Test
+    public void nearest_ignoresOtherPlanes()
+    {
+        index.add("ground", 3200, 3200, 0, 0);
+
+        assertNull(index.nearest(3200, 3200, 1, 100));
+    }
+
+    @Test
+    public void expire_closesWindowsInKillOrder()
+    {
+        index.add("a", 3200, 3200, 0, 0);
+        index.add("b", 3200, 3201, 0, 1_000);
+
+        assertEquals("a", index.nearest(3200, 3200, 0, WINDOW_MS));
+        assertEquals(2, index.size());
+
+        assertEquals("b", index.nearest(3200, 3200, 0, WINDOW_MS + 1));
+        assertEquals(1, index.size());
+
+        assertNull(index.nearest(3200, 3200, 0, WINDOW_MS + 1_001));
+        assertTrue(index.isEmpty());
+
+        // The index is reusable once drained.
+        index.add("c", 3200, 3200, 0, 10_000);
+        assertEquals("c", index.nearest(3200, 3200, 0, 10_000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsRadiusWiderThanABucket()
+    {
+        new GroundLootIndex<String>(WINDOW_MS, 1 << GroundLootIndex.BUCKET_SHIFT);
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  Recorded AOE burst replay
+    // ═════════════════════════════════════════════════════════════════════════
+
+    /** The scan {@code onItemSpawned} used before the index. */
+    private static final class LinearScan
+    {
+        private final List<long[]> kills = new ArrayList<>();
+
+        void add(int npc, int x, int y, int plane, long timeMs)
+        {
+            kills.add(new long[]{npc, x, y, plane, timeMs});
+        }
+
+        Integer nearest(int x, int y, int plane, long nowMs)
+        {
+            kills.removeIf(k -> nowMs - k[4] > WINDOW_MS);
+            long[] best = null;
+            int bestDist = Integer.MAX_VALUE;
+            for (long[] k : kills)
+            {
+                int dist = k[3] != plane ? Integer.MAX_VALUE
+                        : (int) Math.max(Math.abs(k[1] - x), Math.abs(k[2] - y));
+                if (dist <= MAX_DISTANCE && dist < bestDist)
+                {
+                    best = k;
+                    bestDist = dist;
+                }
+            }
+            return best != null ? (int) best[0] : null;
+        }
+    }
+
+    @Test
+    public void replay_aoeBurstMatchesLinearScan() throws Exception
+    {
+        GroundLootIndex<Integer> sessions = new GroundLootIndex<>(WINDOW_MS, MAX_DISTANCE);
+        LinearScan reference = new LinearScan();
+        Map<Integer, Integer> attributed = new TreeMap<>();
+        Map<Integer, Integer> expected = new TreeMap<>();
+        Map<Integer, Integer> opened = new HashMap<>();
+        int items = 0;
+        int unattributed = 0;
+
+        InputStream in = getClass().getResourceAsStream("aoe-burst.txt");
+        assertNotNull("aoe-burst.txt fixture missing", in);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] f = line.split("\\s+");
+
+                if ("expect".equals(f[0]))
+                {
+                    expected.put(Integer.parseInt(f[1]), Integer.parseInt(f[2]));
+                    continue;
+                }
+
+                long t = Long.parseLong(f[0]);
+                if ("kill".equals(f[1]))
+                {
+                    int npc = Integer.parseInt(f[2]);
+                    int x = Integer.parseInt(f[3]);
+                    int y = Integer.parseInt(f[4]);
+                    int plane = Integer.parseInt(f[5]);
+                    sessions.add(npc, x, y, plane, t);
+                    reference.add(npc, x, y, plane, t);
+                    opened.merge(npc, 1, Integer::sum);
+                }
+                else
+                {
+                    int x = Integer.parseInt(f[4]);
+                    int y = Integer.parseInt(f[5]);
+                    int plane = Integer.parseInt(f[6]);
+                    Integer got = sessions.nearest(x, y, plane, t);
+                    assertEquals(line, reference.nearest(x, y, plane, t), got);
+
+                    items++;
+                    if (got == null) unattributed++;
+                    else attributed.merge(got, 1, Integer::sum);
+                }
+            }
+        }
+
+        assertEquals(24, opened.size());
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, attributed);
+        assertEquals(3, unattributed);
+        assertEquals(expected.values().stream().mapToInt(Integer::intValue).sum() + 3, items);
+
+        // Every window has closed by the last stray drop.
+        assertTrue(sessions.isEmpty());
+        assertNull(sessions.nearest(1703, 10087, 0, Long.MAX_VALUE));
+    }
+}
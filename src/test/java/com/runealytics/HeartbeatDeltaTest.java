@@ -0,0 +1,149 @@
+package com.runealytics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link HeartbeatDelta}: which sections a heartbeat carries across
+ * acknowledgements, keyframes, account switches and out-of-order acks.
+ */
+public class HeartbeatDeltaTest
+{
+    private final HeartbeatDelta delta = new HeartbeatDelta();
+
+    private static Map<String, JsonElement> sections(String... friends)
+    {
+        JsonArray arr = new JsonArray();
+        for (String f : friends) arr.add(f);
+        Map<String, JsonElement> sections = new LinkedHashMap<>();
+        sections.put("friends", arr);
+        sections.put("inventory", new JsonArray());
+        return sections;
+    }
+
+    @Test
+    public void unchangedSectionsAreOmittedOnceAcknowledged()
+    {
+        JsonObject first = new JsonObject();
+        HeartbeatDelta.Frame frame = delta.encode("zezima", sections("a", "b"), first);
+        assertTrue(first.get("keyframe").getAsBoolean());
+        assertTrue(first.has("friends"));
+
+        // Not yet acknowledged: still sent in full.
+        JsonObject second = new JsonObject();
+        delta.encode("zezima", sections("a", "b"), second);
+        assertTrue(second.has("friends"));
+
+        delta.ack(frame, false);
+        JsonObject third = new JsonObject();
+        delta.encode("zezima", sections("a", "b"), third);
+        assertFalse(third.get("keyframe").getAsBoolean());
+        assertFalse(third.has("friends"));
+        assertFalse(third.has("inventory"));
+        assertEquals(2, third.getAsJsonObject("hashes").size());
+
+        JsonObject fourth = new JsonObject();
+        delta.encode("zezima", sections("a", "c"), fourth);
+        assertTrue(fourth.has("friends"));
+        assertFalse(fourth.has("inventory"));
+    }
+
+    @Test
+    public void keyframeEveryInterval()
+    {
+        HeartbeatDelta.Frame frame = delta.encode("zezima", sections("a"), new JsonObject());
+        delta.ack(frame, false);
+
+        int keyframes = 0;
+        for (int i = 1; i <= HeartbeatDelta.KEYFRAME_EVERY; i++)
+        {
+            JsonObject payload = new JsonObject();
+            delta.ack(delta.encode("zezima", sections("a"), payload), false);
+            if (payload.get("keyframe").getAsBoolean())
+            {
+                keyframes++;
+                assertEquals(HeartbeatDelta.KEYFRAME_EVERY, i);
+                assertTrue(payload.has("friends"));
+            }
+        }
+        assertEquals(1, keyframes);
+    }
+
+    @Test
+    public void resyncAndAccountSwitchForceKeyframe()
+    {
+        delta.ack(delta.encode("zezima", sections("a"), new JsonObject()), false);
+
+        HeartbeatDelta.Frame frame = delta.encode("zezima", sections("a"), new JsonObject());
+        delta.ack(frame, true);
+        JsonObject afterResync = new JsonObject();
+        delta.encode("zezima", sections("a"), afterResync);
+        assertTrue(afterResync.get("keyframe").getAsBoolean());
+
+        JsonObject otherAccount = new JsonObject();
+        HeartbeatDelta.Frame alt = delta.encode("lynx titan", sections("a"), otherAccount);
+        assertTrue(otherAccount.get("keyframe").getAsBoolean());
+
+        // A late ack for the previous account changes nothing.
+        delta.ack(frame, false);
+        delta.ack(alt, false);
+        JsonObject next = new JsonObject();
+        delta.encode("lynx titan", sections("a"), next);
+        assertFalse(next.has("friends"));
+    }
+
+    @Test
+    public void staleAckDoesNotRollBackBaseline()
+    {
+        delta.ack(delta.encode("zezima", sections("a"), new JsonObject()), false);
+
+        HeartbeatDelta.Frame older = delta.encode("zezima", sections("b"), new JsonObject());
+        HeartbeatDelta.Frame newer = delta.encode("zezima", sections("c"), new JsonObject());
+        delta.ack(newer, false);
+        delta.ack(older, false);
+
+        JsonObject payload = new JsonObject();
+        delta.encode("zezima", sections("c"), payload);
+        assertFalse(payload.has("friends"));
+    }
+
+    @Test
+    public void resetForcesKeyframe()
+    {
+        delta.ack(delta.encode("zezima", sections("a"), new JsonObject()), false);
+        delta.reset();
+
+        JsonObject payload = new JsonObject();
+        delta.encode("zezima", sections("a"), payload);
+        assertTrue(payload.get("keyframe").getAsBoolean());
+        assertTrue(payload.has("friends"));
+    }
+
+    @Test
+    public void hashSeparatesStructureAndTypes()
+    {
+        JsonArray ab = new JsonArray();
+        ab.add("ab");
+        JsonArray aThenB = new JsonArray();
+        aThenB.add("a");
+        aThenB.add("b");
+        JsonArray number = new JsonArray();
+        number.add(12);
+        JsonArray text = new JsonArray();
+        text.add("12");
+
+        assertNotEquals(HeartbeatDelta.hash(ab), HeartbeatDelta.hash(aThenB));
+        assertNotEquals(HeartbeatDelta.hash(number), HeartbeatDelta.hash(text));
+        assertNotEquals(HeartbeatDelta.hash(new JsonArray()), HeartbeatDelta.hash(new JsonObject()));
+        assertEquals(HeartbeatDelta.hash(sections("a", "b").get("friends")), HeartbeatDelta.hash(aThenB));
+    }
+}
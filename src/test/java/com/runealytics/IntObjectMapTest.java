@@ -0,0 +1,63 @@
+package com.runealytics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Coverage for {@link IntObjectMap}: lookup, growth past the initial table,
+ * insertion-ordered values, and clear.
+ */
+public class IntObjectMapTest
+{
+    @Test
+    public void computeIfAbsent_createsOnceThenReturnsExisting()
+    {
+        IntObjectMap<StringBuilder> map = new IntObjectMap<>();
+        StringBuilder first = map.computeIfAbsent(4151, k -> new StringBuilder("whip"));
+        StringBuilder second = map.computeIfAbsent(4151, k -> new StringBuilder("other"));
+
+        assertSame(first, second);
+        assertEquals(1, map.size());
+        assertEquals("whip", map.get(4151).toString());
+    }
+
+    @Test
+    public void get_missingKey_isNull()
+    {
+        assertNull(new IntObjectMap<String>().get(995));
+    }
+
+    @Test
+    public void growsPastInitialCapacity_keepingEveryKeyAndInsertionOrder()
+    {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        for (int i = 0; i < 1_000; i++)
+        {
+            map.computeIfAbsent(i * 7 - 300, k -> k);
+        }
+
+        assertEquals(1_000, map.size());
+        for (int i = 0; i < 1_000; i++)
+        {
+            assertEquals(Integer.valueOf(i * 7 - 300), map.get(i * 7 - 300));
+            assertEquals(Integer.valueOf(i * 7 - 300), map.values().get(i));
+        }
+    }
+
+    @Test
+    public void clear_removesEverything()
+    {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        for (int i = 0; i < 100; i++) map.computeIfAbsent(i, String::valueOf);
+
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get(5));
+        assertEquals("5", map.computeIfAbsent(5, String::valueOf));
+    }
+}
@@ -0,0 +1,237 @@
+package com.runealytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import net.runelite.api.Item;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Corpus of inventory transitions for {@link InventorySnapshot}: slot
+ * merging, gains across reorders and split stacks, equip-swap subtraction,
+ * instance reuse when nothing changed, and a randomised cross-check against
+ * the map-based diff it replaced.
+ */
+public class InventorySnapshotTest
+{
+    private final InventorySnapshot.Capture capture = new InventorySnapshot.Capture();
+
+    /** Snapshot of {@code {id, qty, id, qty, ...}} slots. */
+    private InventorySnapshot slots(int... idQty)
+    {
+        int[] ids = new int[idQty.length / 2];
+        int[] qty = new int[idQty.length / 2];
+        for (int i = 0; i < ids.length; i++)
+        {
+            ids[i] = idQty[i * 2];
+            qty[i] = idQty[i * 2 + 1];
+        }
+        return capture.of(ids, qty, null);
+    }
+
+    private static List<ItemStack> stacks(int... idQty)
+    {
+        List<ItemStack> out = new ArrayList<>();
+        for (int i = 0; i < idQty.length; i += 2)
+        {
+            out.add(new ItemStack(idQty[i], idQty[i + 1]));
+        }
+        return out;
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  Corpus: {before slots}, {after slots}, {expected gain}
+    // ═════════════════════════════════════════════════════════════════════════
+
+    private static final int[][][] GAINED_CORPUS = {
+            // Empty inventory picks up a drop.
+            {{}, {4151, 1}, {4151, 1}},
+            // Stackable count rises.
+            {{995, 1_000}, {995, 26_000}, {995, 25_000}},
+            // Stackable count falls: nothing gained.
+            {{995, 26_000}, {995, 1_000}, {}},
+            // Unstackables spread over slots merge before diffing.
+            {{385, 1, 385, 1, 385, 1}, {385, 1, 385, 1, 385, 1, 385, 1, 385, 1}, {385, 2}},
+            // Reordering slots is not a gain.
+            {{4151, 1, 995, 10, 385, 1}, {385, 1, 4151, 1, 995, 10}, {}},
+            // Eating one food while picking up another id.
+            {{385, 1, 385, 1}, {385, 1, 1514, 1}, {1514, 1}},
+            // Empty (-1) and zero-quantity slots are ignored.
+            {{-1, 0, 0, 5, 995, 10}, {995, 10, -1, 0, 1515, 0}, {}},
+            // Several ids gained at once come back in id order.
+            {{995, 10}, {11840, 1, 995, 15, 526, 1}, {526, 1, 995, 5, 11840, 1}},
+            // Whole inventory dropped.
+            {{4151, 1, 995, 10}, {}, {}},
+    };
+
+    @Test
+    public void gained_matchesCorpus()
+    {
+        for (int[][] c : GAINED_CORPUS)
+        {
+            InventorySnapshot gained = InventorySnapshot.gained(slots(c[0]), slots(c[1]));
+            assertEquals(Arrays.deepToString(c), stacks(c[2]), gained.toItemStacks());
+        }
+    }
+
+    @Test
+    public void capture_mergesDuplicateSlotsIntoSortedIds()
+    {
+        InventorySnapshot snap = slots(995, 10, 385, 1, 995, 5, 385, 1, -1, 0);
+
+        assertEquals(2, snap.size());
+        assertEquals(385, snap.idAt(0));
+        assertEquals(2, snap.quantityAt(0));
+        assertEquals(995, snap.idAt(1));
+        assertEquals(15, snap.quantityAt(1));
+        assertEquals(15, snap.quantityOf(995));
+        assertEquals(0, snap.quantityOf(4151));
+    }
+
+    @Test
+    public void capture_saturatesQuantityOverflow()
+    {
+        InventorySnapshot snap = slots(995, Integer.MAX_VALUE, 995, 10);
+        assertEquals(Integer.MAX_VALUE, snap.quantityOf(995));
+    }
+
+    @Test
+    public void capture_readsContainerItems()
+    {
+        Item whip = mock(Item.class);
+        when(whip.getId()).thenReturn(4151);
+        when(whip.getQuantity()).thenReturn(1);
+        Item empty = mock(Item.class);
+        when(empty.getId()).thenReturn(-1);
+
+        InventorySnapshot snap = capture.of(new Item[]{whip, empty, null, whip}, null);
+
+        assertEquals(stacks(4151, 2), snap.toItemStacks());
+    }
+
+    @Test
+    public void capture_returnsPreviousInstanceWhenUnchanged()
+    {
+        InventorySnapshot first = slots(995, 10, 4151, 1);
+        InventorySnapshot same  = capture.of(new int[]{4151, 995}, new int[]{1, 10}, first);
+        InventorySnapshot moved = capture.of(new int[]{4151, 995}, new int[]{1, 11}, first);
+
+        assertSame(first, same);
+        assertNotSame(first, moved);
+        assertEquals(11, moved.quantityOf(995));
+        assertSame(InventorySnapshot.EMPTY, capture.of(new int[]{-1}, new int[]{0}, first));
+    }
+
+    @Test
+    public void mergeStacks_sumsRepeatedIds()
+    {
+        InventorySnapshot merged = capture.of(stacks(526, 1, 995, 100, 526, 1, 995, 50));
+        assertEquals(stacks(526, 2, 995, 150), merged.toItemStacks());
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  Equip-swap subtraction
+    // ═════════════════════════════════════════════════════════════════════════
+
+    @Test
+    public void minus_stripsUnequippedItemsFromGain()
+    {
+        InventorySnapshot beforeInv = slots(995, 10);
+        InventorySnapshot afterInv  = slots(995, 10, 4151, 1, 1215, 1);
+        InventorySnapshot beforeEq  = slots(4151, 1, 1127, 1);
+        InventorySnapshot afterEq   = slots(1127, 1);
+
+        InventorySnapshot unequipped = InventorySnapshot.gained(afterEq, beforeEq);
+        InventorySnapshot loot = InventorySnapshot.gained(beforeInv, afterInv).minus(unequipped);
+
+        assertEquals(stacks(1215, 1), loot.toItemStacks());
+    }
+
+    @Test
+    public void minus_keepsRemainderOfPartiallyCoveredStack()
+    {
+        InventorySnapshot gained = slots(892, 500);
+        assertEquals(stacks(892, 200), gained.minus(slots(892, 300)).toItemStacks());
+    }
+
+    @Test
+    public void noChange_returnsSharedInstancesWithoutAllocating()
+    {
+        InventorySnapshot inv = slots(995, 10, 4151, 1);
+
+        assertSame(InventorySnapshot.EMPTY, InventorySnapshot.gained(inv, inv));
+        assertSame(inv, inv.minus(InventorySnapshot.EMPTY));
+        assertSame(inv, inv.minus(slots(1215, 1)));
+        assertSame(InventorySnapshot.EMPTY, InventorySnapshot.gained(inv, slots(995, 10)));
+        assertTrue(InventorySnapshot.EMPTY.toItemStacks().isEmpty());
+    }
+
+    // ═════════════════════════════════════════════════════════════════════════
+    //  Randomised cross-check against the previous map-based diff
+    // ═════════════════════════════════════════════════════════════════════════
+
+    private static Map<Integer, Integer> referenceGained(int[] beforeIds, int[] beforeQty,
+                                                         int[] afterIds, int[] afterQty)
+    {
+        Map<Integer, Integer> before = new HashMap<>();
+        Map<Integer, Integer> after  = new HashMap<>();
+        for (int i = 0; i < beforeIds.length; i++)
+        {
+            if (beforeIds[i] > 0 && beforeQty[i] > 0) before.merge(beforeIds[i], beforeQty[i], Integer::sum);
+        }
+        for (int i = 0; i < afterIds.length; i++)
+        {
+            if (afterIds[i] > 0 && afterQty[i] > 0) after.merge(afterIds[i], afterQty[i], Integer::sum);
+        }
+
+        Map<Integer, Integer> gained = new TreeMap<>();
+        for (Map.Entry<Integer, Integer> e : after.entrySet())
+        {
+            int delta = e.getValue() - before.getOrDefault(e.getKey(), 0);
+            if (delta > 0) gained.put(e.getKey(), delta);
+        }
+        return gained;
+    }
+
+    @Test
+    public void gained_agreesWithMapReferenceOnRandomInventories()
+    {
+        Random random = new Random(7L);
+        for (int round = 0; round < 2_000; round++)
+        {
+            int[] bIds = new int[28];
+            int[] bQty = new int[28];
+            int[] aIds = new int[28];
+            int[] aQty = new int[28];
+            for (int s = 0; s < 28; s++)
+            {
+                // Small id space so stacks collide and split across slots.
+                bIds[s] = random.nextInt(12) - 1;
+                bQty[s] = random.nextInt(4);
+                aIds[s] = random.nextBoolean() ? bIds[s] : random.nextInt(12) - 1;
+                aQty[s] = random.nextInt(4);
+            }
+
+            InventorySnapshot gained = InventorySnapshot.gained(
+                    capture.of(bIds, bQty, null), capture.of(aIds, aQty, null));
+
+            Map<Integer, Integer> actual = new TreeMap<>();
+            for (int i = 0; i < gained.size(); i++)
+            {
+                actual.put(gained.idAt(i), gained.quantityAt(i));
+            }
+            assertEquals(referenceGained(bIds, bQty, aIds, aQty), actual);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.runealytics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import net.runelite.api.ItemComposition;
+import net.runelite.client.game.ItemManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ItemValueCache}: one ItemManager resolution per id, lock-free
+ * {@code peek} for other threads, and invalidation on a price refresh or
+ * after the max age.
+ */
+public class ItemValueCacheTest
+{
+    private static final int WHIP = 4151;
+    private static final int WHIP_NOTED = 4152;
+    private static final int QUEST_ITEM = 1;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private ItemManager itemManager;
+    private ItemValueCache cache;
+
+    @Before
+    public void setUp()
+    {
+        itemManager = mock(ItemManager.class);
+        when(itemManager.canonicalize(anyInt())).thenAnswer(inv -> inv.getArgument(0));
+        when(itemManager.canonicalize(WHIP_NOTED)).thenReturn(WHIP);
+        when(itemManager.getItemPrice(WHIP)).thenReturn(1_500_000);
+
+        ItemComposition whip = composition("Abyssal whip", 72_000, true);
+        when(itemManager.getItemComposition(WHIP)).thenReturn(whip);
+        ItemComposition noted = composition("Abyssal whip", 0, true);
+        when(itemManager.getItemComposition(WHIP_NOTED)).thenReturn(noted);
+        ItemComposition quest = composition("Quest item", 0, false);
+        when(itemManager.getItemComposition(QUEST_ITEM)).thenReturn(quest);
+
+        cache = new ItemValueCache(itemManager, now::get);
+    }
+
+    private static ItemComposition composition(String name, int haPrice, boolean tradeable)
+    {
+        ItemComposition comp = mock(ItemComposition.class);
+        when(comp.getName()).thenReturn(name);
+        when(comp.getHaPrice()).thenReturn(haPrice);
+        when(comp.isTradeable()).thenReturn(tradeable);
+        return comp;
+    }
+
+    @Test
+    public void get_resolvesOnceThenServesFromCache()
+    {
+        ItemValueCache.ItemValue first = cache.get(WHIP);
+        assertEquals("Abyssal whip", first.getName());
+        assertEquals(1_500_000, first.getGePrice());
+        assertEquals(72_000, first.getHighAlch());
+        assertTrue(first.isTradeable());
+
+        for (int i = 0; i < 100; i++)
+        {
+            assertSame(first, cache.get(WHIP));
+        }
+        verify(itemManager, times(1)).getItemComposition(WHIP);
+    }
+
+    @Test
+    public void get_notedFormTakesCanonicalPriceAndAlch()
+    {
+        ItemValueCache.ItemValue noted = cache.get(WHIP_NOTED);
+        assertEquals(1_500_000, noted.getGePrice());
+        assertEquals(72_000, noted.getHighAlch());
+    }
+
+    @Test
+    public void get_untradeableAndInvalidIds()
+    {
+        ItemValueCache.ItemValue quest = cache.get(QUEST_ITEM);
+        assertFalse(quest.isTradeable());
+        assertEquals(0, quest.getGePrice());
+
+        assertEquals(0, cache.get(-1).getGePrice());
+        assertEquals("Item -1", cache.get(-1).getName());
+    }
+
+    @Test
+    public void peek_onlySeesWhatTheClientThreadResolved() throws Exception
+    {
+        assertNull(cache.peek(WHIP));
+        cache.get(WHIP);
+
+        ItemValueCache.ItemValue[] seen = new ItemValueCache.ItemValue[1];
+        Thread reader = new Thread(() -> seen[0] = cache.peek(WHIP), "ItemValueCacheTest-reader");
+        reader.start();
+        reader.join();
+        assertEquals(1_500_000, seen[0].getGePrice());
+    }
+
+    @Test
+    public void priceRefresh_isDetectedByProbeAndDropsCache()
+    {
+        cache.get(WHIP);
+        cache.get(QUEST_ITEM);
+        assertEquals(2, cache.size());
+
+        // RuneLite reloads its price table.
+        when(itemManager.getItemPrice(WHIP)).thenReturn(1_400_000);
+
+        // Not probed until the interval passes.
+        assertEquals(1_500_000, cache.get(WHIP).getGePrice());
+
+        now.addAndGet(ItemValueCache.PROBE_INTERVAL_MS);
+        assertEquals(1_400_000, cache.get(WHIP).getGePrice());
+        assertEquals(1, cache.size());
+        assertNull(cache.peek(QUEST_ITEM));
+    }
+
+    @Test
+    public void entries_expireAfterMaxAge()
+    {
+        // Untradeable items are never probed, so only the age bound applies.
+        ItemValueCache.ItemValue first = cache.get(QUEST_ITEM);
+        now.addAndGet(ItemValueCache.MAX_AGE_MS);
+
+        assertNull(cache.peek(QUEST_ITEM));
+        ItemValueCache.ItemValue reloaded = cache.get(QUEST_ITEM);
+        assertNotSame(first, reloaded);
+        assertEquals(now.get(), reloaded.getLoadedAtMs());
+    }
+
+    @Test
+    public void tradeableWithoutPrice_isRetriedSoon()
+    {
+        // Price table not loaded yet: the high-alch fallback stands in.
+        when(itemManager.getItemPrice(WHIP)).thenReturn(0);
+        assertEquals(72_000, cache.get(WHIP).getGePrice());
+
+        now.addAndGet(ItemValueCache.UNPRICED_MAX_AGE_MS - 1);
+        assertEquals(72_000, cache.get(WHIP).getGePrice());
+
+        when(itemManager.getItemPrice(WHIP)).thenReturn(1_500_000);
+        now.addAndGet(1);
+
+        assertNull(cache.peek(WHIP));
+        assertEquals(1_500_000, cache.get(WHIP).getGePrice());
+    }
+
+    @Test
+    public void invalidate_dropsEverything()
+    {
+        cache.get(WHIP);
+        cache.invalidate();
+
+        assertEquals(0, cache.size());
+        assertNull(cache.peek(WHIP));
+    }
+}
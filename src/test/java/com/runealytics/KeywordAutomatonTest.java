@@ -0,0 +1,111 @@
+package com.runealytics;
+
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The {@link KeywordAutomaton} must report exactly the keywords that
+ * {@code String.contains} finds in the lower-cased, tag-stripped text —
+ * including overlapping keywords, keywords that are suffixes of others and
+ * keywords split by chat markup.
+ */
+public class KeywordAutomatonTest
+{
+    private static final String[] KEYWORDS = { "he", "she", "his", "hers", "count is", "is" };
+
+    private static long expected(String text, String... keywords)
+    {
+        String stripped = text.replaceAll("<[^>]+>", "").toLowerCase();
+        long bits = 0L;
+        for (int i = 0; i < keywords.length; i++)
+        {
+            if (stripped.contains(keywords[i])) bits |= 1L << i;
+        }
+        return bits;
+    }
+
+    @Test
+    public void overlappingAndNestedKeywords()
+    {
+        KeywordAutomaton automaton = new KeywordAutomaton(KEYWORDS);
+        assertEquals(0b001011L, automaton.match("ushers"));   // she, he, hers
+        assertEquals(0b100100L, automaton.match("this"));     // his, is
+        assertEquals(0L, automaton.match("xyz"));
+        assertEquals(0L, automaton.match(""));
+        assertEquals(0L, automaton.match(null));
+    }
+
+    @Test
+    public void caseInsensitive()
+    {
+        KeywordAutomaton automaton = new KeywordAutomaton("kill count");
+        assertEquals(1L, automaton.match("Your Vorkath KILL Count is: 5"));
+    }
+
+    @Test
+    public void markupIsSkipped()
+    {
+        KeywordAutomaton automaton = new KeywordAutomaton("you have died.", "col");
+        assertEquals(1L, automaton.match("<col=ef1020>You have died.</col>"));
+        assertEquals(1L, automaton.match("You have <col=ff0000>died</col>."));
+        // Not a tag: "<>" stays, and a '<' that is never closed is plain text.
+        assertEquals(0L, automaton.match("you have<> died."));
+        assertEquals(2L, automaton.match("a < col"));
+    }
+
+    @Test
+    public void agreesWithContainsOnRandomText()
+    {
+        SplittableRandom random = new SplittableRandom(7L);
+        String alphabet = "hersiHESI count<>.";
+        KeywordAutomaton automaton = new KeywordAutomaton(KEYWORDS);
+        for (int n = 0; n < 20_000; n++)
+        {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(24);
+            for (int i = 0; i < length; i++) sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            String text = sb.toString();
+            long bits = expected(text, KEYWORDS);
+            assertEquals(text, bits, automaton.match(text));
+            assertEquals(text, bits == 0L ? -1 : Long.numberOfTrailingZeros(bits), automaton.first(text));
+        }
+    }
+
+    @Test
+    public void markupKeptWhenNotSkipping()
+    {
+        KeywordAutomaton automaton = new KeywordAutomaton(false, new String[] { "you have died.", "col" });
+        assertEquals(3L, automaton.match("<col=ef1020>You have died.</col>"));
+        assertEquals(2L, automaton.match("You have <col=ff0000>died</col>."));
+    }
+
+    @Test
+    public void firstReportsLowestMatchingIndex()
+    {
+        KeywordAutomaton automaton = new KeywordAutomaton(KEYWORDS);
+        assertEquals(0, automaton.first("ushers"));
+        assertEquals(2, automaton.first("this"));
+        assertEquals(-1, automaton.first("xyz"));
+        assertEquals(-1, automaton.first(null));
+    }
+
+    @Test
+    public void firstWorksPastSixtyFourKeywords()
+    {
+        String[] keywords = new String[KeywordAutomaton.MAX_KEYWORDS + 36];
+        for (int i = 0; i < keywords.length; i++) keywords[i] = "k" + i + ";";
+        KeywordAutomaton automaton = new KeywordAutomaton(keywords);
+        assertEquals(99, automaton.first("xk99;"));
+        assertEquals(7, automaton.first("k70;k7;"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void matchNeedsAtMostSixtyFourKeywords()
+    {
+        String[] keywords = new String[KeywordAutomaton.MAX_KEYWORDS + 1];
+        for (int i = 0; i < keywords.length; i++) keywords[i] = "k" + i;
+        new KeywordAutomaton(keywords).match("k1");
+    }
+}
@@ -0,0 +1,73 @@
+package com.runealytics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link LatencyHistogram}: bucket boundaries, the 1/16 precision bound and
+ * percentile lookup.
+ */
+public class LatencyHistogramTest
+{
+    @Test
+    public void buckets_areContiguousAndCoverTheirValues()
+    {
+        for (int i = 0; i < LatencyHistogram.index(LatencyHistogram.MAX_TRACKABLE); i++)
+        {
+            assertEquals(LatencyHistogram.lowerBound(i + 1), LatencyHistogram.upperBound(i) + 1);
+            assertEquals(i, LatencyHistogram.index(LatencyHistogram.lowerBound(i)));
+            assertEquals(i, LatencyHistogram.index(LatencyHistogram.upperBound(i)));
+        }
+    }
+
+    @Test
+    public void buckets_stayWithinSixteenthOfValue()
+    {
+        for (long v = 1; v < LatencyHistogram.MAX_TRACKABLE; v = v * 3 + 1)
+        {
+            int i = LatencyHistogram.index(v);
+            long width = LatencyHistogram.upperBound(i) - LatencyHistogram.lowerBound(i) + 1;
+            assertTrue("value " + v, width * LatencyHistogram.SUB_BUCKETS <= Math.max(LatencyHistogram.SUB_BUCKETS, v));
+        }
+    }
+
+    @Test
+    public void percentiles_matchRecordedDistribution()
+    {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0L, h.percentileNanos(0.5));
+
+        // 990 fast calls of ~20µs and 10 slow ones of ~5ms.
+        for (int i = 0; i < 990; i++) h.record(20_000L);
+        for (int i = 0; i < 10; i++) h.record(5_000_000L);
+
+        assertEquals(1_000L, h.count());
+        assertEquals(5_000_000L, h.maxNanos());
+        assertEquals(990L * 20_000L + 10L * 5_000_000L, h.totalNanos());
+
+        long p50 = h.percentileNanos(0.50);
+        assertTrue(p50 >= 20_000L && p50 <= 20_000L * 17 / 16);
+        long p99 = h.percentileNanos(0.99);
+        assertTrue(p99 >= 20_000L && p99 <= 20_000L * 17 / 16);
+        assertEquals(5_000_000L, h.percentileNanos(0.999));
+        assertEquals(5_000_000L, h.percentileNanos(1.0));
+    }
+
+    @Test
+    public void outOfRangeValues_areClamped()
+    {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5L);
+        h.record(Long.MAX_VALUE / 2);
+
+        assertEquals(2L, h.count());
+        assertEquals(0L, h.percentileNanos(0.5));
+        assertEquals(Long.MAX_VALUE / 2, h.maxNanos());
+
+        h.reset();
+        assertEquals(0L, h.count());
+        assertEquals(0L, h.maxNanos());
+    }
+}
@@ -0,0 +1,223 @@
+package com.runealytics;
+
+import com.google.gson.Gson;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Round-trip and robustness tests for {@link LootBinaryCodec}. Equality is
+ * checked through Gson's tree model so every persisted field is compared
+ * exactly as the JSON format would see it.
+ */
+public class LootBinaryCodecTest
+{
+    private static final Logger log = LoggerFactory.getLogger(LootBinaryCodecTest.class);
+
+    private final Gson gson = new Gson();
+
+    private static LootStorageData.DropRecord drop(int id, int qty, long total, int ge, int alch)
+    {
+        LootStorageData.DropRecord d = new LootStorageData.DropRecord();
+        d.setItemId(id);
+        d.setItemName("item" + id);
+        d.setQuantity(qty);
+        d.setTotalValue(total);
+        d.setGePrice(ge);
+        d.setHighAlch(alch);
+        return d;
+    }
+
+    private static LootStorageData.KillRecord kill(long ts, int killNumber, boolean synced,
+                                                   LootStorageData.DropRecord... drops)
+    {
+        LootStorageData.KillRecord k = new LootStorageData.KillRecord();
+        k.setTimestamp(ts);
+        k.setKillNumber(killNumber);
+        k.setSyncedToServer(synced);
+        k.setDrops(new ArrayList<>(Arrays.asList(drops)));
+        return k;
+    }
+
+    private static LootStorageData.BossKillData boss(String name, int killCount, int prestige,
+                                                     LootStorageData.KillRecord... kills)
+    {
+        LootStorageData.BossKillData b = new LootStorageData.BossKillData();
+        b.setNpcName(name);
+        b.setKillCount(killCount);
+        b.setPrestige(prestige);
+        b.setKills(new ArrayList<>(Arrays.asList(kills)));
+        return b;
+    }
+
+    private static LootStorageData.AggregatedDrop aggregate(int id, int qty, long total)
+    {
+        LootStorageData.AggregatedDrop a = new LootStorageData.AggregatedDrop();
+        a.setItemId(id);
+        a.setItemName("item" + id);
+        a.setTotalQuantity(qty);
+        a.setDropCount(1);
+        a.setTotalValue(total);
+        a.setGePrice(10);
+        return a;
+    }
+
+    private static LootStorageData fixture()
+    {
+        LootStorageData data = new LootStorageData();
+        data.setUsername("Tester");
+        data.setLastSyncTimestamp(1_700_000_000_000L);
+        data.setJournalSeq(42L);
+
+        LootStorageData.DropRecord pet = drop(-1, 1, 0L, 0, 0);
+        pet.setItemName("Pet");
+        pet.setPet(true);
+        LootStorageData.DropRecord hidden = drop(995, 5_000, 5_000L, 1, 0);
+        hidden.setHidden(true);
+
+        LootStorageData.KillRecord located = kill(1_700_000_100_000L, 2, false, drop(4151, 1, 2_500_000L, 2_500_000, 72_000));
+        located.setLocation(new PlayerLocationSnapshot(0, 2268, 3070, 9008, 12, 14, 283, 383,
+                "Zul-Andra", null, true, 330, 1_700_000_099_500L));
+        located.setGameMode("leagues");
+        located.setAccountType("ironman");
+
+        LootStorageData.BossKillData zulrah = boss("Zulrah", 2, 1,
+                kill(1_700_000_000_000L, 1, true, pet, hidden),
+                located);
+        zulrah.setNpcId(2042);
+        zulrah.setTotalLootValue(Long.MAX_VALUE / 3);
+        zulrah.getAggregatedDrops().put(4151, aggregate(4151, 1, 2_500_000L));
+        zulrah.getAggregatedDrops().put(-1, aggregate(-1, 1, 0L));
+        zulrah.setArchiveKey("zulrah-1700000000000");
+        zulrah.setArchivedKills(300);
+        zulrah.setArchiveBytes(123_456L);
+        zulrah.setArchivedHighestDrop(9_000_000L);
+        data.getBossKills().put("Zulrah", zulrah);
+
+        // Kill listed before an earlier one: negative timestamp delta.
+        LootStorageData.BossKillData vorkath = boss("Vorkath", 0, 0,
+                kill(5_000L, 0, true), kill(1_000L, 0, true, drop(1, 1, 1L, 1, 1)));
+        data.getBossKills().put("Vorkath", vorkath);
+
+        data.getBossKills().put("Empty", new LootStorageData.BossKillData());
+
+        data.getHiddenDropsByBoss().put("Zulrah", new HashSet<>(Arrays.asList(995, -1)));
+        data.getHiddenBosses().add("Vorkath");
+        data.getLastGameKcByBoss().put("Zulrah", 2);
+        return data;
+    }
+
+    private static byte[] encode(LootStorageData data) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LootBinaryCodec.write(data, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void roundTrip_preservesEveryField() throws IOException
+    {
+        LootStorageData original = fixture();
+        LootStorageData decoded = LootBinaryCodec.read(new ByteArrayInputStream(encode(original)));
+
+        assertEquals(gson.toJsonTree(original), gson.toJsonTree(decoded));
+        assertNull(decoded.getBossKills().get("Zulrah").getKills().get(1).getLocation().getAreaName());
+    }
+
+    @Test
+    public void roundTrip_ofDefaultDataIsEmpty() throws IOException
+    {
+        LootStorageData decoded = LootBinaryCodec.read(new ByteArrayInputStream(encode(new LootStorageData())));
+
+        assertNull(decoded.getUsername());
+        assertTrue(decoded.getBossKills().isEmpty());
+        assertEquals(gson.toJsonTree(new LootStorageData()), gson.toJsonTree(decoded));
+    }
+
+    @Test
+    public void read_rejectsForeignTruncatedOrNewerFiles() throws IOException
+    {
+        assertRejected("{\"username\":\"x\"}".getBytes(StandardCharsets.UTF_8));
+
+        byte[] full = encode(fixture());
+        assertRejected(Arrays.copyOf(full, full.length - 3));
+
+        byte[] newer = full.clone();
+        newer[LootBinaryCodec.MAGIC.length] = (byte) (LootBinaryCodec.VERSION + 1);
+        assertRejected(newer);
+    }
+
+    private static void assertRejected(byte[] bytes)
+    {
+        try
+        {
+            LootBinaryCodec.read(new ByteArrayInputStream(bytes));
+            fail("expected IOException");
+        }
+        catch (IOException expected)
+        {
+            // expected
+        }
+    }
+
+    /**
+     * Load-time comparison against the JSON format on a synthetic large
+     * history. Only the size is asserted — timings vary by machine and are
+     * logged at debug for reference.
+     */
+    @Test
+    public void largeHistory_isSmallerAndFasterToLoadThanJson() throws IOException
+    {
+        LootStorageData data = new LootStorageData();
+        data.setUsername("Tester");
+        long ts = 1_700_000_000_000L;
+        for (int b = 0; b < 50; b++)
+        {
+            LootStorageData.BossKillData boss = boss("Boss " + b, 400, 0);
+            for (int k = 1; k <= 400; k++)
+            {
+                ts += 60_000L + k;
+                boss.getKills().add(kill(ts, k, k % 3 == 0,
+                        drop(526, 1, 100L, 100, 0),
+                        drop(995, 1_000 + k, 1_000L + k, 1, 0),
+                        drop(4151 + (k % 7), 1, 2_500_000L, 2_500_000, 72_000)));
+            }
+            data.getBossKills().put(boss.getNpcName(), boss);
+        }
+
+        byte[] json = new com.google.gson.GsonBuilder().setPrettyPrinting().create()
+                .toJson(data).getBytes(StandardCharsets.UTF_8);
+        byte[] binary = encode(data);
+        assertTrue("binary " + binary.length + "B vs json " + json.length + "B",
+                binary.length * 4 < json.length);
+
+        // Warm both paths once, then time a second load.
+        gson.fromJson(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8), LootStorageData.class);
+        LootBinaryCodec.read(new ByteArrayInputStream(binary));
+
+        long t0 = System.nanoTime();
+        LootStorageData fromJson = gson.fromJson(
+                new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8), LootStorageData.class);
+        long t1 = System.nanoTime();
+        LootStorageData fromBinary = LootBinaryCodec.read(new ByteArrayInputStream(binary));
+        long t2 = System.nanoTime();
+
+        assertEquals(gson.toJsonTree(fromJson), gson.toJsonTree(fromBinary));
+        log.debug("20k kills: json {} KB / {} ms, binary {} KB / {} ms",
+                json.length / 1024, (t1 - t0) / 1_000_000,
+                binary.length / 1024, (t2 - t1) / 1_000_000);
+    }
+}
@@ -0,0 +1,250 @@
+package com.runealytics;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import net.runelite.client.callback.ClientThread;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives {@link LootBulkUploader} against MockWebServer: byte-sized batches,
+ * bounded pipelining with in-order acknowledgement, retry of server errors,
+ * stop on client errors, and the gzip body with its plain-JSON fallback.
+ */
+public class LootBulkUploaderTest
+{
+    private MockWebServer server;
+    private LootTrackerApiClient apiClient;
+    private final List<Map<String, List<LootStorageData.KillRecord>>> acks = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception
+    {
+        server = new MockWebServer();
+        server.start();
+
+        RunealyticsConfig config = mock(RunealyticsConfig.class);
+        when(config.apiUrl()).thenReturn(server.url("/api").toString());
+        when(config.syncTimeout()).thenReturn(5);
+
+        apiClient = new LootTrackerApiClient(new OkHttpClient(), config, new RuneAlyticsState(),
+                new Gson(), mock(ItemValueCache.class), mock(ClientThread.class), mock(SyncOutbox.class));
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        server.shutdown();
+    }
+
+    private LootBulkUploader uploader()
+    {
+        return new LootBulkUploader(apiClient, "Zezima", null, acks::add, 10L);
+    }
+
+    private static LootStorageData.KillRecord kill(long ts, boolean withDrop)
+    {
+        LootStorageData.KillRecord k = new LootStorageData.KillRecord();
+        k.setTimestamp(ts);
+        k.setKillNumber((int) ts);
+        k.setDrops(new ArrayList<>());
+        if (withDrop)
+        {
+            LootStorageData.DropRecord d = new LootStorageData.DropRecord();
+            d.setItemId(4151);
+            d.setItemName("Abyssal whip");
+            d.setQuantity(1);
+            d.setGePrice(1_500_000);
+            d.setTotalValue(1_500_000L);
+            k.getDrops().add(d);
+        }
+        return k;
+    }
+
+    /** {@code count} kills spread over three bosses, in backlog order. */
+    private static Map<String, List<LootStorageData.KillRecord>> backlog(int count)
+    {
+        Map<String, List<LootStorageData.KillRecord>> unsynced = new LinkedHashMap<>();
+        String[] bosses = {"Zulrah", "Vorkath", "Corporeal Beast"};
+        for (int i = 0; i < count; i++)
+        {
+            unsynced.computeIfAbsent(bosses[i * bosses.length / count], k -> new ArrayList<>())
+                    .add(kill(i + 1, true));
+        }
+        return unsynced;
+    }
+
+    private static List<LootStorageData.KillRecord> flatten(List<Map<String, List<LootStorageData.KillRecord>>> maps)
+    {
+        List<LootStorageData.KillRecord> all = new ArrayList<>();
+        for (Map<String, List<LootStorageData.KillRecord>> m : maps)
+        {
+            for (List<LootStorageData.KillRecord> kills : m.values()) all.addAll(kills);
+        }
+        return all;
+    }
+
+    private static JsonObject body(RecordedRequest req) throws Exception
+    {
+        byte[] bytes = req.getBody().readByteArray();
+        if ("gzip".equals(req.getHeader("Content-Encoding")))
+        {
+            try (InputStreamReader in = new InputStreamReader(
+                    new GZIPInputStream(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8))
+            {
+                return new Gson().fromJson(in, JsonObject.class);
+            }
+        }
+        return new Gson().fromJson(new String(bytes, StandardCharsets.UTF_8), JsonObject.class);
+    }
+
+    @Test
+    public void upload_pipelinesGzippedBatchesAndAcksInBacklogOrder() throws Exception
+    {
+        // Hold every response until MAX_IN_FLIGHT requests are open at once;
+        // a strictly sequential uploader would never get there.
+        CountDownLatch open = new CountDownLatch(LootBulkUploader.MAX_IN_FLIGHT);
+        AtomicBoolean overlapped = new AtomicBoolean();
+        server.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException
+            {
+                open.countDown();
+                if (open.await(3, TimeUnit.SECONDS)) overlapped.set(true);
+                return new MockResponse().setResponseCode(200).setBody("{}");
+            }
+        });
+
+        Map<String, List<LootStorageData.KillRecord>> unsynced = backlog(1_000);
+        List<LootStorageData.KillRecord> expected = flatten(Collections.singletonList(unsynced));
+
+        assertEquals(1_000, uploader().upload(unsynced));
+        assertTrue(overlapped.get());
+        assertEquals(expected, flatten(acks));
+
+        int uploaded = 0;
+        for (int i = 0; i < server.getRequestCount(); i++)
+        {
+            RecordedRequest req = server.takeRequest(1, TimeUnit.SECONDS);
+            assertEquals("gzip", req.getHeader("Content-Encoding"));
+            assertTrue(req.getBodySize() < LootBulkUploader.TARGET_BATCH_BYTES / 4);
+            int kills = body(req).getAsJsonArray("kills").size();
+            assertTrue(kills <= LootBulkUploader.MAX_BATCH_KILLS);
+            uploaded += kills;
+        }
+        assertEquals(1_000, uploaded);
+        assertTrue(server.getRequestCount() > LootBulkUploader.MAX_IN_FLIGHT);
+    }
+
+    @Test
+    public void upload_retriesServerErrorThenAcksOnce() throws Exception
+    {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        assertEquals(10, uploader().upload(backlog(10)));
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, acks.size());
+    }
+
+    @Test
+    public void upload_clientErrorStopsNewBatchesAndAcksNothing() throws Exception
+    {
+        server.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request)
+            {
+                return new MockResponse().setResponseCode(422).setBody("{}");
+            }
+        });
+
+        assertEquals(0, uploader().upload(backlog(1_000)));
+        assertTrue(acks.isEmpty());
+        // Each gzip body is resent once uncompressed before the 422 counts.
+        assertEquals(2 * LootBulkUploader.MAX_IN_FLIGHT, server.getRequestCount());
+    }
+
+    @Test
+    public void upload_unsupportedGzipFallsBackToPlainJson() throws Exception
+    {
+        server.enqueue(new MockResponse().setResponseCode(415));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        assertEquals(50, uploader().upload(backlog(50)));
+
+        assertEquals("gzip", server.takeRequest(1, TimeUnit.SECONDS).getHeader("Content-Encoding"));
+        RecordedRequest plain = server.takeRequest(1, TimeUnit.SECONDS);
+        assertNull(plain.getHeader("Content-Encoding"));
+        assertEquals(50, body(plain).getAsJsonArray("kills").size());
+    }
+
+    @Test
+    public void upload_gzipBadRequestIsResentPlainAndGzipStaysOff() throws Exception
+    {
+        server.enqueue(new MockResponse().setResponseCode(400));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        assertEquals(50, uploader().upload(backlog(50)));
+        assertEquals(50, uploader().upload(backlog(50)));
+
+        assertEquals("gzip", server.takeRequest(1, TimeUnit.SECONDS).getHeader("Content-Encoding"));
+        assertNull(server.takeRequest(1, TimeUnit.SECONDS).getHeader("Content-Encoding"));
+        assertNull(server.takeRequest(1, TimeUnit.SECONDS).getHeader("Content-Encoding"));
+    }
+
+    @Test
+    public void upload_zeroLootKillsAreAckedWithoutHttp() throws Exception
+    {
+        Map<String, List<LootStorageData.KillRecord>> unsynced = new LinkedHashMap<>();
+        unsynced.put("Zulrah", new ArrayList<>(Collections.singletonList(kill(1, false))));
+
+        assertEquals(1, uploader().upload(unsynced));
+        assertEquals(0, server.getRequestCount());
+        assertEquals(1, acks.size());
+        assertSame(unsynced.get("Zulrah").get(0), acks.get(0).get("Zulrah").get(0));
+    }
+
+    @Test
+    public void upload_zeroLootKillInAFailedBatchIsNotAcked() throws Exception
+    {
+        server.enqueue(new MockResponse().setResponseCode(400));
+        server.enqueue(new MockResponse().setResponseCode(400)); // plain resend, if it was gzipped
+
+        Map<String, List<LootStorageData.KillRecord>> unsynced = new LinkedHashMap<>();
+        unsynced.put("Zulrah", new ArrayList<>(Arrays.asList(kill(1, false), kill(2, true))));
+
+        assertEquals(0, uploader().upload(unsynced));
+        assertTrue(acks.isEmpty());
+        assertFalse(unsynced.get("Zulrah").get(0).isSyncedToServer());
+    }
+}
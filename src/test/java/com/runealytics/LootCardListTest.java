@@ -0,0 +1,61 @@
+package com.runealytics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Coverage for the LootCardList layout arithmetic (grid and card heights, and
+ * the y → card / y → row lookups) that decides which cards and item rows are
+ * materialized. Pure arithmetic — no Swing components involved.
+ */
+public class LootCardListTest
+{
+    private static final int ROW = LootCardList.ITEM_SIZE + LootCardList.ITEM_GAP;
+
+    @Test
+    public void gridHeight_emptyGridShowsPlaceholderRow()
+    {
+        assertEquals(LootCardList.GRID_TOP + LootCardList.EMPTY_GRID_HEIGHT + LootCardList.GRID_BOTTOM,
+                LootCardList.gridHeight(0));
+    }
+
+    @Test
+    public void gridHeight_growsByOneRowPerFiveSlots()
+    {
+        int oneRow = LootCardList.gridHeight(1);
+        assertEquals(LootCardList.GRID_TOP + LootCardList.ITEM_SIZE + LootCardList.GRID_BOTTOM, oneRow);
+        assertEquals(oneRow, LootCardList.gridHeight(LootCardList.ITEMS_PER_ROW));
+        assertEquals(oneRow + ROW, LootCardList.gridHeight(LootCardList.ITEMS_PER_ROW + 1));
+        assertEquals(oneRow + 9 * ROW, LootCardList.gridHeight(50));
+    }
+
+    @Test
+    public void cardHeight_collapsedIsHeaderAndBorderOnly()
+    {
+        assertEquals(LootCardList.HEADER_HEIGHT + 2, LootCardList.cardHeight(12, false, 1));
+        assertEquals(LootCardList.HEADER_HEIGHT + 4 + LootCardList.gridHeight(12),
+                LootCardList.cardHeight(12, true, 2));
+    }
+
+    @Test
+    public void cardAt_findsLastCardStartingAtOrAbove()
+    {
+        int[] tops = {6, 50, 120, 300, 0};
+        assertEquals(0, LootCardList.cardAt(tops, 4, 0));     // above the first card
+        assertEquals(0, LootCardList.cardAt(tops, 4, 49));
+        assertEquals(1, LootCardList.cardAt(tops, 4, 50));    // boundary: top belongs to the card
+        assertEquals(2, LootCardList.cardAt(tops, 4, 299));
+        assertEquals(3, LootCardList.cardAt(tops, 4, 10_000));
+        assertEquals(0, LootCardList.cardAt(tops, 1, 10_000));
+    }
+
+    @Test
+    public void rowAt_clampsToGrid()
+    {
+        assertEquals(0, LootCardList.rowAt(-100, 4));
+        assertEquals(0, LootCardList.rowAt(LootCardList.GRID_TOP + ROW - 1, 4));
+        assertEquals(1, LootCardList.rowAt(LootCardList.GRID_TOP + ROW, 4));
+        assertEquals(3, LootCardList.rowAt(10_000, 4));
+    }
+}
@@ -0,0 +1,182 @@
+package com.runealytics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link LootIngestQueue}: tasks run on the writer thread in submission
+ * order, a full ring makes the producer wait instead of dropping, and
+ * {@code awaitApplied}/{@code stop} leave nothing behind.
+ */
+public class LootIngestQueueTest
+{
+    private final PluginMetrics metrics = new PluginMetrics();
+    private LootIngestQueue queue;
+
+    @After
+    public void tearDown()
+    {
+        if (queue != null) queue.stop();
+    }
+
+    @Test
+    public void tasksRunOnWriterInSubmissionOrder()
+    {
+        queue = new LootIngestQueue(64, metrics);
+        List<Integer> seen = new ArrayList<>();
+        List<Boolean> onWriter = new ArrayList<>();
+
+        for (int i = 0; i < 10_000; i++)
+        {
+            int n = i;
+            queue.submit(() ->
+            {
+                seen.add(n);
+                onWriter.add(queue.isWriterThread());
+            });
+        }
+        queue.awaitApplied();
+
+        assertEquals(10_000, seen.size());
+        for (int i = 0; i < seen.size(); i++) assertEquals(i, (int) seen.get(i));
+        assertFalse(onWriter.contains(false));
+        assertFalse(queue.isWriterThread());
+        assertEquals(0, queue.size());
+        assertEquals(10_000L, metrics.timer("ingest.apply").count());
+    }
+
+    @Test
+    public void fullRingWaitsForWriterInsteadOfDropping() throws Exception
+    {
+        queue = new LootIngestQueue(4, metrics);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+
+        queue.submit(() ->
+        {
+            try
+            {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Thread producer = new Thread(() ->
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                int n = i;
+                queue.submit(() -> seen.add(n));
+            }
+        });
+        producer.start();
+
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (metrics.counter("ingest.full") == 0 && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(1L);
+        }
+        assertEquals(1L, metrics.counter("ingest.full"));
+        assertTrue(seen.isEmpty());
+
+        release.countDown();
+        producer.join(5_000L);
+        queue.awaitApplied();
+
+        assertEquals(20, seen.size());
+        for (int i = 0; i < 20; i++) assertEquals(i, (int) seen.get(i));
+        assertTrue(metrics.timer("ingest.stall").count() >= 1L);
+    }
+
+    @Test
+    public void producersEachKeepTheirOwnOrder() throws Exception
+    {
+        queue = new LootIngestQueue(16, metrics);
+        List<int[]> seen = new ArrayList<>();
+        Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++)
+        {
+            int id = p;
+            producers[p] = new Thread(() ->
+            {
+                for (int i = 0; i < 5_000; i++)
+                {
+                    int n = i;
+                    queue.submit(() -> seen.add(new int[] {id, n}));
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread t : producers) t.join(10_000L);
+        queue.awaitApplied();
+
+        assertEquals(20_000, seen.size());
+        int[] next = new int[producers.length];
+        for (int[] e : seen)
+        {
+            assertEquals(next[e[0]], e[1]);
+            next[e[0]]++;
+        }
+    }
+
+    @Test
+    public void failingTaskDoesNotStopWriter()
+    {
+        queue = new LootIngestQueue(8, metrics);
+        List<String> seen = new ArrayList<>();
+
+        queue.submit(() -> seen.add("before"));
+        queue.submit(() -> { throw new IllegalStateException("bad event"); });
+        queue.submit(() -> seen.add("after"));
+        queue.awaitApplied();
+
+        assertEquals(2, seen.size());
+        assertEquals("after", seen.get(1));
+    }
+
+    @Test
+    public void stopAppliesEverythingAlreadyQueued()
+    {
+        queue = new LootIngestQueue(64, metrics);
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+
+        queue.submit(() ->
+        {
+            try
+            {
+                Thread.sleep(50L);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 0; i < 30; i++)
+        {
+            int n = i;
+            queue.submit(() -> seen.add(n));
+        }
+        queue.stop();
+        queue = null;
+
+        assertEquals(30, seen.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePowerOfTwo()
+    {
+        new LootIngestQueue(1_000, metrics);
+    }
+}
@@ -1,17 +1,24 @@
 package com.runealytics;
 
 import com.google.gson.Gson;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -19,10 +26,15 @@ import static org.mockito.Mockito.when;
 /**
  * In-memory logic coverage for loot persistence. The verified username is
  * mocked to {@code null}, which short-circuits all disk I/O in save/load while
- * leaving the aggregation, dedup and merge logic fully exercised.
+ * leaving the aggregation, dedup and merge logic fully exercised. The journal
+ * tests use a verified username and the package-private storage-dir
+ * constructor so they write only under a temporary folder.
  */
 public class LootStorageManagerTest
 {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
     private LootStorageManager manager;
 
     @Before
@@ -183,6 +195,39 @@ public class LootStorageManagerTest
         assertTrue(manager.getUnsyncedKills("Nobody").isEmpty());
     }
 
+    @Test
+    public void unsyncedIndex_followsAppendedDropsAndBatchAck()
+    {
+        manager.addKill("Zulrah", 2042, 100, 1, 330, 0, Arrays.asList(drop(1, 1, 1L, 1, 1)));
+        manager.addKill("Vorkath", 8061, 392, 1, 330, 0, Arrays.asList(drop(1, 1, 1L, 1, 1)));
+        manager.appendDropsToLastKill("Zulrah", Arrays.asList(drop(995, 5, 5L, 1, 0)));
+
+        // The replaced record is queued, not the one it superseded.
+        List<LootStorageData.KillRecord> zulrah = manager.getUnsyncedKills("Zulrah");
+        assertEquals(1, zulrah.size());
+        assertSame(manager.getCurrentData().getBossKills().get("Zulrah").getKills().get(0), zulrah.get(0));
+        assertEquals(2, zulrah.get(0).getDrops().size());
+
+        manager.markKillsSynced(manager.getAllUnsyncedKills());
+        assertTrue(manager.getAllUnsyncedKills().isEmpty());
+        assertTrue(manager.getCurrentData().getBossKills().get("Vorkath").getKills().get(0).isSyncedToServer());
+
+        manager.addKill("Vorkath", 8061, 392, 2, 330, 0, Arrays.asList(drop(1, 1, 1L, 1, 1)));
+        assertEquals(2, manager.getUnsyncedKills("Vorkath").get(0).getKillNumber());
+    }
+
+    @Test
+    public void unsyncedIndex_rebuildsAfterInvalidate()
+    {
+        manager.addKill("Zulrah", 2042, 100, 1, 330, 0, Arrays.asList(drop(1, 1, 1L, 1, 1)));
+        assertEquals(1, manager.getAllUnsyncedKills().size());
+
+        manager.getCurrentData().getBossKills().get("Zulrah").getKills().clear();
+        manager.invalidateUnsyncedIndex();
+
+        assertTrue(manager.getAllUnsyncedKills().isEmpty());
+    }
+
     // ── mergeServerData ──────────────────────────────────────────────────────
 
     @Test
@@ -277,4 +322,388 @@ public class LootStorageManagerTest
         assertEquals(3, b.getPrestige()); // max(3, 1)
         assertEquals(100L, b.getTotalLootValue()); // recalculated from the single existing kill
     }
+
+    // ── write-ahead journal ──────────────────────────────────────────────────
+
+    private LootStorageManager diskManager(File dir)
+    {
+        RuneAlyticsState state = mock(RuneAlyticsState.class);
+        when(state.getVerifiedUsername()).thenReturn("Tester");
+        return new LootStorageManager(state, new Gson(), dir);
+    }
+
+    @Test
+    public void journal_killsAreAppendedNotSnapshotted_andReplayOnLoad() throws Exception
+    {
+        File dir = tmp.newFolder();
+        LootStorageManager first = diskManager(dir);
+        first.loadData();
+        first.addKill("Zulrah", 2042, 100, 1, 330, 0, Arrays.asList(drop(4151, 1, 100L, 50, 10)));
+        first.addKill("Zulrah", 2042, 100, 2, 330, 0, Arrays.asList(drop(4151, 2, 200L, 50, 10)));
+        first.appendDropsToLastKill("Zulrah", Arrays.asList(drop(995, 50, 50L, 1, 0)));
+        first.recordLastGameKc("Zulrah", 2);
+        first.markKillsSynced("Zulrah", 0L, Long.MAX_VALUE);
+        first.awaitPendingWrites();
+
+        assertTrue(new File(dir, "runealytics-loot-tester.journal").exists());
+        assertFalse(new File(dir, "runealytics-loot-tester.json").exists());
+
+        LootStorageData.BossKillData b = diskManager(dir).loadData().getBossKills().get("Zulrah");
+        assertEquals(2, b.getKillCount());
+        assertEquals(2, b.getKills().size());
+        assertEquals(350L, b.getTotalLootValue());
+        assertEquals(3, b.getAggregatedDrops().get(4151).getTotalQuantity());
+        assertEquals(50, b.getAggregatedDrops().get(995).getTotalQuantity());
+        assertTrue(b.getKills().get(1).isSyncedToServer());
+    }
+
+    @Test
+    public void journal_tickBatchIsOneAppendThatReplaysLikeSeparateKills() throws Exception
+    {
+        File dir = tmp.newFolder();
+        LootStorageManager first = diskManager(dir);
+        first.loadData();
+        first.addKills(Arrays.asList(
+                new LootStorageManager.KillWrite("Zulrah", 2042, 100, 1, 330, 0,
+                        Arrays.asList(drop(4151, 1, 100L, 50, 10)), null, 0),
+                new LootStorageManager.KillWrite("Vorkath", 8061, 392, 1, 330, 0,
+                        Arrays.asList(drop(1, 1, 10L, 10, 0)), null, 0),
+                new LootStorageManager.KillWrite("Zulrah", 2042, 100, 2, 330, 0,
+                        Arrays.asList(drop(4151, 2, 200L, 50, 10)), null, 57)));
+        first.awaitPendingWrites();
+
+        List<String> lines = Files.readAllLines(
+                new File(dir, "runealytics-loot-tester.journal").toPath(), StandardCharsets.UTF_8);
+        assertEquals(4, lines.size()); // three kills and the game KC
+
+        LootStorageData reloaded = diskManager(dir).loadData();
+        LootStorageData.BossKillData zulrah = reloaded.getBossKills().get("Zulrah");
+        assertEquals(2, zulrah.getKills().size());
+        assertEquals(300L, zulrah.getTotalLootValue());
+        assertEquals(1, reloaded.getBossKills().get("Vorkath").getKills().size());
+        assertEquals(Integer.valueOf(57), reloaded.getLastGameKcByBoss().get("Zulrah"));
+    }
+
+    @Test
+    public void journal_snapshotCompactsJournalWithoutDoubleApplying() throws Exception
+    {
+        File dir = tmp.newFolder();
+        LootStorageManager first = diskManager(dir);
+        first.loadData();
+        first.addKill("Vorkath", 8061, 392, 1, 330, 0, Arrays.asList(drop(1, 1, 10L, 10, 0)));
+        first.awaitPendingWrites();
+        first.flushNow();
+
+        assertFalse(new File(dir, "runealytics-loot-tester.journal").exists());
+
+        first.addKill("Vorkath", 8061, 392, 2, 330, 0, Arrays.asList(drop(1, 1, 10L, 10, 0)));
+        first.awaitPendingWrites();
+
+        LootStorageData.BossKillData b = diskManager(dir).loadData().getBossKills().get("Vorkath");
+        assertEquals(2, b.getKills().size());
+        assertEquals(20L, b.getTotalLootValue());
+    }
+
+    @Test
+    public void journal_tornTrailingLineStopsReplay() throws Exception
+    {
+        File dir = tmp.newFolder();
+        LootStorageManager first = diskManager(dir);
+        first.loadData();
+        first.addKill("Zulrah", 2042, 100, 1, 330, 0, Arrays.asList(drop(1, 1, 1L, 1, 1)));
+        first.awaitPendingWrites();
+
+        Files.write(new File(dir, "runealytics-loot-tester.journal").toPath(),
+                "{\"seq\":2,\"op\":\"kill\",\"boss\":\"Zul".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        assertEquals(1, diskManager(dir).loadData().getBossKills().get("Zulrah").getKills().size());
+    }
+
+    @Test
+    public void journal_repairTailCutsTornLineSoLaterAppendsReplay() throws Exception
+    {
+        File file = new File(tmp.newFolder(), "runealytics-loot-tester.journal");
+        LootJournal journal = new LootJournal(new Gson());
+        journal.append(file, "{\"seq\":1,\"op\":\"game_kc\",\"boss\":\"Zulrah\",\"value\":5}");
+        long intact = file.length();
+        Files.write(file.toPath(), "{\"seq\":2,\"op\":\"kill\",\"boss\":\"Zul".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        assertEquals(file.length() - intact, journal.repairTail(file));
+        assertEquals(intact, file.length());
+
+        journal.append(file, "{\"seq\":2,\"op\":\"game_kc\",\"boss\":\"Zulrah\",\"value\":6}");
+        List<LootJournal.Entry> entries = journal.readAfter(file, 0L);
+        assertEquals(2, entries.size());
+        assertEquals(6, entries.get(1).getValue());
+        assertEquals(0L, journal.repairTail(file));
+    }
+
+    @Test
+    public void journal_batchAckIsOneEntryAndReplays() throws Exception
+    {
+        File dir = tmp.newFolder();
+        LootStorageManager first = diskManager(dir);
+        first.loadData();
+        first.addKill("Zulrah", 2042, 100, 1, 330, 0, Arrays.asList(drop(1, 1, 1L, 1, 1)));
+        first.addKill("Vorkath", 8061, 392, 1, 330, 0, Arrays.asList(drop(1, 1, 1L, 1, 1)));
+        first.addKill("Vorkath", 8061, 392, 2, 330, 0, Arrays.asList(drop(1, 1, 1L, 1, 1)));
+        first.markKillsSynced(first.getAllUnsyncedKills());
+        first.awaitPendingWrites();
+
+        List<String> lines = Files.readAllLines(new File(dir, "runealytics-loot-tester.journal").toPath());
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(3).contains("\"op\":\"synced_batch\""));
+
+        LootStorageManager second = diskManager(dir);
+        second.loadData();
+        assertTrue(second.getAllUnsyncedKills().isEmpty());
+        assertTrue(second.getCurrentData().getBossKills().get("Vorkath").getKills().get(1).isSyncedToServer());
+    }
+
+    @Test
+    public void journal_disabledFallsBackToSnapshot() throws Exception
+    {
+        File dir = tmp.newFolder();
+        LootStorageManager first = diskManager(dir);
+        first.setJournalEnabled(false);
+        first.loadData();
+        first.addKill("Zulrah", 2042, 100, 1, 330, 0, Arrays.asList(drop(1, 1, 1L, 1, 1)));
+        first.flushNow();
+
+        assertFalse(new File(dir, "runealytics-loot-tester.journal").exists());
+        assertEquals(1, diskManager(dir).loadData().getBossKills().get("Zulrah").getKills().size());
+    }
+
+    // ── lazy history ───────────────────────────────────────────────────────────
+
+    private static void addSyncedKills(LootStorageManager m, int count)
+    {
+        for (int i = 1; i <= count; i++)
+        {
+            m.addKill("Zulrah", 2042, 100, i, 330, 0, Arrays.asList(drop(4151, 1, 10L, 10, 0)));
+        }
+        m.markKillsSynced("Zulrah", 0L, Long.MAX_VALUE);
+    }
+
+    private LootStorageManager lazyManager(File dir)
+    {
+        LootStorageManager m = diskManager(dir);
+        m.setLazyHistoryEnabled(true);
+        return m;
+    }
+
+    @Test
+    public void lazyHistory_archivesOldSyncedKillsAndPagesThemOnDemand() throws Exception
+    {
+        File dir = tmp.newFolder();
+        LootStorageManager first = lazyManager(dir);
+        first.loadData();
+        addSyncedKills(first, 250);
+        first.awaitPendingWrites();
+        first.flushNow();
+
+        LootStorageManager second = lazyManager(dir);
+        LootStorageData.BossKillData b = second.loadData().getBossKills().get("Zulrah");
+        assertEquals(LootStorageManager.RECENT_KILLS_KEPT, b.getKills().size());
+        assertEquals(150, b.getArchivedKills());
+        assertEquals(250, b.getKillCount());
+        assertEquals(2500L, b.getTotalLootValue());
+        assertEquals(250, b.getAggregatedDrops().get(4151).getTotalQuantity());
+        assertEquals(10L, b.getArchivedHighestDrop());
+
+        List<LootStorageData.KillRecord> all = second.getFullKillHistory("Zulrah");
+        assertEquals(250, all.size());
+        assertEquals(1, all.get(0).getKillNumber());
+        assertEquals(150, all.get(149).getKillNumber());
+        assertEquals(151, all.get(150).getKillNumber());
+    }
+
+    @Test
+    public void lazyHistory_olderServerKillIsMergedAheadOfTheArchive() throws Exception
+    {
+        File dir = tmp.newFolder();
+        LootStorageManager first = lazyManager(dir);
+        first.loadData();
+        addSyncedKills(first, 250);
+        first.awaitPendingWrites();
+        first.flushNow();
+
+        LootStorageManager second = lazyManager(dir);
+        second.loadData();
+        Map<String, LootStorageData.BossKillData> server = new HashMap<>();
+        server.put("Zulrah", boss("Zulrah", 251, 0, kill(1000L, 0, false, drop(4151, 1, 10L, 10, 0))));
+        second.mergeServerData(server);
+
+        List<LootStorageData.KillRecord> all = second.getFullKillHistory("Zulrah");
+        assertEquals(251, all.size());
+        assertEquals(1000L, all.get(0).getTimestamp());
+        assertEquals(1, all.get(1).getKillNumber());
+
+        second.flushNow();
+        LootStorageManager third = lazyManager(dir);
+        third.loadData();
+        List<LootStorageData.KillRecord> reloaded = third.getFullKillHistory("Zulrah");
+        assertEquals(251, reloaded.size());
+        assertEquals(1000L, reloaded.get(0).getTimestamp());
+        assertEquals(250, reloaded.get(250).getKillNumber());
+    }
+
+    @Test
+    public void lazyHistory_unsyncedKillsAreNeverArchived() throws Exception
+    {
+        File dir = tmp.newFolder();
+        LootStorageManager first = lazyManager(dir);
+        first.loadData();
+        for (int i = 1; i <= 250; i++)
+        {
+            first.addKill("Zulrah", 2042, 100, i, 330, 0, Arrays.asList(drop(4151, 1, 10L, 10, 0)));
+        }
+        first.awaitPendingWrites();
+        first.flushNow();
+
+        LootStorageData.BossKillData b = lazyManager(dir).loadData().getBossKills().get("Zulrah");
+        assertEquals(250, b.getKills().size());
+        assertEquals(0, b.getArchivedKills());
+        assertNull(b.getArchiveKey());
+    }
+
+    @Test
+    public void lazyHistory_disablingPagesArchiveBackIn() throws Exception
+    {
+        File dir = tmp.newFolder();
+        LootStorageManager first = lazyManager(dir);
+        first.loadData();
+        addSyncedKills(first, 250);
+        first.awaitPendingWrites();
+        first.flushNow();
+
+        File historyDir = new File(dir, "runealytics-loot-tester-history");
+        assertEquals(1, historyDir.listFiles().length);
+
+        LootStorageManager second = diskManager(dir);
+        LootStorageData.BossKillData b = second.loadData().getBossKills().get("Zulrah");
+        assertEquals(250, b.getKills().size());
+        assertEquals(1, b.getKills().get(0).getKillNumber());
+        assertEquals(0, b.getArchivedKills());
+        assertNull(b.getArchiveKey());
+
+        second.flushNow();
+        assertEquals(0, historyDir.listFiles().length);
+    }
+
+    @Test
+    public void lazyHistory_ignoresArchiveBytesPastCommittedLength() throws Exception
+    {
+        File dir = tmp.newFolder();
+        LootStorageManager first = lazyManager(dir);
+        first.loadData();
+        addSyncedKills(first, 250);
+        first.awaitPendingWrites();
+        first.flushNow();
+
+        // An archive pass that crashed before its snapshot was written.
+        File archive = new File(dir, "runealytics-loot-tester-history").listFiles()[0];
+        Files.write(archive.toPath(),
+                "{\"timestamp\":1,\"kill_number\":999}\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        LootStorageManager second = lazyManager(dir);
+        second.loadData();
+        List<LootStorageData.KillRecord> all = second.getFullKillHistory("Zulrah");
+        assertEquals(250, all.size());
+        assertEquals(250, all.get(249).getKillNumber());
+    }
+
+    // ── snapshot save ──────────────────────────────────────────────────────────
+
+    @Test
+    public void captureSnapshot_isUnaffectedByLaterMutations() throws Exception
+    {
+        File dir = tmp.newFolder();
+        LootStorageManager m = diskManager(dir);
+        m.setJournalEnabled(false);
+        m.loadData();
+        m.addKill("Zulrah", 2042, 100, 1, 330, 0, Arrays.asList(drop(4151, 1, 100L, 50, 10)));
+
+        LootStorageData snapshot;
+        synchronized (m)
+        {
+            snapshot = m.captureSnapshot();
+        }
+
+        m.appendDropsToLastKill("Zulrah", Arrays.asList(drop(995, 50, 50L, 1, 0)));
+        m.addKill("Zulrah", 2042, 100, 2, 330, 0, Arrays.asList(drop(4151, 1, 100L, 50, 10)));
+
+        File out = new File(dir, "snapshot.json");
+        m.writeSnapshot(out, snapshot, false);
+        LootStorageData written;
+        try (java.io.Reader reader = Files.newBufferedReader(out.toPath(), StandardCharsets.UTF_8))
+        {
+            written = new Gson().fromJson(reader, LootStorageData.class);
+        }
+
+        LootStorageData.BossKillData b = written.getBossKills().get("Zulrah");
+        assertEquals(1, b.getKills().size());
+        assertEquals(1, b.getKills().get(0).getDrops().size());
+        assertEquals(100L, b.getTotalLootValue());
+        assertNull(b.getAggregatedDrops().get(995));
+
+        assertEquals(2, m.getCurrentData().getBossKills().get("Zulrah").getKills().size());
+    }
+
+    @Test
+    public void captureSnapshot_copiesRecordsThatAreEditedInPlace() throws Exception
+    {
+        LootStorageManager m = diskManager(tmp.newFolder());
+        m.loadData();
+        m.addKill("Zulrah", 2042, 100, 1, 330, 0, Arrays.asList(drop(4151, 1, 100L, 50, 10)));
+
+        LootStorageData snapshot;
+        synchronized (m)
+        {
+            snapshot = m.captureSnapshot();
+        }
+
+        assertTrue(m.relabelLastKill("Zulrah", 57));
+        m.markKillsSynced("Zulrah", 0L, Long.MAX_VALUE);
+
+        LootStorageData.KillRecord captured = snapshot.getBossKills().get("Zulrah").getKills().get(0);
+        assertEquals(1, captured.getKillNumber());
+        assertFalse(captured.isSyncedToServer());
+        assertEquals(57, m.getCurrentData().getBossKills().get("Zulrah").getKills().get(0).getKillNumber());
+    }
+
+    // ── binary format ──────────────────────────────────────────────────────────
+
+    @Test
+    public void binaryFormat_migratesJsonFileBothWays() throws Exception
+    {
+        File dir = tmp.newFolder();
+        File json   = new File(dir, "runealytics-loot-tester.json");
+        File binary = new File(dir, "runealytics-loot-tester.bin");
+
+        LootStorageManager first = diskManager(dir);
+        first.setJournalEnabled(false);
+        first.loadData();
+        first.addKill("Zulrah", 2042, 100, 1, 330, 0, Arrays.asList(drop(4151, 1, 100L, 50, 10)));
+        first.flushNow();
+        assertTrue(json.exists());
+
+        LootStorageManager second = diskManager(dir);
+        second.setBinaryFormatEnabled(true);
+        assertEquals(1, second.loadData().getBossKills().get("Zulrah").getKills().size());
+        second.flushNow();
+        assertTrue(binary.exists());
+        assertFalse(json.exists());
+
+        LootStorageManager third = diskManager(dir);
+        LootStorageData.BossKillData b = third.loadData().getBossKills().get("Zulrah");
+        assertEquals(100L, b.getTotalLootValue());
+        assertEquals(4151, b.getKills().get(0).getDrops().get(0).getItemId());
+        third.flushNow();
+        assertTrue(json.exists());
+        assertFalse(binary.exists());
+    }
 }
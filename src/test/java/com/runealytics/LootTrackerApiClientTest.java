@@ -8,6 +8,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import net.runelite.api.ItemComposition;
 import net.runelite.client.callback.ClientThread;
@@ -18,7 +19,9 @@ import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -29,6 +32,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -38,6 +43,9 @@ import static org.mockito.Mockito.when;
  */
 public class LootTrackerApiClientTest
 {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
     private MockWebServer server;
     private RuneAlyticsState state;
     private ItemManager itemManager;
@@ -58,8 +66,10 @@ public class LootTrackerApiClientTest
         itemManager = mock(ItemManager.class);
         clientThread = mock(ClientThread.class);
 
+        SyncOutbox outbox = new SyncOutbox(new OkHttpClient(), config, state, new Gson(), tmp.getRoot(),
+                System::currentTimeMillis, new Random(1L), SyncOutbox.BASE_DELAY_MS);
         client = new LootTrackerApiClient(new OkHttpClient(), config, state,
-                new Gson(), itemManager, clientThread);
+                new Gson(), new ItemValueCache(itemManager), clientThread, outbox);
     }
 
     @After
@@ -173,6 +183,38 @@ public class LootTrackerApiClientTest
         assertEquals(40, d.getHighAlch());
     }
 
+    @Test
+    public void fetchKillHistory_cachedValuesSkipTheClientThread() throws Exception
+    {
+        doAnswer(inv -> {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(clientThread).invoke(any(Runnable.class));
+
+        when(itemManager.canonicalize(anyInt())).thenAnswer(inv -> inv.getArgument(0));
+        when(itemManager.getItemPrice(100)).thenReturn(500);
+        ItemComposition comp = mock(ItemComposition.class);
+        when(comp.getHaPrice()).thenReturn(40);
+        when(itemManager.getItemComposition(100)).thenReturn(comp);
+
+        String body = "{\"kills\":[{\"boss_name\":\"Zulrah\",\"kill_time\":1,"
+                + "\"drops\":[{\"item_id\":100,\"item_name\":\"x\",\"quantity\":3,"
+                + "\"ge_price\":0,\"high_alch\":0}]}]}";
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(body));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(body));
+
+        client.fetchKillHistoryFromServer("Zezima");
+        verify(clientThread, times(1)).invoke(any(Runnable.class));
+
+        // Second download: id 100 is already valued, so no client-thread hop.
+        LootStorageData.DropRecord d = client.fetchKillHistoryFromServer("Zezima")
+                .get("Zulrah").getKills().get(0).getDrops().get(0);
+        verify(clientThread, times(1)).invoke(any(Runnable.class));
+        assertEquals(500, d.getGePrice());
+        assertEquals(1500L, d.getTotalValue());
+        assertEquals(40, d.getHighAlch());
+    }
+
     // ── fetchLootSnapshot / parseSnapshot ────────────────────────────────────
 
     @Test
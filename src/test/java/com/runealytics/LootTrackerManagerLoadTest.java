@@ -0,0 +1,214 @@
+package com.runealytics;
+
+import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import net.runelite.api.Client;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.config.ConfigManager;
+import net.runelite.client.game.ItemManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The staged login load: persisted per-source totals are published at once,
+ * and the full rebuild from kill history runs later on the executor unless a
+ * logout or newer load superseded it. The client thread runs what it is
+ * handed inline, as it does for a caller already on it.
+ */
+public class LootTrackerManagerLoadTest
+{
+    private final LootStorageData data = new LootStorageData();
+    private ScheduledExecutorService executor;
+    private ItemValueCache itemValues;
+    private ClientThread clientThread;
+    /** Whether the storage lock was held when the client thread valued an item. */
+    private boolean clientThreadHeldStorage;
+    private LootTrackerManager manager;
+
+    @Before
+    public void setUp()
+    {
+        RuneAlyticsState state = mock(RuneAlyticsState.class);
+        when(state.getVerifiedUsername()).thenReturn("zezima");
+        LootStorageManager storage = mock(LootStorageManager.class);
+        when(storage.getCurrentData()).thenReturn(data);
+        when(storage.withCurrentData(any())).thenAnswer(inv ->
+        {
+            synchronized (storage)
+            {
+                return inv.<Function<LootStorageData, ?>>getArgument(0).apply(data);
+            }
+        });
+        executor = mock(ScheduledExecutorService.class);
+        itemValues = mock(ItemValueCache.class);
+
+        clientThread = mock(ClientThread.class);
+        doAnswer(inv ->
+        {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(clientThread).invoke(any(Runnable.class));
+        when(itemValues.get(anyInt())).thenAnswer(inv ->
+        {
+            clientThreadHeldStorage = Thread.holdsLock(storage);
+            return new ItemValueCache.ItemValue(inv.getArgument(0), "Zulrah's scales", 150, 0, true, 0L, 0L);
+        });
+
+        manager = new LootTrackerManager(
+                mock(Client.class),
+                clientThread,
+                mock(ItemManager.class),
+                itemValues,
+                mock(RunealyticsConfig.class),
+                state,
+                storage,
+                mock(LootTrackerApiClient.class),
+                mock(ConfigManager.class),
+                executor,
+                new Gson(),
+                new PluginMetrics());
+
+        data.getBossKills().put("Zulrah", zulrah(3));
+    }
+
+    private static LootStorageData.BossKillData zulrah(int kills)
+    {
+        LootStorageData.BossKillData bd = new LootStorageData.BossKillData();
+        bd.setNpcName("Zulrah");
+        bd.setNpcId(2042);
+        bd.setKillCount(kills);
+        bd.setTotalLootValue(kills * 100L);
+
+        List<LootStorageData.KillRecord> records = new ArrayList<>();
+        for (int i = 1; i <= kills; i++)
+        {
+            LootStorageData.DropRecord drop = new LootStorageData.DropRecord();
+            drop.setItemId(12934);
+            drop.setItemName("Zulrah's scales");
+            drop.setQuantity(1);
+            drop.setGePrice(100);
+            drop.setTotalValue(100L);
+
+            LootStorageData.KillRecord kill = new LootStorageData.KillRecord();
+            kill.setTimestamp(1_000L * i);
+            kill.setKillNumber(i);
+            kill.getDrops().add(drop);
+            records.add(kill);
+        }
+        bd.setKills(records);
+
+        LootStorageData.AggregatedDrop agg = new LootStorageData.AggregatedDrop();
+        agg.setItemId(12934);
+        agg.setItemName("Zulrah's scales");
+        agg.setTotalQuantity(kills);
+        agg.setDropCount(kills);
+        agg.setTotalValue(kills * 100L);
+        agg.setGePrice(100);
+        bd.getAggregatedDrops().put(12934, agg);
+        return bd;
+    }
+
+    private Runnable pendingStage()
+    {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(task.capture());
+        return task.getValue();
+    }
+
+    @Test
+    public void summariesArePublishedBeforeHistoryIsReplayed()
+    {
+        manager.loadFromStorage();
+
+        List<BossKillStats> shown = manager.getAllBossStats();
+        assertEquals(1, shown.size());
+        BossKillStats summary = shown.get(0);
+        assertEquals(3, summary.getKillCount());
+        assertEquals(300L, summary.getTotalLootValue());
+        assertEquals(3_000L, summary.getLastKillTimestamp());
+
+        pendingStage().run();
+
+        BossKillStats rebuilt = manager.getAllBossStats().get(0);
+        assertNotSame(summary, rebuilt);
+        assertEquals(3, rebuilt.getKillCount());
+        assertEquals(300L, rebuilt.getTotalLootValue());
+    }
+
+    /** Stored before prices resolved: the last kill's drop is worth 0. */
+    private LootStorageData.DropRecord storeUnpricedZulrah(String key)
+    {
+        LootStorageData.BossKillData zulrah = zulrah(3);
+        LootStorageData.DropRecord unpriced = zulrah.getKills().get(2).getDrops().get(0);
+        unpriced.setGePrice(0);
+        unpriced.setTotalValue(0L);
+        zulrah.setTotalLootValue(200L);
+        data.getBossKills().clear();
+        data.getBossKills().put(key, zulrah);
+        return unpriced;
+    }
+
+    @Test
+    public void backfillAndMigrationFinishBeforeTheReplay()
+    {
+        // The source also sits under a key with leftover chat markup.
+        LootStorageData.DropRecord unpriced = storeUnpricedZulrah("<col=ff0000>Zulrah</col>");
+
+        manager.loadFromStorage();
+        pendingStage().run();
+
+        assertFalse(clientThreadHeldStorage);
+        assertEquals(150L, unpriced.getTotalValue());
+        assertEquals(1, data.getBossKills().size());
+        assertEquals(350L, data.getBossKills().get("Zulrah").getTotalLootValue());
+        assertFalse(data.getBossKills().containsKey("<col=ff0000>Zulrah</col>"));
+
+        List<BossKillStats> shown = manager.getAllBossStats();
+        assertEquals(1, shown.size());
+        assertEquals("Zulrah", shown.get(0).getNpcName());
+        assertEquals(350L, shown.get(0).getTotalLootValue());
+    }
+
+    @Test
+    public void cachedValuesBackfillWithoutTheClientThread()
+    {
+        LootStorageData.DropRecord unpriced = storeUnpricedZulrah("Zulrah");
+        when(itemValues.peek(12934)).thenReturn(
+                new ItemValueCache.ItemValue(12934, "Zulrah's scales", 150, 0, true, 0L, 0L));
+
+        manager.loadFromStorage();
+        pendingStage().run();
+
+        verify(clientThread, never()).invoke(any(Runnable.class));
+        assertEquals(150L, unpriced.getTotalValue());
+        assertEquals(350L, data.getBossKills().get("Zulrah").getTotalLootValue());
+    }
+
+    @Test
+    public void logoutAbandonsPendingStage()
+    {
+        manager.loadFromStorage();
+        Runnable stage = pendingStage();
+
+        manager.resetForLogout();
+        stage.run();
+
+        assertTrue(manager.getAllBossStats().isEmpty());
+    }
+}
@@ -31,13 +31,15 @@ public class LootTrackerManagerTest
                 mock(Client.class),
                 mock(ClientThread.class),
                 mock(ItemManager.class),
+                mock(ItemValueCache.class),
                 mock(RunealyticsConfig.class),
                 mock(RuneAlyticsState.class),
                 mock(LootStorageManager.class),
                 mock(LootTrackerApiClient.class),
                 mock(ConfigManager.class),
                 mock(ScheduledExecutorService.class),
-                new Gson());
+                new Gson(),
+                new PluginMetrics());
     }
 
     // ── normalizeBossName (static) ──────────────────────────────────────────────
@@ -164,34 +166,38 @@ public class LootTrackerManagerTest
         assertFalse(manager.isBoss(-1, null));
     }
 
-    // ── detectChestSource ─────────────────────────────────────────────────────
+    // ── chest source ──────────────────────────────────────────────────────────
 
     @Test
     public void detectChestSource_recognisesActivities()
     {
-        assertEquals("Wintertodt", manager.detectChestSource("you have subdued the wintertodt"));
-        assertEquals("Tempoross", manager.detectChestSource("you have helped to subdue the tempoross"));
-        assertEquals("Zalcano", manager.detectChestSource("you defeated zalcano and got loot"));
+        assertEquals("Wintertodt",
+                ChatMessageRouter.chestSource(ChatMessageRouter.scan("you have subdued the wintertodt")));
+        assertEquals("Tempoross",
+                ChatMessageRouter.chestSource(ChatMessageRouter.scan("you have helped to subdue the tempoross")));
+        assertEquals("Zalcano",
+                ChatMessageRouter.chestSource(ChatMessageRouter.scan("you defeated zalcano and got loot")));
         assertEquals("Chambers of Xeric",
-                manager.detectChestSource("congratulations - your raid is complete!"));
+                ChatMessageRouter.chestSource(ChatMessageRouter.scan("congratulations - your raid is complete!")));
         assertEquals("Corrupted Gauntlet",
-                manager.detectChestSource("your corrupted gauntlet is complete"));
-        assertEquals("The Gauntlet", manager.detectChestSource("your gauntlet is complete"));
+                ChatMessageRouter.chestSource(ChatMessageRouter.scan("your corrupted gauntlet is complete")));
+        assertEquals("The Gauntlet",
+                ChatMessageRouter.chestSource(ChatMessageRouter.scan("your gauntlet is complete")));
     }
 
     @Test
     public void detectChestSource_treasureTrailTiers()
     {
         assertEquals("Hard Clue",
-                manager.detectChestSource("you have completed a hard treasure trail"));
+                ChatMessageRouter.chestSource(ChatMessageRouter.scan("you have completed a hard treasure trail")));
         assertEquals("Clue Scroll",
-                manager.detectChestSource("you have completed a treasure trail"));
+                ChatMessageRouter.chestSource(ChatMessageRouter.scan("you have completed a treasure trail")));
     }
 
     @Test
     public void detectChestSource_noMatchReturnsNull()
     {
-        assertNull(manager.detectChestSource("you killed a goblin"));
+        assertNull(ChatMessageRouter.chestSource(ChatMessageRouter.scan("you killed a goblin")));
     }
 
     // ── parseKillCountMessage ─────────────────────────────────────────────────
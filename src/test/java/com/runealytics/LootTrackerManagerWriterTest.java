@@ -0,0 +1,211 @@
+package com.runealytics;
+
+import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import net.runelite.api.Client;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.config.ConfigManager;
+import net.runelite.client.game.ItemManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The loot writer thread: kills and chat KCs are applied off the calling
+ * thread, but in the order they were submitted, so KC correlation and the
+ * tick commit behave exactly as they do inline.
+ */
+public class LootTrackerManagerWriterTest
+{
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private LootStorageManager storage;
+    private LootTrackerManager manager;
+    /** Real storage on a temp dir, for the tests that check what was stored. */
+    private LootStorageManager stored;
+
+    @Before
+    public void setUp()
+    {
+        storage = mock(LootStorageManager.class);
+        manager = managerWith(storage, mock(RuneAlyticsState.class));
+        manager.setWriterThreadEnabled(true);
+    }
+
+    @After
+    public void tearDown()
+    {
+        manager.setWriterThreadEnabled(false);
+        if (stored != null) stored.shutdown();
+    }
+
+    private static LootTrackerManager managerWith(LootStorageManager storage, RuneAlyticsState state)
+    {
+        return new LootTrackerManager(
+                mock(Client.class),
+                mock(ClientThread.class),
+                mock(ItemManager.class),
+                mock(ItemValueCache.class),
+                mock(RunealyticsConfig.class),
+                state,
+                storage,
+                mock(LootTrackerApiClient.class),
+                mock(ConfigManager.class),
+                mock(ScheduledExecutorService.class),
+                new Gson(),
+                new PluginMetrics());
+    }
+
+    /** Switches {@link #manager} to real storage for the account "zezima". */
+    private void useRealStorage()
+    {
+        RuneAlyticsState state = mock(RuneAlyticsState.class);
+        when(state.getVerifiedUsername()).thenReturn("zezima");
+        stored = new LootStorageManager(state, new Gson(), tmp.getRoot());
+        stored.loadData();
+
+        manager.setWriterThreadEnabled(false);
+        manager = managerWith(stored, state);
+        manager.setWriterThreadEnabled(true);
+    }
+
+    private LootStorageData.KillRecord lastStoredKill(String npcName)
+    {
+        List<LootStorageData.KillRecord> kills = stored.getCurrentData().getBossKills().get(npcName).getKills();
+        return kills.get(kills.size() - 1);
+    }
+
+    private int lastKillNumber(String npcName)
+    {
+        for (BossKillStats stats : manager.getAllBossStats())
+        {
+            if (stats.getNpcName().equals(npcName))
+            {
+                List<LootStorageData.KillRecord> history = stats.getKillHistory();
+                return history.get(history.size() - 1).getKillNumber();
+            }
+        }
+        throw new AssertionError("no kills for " + npcName);
+    }
+
+    @Test
+    public void chatKcBeforeKillNumbersThatKill()
+    {
+        manager.parseKillCountMessage("Your Zulrah kill count is: 57.");
+        manager.recordKill("Zulrah", 2042, 725, 330, new ArrayList<>(), -1);
+        manager.recordKill("Zulrah", 2042, 725, 330, new ArrayList<>(), -1);
+        manager.setWriterThreadEnabled(false); // drains the writer
+
+        List<BossKillStats> all = manager.getAllBossStats();
+        assertEquals(1, all.size());
+        assertEquals(2, all.get(0).getKillHistory().size());
+        assertEquals(57, all.get(0).getKillHistory().get(0).getKillNumber());
+        assertEquals(58, lastKillNumber("Zulrah"));
+    }
+
+    @Test
+    public void chatKcAfterStoredKillRelabelsIt()
+    {
+        useRealStorage();
+        manager.recordKill("Vorkath", 8061, 732, 330, new ArrayList<>(), -1);
+        manager.commitTickBatch();
+        manager.parseKillCountMessage("Your Vorkath kill count is: 900.");
+        manager.setWriterThreadEnabled(false);
+
+        assertEquals(900, lastKillNumber("Vorkath"));
+        assertEquals(900, lastStoredKill("Vorkath").getKillNumber());
+        assertEquals(1, stored.getCurrentData().getBossKills().get("Vorkath").getKills().size());
+        assertEquals(900, stored.getCurrentData().getBossKills().get("Vorkath").getKillCount());
+    }
+
+    @Test
+    public void chatKcAfterPendingKillRelabelsItsWrite()
+    {
+        useRealStorage();
+        manager.recordKill("Vorkath", 8061, 732, 330, new ArrayList<>(), -1);
+        manager.parseKillCountMessage("Your Vorkath kill count is: 900.");
+        manager.commitTickBatch();
+        manager.setWriterThreadEnabled(false);
+
+        assertEquals(900, lastKillNumber("Vorkath"));
+        assertEquals(900, lastStoredKill("Vorkath").getKillNumber());
+        assertEquals(1, stored.getCurrentData().getBossKills().get("Vorkath").getKills().size());
+        assertEquals(Integer.valueOf(900), stored.getCurrentData().getLastGameKcByBoss().get("Vorkath"));
+    }
+
+    @Test
+    public void chatKcAfterPendingKillDoesNotGoThroughStorage()
+    {
+        manager.recordKill("Vorkath", 8061, 732, 330, new ArrayList<>(), -1);
+        manager.parseKillCountMessage("Your Vorkath kill count is: 900.");
+        manager.setWriterThreadEnabled(false);
+
+        assertEquals(900, lastKillNumber("Vorkath"));
+        verify(storage, never()).relabelLastKill(anyString(), anyInt());
+    }
+
+    @Test
+    public void clearAllDataDropsPendingKills()
+    {
+        useRealStorage();
+        manager.recordKill("Vorkath", 8061, 732, 330, new ArrayList<>(), -1);
+        manager.clearAllData();
+        manager.commitTickBatch();
+        manager.setWriterThreadEnabled(false);
+
+        assertTrue(manager.getAllBossStats().isEmpty());
+        assertTrue(stored.getCurrentData().getBossKills().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void lateKcDoesNotSplitTheTickBatch()
+    {
+        manager.recordKill("Zulrah", 2042, 725, 330, new ArrayList<>(), -1);
+        manager.recordKill("Vorkath", 8061, 732, 330, new ArrayList<>(), -1);
+        manager.parseKillCountMessage("Your Zulrah kill count is: 57.");
+        manager.commitTickBatch();
+        manager.setWriterThreadEnabled(false);
+
+        ArgumentCaptor<List<LootStorageManager.KillWrite>> writes = ArgumentCaptor.forClass(List.class);
+        verify(storage).addKills(writes.capture());
+        assertEquals(2, writes.getValue().size());
+        assertEquals(57, writes.getValue().get(0).killNumber);
+        assertEquals(57, writes.getValue().get(0).gameKc);
+        assertEquals(1, writes.getValue().get(1).killNumber);
+        assertEquals(57, lastKillNumber("Zulrah"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void tickCommitFollowsTheTicksKills()
+    {
+        manager.parseKillCountMessage("Your Zulrah kill count is: 10.");
+        manager.recordKill("Zulrah", 2042, 725, 330, new ArrayList<>(), -1);
+        manager.recordKill("Vorkath", 8061, 732, 330, new ArrayList<>(), -1);
+        manager.commitTickBatch();
+        manager.setWriterThreadEnabled(false);
+
+        ArgumentCaptor<List<LootStorageManager.KillWrite>> writes = ArgumentCaptor.forClass(List.class);
+        verify(storage).addKills(writes.capture());
+        assertEquals(2, writes.getValue().size());
+        assertEquals("Zulrah", writes.getValue().get(0).npcName);
+        assertEquals(10, writes.getValue().get(0).gameKc);
+        assertEquals("Vorkath", writes.getValue().get(1).npcName);
+    }
+}
@@ -0,0 +1,105 @@
+package com.runealytics;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PluginMetrics}: recording into named timers and counters, the
+ * settings-panel summary and the dump file.
+ */
+public class PluginMetricsTest
+{
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final PluginMetrics metrics = new PluginMetrics();
+
+    @Test
+    public void record_addsToNamedTimer()
+    {
+        long start = metrics.start();
+        metrics.record("onGameTick", start);
+        metrics.record("onGameTick", metrics.start());
+        metrics.record("onChatMessage", metrics.start());
+
+        assertEquals(2L, metrics.timer("onGameTick").count());
+        assertEquals(1L, metrics.timer("onChatMessage").count());
+    }
+
+    @Test
+    public void time_recordsEvenWhenWorkThrows()
+    {
+        int[] runs = new int[1];
+        metrics.time("onGameTick", () -> runs[0]++);
+        try
+        {
+            metrics.time("onGameTick", () -> { throw new IllegalStateException("boom"); });
+        }
+        catch (IllegalStateException expected)
+        {
+            // timed anyway
+        }
+
+        assertEquals(1, runs[0]);
+        assertEquals(2L, metrics.timer("onGameTick").count());
+    }
+
+    @Test
+    public void summary_listsTimersByName()
+    {
+        metrics.timer("onStatChanged").record(42_000L);
+        metrics.timer("onGameTick").record(1_500_000L);
+        metrics.timer("unused");
+
+        List<String> lines = metrics.summaryLines();
+        assertEquals(4, lines.size());
+        assertEquals("onGameTick  ×1", lines.get(0));
+        assertEquals("  p50 1.5ms · p99 1.5ms · max 1.5ms", lines.get(1));
+        assertEquals("onStatChanged  ×1", lines.get(2));
+    }
+
+    @Test
+    public void dump_writesReportWithTimersAndCounters() throws Exception
+    {
+        metrics.timer("recordKill").record(250_000L);
+        metrics.count("recordKill.drops", 3);
+        metrics.count("recordKill.drops");
+
+        File file = metrics.dumpTo(tmp.getRoot());
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+        assertTrue(file.getName().startsWith("runealytics-metrics-"));
+        assertTrue(text.contains("recordKill "));
+        assertTrue(text.contains("250µs"));
+        assertTrue(text.matches("(?s).*recordKill\\.drops\\s+4\\n.*"));
+    }
+
+    @Test
+    public void reset_zeroesEverything()
+    {
+        metrics.timer("onGameTick").record(1_000L);
+        metrics.count("c");
+        metrics.reset();
+
+        assertEquals(0L, metrics.timer("onGameTick").count());
+        assertEquals(0L, metrics.counter("c"));
+        assertTrue(metrics.summaryLines().isEmpty());
+    }
+
+    @Test
+    public void formatNanos_picksUnit()
+    {
+        assertEquals("850ns", PluginMetrics.formatNanos(850L));
+        assertEquals("42µs", PluginMetrics.formatNanos(42_900L));
+        assertEquals("3.1ms", PluginMetrics.formatNanos(3_100_000L));
+        assertEquals("2.40s", PluginMetrics.formatNanos(2_400_000_000L));
+    }
+}
@@ -1,8 +1,15 @@
 package com.runealytics;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -125,4 +132,105 @@ public class RewardBatchDeduplicatorTest
         assertFalse("post-clear the batch is new again (account switch)",
                 dedupe.isDuplicate("Barrows", batch, T0 + 100));
     }
+
+    // ── Collision rate ────────────────────────────────────────────────────────
+
+    @Test
+    public void fingerprint_noCollisionsAcrossRandomBatches()
+    {
+        SplittableRandom random = new SplittableRandom(23L);
+        Set<String> batches = new HashSet<>();
+        Set<Long> fingerprints = new HashSet<>();
+        while (batches.size() < 200_000)
+        {
+            List<ItemStack> items = new ArrayList<>();
+            int count = 1 + random.nextInt(6);
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < count; i++)
+            {
+                // Distinct ids in ascending order, so the key is canonical.
+                int id = i * 5_000 + random.nextInt(5_000);
+                int quantity = 1 + random.nextInt(1_000);
+                items.add(new ItemStack(id, quantity));
+                key.append(id).append(':').append(quantity).append(';');
+            }
+            if (batches.add(key.toString()))
+            {
+                fingerprints.add(RewardBatchDeduplicator.fingerprint("Barrows", items));
+            }
+        }
+        assertEquals("64-bit fingerprints of distinct batches collided",
+                batches.size(), fingerprints.size());
+    }
+
+    @Test
+    public void fingerprint_noCollisionsAcrossNeighbouringBatches()
+    {
+        // Rewards that differ by one unit or one id are the likeliest real
+        // near-misses; none of them may share a fingerprint.
+        Set<Long> fingerprints = new HashSet<>();
+        int n = 0;
+        for (int id = 0; id < 2_000; id++)
+        {
+            for (int quantity = 1; quantity <= 50; quantity++)
+            {
+                fingerprints.add(RewardBatchDeduplicator.fingerprint("Barrows",
+                        Arrays.asList(new ItemStack(995, 1_000), new ItemStack(id, quantity))));
+                n++;
+            }
+        }
+        assertEquals(n, fingerprints.size());
+    }
+
+    // ── Table bookkeeping ─────────────────────────────────────────────────────
+
+    @Test
+    public void isDuplicate_capForgetsOldestBatches()
+    {
+        RewardBatchDeduplicator dedupe = new RewardBatchDeduplicator();
+        int total = RewardBatchDeduplicator.MAX_ENTRIES + 44;
+        for (int i = 0; i < total; i++)
+        {
+            assertFalse(dedupe.isDuplicate("Barrows", Collections.singletonList(new ItemStack(995, i + 1)), T0));
+        }
+        assertEquals(RewardBatchDeduplicator.MAX_ENTRIES, dedupe.size());
+        assertTrue("newest batch still remembered",
+                dedupe.isDuplicate("Barrows", Collections.singletonList(new ItemStack(995, total)), T0));
+        assertFalse("oldest batch evicted by the cap",
+                dedupe.isDuplicate("Barrows", Collections.singletonList(new ItemStack(995, 1)), T0));
+    }
+
+    @Test
+    public void isDuplicate_matchesInsertionOrderedReference()
+    {
+        // Reference: the fingerprint → time map with the window and cap rules,
+        // over a pool small enough to keep hitting, expiring and evicting.
+        Map<Long, Long> reference = new LinkedHashMap<>();
+        RewardBatchDeduplicator dedupe = new RewardBatchDeduplicator();
+        SplittableRandom random = new SplittableRandom(5L);
+        long now = T0;
+        for (int op = 0; op < 100_000; op++)
+        {
+            now += random.nextInt(500);
+            List<ItemStack> batch = Collections.singletonList(new ItemStack(random.nextInt(600), 1));
+            long fp = RewardBatchDeduplicator.fingerprint("Barrows", batch);
+
+            Iterator<Map.Entry<Long, Long>> it = reference.entrySet().iterator();
+            while (it.hasNext() && now - it.next().getValue() >= RewardBatchDeduplicator.DEFAULT_WINDOW_MS)
+            {
+                it.remove();
+            }
+            boolean expected = reference.containsKey(fp);
+            if (!expected)
+            {
+                if (reference.size() == RewardBatchDeduplicator.MAX_ENTRIES)
+                {
+                    reference.remove(reference.keySet().iterator().next());
+                }
+                reference.put(fp, now);
+            }
+
+            assertEquals("op " + op, expected, dedupe.isDuplicate("Barrows", batch, now));
+        }
+    }
 }
@@ -1,6 +1,5 @@
 package com.runealytics;
 
-import java.util.List;
 import net.runelite.api.Experience;
 import net.runelite.api.Skill;
 import org.junit.Test;
@@ -67,10 +66,10 @@ public class RuneAlyticsXpSkillStateTest
 
         assertEquals(300L, s.getTotalGained());
         assertEquals(2, s.getActions());
-        List<RuneAlyticsXpSkillState.XpDrop> drops = s.recentDropsSnapshot();
+        XpSeries.View drops = s.recentDropsSnapshot();
         assertEquals(2, drops.size());
-        assertEquals(200, drops.get(0).amount); // newest first
-        assertEquals(100, drops.get(1).amount);
+        assertEquals(100L, drops.valueAt(0)); // oldest first
+        assertEquals(200L, drops.valueAt(1));
     }
 
     @Test
@@ -96,8 +95,12 @@ public class RuneAlyticsXpSkillStateTest
             xp += 5;
             s.record(xp, i, i, false, AFK);
         }
-        int size = s.samplesSnapshot().size();
+        XpSeries.View samples = s.samplesSnapshot();
+        int size = samples.size();
         assertTrue(size > 0 && size <= RuneAlyticsXpSkillState.MAX_SAMPLES);
+        // Down-sampling keeps both ends of the session.
+        assertEquals(0L, samples.timeAt(0));
+        assertEquals(xp, samples.valueAt(size - 1));
     }
 
     @Test
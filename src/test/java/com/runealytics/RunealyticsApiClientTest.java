@@ -1,11 +1,15 @@
 package com.runealytics;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import okhttp3.OkHttpClient;
 import okhttp3.mockwebserver.MockResponse;
@@ -13,7 +17,9 @@ import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -28,8 +34,12 @@ import static org.junit.Assert.assertTrue;
  */
 public class RunealyticsApiClientTest
 {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
     private MockWebServer server;
     private RuneAlyticsState state;
+    private SyncOutbox outbox;
     private RunealyticsApiClient client;
 
     @Before
@@ -46,12 +56,15 @@ public class RunealyticsApiClientTest
         state.setVerificationCode("TOKEN");
         state.setVerifiedUsername("Zezima");
 
-        client = new RunealyticsApiClient(new OkHttpClient(), config, state, new Gson());
+        outbox = new SyncOutbox(new OkHttpClient(), config, state, new Gson(), tmp.getRoot(),
+                System::currentTimeMillis, new Random(1L), SyncOutbox.BASE_DELAY_MS);
+        client = new RunealyticsApiClient(new OkHttpClient(), config, state, new Gson(), outbox);
     }
 
     @After
     public void tearDown() throws Exception
     {
+        outbox.shutdown();
         server.shutdown();
     }
 
@@ -163,13 +176,17 @@ public class RunealyticsApiClientTest
     public void syncBankData_successAndFailureStatuses() throws Exception
     {
         server.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
-        assertTrue(client.syncBankData("tok", new JsonObject()));
+        assertTrue(client.syncBankData(new JsonObject()));
 
         RecordedRequest req = awaitRequest();
-        assertEquals("Bearer tok", req.getHeader("Authorization"));
+        assertTrue(req.getPath().endsWith("/api/bank/sync"));
+        assertEquals("Bearer TOKEN", req.getHeader("Authorization"));
+        assertEquals(0, outbox.pendingCount());
 
+        // A failed snapshot is kept for retry instead of being dropped.
         server.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
-        assertFalse(client.syncBankData("tok", new JsonObject()));
+        assertFalse(client.syncBankData(new JsonObject()));
+        assertEquals(1, outbox.pendingCount());
     }
 
     // ── async: XP batch ──────────────────────────────────────────────────────
@@ -245,4 +262,110 @@ public class RunealyticsApiClientTest
         assertEquals(1, state.getVisibleMapPlayers().size());
         assertEquals("Ally", state.getVisibleMapPlayers().get(0).getUsername());
     }
+
+    // ── heartbeat delta encoding ─────────────────────────────────────────────
+
+    private static final String ONE_PLAYER = "\"players\":[{\"username\":\"Ally\",\"world_x\":3200,"
+            + "\"world_y\":3210,\"plane\":0,\"world\":330}]";
+
+    private static JsonArray items(int count, int firstId)
+    {
+        JsonArray arr = new JsonArray();
+        for (int i = 0; i < count; i++)
+        {
+            JsonObject item = new JsonObject();
+            item.addProperty("slot", i);
+            item.addProperty("id", firstId + i);
+            item.addProperty("qty", 1 + i);
+            arr.add(item);
+        }
+        return arr;
+    }
+
+    /** Sends one heartbeat and waits until its response has been handled. */
+    private RecordedRequest heartbeat(List<String> friends, JsonArray equipment, JsonArray inventory,
+                                      String responseFields) throws Exception
+    {
+        state.setVisibleMapPlayers(new ArrayList<>());
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{" + responseFields + "}"));
+
+        client.sendHeartbeat(null, friends, Collections.singletonList("Spammer"), PrivacySetting.PUBLIC,
+                equipment, inventory, PrivacySetting.FRIENDS, null);
+        RecordedRequest req = awaitRequest();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (state.getVisibleMapPlayers().isEmpty() && System.nanoTime() < deadline)
+        {
+            Thread.yield();
+        }
+        assertEquals(1, state.getVisibleMapPlayers().size());
+        return req;
+    }
+
+    @Test
+    public void sendHeartbeat_idlePlayerSendsHashesInsteadOfSections() throws Exception
+    {
+        List<String> friends = new ArrayList<>();
+        for (int i = 0; i < 200; i++) friends.add("Friend " + i);
+        JsonArray equipment = items(11, 4_000);
+        JsonArray inventory = items(28, 2_000);
+
+        RecordedRequest first = heartbeat(friends, equipment, inventory, ONE_PLAYER);
+        JsonObject keyframe = new Gson().fromJson(first.getBody().readUtf8(), JsonObject.class);
+        assertTrue(keyframe.get("keyframe").getAsBoolean());
+        assertEquals(200, keyframe.getAsJsonArray("friends").size());
+        assertEquals(28, keyframe.getAsJsonArray("inventory").size());
+        assertEquals(4, keyframe.getAsJsonObject("hashes").size());
+
+        // Nothing changed: only scalars and hashes go on the wire.
+        RecordedRequest idle = heartbeat(friends, equipment, inventory, ONE_PLAYER);
+        JsonObject delta = new Gson().fromJson(idle.getBody().readUtf8(), JsonObject.class);
+        assertFalse(delta.get("keyframe").getAsBoolean());
+        assertFalse(delta.has("friends"));
+        assertFalse(delta.has("ignores"));
+        assertFalse(delta.has("equipment"));
+        assertFalse(delta.has("inventory"));
+        assertEquals(keyframe.get("hashes"), delta.get("hashes"));
+        assertEquals("public", delta.get("visibility").getAsString());
+        assertTrue("idle " + idle.getBodySize() + "B vs keyframe " + first.getBodySize() + "B",
+                idle.getBodySize() * 10 < first.getBodySize());
+
+        // One inventory change: only that section is resent.
+        JsonArray looted = items(28, 2_000);
+        looted.get(27).getAsJsonObject().addProperty("qty", 500);
+        RecordedRequest change = heartbeat(friends, equipment, looted, "\"resync\":true," + ONE_PLAYER);
+        JsonObject changed = new Gson().fromJson(change.getBody().readUtf8(), JsonObject.class);
+        assertFalse(changed.has("friends"));
+        assertEquals(500, changed.getAsJsonArray("inventory").get(27).getAsJsonObject().get("qty").getAsInt());
+        assertFalse(keyframe.get("hashes").getAsJsonObject().get("inventory")
+                .equals(changed.getAsJsonObject("hashes").get("inventory")));
+
+        // The server asked for a resync, so the next heartbeat is a full keyframe.
+        RecordedRequest resync = heartbeat(friends, equipment, looted, ONE_PLAYER);
+        JsonObject full = new Gson().fromJson(resync.getBody().readUtf8(), JsonObject.class);
+        assertTrue(full.get("keyframe").getAsBoolean());
+        assertEquals(200, full.getAsJsonArray("friends").size());
+        assertEquals(11, full.getAsJsonArray("equipment").size());
+    }
+
+    @Test
+    public void sendHeartbeat_failedHeartbeatIsResent() throws Exception
+    {
+        List<String> friends = Arrays.asList("Friend1", "Friend2");
+        JsonArray inventory = items(3, 2_000);
+
+        heartbeat(friends, new JsonArray(), inventory, ONE_PLAYER);
+
+        JsonArray looted = items(4, 2_000);
+        server.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
+        client.sendHeartbeat(null, friends, Collections.singletonList("Spammer"), PrivacySetting.PUBLIC,
+                new JsonArray(), looted, PrivacySetting.FRIENDS, null);
+        assertTrue(new Gson().fromJson(awaitRequest().getBody().readUtf8(), JsonObject.class).has("inventory"));
+
+        // The 500 was never acknowledged, so the change goes out again.
+        RecordedRequest retry = heartbeat(friends, new JsonArray(), looted, ONE_PLAYER);
+        JsonObject sent = new Gson().fromJson(retry.getBody().readUtf8(), JsonObject.class);
+        assertEquals(4, sent.getAsJsonArray("inventory").size());
+        assertFalse(sent.has("friends"));
+    }
 }
@@ -0,0 +1,235 @@
+package com.runealytics;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives {@link SyncOutbox} against MockWebServer: retry with backoff,
+ * dropping of rejected requests, coalescing of superseded payloads, ordering
+ * behind a failing head, and replay from disk after a restart.
+ */
+public class SyncOutboxTest
+{
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private MockWebServer server;
+    private RunealyticsConfig config;
+    private RuneAlyticsState state;
+    private SyncOutbox outbox;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        server = new MockWebServer();
+        server.start();
+
+        config = mock(RunealyticsConfig.class);
+        when(config.apiUrl()).thenReturn(server.url("/api").toString());
+        when(config.syncTimeout()).thenReturn(5);
+
+        state = new RuneAlyticsState();
+        state.setVerifiedUsername("Zezima");
+        state.setVerificationCode("TOKEN");
+
+        outbox = newOutbox(10L);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        outbox.shutdown();
+        server.shutdown();
+    }
+
+    private SyncOutbox newOutbox(long baseDelayMs)
+    {
+        return new SyncOutbox(new OkHttpClient(), config, state, new Gson(), tmp.getRoot(),
+                System::currentTimeMillis, new Random(1L), baseDelayMs);
+    }
+
+    private static JsonObject payload(int version)
+    {
+        JsonObject o = new JsonObject();
+        o.addProperty("version", version);
+        return o;
+    }
+
+    private RecordedRequest awaitRequest() throws InterruptedException
+    {
+        RecordedRequest req = server.takeRequest(3, TimeUnit.SECONDS);
+        assertNotNull("expected an HTTP request to be sent", req);
+        return req;
+    }
+
+    private static int version(RecordedRequest req)
+    {
+        return new Gson().fromJson(req.getBody().readUtf8(), JsonObject.class).get("version").getAsInt();
+    }
+
+    private static int version(SyncOutbox.Entry entry)
+    {
+        return new Gson().fromJson(entry.getBody(), JsonObject.class).get("version").getAsInt();
+    }
+
+    private void awaitDrained() throws Exception
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (outbox.pendingCount() > 0 && System.nanoTime() < deadline)
+        {
+            Thread.yield();
+        }
+        assertEquals(0, outbox.pendingCount());
+        outbox.awaitQueuedTasks(); // the file is rewritten on the outbox thread
+    }
+
+    @Test
+    public void submit_retriesServerErrorsUntilAccepted() throws Exception
+    {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        outbox.submit("/bank/sync", payload(1), "bank");
+
+        for (int i = 0; i < 3; i++)
+        {
+            RecordedRequest req = awaitRequest();
+            assertTrue(req.getPath().endsWith("/api/bank/sync"));
+            assertEquals("Bearer TOKEN", req.getHeader("Authorization"));
+        }
+        awaitDrained();
+        assertFalse(outbox.getFile("Zezima").exists());
+    }
+
+    @Test
+    public void submit_clientErrorDropsRequest() throws Exception
+    {
+        server.enqueue(new MockResponse().setResponseCode(422).setBody("{}"));
+
+        outbox.submit("/plugin/privacy", payload(1), "privacy");
+
+        awaitRequest();
+        awaitDrained();
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void submit_rejectionIsReportedForItsCoalesceKey() throws Exception
+    {
+        server.enqueue(new MockResponse().setResponseCode(409).setBody("{}"));
+        List<Integer> rejected = new CopyOnWriteArrayList<>();
+        outbox.setRejectionListener("bank", (account, entry, status) -> {
+            assertEquals("zezima", account);
+            assertEquals(1, version(entry));
+            rejected.add(status);
+        });
+
+        outbox.submit("/bank/sync", payload(1), "bank");
+
+        awaitRequest();
+        awaitDrained();
+        assertEquals(Collections.singletonList(409), rejected);
+    }
+
+    @Test
+    public void send_failedAttemptIsQueuedAndLaterSendsDoNotOvertakeIt() throws Exception
+    {
+        outbox.shutdown();
+        outbox = newOutbox(SyncOutbox.BASE_DELAY_MS);
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        assertFalse(outbox.send("/runelite/player/death-event", payload(1), null));
+        assertEquals(1, outbox.pendingCount());
+
+        // Queued behind the failed event rather than sent straight away.
+        assertFalse(outbox.send("/runelite/player/death-event", payload(2), null));
+        assertEquals(2, outbox.pendingCount());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void restart_replaysCoalescedQueueInOrder() throws Exception
+    {
+        // No token yet: requests are persisted but cannot be sent.
+        state.setVerificationCode(null);
+        outbox.submit("/bank/sync", payload(1), "bank");
+        outbox.submit("/runelite/player/death-event", payload(2), null);
+        outbox.submit("/bank/sync", payload(3), "bank");
+        outbox.submit("/bank/sync", payload(4), "bank");
+        assertEquals(2, outbox.pendingCount());
+        outbox.shutdown();
+
+        File file = outbox.getFile("Zezima");
+        assertTrue(file.exists());
+
+        // Client restart: a fresh outbox picks the queue up once verified.
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+        state.setVerificationCode("TOKEN");
+        outbox = newOutbox(10L);
+        outbox.resume();
+
+        RecordedRequest first = awaitRequest();
+        assertTrue(first.getPath().endsWith("/death-event"));
+        assertEquals(2, version(first));
+
+        RecordedRequest second = awaitRequest();
+        assertTrue(second.getPath().endsWith("/bank/sync"));
+        assertEquals(4, version(second));
+
+        awaitDrained();
+        assertEquals(2, server.getRequestCount());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void otherAccountsQueueIsNotSent() throws Exception
+    {
+        state.setVerificationCode(null);
+        outbox.submit("/bank/sync", payload(1), "bank");
+
+        state.setVerifiedUsername("Lynx Titan");
+        state.setVerificationCode("OTHER");
+        outbox.resume();
+
+        outbox.awaitQueuedTasks();
+        assertEquals(0, outbox.pendingCount());
+        assertEquals(0, server.getRequestCount());
+        assertTrue(outbox.getFile("Zezima").exists());
+    }
+
+    @Test
+    public void backoff_doublesWithEqualJitterUpToCap()
+    {
+        for (int attempts = 1; attempts <= 30; attempts++)
+        {
+            long full = Math.min(SyncOutbox.MAX_DELAY_MS, 10L << Math.min(attempts - 1, 20));
+            long delay = outbox.backoffMs(attempts);
+            assertTrue(delay >= full / 2);
+            assertTrue(delay <= full);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.runealytics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Coverage for {@link XpSeriesPyramid}: LTTB keeps endpoints and shape,
+ * levels halve down to the minimum size, and selection thins the coarsest
+ * level that is still wide enough.
+ */
+public class XpSeriesPyramidTest
+{
+    private static XpSeries.View series(long[] values)
+    {
+        XpSeries s = new XpSeries(Math.max(2, values.length));
+        for (int i = 0; i < values.length; i++) s.add(1_700_000_000_000L + i * 1_000L, values[i]);
+        return s.view();
+    }
+
+    private static XpSeries.View flatWithSpike(int n, int spikeAt)
+    {
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) values[i] = 50_000L;
+        values[spikeAt] = 900_000L;
+        return series(values);
+    }
+
+    private static int[] all(int n)
+    {
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++) idx[i] = i;
+        return idx;
+    }
+
+    @Test
+    public void lttb_returnsInputWhenAlreadySmallEnough()
+    {
+        XpSeries.View view = flatWithSpike(10, 3);
+        int[] idx = all(10);
+        assertSame(idx, XpSeriesPyramid.lttb(view, idx, 10));
+        assertSame(idx, XpSeriesPyramid.lttb(view, idx, 2));
+    }
+
+    @Test
+    public void lttb_keepsEndpointsSpikeAndOrder()
+    {
+        XpSeries.View view = flatWithSpike(1_000, 437);
+        int[] out = XpSeriesPyramid.lttb(view, all(1_000), 50);
+
+        assertEquals(50, out.length);
+        assertEquals(0, out[0]);
+        assertEquals(999, out[49]);
+        boolean spike = false;
+        for (int k = 0; k < out.length; k++)
+        {
+            if (k > 0) assertTrue(out[k] > out[k - 1]);
+            spike |= out[k] == 437;
+        }
+        assertTrue(spike);
+    }
+
+    @Test
+    public void levels_halveDownToMinimumSize()
+    {
+        XpSeriesPyramid pyr = new XpSeriesPyramid(flatWithSpike(1_024, 5));
+        assertEquals(1_024, pyr.levelSize(0));
+        for (int k = 1; k < pyr.depth(); k++)
+        {
+            // The last pair of each level waits for the one after it.
+            int half = pyr.levelSize(k - 1) / 2;
+            assertTrue(pyr.levelSize(k) <= half && pyr.levelSize(k) >= half - 1);
+        }
+        int top = pyr.levelSize(pyr.depth() - 1);
+        assertTrue(top >= XpSeriesPyramid.MIN_LEVEL_SIZE && top < 2 * XpSeriesPyramid.MIN_LEVEL_SIZE);
+
+        assertEquals(1, new XpSeriesPyramid(flatWithSpike(100, 5)).depth());
+        assertEquals(1, new XpSeriesPyramid(series(new long[0])).depth());
+    }
+
+    @Test
+    public void select_thinsToTargetAndKeepsSpike()
+    {
+        XpSeriesPyramid pyr = new XpSeriesPyramid(flatWithSpike(20_000, 12_345));
+
+        int[] out = pyr.select(200);
+        assertEquals(200, out.length);
+        assertEquals(0, out[0]);
+        assertEquals(19_999, out[199]);
+        boolean spike = false;
+        for (int i : out) spike |= i == 12_345;
+        assertTrue(spike);
+
+        // Short series are plotted in full.
+        assertArrayEquals(all(100), new XpSeriesPyramid(flatWithSpike(100, 5)).select(200));
+    }
+
+    @Test
+    public void update_extendsInPlaceAndMatchesAFreshBuild()
+    {
+        XpSeries series = new XpSeries(10_000);
+        for (int i = 0; i < 3_000; i++) series.add(1_700_000_000_000L + i * 1_000L, 50_000L + (i % 37) * 1_000L);
+        XpSeriesPyramid pyr = new XpSeriesPyramid(series.view());
+
+        for (int i = 3_000; i < 8_000; i++)
+        {
+            series.add(1_700_000_000_000L + i * 1_000L, i == 6_543 ? 900_000L : 50_000L + (i % 37) * 1_000L);
+            if (i % 500 == 0) assertTrue(pyr.update(series.view()));
+        }
+        assertTrue(pyr.update(series.view()));
+
+        XpSeriesPyramid fresh = new XpSeriesPyramid(series.view());
+        assertEquals(fresh.depth(), pyr.depth());
+        assertArrayEquals(fresh.select(200), pyr.select(200));
+
+        int[] out = pyr.select(200);
+        assertEquals(7_999, out[out.length - 1]);
+        boolean spike = false;
+        for (int i : out) spike |= i == 6_543;
+        assertTrue(spike);
+    }
+
+    @Test
+    public void update_trimsDroppedSamplesAndRejectsRewrites()
+    {
+        XpSeries series = new XpSeries(1_000);
+        for (int i = 0; i < 1_000; i++) series.add(1_700_000_000_000L + i * 1_000L, 50_000L);
+        XpSeriesPyramid pyr = new XpSeriesPyramid(series.view());
+
+        // Full ring: each add drops the oldest sample.
+        for (int i = 1_000; i < 1_300; i++) series.add(1_700_000_000_000L + i * 1_000L, 50_000L);
+        assertTrue(pyr.update(series.view()));
+        assertEquals(1_000, pyr.levelSize(0));
+        int[] out = pyr.select(100);
+        assertEquals(0, out[0]);
+        assertEquals(999, out[out.length - 1]);
+        for (int k = 1; k < out.length; k++) assertTrue(out[k] > out[k - 1]);
+
+        series.addDecimating(1_700_000_000_000L + 1_300_000L, 50_000L);
+        assertFalse(pyr.update(series.view()));
+    }
+}
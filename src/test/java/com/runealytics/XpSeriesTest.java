@@ -0,0 +1,128 @@
+package com.runealytics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Ring-buffer behaviour of {@link XpSeries}: overwrite when full, in-place
+ * decimation across the wrap point, time-window pruning and the cached,
+ * immutable views handed to the panels.
+ */
+public class XpSeriesTest
+{
+    private static XpSeries filled(int capacity, int count)
+    {
+        XpSeries series = new XpSeries(capacity);
+        for (int i = 0; i < count; i++)
+        {
+            series.add(i, i * 10L);
+        }
+        return series;
+    }
+
+    @Test
+    public void add_overwritesOldestWhenFull()
+    {
+        XpSeries.View view = filled(4, 6).view();
+
+        assertEquals(4, view.size());
+        for (int i = 0; i < 4; i++)
+        {
+            assertEquals(i + 2, view.timeAt(i));
+            assertEquals((i + 2) * 10L, view.valueAt(i));
+        }
+    }
+
+    @Test
+    public void addDecimating_halvesInPlaceKeepingOldestAndNewest()
+    {
+        XpSeries series = new XpSeries(6);
+        for (int i = 0; i < 7; i++)
+        {
+            series.addDecimating(i, i);
+        }
+
+        // Full at 0..5: decimation keeps 0, 2, 4 and the newest (5), then 6 is appended.
+        XpSeries.View view = series.view();
+        long[] expected = {0, 2, 4, 5, 6};
+        assertEquals(expected.length, view.size());
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertEquals(expected[i], view.timeAt(i));
+        }
+    }
+
+    @Test
+    public void addDecimating_worksAcrossTheWrapPoint()
+    {
+        // Overwrites move the head to the middle of the arrays first.
+        XpSeries series = filled(5, 8);
+        series.addDecimating(8, 80);
+
+        // Full at 3..7 (odd size): keeps 3, 5, 7, then 8 is appended.
+        XpSeries.View view = series.view();
+        long[] expected = {3, 5, 7, 8};
+        assertEquals(expected.length, view.size());
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertEquals(expected[i], view.timeAt(i));
+            assertEquals(expected[i] * 10L, view.valueAt(i));
+        }
+    }
+
+    @Test
+    public void addDecimating_staysWithinCapacityForLongSessions()
+    {
+        XpSeries series = new XpSeries(RuneAlyticsXpSkillState.MAX_SAMPLES);
+        for (int i = 0; i < 100_000; i++)
+        {
+            series.addDecimating(i, i);
+        }
+
+        XpSeries.View view = series.view();
+        assertTrue(view.size() <= series.capacity());
+        assertEquals(0L, view.timeAt(0));
+        assertEquals(99_999L, view.timeAt(view.size() - 1));
+        for (int i = 1; i < view.size(); i++)
+        {
+            assertTrue(view.timeAt(i) > view.timeAt(i - 1));
+        }
+    }
+
+    @Test
+    public void pruneBefore_dropsOnlyOlderPairs()
+    {
+        XpSeries series = filled(4, 6);
+        series.pruneBefore(4);
+
+        XpSeries.View view = series.view();
+        assertEquals(2, view.size());
+        assertEquals(4L, view.timeAt(0));
+        assertEquals(5L, view.timeAt(1));
+
+        series.pruneBefore(100);
+        assertTrue(series.view().isEmpty());
+    }
+
+    @Test
+    public void view_isCachedUntilMutatedAndUnaffectedByLaterWrites()
+    {
+        XpSeries series = filled(4, 2);
+        XpSeries.View first = series.view();
+        assertSame(first, series.view());
+
+        series.add(2, 20);
+        XpSeries.View second = series.view();
+        assertNotSame(first, second);
+        assertEquals(2, first.size());
+        assertEquals(3, second.size());
+
+        series.clear();
+        assertSame(XpSeries.View.EMPTY, series.view());
+        assertEquals(3, second.size());
+    }
+}
@@ -1,7 +1,5 @@
 package com.runealytics;
 
-import java.util.Arrays;
-import java.util.Collections;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -17,17 +15,17 @@ public class XpSparklineTest
     public void percentile_handlesEmptyNullAndClampsIndex()
     {
         assertEquals(0L, XpSparkline.percentile(null, 0.9));
-        assertEquals(0L, XpSparkline.percentile(Collections.emptyList(), 0.9));
-        assertEquals(42L, XpSparkline.percentile(Collections.singletonList(42L), 0.5));
+        assertEquals(0L, XpSparkline.percentile(new long[0], 0.9));
+        assertEquals(42L, XpSparkline.percentile(new long[]{42L}, 0.5));
     }
 
     @Test
     public void percentile_picksFlooredIndex()
     {
         // (size-1)*pct, floored, clamped to [0, size-1].
-        assertEquals(10L, XpSparkline.percentile(Arrays.asList(10L, 20L, 30L, 40L, 50L), 0.0));
-        assertEquals(40L, XpSparkline.percentile(Arrays.asList(10L, 20L, 30L, 40L, 50L), 0.9));
-        assertEquals(50L, XpSparkline.percentile(Arrays.asList(10L, 20L, 30L, 40L, 50L), 1.0));
+        assertEquals(10L, XpSparkline.percentile(new long[]{10L, 20L, 30L, 40L, 50L}, 0.0));
+        assertEquals(40L, XpSparkline.percentile(new long[]{10L, 20L, 30L, 40L, 50L}, 0.9));
+        assertEquals(50L, XpSparkline.percentile(new long[]{10L, 20L, 30L, 40L, 50L}, 1.0));
     }
 
     @Test
@@ -60,4 +58,16 @@ public class XpSparklineTest
         assertEquals("2M", XpSparkline.axisLabel(2_000_000));
         assertEquals("2.5M", XpSparkline.axisLabel(2_500_000));
     }
+
+    @Test
+    public void nearestPosition_picksClosestPlottedX()
+    {
+        int[] xs = {6, 10, 20, 40};
+        assertEquals(0, XpSparkline.nearestPosition(xs, 0));
+        assertEquals(1, XpSparkline.nearestPosition(xs, 12));
+        assertEquals(1, XpSparkline.nearestPosition(xs, 15));     // tie goes left
+        assertEquals(2, XpSparkline.nearestPosition(xs, 16));
+        assertEquals(3, XpSparkline.nearestPosition(xs, 500));
+        assertEquals(0, XpSparkline.nearestPosition(new int[]{42}, 7));
+    }
 }